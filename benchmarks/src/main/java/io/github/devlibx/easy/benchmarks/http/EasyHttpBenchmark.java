@@ -0,0 +1,181 @@
+package io.github.devlibx.easy.benchmarks.http;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.LocalHttpServer;
+import io.gitbub.devlibx.easy.helper.LoggingHelper;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.http.async.AsyncRequestProcessor;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import io.github.devlibx.easy.http.sync.SyncRequestProcessor;
+import io.github.devlibx.easy.http.util.Call;
+import io.github.devlibx.easy.http.util.EasyHttp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static ch.qos.logback.classic.Level.OFF;
+
+/**
+ * End-to-end cost of EasyHttp calls against a in-process server ({@link LocalHttpServer} "/payload" api) - sync and
+ * async processor, with and without resilience, for small to large response bodies.
+ * <p>
+ * Throughput and SampleTime modes are both run, so the report has ops/ms and latency percentiles (p50/p99/p999).
+ * "callSyncError" measures the error path - server gives 500, which is converted to a EasyHttpRequestException. With
+ * resilience the circuit opens after a few errors, so it measures the circuit-open fail-fast path. "callSyncFallback"
+ * measures the fallback path - primary api is not found on the server (404), and the call is made again by its
+ * fallback "/payload" api. Only the sync processor supports fallback api, so this api is always a sync api.
+ * <p>
+ * Run with allocation profiler, and save the result to compare it with other versions:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar EasyHttpBenchmark -prof gc -rf json -rff easy-http-$(version).json
+ * java -jar benchmarks/target/benchmarks.jar EasyHttpBenchmark -p processor=sync -p payloadSize=128
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class EasyHttpBenchmark {
+    private static final String SERVER = "local";
+    private static final String API = "payload";
+    private static final String FALLBACK_API = "payloadWithFallback";
+
+    @Param({"sync", "async"})
+    private String processor;
+
+    @Param({"true", "false"})
+    private boolean resilience;
+
+    @Param({"128", "16384", "1048576"})
+    private int payloadSize;
+
+    private LocalHttpServer localHttpServer;
+    private Call<byte[]> call;
+    private Call<byte[]> errorCall;
+    private Call<byte[]> fallbackCall;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LoggingHelper.setupLogging();
+        LoggingHelper.getLogger(LocalHttpServer.class).setLevel(OFF);
+        LoggingHelper.getLogger(SyncRequestProcessor.class).setLevel(OFF);
+        LoggingHelper.getLogger(AsyncRequestProcessor.class).setLevel(OFF);
+
+        localHttpServer = new LocalHttpServer();
+        localHttpServer.startServerInThread();
+
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IMetrics.class).to(IMetrics.NoOpMetrics.class).in(Scopes.SINGLETON);
+            }
+        }, new EasyHttpModule());
+        ApplicationContext.setInjector(injector);
+
+        Server server = new Server();
+        server.setName(SERVER);
+        server.setHost("localhost");
+        server.setPort(localHttpServer.port);
+        server.setConnectTimeout(1000);
+        server.setConnectionRequestTimeout(1000);
+
+        Api api = new Api();
+        api.setName(API);
+        api.setServer(SERVER);
+        api.setMethod("GET");
+        api.setPath("/payload");
+        api.setTimeout(5000);
+        api.setConcurrency(16);
+        api.setAsync("async".equals(processor));
+        api.setBypassResilience(!resilience);
+
+        // Primary api fails (no such path on the server) - call goes to "payload" api. Fallback is done by sync processor
+        Api fallbackApi = new Api();
+        fallbackApi.setName(FALLBACK_API);
+        fallbackApi.setServer(SERVER);
+        fallbackApi.setMethod("GET");
+        fallbackApi.setPath("/missing");
+        fallbackApi.setTimeout(5000);
+        fallbackApi.setConcurrency(16);
+        fallbackApi.setAsync(false);
+        fallbackApi.setBypassResilience(!resilience);
+        fallbackApi.setFallbackApiName(API);
+
+        Config config = new Config();
+        config.addServer(server);
+        config.addApi(api);
+        config.addApi(fallbackApi);
+        EasyHttp.setup(config);
+
+        call = Call.builder(byte[].class)
+                .withServerAndApi(SERVER, API)
+                .addQueryParam("size", payloadSize)
+                .withResponseBuilder(bytes -> bytes)
+                .build();
+        errorCall = Call.builder(byte[].class)
+                .withServerAndApi(SERVER, API)
+                .addQueryParam("size", payloadSize)
+                .addQueryParam("status", 500)
+                .withResponseBuilder(bytes -> bytes)
+                .build();
+        fallbackCall = Call.builder(byte[].class)
+                .withServerAndApi(SERVER, FALLBACK_API)
+                .addQueryParam("size", payloadSize)
+                .withResponseBuilder(bytes -> bytes)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EasyHttp.shutdown();
+        localHttpServer.stopServer();
+    }
+
+    @Benchmark
+    public byte[] callSync() {
+        return EasyHttp.callSync(call);
+    }
+
+    @Benchmark
+    public byte[] callAsync() {
+        return EasyHttp.callAsync(call).blockingFirst();
+    }
+
+    @Benchmark
+    public Object callSyncError() {
+        try {
+            return EasyHttp.callSync(errorCall);
+        } catch (EasyHttpRequestException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public byte[] callSyncFallback() {
+        return EasyHttp.callSync(fallbackCall);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.devlibx.easy.benchmarks.http;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.http.helper.ApiMetrics;
+import io.github.devlibx.easy.metrics.prometheus.PrometheusMetrics;
+import io.prometheus.client.CollectorRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording metrics of one sync call (call time + "easy_http_sync" counter): the old per-call way (build
+ * metric name, varargs labels and a map lookup per metric) vs handles resolved once per server and api.
+ * <p>
+ * Run with allocation profiler to see bytes allocated per call (gc.alloc.rate.norm):
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar MetricsBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    private IMetrics metrics;
+    private ApiMetrics apiMetrics;
+    private String server;
+    private String api;
+    private long latency;
+
+    @Setup
+    public void setup() {
+        metrics = new PrometheusMetrics();
+        server = "server";
+        api = "api";
+        latency = 12;
+        apiMetrics = new ApiMetrics(metrics, server, api);
+    }
+
+    @TearDown
+    public void tearDown() {
+        // Metrics never throw - make sure calls were counted and not dropped, or numbers are of a failed call
+        CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+        Double count = registry.getSampleValue("easy_http_sync", new String[]{"server", "api", "code"}, new String[]{server, api, "200"});
+        CollectorRegistry.defaultRegistry.clear();
+        if (count == null || count <= 0) {
+            throw new IllegalStateException("easy_http_sync was not counted - count=" + count);
+        }
+    }
+
+    @Benchmark
+    public void perCallMetricNames() {
+        String code = "200";
+        metrics.observe(server + "_" + api + "_call_time", latency);
+        metrics.inc("easy_http_sync", "server", server, "api", api, "code", "" + code);
+    }
+
+    @Benchmark
+    public void preResolvedHandles() {
+        apiMetrics.getCallTime().observe(latency);
+        apiMetrics.getSyncSuccess().inc();
+    }
+}
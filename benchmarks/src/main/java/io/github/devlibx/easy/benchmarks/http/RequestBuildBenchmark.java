@@ -0,0 +1,124 @@
+package io.github.devlibx.easy.benchmarks.http;
+
+import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
+import io.github.devlibx.easy.http.helper.UriEncoder;
+import org.apache.commons.lang3.text.StrSubstitutor;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.message.BasicNameValuePair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the URI and headers of a sync request: the old per-request way (URIBuilder, StrSubstitutor,
+ * stringify each header) vs path template and headers compiled once per api.
+ * <p>
+ * Run with allocation profiler to see bytes allocated per call (gc.alloc.rate.norm):
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar RequestBuildBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildBenchmark {
+    private Server server;
+    private Api api;
+    private RequestObject requestObject;
+    private StringHelper stringHelper;
+
+    @Setup
+    public void setup() {
+        stringHelper = new StringHelper();
+
+        server = new Server();
+        server.setName("server");
+        server.setHost("localhost");
+        server.setPort(8080);
+        server.setHeaders(StringObjectMap.of("x-client", "easy", "x-client-version", 2));
+
+        api = new Api();
+        api.setName("api");
+        api.setServer("server");
+        api.setPath("/users/${userId}/orders/${orderId}");
+        api.setHeaders(StringObjectMap.of("x-api", "orders", "x-timeout", 100));
+
+        Map<String, Object> pathParams = new HashMap<>();
+        pathParams.put("userId", 1234);
+        pathParams.put("orderId", "abc-987");
+        MultivaluedMap<String, Object> queryParams = new MultivaluedHashMap<>();
+        queryParams.add("page", 1);
+        queryParams.add("size", 50);
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("x-request-id", "5f1c6a7e");
+
+        requestObject = new RequestObject();
+        requestObject.setServer("server");
+        requestObject.setApi("api");
+        requestObject.setPathParam(pathParams);
+        requestObject.setQueryParam(queryParams);
+        requestObject.setHeaders(headers);
+
+        // Compile once - same as EasyHttp setup
+        api.getPathTemplate();
+        api.getCompiledHeaders(stringHelper);
+        server.getCompiledHeaders(stringHelper);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public HttpGet perRequestUriAndHeaders() throws Exception {
+        String path = StrSubstitutor.replace(api.getPath(), requestObject.getPathParam());
+        path = path.startsWith("/") ? path : "/" + path;
+        List<NameValuePair> queryParams = new ArrayList<>();
+        requestObject.getQueryParam().forEach((key, values) -> values.forEach(value -> queryParams.add(new BasicNameValuePair(key, stringHelper.stringify(value)))));
+        URI uri = new URIBuilder().setScheme("http").setHost(server.getHost()).setPort(server.getPort()).setPath(path).setParameters(queryParams).build();
+
+        HttpGet get = new HttpGet(uri);
+        server.getHeaders().forEach((key, value) -> get.addHeader(key, stringHelper.stringify(value)));
+        Map<String, Object> headers = new HashMap<>(requestObject.getHeaders());
+        headers.put("Content-Type", "application/json");
+        headers.putAll(api.getHeaders());
+        headers.forEach((key, value) -> get.addHeader(key, stringHelper.stringify(value)));
+        return get;
+    }
+
+    @Benchmark
+    public HttpGet compiledUriAndHeaders() {
+        HttpGet get = new HttpGet(UriEncoder.buildUri(server, api, requestObject, stringHelper));
+        CompiledHeaders.forEachRequestHeader(
+                server.getCompiledHeaders(stringHelper),
+                api.getCompiledHeaders(stringHelper),
+                requestObject.getHeaders(),
+                stringHelper,
+                get::addHeader
+        );
+        return get;
+    }
+}
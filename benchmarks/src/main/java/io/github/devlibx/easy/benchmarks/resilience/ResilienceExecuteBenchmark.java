@@ -0,0 +1,96 @@
+package io.github.devlibx.easy.benchmarks.resilience;
+
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.IResilienceProcessor;
+import io.github.devlibx.easy.resilience.ResilienceManager;
+import io.reactivex.rxjava3.core.Observable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of ResilienceProcessor.execute() and executeObservable() for a call which does (almost) no work: thread pool
+ * bulkhead (call is handed to a pool thread, caller waits on a future with time limiter) vs inline mode (semaphore
+ * bulkhead, call runs on the caller thread).
+ * <p>
+ * Run with allocation profiler to see bytes allocated per call (gc.alloc.rate.norm):
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ResilienceExecuteBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ResilienceExecuteBenchmark {
+    private static final Callable<String> CALL = () -> "ok";
+    private static final Observable<String> OBSERVABLE = Observable.just("ok");
+
+    private String threadPoolId;
+    private IResilienceProcessor threadPool;
+    private String inlineId;
+    private IResilienceProcessor inline;
+
+    @Setup
+    public void setup() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        threadPoolId = UUID.randomUUID().toString();
+        threadPool = resilienceManager.getOrCreate(ResilienceCallConfig.withDefaults()
+                .id(threadPoolId)
+                .concurrency(8)
+                .timeout(1000)
+                .queueSize(100)
+                .build());
+        threadPool.warmUp();
+
+        inlineId = UUID.randomUUID().toString();
+        inline = resilienceManager.getOrCreate(ResilienceCallConfig.withDefaults()
+                .id(inlineId)
+                .concurrency(8)
+                .timeout(1000)
+                .queueSize(100)
+                .useSemaphore(true)
+                .build());
+    }
+
+    @Benchmark
+    public String threadPoolBulkhead() {
+        return threadPool.execute(threadPoolId, CALL, String.class);
+    }
+
+    @Benchmark
+    public String inline() {
+        return inline.execute(inlineId, CALL, String.class);
+    }
+
+    @Benchmark
+    public String threadPoolBulkheadObservable() {
+        return threadPool.executeObservable(threadPoolId, OBSERVABLE, String.class).blockingFirst();
+    }
+
+    // Deadline shorter than the configured timeout - a time limiter is built for the call
+    @Benchmark
+    public String threadPoolBulkheadObservableWithDeadline() {
+        return threadPool.executeObservable(threadPoolId, OBSERVABLE, String.class, 500).blockingFirst();
+    }
+
+    @Benchmark
+    public String inlineObservable() {
+        return inline.executeObservable(inlineId, OBSERVABLE, String.class).blockingFirst();
+    }
+}
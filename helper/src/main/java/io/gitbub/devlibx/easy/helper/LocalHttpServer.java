@@ -19,7 +19,9 @@ import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -72,6 +74,7 @@ public class LocalHttpServer {
         }
 
         server.createContext("/delay", new DelayHttpHandler());
+        server.createContext("/payload", new PayloadHttpHandler());
         // server.setExecutor(Executors.newFixedThreadPool(4));
         server.start();
         waitForServerStartLatch.countDown();
@@ -205,4 +208,36 @@ public class LocalHttpServer {
             }
         }
     }
+
+    /**
+     * Gives a response body of "size" bytes (and "status" status code if given) - request body is read and dropped.
+     * Bodies are built once per size, so this handler adds little allocation of its own (used by benchmarks).
+     */
+    private static class PayloadHttpHandler implements HttpHandler {
+        private final Map<Integer, byte[]> payloads = new ConcurrentHashMap<>();
+
+        @Override
+        public void handle(HttpExchange t) {
+            try (OutputStream os = t.getResponseBody(); InputStream in = t.getRequestBody()) {
+                Map<String, String> qp = t.getRequestURI().getQuery() != null ? splitQuery(t.getRequestURI().getQuery()) : new HashMap<>();
+                int size = qp.containsKey("size") ? Integer.parseInt(qp.get("size")) : 0;
+                int status = qp.containsKey("status") ? Integer.parseInt(qp.get("status")) : 200;
+
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0) {
+                }
+
+                byte[] response = payloads.computeIfAbsent(size, s -> {
+                    byte[] body = new byte[s];
+                    Arrays.fill(body, (byte) 'a');
+                    return body;
+                });
+                t.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                t.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+                os.write(response);
+            } catch (Exception e) {
+                log.error("Got some error in http server : {}", e.getMessage());
+            }
+        }
+    }
 }
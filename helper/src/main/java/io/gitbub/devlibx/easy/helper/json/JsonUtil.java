@@ -2,6 +2,7 @@ package io.gitbub.devlibx.easy.helper.json;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,7 +13,11 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import lombok.Getter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +75,39 @@ public class JsonUtil {
         }
     }
 
+    /**
+     * Read a object directly from a input stream (stream is not closed)
+     */
+    public <T> T readObject(InputStream in, Class<T> cls) {
+        try {
+            if (in == null) return null;
+
+            if (cls.isAssignableFrom(String.class)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return (T) new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+            return objectMapper.readValue(in, cls);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write a object as json directly to a output stream (stream is not closed)
+     */
+    public void writeObject(OutputStream out, Object object) {
+        try {
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, object);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Convert string to List
      */
@@ -99,8 +137,12 @@ public class JsonUtil {
      * Convert string to Map
      */
     public StringObjectMap convertAsStringObjectMap(byte[] bytes) {
-        String str = new String(bytes);
-        return readObject(str, StringObjectMap.class);
+        try {
+            if (bytes == null) return null;
+            return objectMapper.readValue(bytes, StringObjectMap.class);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
 
@@ -9,6 +9,8 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +48,20 @@ public class JsonUtils {
         return jsonUtil.readObject(str, cls);
     }
 
+    /**
+     * Read a object directly from a input stream (stream is not closed)
+     */
+    public static <T> T readObject(InputStream in, Class<T> cls) {
+        return jsonUtil.readObject(in, cls);
+    }
+
+    /**
+     * Write a object as json directly to a output stream (stream is not closed)
+     */
+    public static void writeObject(OutputStream out, Object object) {
+        jsonUtil.writeObject(out, object);
+    }
+
     /**
      * Convert string to Map
      */
@@ -55,6 +55,34 @@ public interface IMetrics {
     default void gauge(String aspect, long value, String... labelNames) {
     }
 
+    /**
+     * Get a counter handle for given metric and labels - resolve it once and keep it to count without building
+     * metric name or labels on every call
+     */
+    default ICounter counter(String name, String... labels) {
+        return () -> inc(name, labels);
+    }
+
+    /**
+     * Get a timer handle for given metric and labels - resolve it once and keep it to observe without building
+     * metric name or labels on every call
+     */
+    default ITimer timer(String name, String... labels) {
+        if (labels == null || labels.length == 0) {
+            return amt -> observe(name, amt);
+        }
+        return amt -> observe(name, amt, labels);
+    }
+
+    /**
+     * Get a ratio handle for given metric and labels (e.g. compression ratio). A ratio is not a time, so it must not go
+     * to a timer - a timer may round it to whole millis or count it in millis buckets. Ratio is exported as a percent
+     * (ratio x 100), by default as a gauge of the last value.
+     */
+    default IRatio ratio(String name, String... labels) {
+        return ratio -> gauge(name, Math.round(ratio * 100), labels);
+    }
+
     /**
      * Register a counter
      */
@@ -67,6 +95,12 @@ public interface IMetrics {
 
     // No-Op metrics - ignore all calls
     class NoOpMetrics implements IMetrics {
+        private static final ICounter NO_OP_COUNTER = () -> {
+        };
+        private static final ITimer NO_OP_TIMER = amt -> {
+        };
+        private static final IRatio NO_OP_RATIO = ratio -> {
+        };
 
         @Override
         public <T> T getRegistry(Class<T> cls) {
@@ -77,6 +111,21 @@ public interface IMetrics {
         public void inc(String name, String... labels) {
         }
 
+        @Override
+        public ICounter counter(String name, String... labels) {
+            return NO_OP_COUNTER;
+        }
+
+        @Override
+        public ITimer timer(String name, String... labels) {
+            return NO_OP_TIMER;
+        }
+
+        @Override
+        public IRatio ratio(String name, String... labels) {
+            return NO_OP_RATIO;
+        }
+
         @Override
         public <T> T time(String name, Callable<T> callable, String... labels) {
             try {
@@ -139,6 +188,27 @@ public interface IMetrics {
         }
     }
 
+    /**
+     * Counter with name and labels already resolved
+     */
+    interface ICounter {
+        void inc();
+    }
+
+    /**
+     * Timer with name and labels already resolved
+     */
+    interface ITimer {
+        void observe(double amt);
+    }
+
+    /**
+     * Ratio with name and labels already resolved
+     */
+    interface IRatio {
+        void observe(double ratio);
+    }
+
     interface IMetricsLogger {
         void printf(String format, Object... args);
     }
@@ -1,10 +1,14 @@
 package io.gitbub.devlibx.easy.helper.json;
 
+import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.gitbub.devlibx.easy.helper.string.StringHelperTest.PojoClass;
 import junit.framework.TestCase;
 import org.joda.time.DateTime;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 public class JsonUtilTest extends TestCase {
 
     public void testWriteString() {
@@ -18,4 +22,12 @@ public class JsonUtilTest extends TestCase {
         assertEquals(testClass.getStr(), jsonUtil.readObject(stringHelper.stringify(testClass), PojoClass.class).getStr());
         assertEquals(testClass.getDateTime().getMillis(), jsonUtil.readObject(stringHelper.stringify(testClass), PojoClass.class).getDateTime().getMillis());
     }
-}
\ No newline at end of file
+
+    public void testReadUtf8() {
+        JsonUtil jsonUtil = new JsonUtil();
+        byte[] bytes = "{\"name\":\"h\u00e9llo \u20ac\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("h\u00e9llo \u20ac", jsonUtil.convertAsStringObjectMap(bytes).getString("name"));
+        assertEquals("h\u00e9llo \u20ac", jsonUtil.readObject(new ByteArrayInputStream(bytes), StringObjectMap.class).getString("name"));
+        assertEquals(new String(bytes, StandardCharsets.UTF_8), jsonUtil.readObject(new ByteArrayInputStream(bytes), String.class));
+    }
+}
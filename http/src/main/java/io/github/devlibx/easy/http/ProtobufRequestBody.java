@@ -0,0 +1,30 @@
+package io.github.devlibx.easy.http;
+
+import com.google.protobuf.MessageLite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Protobuf request body - message is written with {@link MessageLite#writeTo(OutputStream)} directly to the
+ * connection.
+ * <p>
+ * Note - protobuf-java is an optional dependency of this module, add it to your project to use this body.
+ */
+public class ProtobufRequestBody extends RequestBody {
+    private final MessageLite message;
+
+    public ProtobufRequestBody(MessageLite message) {
+        this.message = message;
+    }
+
+    @Override
+    public long contentLength() {
+        return message.getSerializedSize();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        message.writeTo(out);
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.devlibx.easy.http;
+
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Request body which is written directly to the connection of the http client - no byte[] copy of the whole body is
+ * made before it is sent.
+ * <p>
+ * A body may be written more than once (e.g. retry or hedge request), so writers must be able to write it again.
+ */
+public abstract class RequestBody {
+
+    /**
+     * @return no of bytes in this body, -1 if not known (body is sent with chunked transfer encoding)
+     */
+    public abstract long contentLength();
+
+    /**
+     * Write this body to the given stream (stream is not closed)
+     */
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * @return body if it is already in memory (a new buffer on same bytes), null otherwise
+     */
+    public ByteBuffer byteBuffer() {
+        return null;
+    }
+
+    /**
+     * @return file of this body if body is a file region, null otherwise
+     */
+    public Path file() {
+        return null;
+    }
+
+    /**
+     * @return start of the file region (only used if body is a file region)
+     */
+    public long filePosition() {
+        return 0;
+    }
+
+    /**
+     * @return this body as a byte array - only used by clients which can't write a body to a stream
+     */
+    public byte[] toByteArray() throws IOException {
+        long length = contentLength();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 256);
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return body from the remaining bytes of the buffer (buffer position is not changed)
+     */
+    public static RequestBody of(ByteBuffer buffer) {
+        return new ByteBufferBody(buffer);
+    }
+
+    /**
+     * @return body from the whole file
+     */
+    public static RequestBody ofFile(Path file) throws IOException {
+        return new FileRegionBody(file, 0, Files.size(file));
+    }
+
+    /**
+     * @return body from "length" bytes of the file starting at "position"
+     */
+    public static RequestBody ofFile(Path file, long position, long length) {
+        return new FileRegionBody(file, position, length);
+    }
+
+    /**
+     * @param contentLength no of bytes written by writer (-1 if not known)
+     * @return body which is written by the given writer
+     */
+    public static RequestBody ofWriter(IRequestBodyWriter writer, long contentLength) {
+        return new WriterBody(writer, contentLength);
+    }
+
+    /**
+     * @return body which is the json of given object - json is written directly to the connection (a string is sent
+     * as it is)
+     */
+    public static RequestBody ofJson(Object object) {
+        if (object instanceof String) {
+            return of(ByteBuffer.wrap(((String) object).getBytes(StandardCharsets.UTF_8)));
+        }
+        return new WriterBody(out -> JsonUtils.writeObject(out, object), -1);
+    }
+
+    /**
+     * Writes a request body to the connection
+     */
+    public interface IRequestBodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static class ByteBufferBody extends RequestBody {
+        private final ByteBuffer buffer;
+
+        private ByteBufferBody(ByteBuffer buffer) {
+            this.buffer = buffer.slice();
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (buffer.hasArray()) {
+                out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                WritableByteChannel channel = Channels.newChannel(out);
+                ByteBuffer duplicate = buffer.duplicate();
+                while (duplicate.hasRemaining()) {
+                    channel.write(duplicate);
+                }
+            }
+        }
+
+        @Override
+        public ByteBuffer byteBuffer() {
+            return buffer.duplicate();
+        }
+    }
+
+    private static class FileRegionBody extends RequestBody {
+        private final Path file;
+        private final long position;
+        private final long length;
+
+        private FileRegionBody(Path file, long position, long length) {
+            this.file = file;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long written = 0;
+                while (written < length) {
+                    long count = channel.transferTo(position + written, length - written, target);
+                    if (count <= 0) {
+                        throw new IOException("file ended before " + length + " bytes were written: file=" + file);
+                    }
+                    written += count;
+                }
+            }
+        }
+
+        @Override
+        public Path file() {
+            return file;
+        }
+
+        @Override
+        public long filePosition() {
+            return position;
+        }
+    }
+
+    private static class WriterBody extends RequestBody {
+        private final IRequestBodyWriter writer;
+        private final long contentLength;
+
+        private WriterBody(IRequestBodyWriter writer, long contentLength) {
+            this.writer = writer;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            writer.writeTo(out);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package io.github.devlibx.easy.http;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
 import io.github.devlibx.easy.http.util.Call.IResponseBuilderFunc;
+import io.github.devlibx.easy.http.util.Call.IStreamResponseBuilderFunc;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +17,7 @@ import java.util.Map;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class RequestObject {
     private String server;
@@ -25,7 +27,30 @@ public class RequestObject {
     private Map<String, Object> pathParam;
     private MultivaluedMap<String, Object> queryParam;
     private byte[] body;
+
+    /**
+     * Body which is written directly to the connection - if set then "body" is not used
+     */
+    private RequestBody requestBody;
     private IResponseBuilderFunc<?> responseBuilder;
+    private IStreamResponseBuilderFunc<?> streamResponseBuilder;
+    private long maxResponseBodySize;
+
+    /**
+     * If true then response headers are set in the response object, and a 304 (not modified) response is not an error
+     */
+    private boolean captureResponseHeaders;
+
+    /**
+     * Timeout of this request - set from the deadline of the caller if it is less than the api timeout (0 = api
+     * timeout)
+     */
+    private long timeoutMs;
+
+    /**
+     * Priority of this request in the queue of the api (null = normal)
+     */
+    private Priority priority;
 
     public void preProcessHeaders(StringObjectMap apiHeaders) {
         if (headers == null) {
@@ -28,6 +28,18 @@ public class ResponseObject {
     @JsonIgnore
     private boolean errorWithAcceptableErrorCode;
 
+    /**
+     * Response parsed directly from the response stream - set only for streaming calls (body is null in this case)
+     */
+    @JsonIgnore
+    private Object parsedBody;
+
+    /**
+     * Response headers (names in lower case) - set only if request asked to capture response headers
+     */
+    @JsonIgnore
+    private Map<String, String> headers;
+
     public Map<String, Object> convertAsMap() {
         if (body == null) return null;
         return JsonUtils.convertAsMap(new String(body));
@@ -2,29 +2,61 @@ package io.github.devlibx.easy.http.async;
 
 import com.google.inject.Inject;
 import io.gitbub.devlibx.easy.helper.ApplicationContext;
-import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestBody;
 import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResponseBodyTooLargeException;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
+import io.github.devlibx.easy.http.helper.ContentEncoding;
+import io.github.devlibx.easy.http.helper.WriterInputStream;
+import io.github.devlibx.easy.http.lb.EndpointSelector;
+import io.github.devlibx.easy.http.lb.EndpointState;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
 import io.github.devlibx.easy.http.sync.IHttpResponseProcessor;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableEmitter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 @Slf4j
 public class AsyncRequestProcessor implements IRequestProcessor {
+    private static final int BODY_BUFFER_SIZE = 64 * 1024;
     private final ServerRegistry serverRegistry;
     private final ApiRegistry apiRegistry;
     private final StringHelper stringHelper;
@@ -62,70 +94,207 @@ public class AsyncRequestProcessor implements IRequestProcessor {
         // Get a web client to process this request
         WebClient webClient = apiRegistry.getClient(server, api, WebClient.class);
         long startTime = System.currentTimeMillis();
+
+        // Pick endpoint if this server has multiple endpoints - absolute url overrides base url of web client
+        EndpointSelector endpointSelector = serverRegistry.getEndpointSelector(server);
+        EndpointState endpoint = endpointSelector != null ? endpointSelector.select() : null;
+        String uri = endpoint != null
+                ? endpoint.getBaseUrl() + api.getUrlForRequestObject(requestObject, stringHelper)
+                : api.getUrlForRequestObject(requestObject, stringHelper);
+
+        WebClient.ResponseSpec responseSpec;
         switch (api.getMethod()) {
             case "GET": {
-                webClient
+                responseSpec = webClient
                         .get()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject, api.getHeaders(), server.getHeaders()))
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject, api, server))
+                        .attributes(consumerAttributes(api, server))
+                        .retrieve();
                 break;
             }
 
             case "DELETE": {
-                webClient
+                responseSpec = webClient
                         .delete()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject, api.getHeaders(), server.getHeaders()))
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject, api, server))
+                        .attributes(consumerAttributes(api, server))
+                        .retrieve();
                 break;
             }
 
             case "POST": {
-                webClient
+                responseSpec = webClient
                         .post()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject, api.getHeaders(), server.getHeaders()))
-                        .bodyValue(requestObject.getBody())
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject, api, server))
+                        .attributes(consumerAttributes(api, server))
+                        .body(bodyInserter(requestObject))
+                        .retrieve();
                 break;
             }
 
             case "PUT": {
-                webClient
+                responseSpec = webClient
                         .put()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject, api.getHeaders(), server.getHeaders()))
-                        .bodyValue(requestObject.getBody())
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject, api, server))
+                        .attributes(consumerAttributes(api, server))
+                        .body(bodyInserter(requestObject))
+                        .retrieve();
                 break;
             }
 
             default:
+                if (endpoint != null) {
+                    endpointSelector.cancel(endpoint);
+                }
                 observableEmitter.onError(new RuntimeException("Api has a invalid HTTP method: " + api.getMethod()));
+                return;
+        }
+
+        Disposable subscription = trackEndpoint(endpointSelector, endpoint, withDeadline(requestObject, responseBody(requestObject, responseSpec)))
+                .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
+                .subscribe(consumer(server, api, observableEmitter, startTime));
+
+        // Cancel the in-flight http request if subscriber disposes (e.g. timeout in resilience layer)
+        observableEmitter.setCancellable(subscription::dispose);
+    }
+
+    /**
+     * Read body as byte[] - or, for streaming calls, parse it from the received network buffers. Buffers are joined
+     * without copy (composite buffer) and are released once the stream is parsed.
+     */
+    private Mono<ResponseObject> responseBody(RequestObject requestObject, WebClient.ResponseSpec responseSpec) {
+        if (requestObject.getStreamResponseBuilder() == null && requestObject.isCaptureResponseHeaders()) {
+            return responseSpec.toEntity(byte[].class).map(entity -> {
+                ResponseObject responseObject = new ResponseObject();
+                responseObject.setBody(entity.getBody());
+                responseObject.setStatusCode(entity.getStatusCodeValue());
+                Map<String, String> headers = new HashMap<>();
+                entity.getHeaders().forEach((name, values) -> {
+                    if (!values.isEmpty()) {
+                        headers.putIfAbsent(name.toLowerCase(), values.get(0));
+                    }
+                });
+                responseObject.setHeaders(headers);
+                return responseObject;
+            });
+        } else if (requestObject.getStreamResponseBuilder() == null) {
+            return responseSpec.bodyToMono(byte[].class).map(data -> {
+                ResponseObject responseObject = new ResponseObject();
+                responseObject.setBody(data);
+                responseObject.setStatusCode(200);
+                return responseObject;
+            });
         }
+
+        long maxResponseBodySize = requestObject.getMaxResponseBodySize();
+        Flux<DataBuffer> buffers = responseSpec.bodyToFlux(DataBuffer.class);
+        Mono<DataBuffer> joined = maxResponseBodySize > 0 && maxResponseBodySize < Integer.MAX_VALUE
+                ? DataBufferUtils.join(buffers, (int) maxResponseBodySize)
+                : DataBufferUtils.join(buffers);
+        return joined
+                .onErrorMap(DataBufferLimitException.class, e -> new EasyResponseBodyTooLargeException(maxResponseBodySize))
+                .map(dataBuffer -> {
+                    ResponseObject responseObject = new ResponseObject();
+                    try (InputStream in = dataBuffer.asInputStream(true)) {
+                        responseObject.setParsedBody(requestObject.getStreamResponseBuilder().apply(in));
+                    } catch (Exception e) {
+                        throw Exceptions.propagate(e);
+                    }
+                    responseObject.setStatusCode(200);
+                    return responseObject;
+                });
     }
 
-    private Consumer<byte[]> consumer(Server server, Api api, ObservableEmitter<ResponseObject> observableEmitter, long startTime) {
-        return data -> {
+    // Streaming body is sent as data buffers over the same bytes (file and written body are sent in chunks), byte[] body
+    // is sent as it is
+    private BodyInserter<?, ? super ClientHttpRequest> bodyInserter(RequestObject requestObject) {
+        RequestBody requestBody = requestObject.getRequestBody();
+        if (requestBody == null) {
+            return BodyInserters.fromValue(requestObject.getBody());
+        }
+
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> buffers;
+        if (requestBody.byteBuffer() != null) {
+            buffers = Flux.just(requestBody.byteBuffer()).map(factory::wrap);
+        } else if (requestBody.file() != null) {
+            Path file = requestBody.file();
+            buffers = DataBufferUtils.takeUntilByteCount(
+                    DataBufferUtils.readAsynchronousFileChannel(
+                            () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+                            requestBody.filePosition(),
+                            factory,
+                            BODY_BUFFER_SIZE),
+                    requestBody.contentLength());
+        } else if (requestBody.contentLength() >= 0 && requestBody.contentLength() <= BODY_BUFFER_SIZE) {
+
+            // Small body of known size - written to a single buffer on this thread
+            buffers = Flux.defer(() -> {
+                DataBuffer buffer = factory.allocateBuffer((int) Math.max(1, requestBody.contentLength()));
+                try (OutputStream out = buffer.asOutputStream()) {
+                    requestBody.writeTo(out);
+                } catch (IOException e) {
+                    DataBufferUtils.release(buffer);
+                    return Flux.error(e);
+                }
+                return Flux.just(buffer);
+            });
+        } else {
+
+            // Large body or body of unknown size (e.g. json) is written on a worker thread and sent in chunks while it
+            // is written - the body is never buffered as a whole
+            buffers = DataBufferUtils.readInputStream(
+                    () -> WriterInputStream.start(requestBody, BODY_BUFFER_SIZE, task -> Schedulers.boundedElastic().schedule(task)),
+                    factory,
+                    BODY_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return BodyInserters.fromDataBuffers(buffers);
+    }
+
+    /**
+     * Caller deadline leaves less time than the api timeout - time out the request early. Timeout looks like a socket
+     * timeout, so that it is converted to EasyRequestTimeOutException
+     */
+    private Mono<ResponseObject> withDeadline(RequestObject requestObject, Mono<ResponseObject> mono) {
+        if (requestObject.getTimeoutMs() <= 0) {
+            return mono;
+        }
+        return mono
+                .timeout(Duration.ofMillis(requestObject.getTimeoutMs()))
+                .onErrorMap(TimeoutException.class, e -> {
+                    SocketTimeoutException timeoutException = new SocketTimeoutException("deadline exceeded after " + requestObject.getTimeoutMs() + " ms");
+                    timeoutException.initCause(e);
+                    return timeoutException;
+                });
+    }
+
+    /**
+     * Report result of the request to endpoint selector - error or 5xx counts towards ejection of the endpoint
+     */
+    private Mono<ResponseObject> trackEndpoint(EndpointSelector endpointSelector, EndpointState endpoint, Mono<ResponseObject> mono) {
+        if (endpoint == null) {
+            return mono;
+        }
+        long start = System.nanoTime();
+        return mono
+                .doOnSuccess(responseObject -> endpointSelector.onComplete(endpoint, System.nanoTime() - start, false))
+                .doOnError(throwable -> {
+                    boolean failure = !(throwable instanceof WebClientResponseException) || ((WebClientResponseException) throwable).getRawStatusCode() >= 500;
+                    endpointSelector.onComplete(endpoint, System.nanoTime() - start, failure);
+                })
+                .doOnCancel(() -> endpointSelector.cancel(endpoint));
+    }
+
+    private Consumer<ResponseObject> consumer(Server server, Api api, ObservableEmitter<ResponseObject> observableEmitter, long startTime) {
+        return responseObject -> {
             // Log time taken by http client
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_time", System.currentTimeMillis() - startTime);
+            api.getApiMetrics(metrics).getHttpClientTime().observe(System.currentTimeMillis() - startTime);
 
-            ResponseObject responseObject = new ResponseObject();
-            responseObject.setBody(data);
-            responseObject.setStatusCode(200);
             observableEmitter.onNext(responseObject);
             observableEmitter.onComplete();
         };
@@ -134,7 +303,7 @@ public class AsyncRequestProcessor implements IRequestProcessor {
     private Consumer<Throwable> onErrorConsumer(Server server, Api api, ObservableEmitter<ResponseObject> observableEmitter, long startTime) {
         return throwable -> {
             // Log time taken by http client
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_error_time", System.currentTimeMillis() - startTime);
+            api.getApiMetrics(metrics).getHttpClientErrorTime().observe(System.currentTimeMillis() - startTime);
 
             log.trace("Got error for server={}, api={}", server, api, throwable);
             ResponseObject responseObject = httpResponseProcessor.processException(server, api, throwable);
@@ -143,18 +312,31 @@ public class AsyncRequestProcessor implements IRequestProcessor {
         };
     }
 
-    private Consumer<HttpHeaders> consumerHeaders(RequestObject requestObject, StringObjectMap apiHeaders, StringObjectMap serverHeaders) {
-        return httpHeaders -> {
-            if (serverHeaders != null) {
-                serverHeaders.forEach((key, value) -> {
-                    httpHeaders.add(key, stringHelper.stringify(value));
-                });
-            }
-            requestObject.preProcessHeaders(apiHeaders);
-            requestObject.getHeaders().forEach((key, value) -> {
-                httpHeaders.add(key, stringHelper.stringify(value));
-            });
-        };
+    private Consumer<HttpHeaders> consumerHeaders(RequestObject requestObject, Api api, Server server) {
+        Consumer<HttpHeaders> headers = httpHeaders -> CompiledHeaders.forEachRequestHeader(
+                server.getCompiledHeaders(stringHelper),
+                api.getCompiledHeaders(stringHelper),
+                requestObject.getHeaders(),
+                stringHelper,
+                httpHeaders::add
+        );
+        if (server.isResponseCompression()) {
+            return httpHeaders -> {
+                headers.accept(httpHeaders);
+                httpHeaders.set(ContentEncoding.ACCEPT_ENCODING, ContentEncoding.SUPPORTED_ENCODINGS);
+            };
+        }
+        return headers;
+    }
+
+    // Compressed response is decompressed by a filter of web client - it reports the ratio to this api's metric
+    private Consumer<Map<String, Object>> consumerAttributes(Api api, Server server) {
+        if (!server.isResponseCompression()) {
+            return attributes -> {
+            };
+        }
+        IRatio ratio = api.getApiMetrics(metrics).getResponseCompressionRatio();
+        return attributes -> attributes.put(ContentEncoding.RATIO_ATTRIBUTE, ratio);
     }
 
     @Override
@@ -0,0 +1,263 @@
+package io.github.devlibx.easy.http.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ICounter;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.CacheConfig;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Response cache of a GET api - keyed by path params, query params and the vary headers of the cache config. Eviction is
+ * done by Caffeine (W-TinyLFU) using max entries or max bytes.
+ * <p>
+ * Emits "easy_http_cache" metric with result=hit|stale|miss|eviction.
+ */
+@Slf4j
+public class ResponseCache {
+    private static final String METRIC = "easy_http_cache";
+    private static final int NOT_MODIFIED = 304;
+
+    private final String server;
+    private final String api;
+    private final CacheConfig config;
+    private final ICounter hits;
+    private final ICounter staleHits;
+    private final ICounter misses;
+    private final ICounter evictions;
+    private final LongSupplier clock;
+    private final Cache<String, CachedResponse> cache;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public ResponseCache(String server, String api, CacheConfig config, IMetrics metrics) {
+        this(server, api, config, metrics, System::currentTimeMillis);
+    }
+
+    ResponseCache(String server, String api, CacheConfig config, IMetrics metrics, LongSupplier clock) {
+        this.server = server;
+        this.api = api;
+        this.config = config;
+        this.hits = metrics.counter(METRIC, "server", server, "api", api, "result", "hit");
+        this.staleHits = metrics.counter(METRIC, "server", server, "api", api, "result", "stale");
+        this.misses = metrics.counter(METRIC, "server", server, "api", api, "result", "miss");
+        this.evictions = metrics.counter(METRIC, "server", server, "api", api, "result", "eviction");
+        this.clock = clock;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (config.getMaxBytes() > 0) {
+            builder.maximumWeight(config.getMaxBytes()).weigher((String key, CachedResponse value) -> value.weight(key));
+        } else {
+            builder.maximumSize(config.getMaxEntries() > 0 ? config.getMaxEntries() : 1000);
+        }
+        this.cache = builder
+                .removalListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.inc();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @param requestObject request to serve
+     * @param fetch         function to make the http call if response is not cached, or has expired
+     * @return cached response, or response of the http call
+     */
+    public Observable<ResponseObject> get(RequestObject requestObject, Function<RequestObject, Observable<ResponseObject>> fetch) {
+        String key = key(requestObject, config.getVaryHeaders());
+        CachedResponse cached = cache.getIfPresent(key);
+        long now = clock.getAsLong();
+
+        if (cached != null && now < cached.expiresAt) {
+            hits.inc();
+            return Observable.just(cached.response);
+        }
+
+        // Stale-while-revalidate - give stale response now and refresh it in background (one refresh per key)
+        if (cached != null && now < cached.staleUntil) {
+            staleHits.inc();
+            if (refreshing.add(key)) {
+                fetch(key, requestObject, cached, fetch)
+                        .subscribeOn(Schedulers.io())
+                        .doFinally(() -> refreshing.remove(key))
+                        .subscribe(
+                                responseObject -> {
+                                },
+                                throwable -> log.debug("failed to refresh stale response: server={}, api={}, key={}", server, api, key, throwable)
+                        );
+            }
+            return Observable.just(cached.response);
+        }
+
+        misses.inc();
+        return fetch(key, requestObject, cached, fetch);
+    }
+
+    /**
+     * Remove all cached responses
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return no of cached responses
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private Observable<ResponseObject> fetch(String key, RequestObject requestObject, CachedResponse cached, Function<RequestObject, Observable<ResponseObject>> fetch) {
+        if (config.isRespectCacheHeaders()) {
+            requestObject.setCaptureResponseHeaders(true);
+
+            // Revalidate expired response - server sends 304 (without body) if our response is still good
+            if (cached != null && cached.etag != null) {
+                Map<String, Object> headers = requestObject.getHeaders() == null ? new HashMap<>() : new HashMap<>(requestObject.getHeaders());
+                headers.put("If-None-Match", cached.etag);
+                requestObject.setHeaders(headers);
+            }
+        }
+        return fetch.apply(requestObject).map(responseObject -> store(key, cached, responseObject));
+    }
+
+    private ResponseObject store(String key, CachedResponse cached, ResponseObject responseObject) {
+        long now = clock.getAsLong();
+        CacheControl cacheControl = config.isRespectCacheHeaders() ? CacheControl.parse(header(responseObject, "cache-control")) : CacheControl.NONE;
+
+        if (responseObject.getStatusCode() == NOT_MODIFIED && cached != null) {
+            long ttl = cacheControl.ttlMs(config.getTtlMs());
+            cache.put(key, new CachedResponse(cached.response, cached.etag, now + ttl, now + ttl + config.getStaleWhileRevalidateMs()));
+            return cached.response;
+        }
+
+        // Only cache good responses
+        if (responseObject.getStatusCode() < 200 || responseObject.getStatusCode() >= 300 || responseObject.isErrorWithAcceptableErrorCode()) {
+            return responseObject;
+        }
+        if (cacheControl.noStore) {
+            cache.invalidate(key);
+            return responseObject;
+        }
+
+        long ttl = cacheControl.ttlMs(config.getTtlMs());
+        String etag = config.isRespectCacheHeaders() ? header(responseObject, "etag") : null;
+        if (ttl > 0 || etag != null) {
+            cache.put(key, new CachedResponse(responseObject, etag, now + ttl, now + ttl + config.getStaleWhileRevalidateMs()));
+        }
+        return responseObject;
+    }
+
+    private static String header(ResponseObject responseObject, String name) {
+        return responseObject.getHeaders() != null ? responseObject.getHeaders().get(name) : null;
+    }
+
+    /**
+     * @return key which is same for calls to same api with same path params, query params and vary headers
+     */
+    static String key(RequestObject requestObject, List<String> varyHeaders) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(requestObject.getServer()).append('-').append(requestObject.getApi());
+        if (requestObject.getPathParam() != null && !requestObject.getPathParam().isEmpty()) {
+            sb.append("|p=").append(new TreeMap<>(requestObject.getPathParam()));
+        }
+        if (requestObject.getQueryParam() != null && !requestObject.getQueryParam().isEmpty()) {
+            sb.append("|q=").append(new TreeMap<>(requestObject.getQueryParam()));
+        }
+        if (varyHeaders != null && requestObject.getHeaders() != null && !requestObject.getHeaders().isEmpty()) {
+            Map<String, Object> headers = new TreeMap<>();
+            requestObject.getHeaders().forEach((name, value) -> {
+                if (varyHeaders.stream().anyMatch(name::equalsIgnoreCase)) {
+                    headers.put(name.toLowerCase(), value);
+                }
+            });
+            if (!headers.isEmpty()) {
+                sb.append("|h=").append(headers);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class CachedResponse {
+        private final ResponseObject response;
+        private final String etag;
+        private final long expiresAt;
+        private final long staleUntil;
+
+        private CachedResponse(ResponseObject response, String etag, long expiresAt, long staleUntil) {
+            this.response = response;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+        }
+
+        private int weight(String key) {
+            return key.length() + (response.getBody() != null ? response.getBody().length : 0);
+        }
+    }
+
+    /**
+     * Parsed "Cache-Control" response header - only the directives used by a client side cache
+     */
+    static class CacheControl {
+        static final CacheControl NONE = new CacheControl(false, false, -1);
+
+        final boolean noStore;
+        final boolean noCache;
+        final long maxAgeMs;
+
+        private CacheControl(boolean noStore, boolean noCache, long maxAgeMs) {
+            this.noStore = noStore;
+            this.noCache = noCache;
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        static CacheControl parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return NONE;
+            }
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAgeMs = -1;
+            for (String directive : value.split(",")) {
+                String d = directive.trim().toLowerCase();
+                if (d.equals("no-store")) {
+                    noStore = true;
+                } else if (d.equals("no-cache")) {
+                    noCache = true;
+                } else if (d.startsWith("max-age=")) {
+                    try {
+                        maxAgeMs = Long.parseLong(d.substring("max-age=".length()).replace("\"", "")) * 1000;
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            return new CacheControl(noStore, noCache, maxAgeMs);
+        }
+
+        /**
+         * @return time to keep the response - "no-cache" means response must be revalidated before every use
+         */
+        long ttlMs(long defaultTtlMs) {
+            if (noCache) {
+                return 0;
+            }
+            return maxAgeMs >= 0 ? maxAgeMs : defaultTtlMs;
+        }
+    }
+}
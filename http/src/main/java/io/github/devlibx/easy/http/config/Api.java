@@ -1,17 +1,24 @@
 package io.github.devlibx.easy.http.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.google.common.base.Strings;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.github.devlibx.easy.http.IApiConfigPreProcessor;
 import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.helper.ApiMetrics;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
 import io.github.devlibx.easy.http.helper.ConcurrencyApiConfigPreProcessor;
+import io.github.devlibx.easy.http.helper.PathTemplate;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.text.StrSubstitutor;
 
 import javax.ws.rs.core.MultivaluedMap;
 import java.io.Serializable;
@@ -50,6 +57,38 @@ public class Api implements Serializable {
      */
     private boolean async;
 
+    /**
+     * Only used when async=true. If true then the call never blocks a thread: circuit breaker, bulkhead, timeout
+     * and retry are applied as Rx operators on the response observable.
+     * <p>
+     * Note - with this enabled, the callbacks of callAsync() run on the http client (netty) threads and the
+     * subscriber must not dispose the subscription before it gets the result.
+     * <p>
+     * default = false
+     */
+    private boolean nonBlocking;
+
+    /**
+     * Only used when async=false. If true then each http call is made on a virtual thread, and the bulkhead is a
+     * semaphore (concurrency + queueSize permits) instead of a thread pool - so a large concurrency does not need a
+     * platform thread per call. Timeout is applied to the response observable and interrupts the virtual thread.
+     * <p>
+     * Needs Java 21+ runtime - on older runtimes this is ignored and the thread pool bulkhead is used.
+     * <p>
+     * default = false
+     */
+    private boolean virtualThreads;
+
+    /**
+     * Only used when async=false (and virtualThreads=false). If true then the http call runs on the calling thread
+     * with a semaphore bulkhead (concurrency permits + queue) instead of being handed to a thread pool. Timeout of the
+     * call is the socket timeout of the http client ("timeout") - so the thread hand-off, future and time limiter per
+     * call are saved.
+     * <p>
+     * default = false
+     */
+    private boolean inline;
+
     /**
      * We will warm-up all the http connection pool and threads at the time of boot-up. If noWarmUp=true then this
      * bootstrap process will not be done.
@@ -58,6 +97,25 @@ public class Api implements Serializable {
      */
     private boolean noWarmUp;
 
+    /**
+     * If true then concurrent identical calls (same path params, query params and headers) share one in-flight
+     * request and get the same response. Only used for GET apis, and not for streaming response calls.
+     * <p>
+     * default = false
+     */
+    private boolean coalesce;
+
+    /**
+     * Response cache for this api. Only used for GET apis, and not for streaming response calls.
+     * <p>
+     * Responses are cached by path params, query params and the "varyHeaders" of the cache (default = Authorization,
+     * Proxy-Authorization and Cookie). Calls with other credentials never get each other's response, but any other
+     * header which gives a per-user response must be added to "varyHeaders".
+     * <p>
+     * default = no cache
+     */
+    private CacheConfig cache;
+
 
     /**
      * Number of retry attempts for this API call.
@@ -72,11 +130,68 @@ public class Api implements Serializable {
     private int retryWaitDurationMs = 100;
 
     /**
-     * The number of threads in the retry request thread pool.
-     * Default is 3.
+     * Wait between retries - "fixed" (retryWaitDurationMs before every retry) or "exponential" (random wait between 0
+     * and retryWaitDurationMs * 2^(retry - 1), capped at retryMaxWaitDurationMs).
+     * <p>
+     * default = fixed
+     */
+    private String retryBackoff = "fixed";
+
+    /**
+     * Max wait between retries with exponential backoff (0 = no cap)
+     */
+    private int retryMaxWaitDurationMs = 0;
+
+    /**
+     * Retries are limited to this percentage of successful calls e.g. 10 = one retry for 10 successful calls. When
+     * most calls fail, retries stop instead of adding load on the server.
+     * <p>
+     * default = 0 i.e. no retry budget
+     */
+    private double retryBudgetPercent = 0;
+
+    /**
+     * If set then only these exceptions (class name or simple name, sub-classes also match) are retried. Errors which
+     * can be ignored (e.g. 4xx) are never retried.
+     */
+    private List<String> retryExceptions;
+
+    /**
+     * These exceptions (class name or simple name, sub-classes also match) are not retried
+     */
+    private List<String> ignoreRetryExceptions;
+
+    /**
+     * Not used - retries of all apis are scheduled on a shared scheduler (a thread per core). Kept so that existing
+     * configs can still be read.
      */
     private int retryRequestThreadPoolCount = 3;
 
+    /**
+     * Hedged requests (only used for GET apis): if a call has not returned within this time then a second request is
+     * made, and the response which comes first is used. The other request is cancelled.
+     * <p>
+     * Note - for async apis use it with nonBlocking=true, otherwise the first request blocks the calling thread.
+     * <p>
+     * default = 0 i.e. no hedging
+     */
+    private int hedgeAfterMs = 0;
+
+    /**
+     * Hedge after this percentile (e.g. 95) of the observed latency of this api, instead of a fixed time. Until
+     * enough calls are observed "hedgeAfterMs" is used, and the hedge delay is never smaller than "hedgeAfterMs".
+     * <p>
+     * default = 0 i.e. use hedgeAfterMs
+     */
+    private double hedgePercentile = 0;
+
+    /**
+     * Max extra load from hedged requests as a percentage of the calls to this api.
+     * <p>
+     * default = 5 i.e. at most 5% extra requests
+     */
+    private double hedgeBudgetPercent = 5;
+
     /**
      * If true, the API will bypass all resilience features (circuit breaker, rate limiter, etc.).
      * Use this when you want to opt out from resilience protection for specific APIs.
@@ -124,9 +239,65 @@ public class Api implements Serializable {
      * e.g. concurrency=2 and queueSize=100
      * <p>
      * This means that we can take burst of 102 requests.
+     * <p>
+     * With async, virtualThreads or inline, calls in this queue wait (at most "maxQueueTimeMs") for a running call to
+     * finish, higher priority calls first (see {@link io.github.devlibx.easy.http.util.Call.Builder#withPriority}).
      */
     private int queueSize = 10;
 
+    /**
+     * Only used with async, virtualThreads or inline. Max time a call waits in the queue for a free slot - call then
+     * fails with EasyResilienceOverflowException. If <= 0 then "timeout" is used.
+     * <p>
+     * Default = 0
+     */
+    private int maxQueueTimeMs = 0;
+
+    /**
+     * Load shedding on queue time (CoDel) - if calls have waited in the queue longer than this for
+     * "queueDelayIntervalMs", a new call which would have to wait fails right away with
+     * EasyResilienceOverflowException instead of timing out in the queue. Works with the thread pool and with
+     * async, virtualThreads or inline.
+     * <p>
+     * Default = 0 i.e. no load shedding
+     */
+    private int queueDelayTargetMs = 0;
+
+    /**
+     * Only used with queueDelayTargetMs. Queue time must stay above target for this long before calls fail fast.
+     * <p>
+     * Default = 100
+     */
+    private int queueDelayIntervalMs = 100;
+
+    /**
+     * How the in-flight limit of this api is set:
+     * <pre>
+     * fixed     - (default) limit is "concurrency"
+     * aimd      - grows by 1 while calls succeed, cut by 10% on timeout
+     * vegas     - grows while latency stays near the lowest latency seen, shrinks when latency goes up
+     * gradient2 - shrinks in proportion to latency increase over the long term average
+     * </pre>
+     * With an adaptive algorithm, "concurrency" (e.g. computed from rps by ConcurrencyApiConfigPreProcessor) is the
+     * initial limit. Calls over the current limit fail fast with EasyResilienceOverflowException instead of waiting.
+     * Current limit is published as gauge "easy_http_concurrency_limit".
+     */
+    private String limitAlgorithm = "fixed";
+
+    /**
+     * Only used with adaptive limitAlgorithm. Lowest in-flight limit.
+     * <p>
+     * default = 1
+     */
+    private int minConcurrency = 1;
+
+    /**
+     * Only used with adaptive limitAlgorithm. Highest in-flight limit (threads/permits are sized for this).
+     * <p>
+     * default = 0 (i.e. same as concurrency)
+     */
+    private int maxConcurrency = 0;
+
     /**
      * If server took > timeout to complete a request then this timeout will occure.
      * <p>
@@ -134,6 +305,14 @@ public class Api implements Serializable {
      */
     private int timeout = 1000;
 
+    /**
+     * If the caller has a deadline (see Deadline) and time left is less than this, the call fails right away with
+     * EasyResilienceRequestTimeoutException instead of making a request which is already lost.
+     * <p>
+     * default = 10
+     */
+    private int deadlineFloorMs = 10;
+
     /**
      * How long to wait before we need to check if we can retry after circuit was openned
      */
@@ -161,36 +340,89 @@ public class Api implements Serializable {
      */
     private float timeoutDeltaFactor = 0.0f;
 
+    /**
+     * Path compiled from "path" - built once and re-built only if path is changed
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient PathTemplate pathTemplate;
+
+    /**
+     * Headers compiled from "headers" - built once and re-built only if headers are changed
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient CompiledHeaders compiledHeaders;
+
+    /**
+     * Metrics of this api - built once and re-built only if metrics object is changed
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient ApiMetrics apiMetrics;
+
+    /**
+     * @return compiled path template of this api
+     */
+    @JsonIgnore
+    public PathTemplate getPathTemplate() {
+        PathTemplate template = pathTemplate;
+        if (template == null || !template.getTemplate().equals(path == null ? "" : path)) {
+            template = PathTemplate.compile(path);
+            pathTemplate = template;
+        }
+        return template;
+    }
+
+    /**
+     * @return headers of this api with values converted to string
+     */
+    public CompiledHeaders getCompiledHeaders(StringHelper stringHelper) {
+        CompiledHeaders compiled = compiledHeaders;
+        if (compiled == null || !compiled.isCompiledFrom(headers)) {
+            compiled = CompiledHeaders.compile(headers, stringHelper);
+            compiledHeaders = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return metrics of this api with metric names already resolved
+     */
+    public ApiMetrics getApiMetrics(IMetrics metrics) {
+        ApiMetrics built = apiMetrics;
+        if (built == null || !built.isBuiltFor(metrics)) {
+            built = new ApiMetrics(metrics, server, name);
+            apiMetrics = built;
+        }
+        return built;
+    }
+
     public String getUrlForRequestObject(RequestObject requestObject, StringHelper stringHelper) {
         return getUrlWithPathParamAndQueryParam(requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper);
     }
 
     public String getUrlWithPathParamAndQueryParam(Map<String, Object> pathParam, MultivaluedMap<String, Object> queryParam, StringHelper stringHelper) {
 
-        // Build URI
-        String uri = getPath();
-        if (!Strings.isNullOrEmpty(uri) && pathParam != null) {
-            uri = StrSubstitutor.replace(getPath(), pathParam);
-        }
-        if (Strings.isNullOrEmpty(uri)) {
-            uri = "/";
-        }
-        uri = uri.startsWith("/") ? uri : "/" + uri;
-
-        //
-        StringBuilder sb = new StringBuilder();
+        // Build URI - query params are not encoded here (WebClient encodes the uri template)
+        StringBuilder sb = new StringBuilder(64);
+        getPathTemplate().expand(pathParam, sb, false);
         if (queryParam != null) {
-            queryParam.forEach((key, values) -> {
-                values.forEach(value -> {
-                    if (!sb.toString().isEmpty()) {
-                        sb.append("&");
-                    }
-                    sb.append(key).append("=").append(value);
-                });
-            });
+            char separator = '?';
+            for (Map.Entry<String, List<Object>> entry : queryParam.entrySet()) {
+                for (Object value : entry.getValue()) {
+                    sb.append(separator).append(entry.getKey()).append('=').append(value);
+                    separator = '&';
+                }
+            }
         }
-        String qp = sb.toString();
-        return uri + (Strings.isNullOrEmpty(qp) ? "" : "?" + qp);
+        return sb.toString();
     }
 
     /**
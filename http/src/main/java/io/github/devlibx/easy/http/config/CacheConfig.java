@@ -0,0 +1,70 @@
+package io.github.devlibx.easy.http.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Response cache of a GET api. Responses are cached by server, api, path params, query params and the request headers
+ * given in varyHeaders.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CacheConfig implements Serializable {
+
+    /**
+     * Enable response cache for this api
+     */
+    @Builder.Default
+    private boolean enabled = false;
+
+    /**
+     * Time to keep a response in cache. If respectCacheHeaders=true then "Cache-Control: max-age" of the response
+     * is used if present.
+     */
+    @Builder.Default
+    private long ttlMs = 60000;
+
+    /**
+     * Max no of responses to keep in cache. Not used if maxBytes is set.
+     */
+    @Builder.Default
+    private long maxEntries = 1000;
+
+    /**
+     * Max size of all cached response bodies in bytes (0 = use maxEntries)
+     */
+    @Builder.Default
+    private long maxBytes = 0;
+
+    /**
+     * If true then "Cache-Control" (no-store, no-cache, max-age) of the response is respected, and an expired
+     * response with "ETag" is revalidated with "If-None-Match" (response 304 = cached response is still good)
+     */
+    @Builder.Default
+    private boolean respectCacheHeaders = false;
+
+    /**
+     * Time after expiry in which a stale response is returned immediately while it is refreshed in background
+     * (0 = disabled)
+     */
+    @Builder.Default
+    private long staleWhileRevalidateMs = 0;
+
+    /**
+     * Request headers which are part of the cache key (names are not case-sensitive) - calls with different values of
+     * these headers never share a cached response. Other request headers are not part of the key, so a header which
+     * gives a per-user response (e.g. a custom auth header) must be added here.
+     */
+    @Builder.Default
+    private List<String> varyHeaders = Arrays.asList("Authorization", "Proxy-Authorization", "Cookie");
+}
@@ -0,0 +1,28 @@
+package io.github.devlibx.easy.http.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One host/port of a server with multiple endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Endpoint implements Serializable {
+
+    /**
+     * Host of this endpoint
+     */
+    private String host;
+
+    /**
+     * Port of this endpoint. Default = 80
+     */
+    private int port = 80;
+}
@@ -1,13 +1,22 @@
 package io.github.devlibx.easy.http.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -32,13 +41,16 @@ public class Server implements Serializable {
     /**
      * Port of this service. Default = 80
      */
+    @Builder.Default
     private int port = 80;
 
     /**
      * Set TTL to polled http connection. If -1 then no TTL. Default is 60 Sec;
      */
+    @Builder.Default
     private int pollingConnectionTtlInMs = 60 * 1000;
 
+    @Builder.Default
     private int idleConnectionTimeoutInSec = 60;
 
     /**
@@ -50,6 +62,7 @@ public class Server implements Serializable {
      * Why we get this type of timeout -> if we have small connection pool and all connections are
      * busy then we will get this timeout.
      */
+    @Builder.Default
     private int connectionRequestTimeout = 100;
 
     /**
@@ -60,10 +73,195 @@ public class Server implements Serializable {
      * <p>
      * Why we get this type of timeout -> when we connect to server, it may be busy or server may be down.
      */
+    @Builder.Default
     private int connectTimeout = 100;
 
     private StringObjectMap headers;
 
+    /**
+     * Protocol to use for this server:
+     * <pre>
+     * http1 - HTTP/1.1 (default) using Apache http client (sync) or WebClient (async)
+     * h2    - HTTP/2 over TLS (use with https=true)
+     * h2c   - HTTP/2 over plain text (connection is upgraded from HTTP/1.1)
+     * </pre>
+     * With h2/h2c all apis of this server share one multiplexed connection. This needs a Java 21+ runtime.
+     */
+    @Builder.Default
+    private String protocol = "http1";
+
+    /**
+     * Only used with protocol=h2|h2c. Max no of in-flight requests (streams) to this server. Requests beyond this
+     * limit fail fast with EasyResilienceOverflowException.
+     * <p>
+     * Default = 100
+     */
+    @Builder.Default
+    private int maxConcurrentStreams = 100;
+
+    /**
+     * If true then all apis of this server share a single connection pool (and http client) instead of a pool per
+     * api. The pool size is the sum of concurrency of all apis of this server (capped by maxConnections).
+     * <p>
+     * default = false
+     */
+    @Builder.Default
+    private boolean sharedConnectionPool = false;
+
+    /**
+     * Only used with sharedConnectionPool=true. Max connections in the shared pool (per endpoint if server has
+     * endpoints). If <= 0 then there is no cap.
+     * <p>
+     * default = 0
+     */
+    @Builder.Default
+    private int maxConnections = 0;
+
+    /**
+     * No of connections to open to this server at the time of EasyHttp setup (per api, capped by api concurrency).
+     * This avoids paying TCP/TLS handshake cost on the very first calls after boot.
+     * <p>
+     * Default = 1
+     */
+    @Builder.Default
+    private int warmUpConnectionCount = 1;
+
+    /**
+     * Optional path (e.g. /health) which is called once at the time of warm-up. The real api is never called for
+     * warm-up. If not set then only connections are opened.
+     */
+    private String warmUpPath;
+
+    /**
+     * Max time EasyHttp setup waits for warm-up of apis on this server. Warm-up which is not done by then continues
+     * in background - use {@link io.github.devlibx.easy.http.util.EasyHttp#getWarmUpStatus()} to check readiness.
+     * <p>
+     * Default = 2000ms
+     */
+    @Builder.Default
+    private int warmUpTimeoutInMs = 2000;
+
+    /**
+     * Endpoints (host/port) of this server. If set then requests are spread over these endpoints by "loadBalancer"
+     * and "host"/"port" are not used. All endpoints use the scheme (isHttps) of this server, and each endpoint gets
+     * its own connection pool.
+     */
+    private List<Endpoint> endpoints;
+
+    /**
+     * Only used with endpoints. How to pick an endpoint for a request:
+     * <pre>
+     * round-robin       - (default) one after the other
+     * least-outstanding - endpoint with least no of in-flight requests
+     * p2c-ewma          - power of two choices: better of two random endpoints by latency (EWMA) x in-flight requests
+     * </pre>
+     */
+    @Builder.Default
+    private String loadBalancer = "round-robin";
+
+    /**
+     * Only used with endpoints. An endpoint is ejected (gets no requests) after these many consecutive failures
+     * (error or 5xx). After ejection time it is back on probation - a single failure ejects it again for a longer time.
+     * <p>
+     * Default = 5
+     */
+    @Builder.Default
+    private int ejectAfterConsecutiveFailures = 5;
+
+    /**
+     * Only used with endpoints. Time for which an endpoint is ejected - multiplied by the no of times it is ejected
+     * in a row (max 10x).
+     * <p>
+     * Default = 30000ms
+     */
+    @Builder.Default
+    private int ejectionTimeMs = 30000;
+
+    /**
+     * Only used with endpoints. Max percentage of endpoints which can be ejected at the same time.
+     * <p>
+     * Default = 50
+     */
+    @Builder.Default
+    private int maxEjectionPercent = 50;
+
+    /**
+     * If set then time left till the deadline of the caller (in ms) is sent to this server in this header e.g.
+     * "X-Request-Timeout-Ms", so that the server can also stop work on a request which is already lost. Only sent
+     * if the caller has a deadline.
+     */
+    private String deadlineHeader;
+
+    /**
+     * Compression of response bodies:
+     * <pre>
+     * gzip - ask for compressed responses (Accept-Encoding: gzip, deflate), response is decompressed while it is read
+     *        and compression ratio is reported in "easy_http_compression_ratio" metric (in percent)
+     * none - ask for uncompressed responses
+     * </pre>
+     * If not set then default of the http client is used (sync client asks for gzip/deflate, others do not).
+     */
+    private String compression;
+
+    /**
+     * If > 0 then request bodies of at least these many bytes (and streaming bodies of unknown size) are sent gzip
+     * compressed with "Content-Encoding: gzip". Server must accept compressed requests.
+     * <p>
+     * Default = 0 (request bodies are not compressed)
+     */
+    @Builder.Default
+    private int requestCompressionThreshold = 0;
+
+    /**
+     * Headers compiled from "headers" - built once and re-built only if headers are changed
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient CompiledHeaders compiledHeaders;
+
+    /**
+     * @return headers of this server with values converted to string
+     */
+    public CompiledHeaders getCompiledHeaders(StringHelper stringHelper) {
+        CompiledHeaders compiled = compiledHeaders;
+        if (compiled == null || !compiled.isCompiledFrom(headers)) {
+            compiled = CompiledHeaders.compile(headers, stringHelper);
+            compiledHeaders = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return true if this server has a list of endpoints (i.e. requests are load balanced over endpoints)
+     */
+    public boolean hasEndpoints() {
+        return endpoints != null && !endpoints.isEmpty();
+    }
+
+    /**
+     * @return endpoints of this server - or "host"/"port" as a single endpoint if endpoints are not set
+     */
+    @JsonIgnore
+    public List<Endpoint> getEndpointList() {
+        return hasEndpoints() ? endpoints : Collections.singletonList(new Endpoint(host, port));
+    }
+
+    /**
+     * @return true if this server uses HTTP/2 (h2 or h2c)
+     */
+    public boolean isHttp2() {
+        return "h2".equalsIgnoreCase(protocol) || "h2c".equalsIgnoreCase(protocol);
+    }
+
+    /**
+     * @return true if compressed responses are asked for (compression=gzip)
+     */
+    public boolean isResponseCompression() {
+        return "gzip".equalsIgnoreCase(compression);
+    }
+
     public String getUrl() {
         StringBuilder sb = new StringBuilder();
         if (isHttps) {
@@ -168,6 +168,15 @@ public class EasyHttpExceptions {
         }
     }
 
+    /**
+     * This error is thrown when a streaming response body is bigger than the max response body size set in the call.
+     */
+    public static class EasyResponseBodyTooLargeException extends EasyHttpRequestException {
+        public EasyResponseBodyTooLargeException(long maxResponseBodySize) {
+            super("response body is bigger than maxResponseBodySize=" + maxResponseBodySize,
+                    ResponseObject.builder().statusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).build());
+        }
+    }
 
     public static class EasyResilienceException extends EasyHttpRequestException {
         public EasyResilienceException(Throwable throwable) {
@@ -223,6 +232,11 @@ public class EasyHttpExceptions {
             return exception;
         }
 
+        // Body size guard of streaming response is already a easy exception
+        if (throwable instanceof EasyResponseBodyTooLargeException) {
+            return (EasyResponseBodyTooLargeException) throwable;
+        }
+
         // Check if this is a timeout issues
         if (throwable instanceof ReadTimeoutException || throwable instanceof SocketTimeoutException) {
             return new EasyRequestTimeOutException(responseObject);
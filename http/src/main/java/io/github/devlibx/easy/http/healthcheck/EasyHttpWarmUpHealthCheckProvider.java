@@ -0,0 +1,38 @@
+package io.github.devlibx.easy.http.healthcheck;
+
+import io.gitbub.devlibx.easy.helper.healthcheck.IHealthCheckProvider;
+import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.github.devlibx.easy.http.util.EasyHttp;
+import io.github.devlibx.easy.http.util.WarmUpStatus;
+
+import java.util.Map;
+
+/**
+ * Health check which is unhealthy till the warm-up of all apis is done. Use it to hold traffic till the connection
+ * pools and threads are warm.
+ * <p>
+ * Note - an api which failed to warm-up (e.g. server is not reachable) does not make this health check unhealthy.
+ */
+public class EasyHttpWarmUpHealthCheckProvider implements IHealthCheckProvider {
+
+    @Override
+    public Result check() {
+        Map<String, WarmUpStatus> status = EasyHttp.getWarmUpStatus();
+        StringObjectMap details = new StringObjectMap();
+        status.forEach((api, warmUpStatus) -> details.put(api, warmUpStatus.name()));
+
+        if (status.containsValue(WarmUpStatus.PENDING)) {
+            return Result.builder()
+                    .healthy(false)
+                    .details(details)
+                    .message("EasyHttp warm-up is not done")
+                    .build();
+        } else {
+            return Result.builder()
+                    .healthy(true)
+                    .details(details)
+                    .message("EasyHttp warm-up is done")
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ICounter;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ITimer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Metrics of one server and api - metric names and labels are resolved once (at setup), so a call only updates
+ * counters and timers without building any string.
+ */
+@Getter
+public class ApiMetrics {
+    private static final String SYNC_METRIC = "easy_http_sync";
+    private static final int MAX_STATUS_CODE = 600;
+
+    private final IMetrics metrics;
+    private final String server;
+    private final String api;
+
+    /**
+     * Key of this server and api (server-api) - used to find the processors of this api
+     */
+    private final String key;
+
+    private final ITimer callTime;
+    private final ITimer callErrorTime;
+    private final ITimer httpClientTime;
+    private final ITimer httpClientErrorTime;
+    private final ICounter coalesced;
+    private final ICounter deadlineExceeded;
+
+    // Compression ratio (uncompressed / compressed bytes) of request and response bodies - exported in percent
+    private final IRatio requestCompressionRatio;
+    private final IRatio responseCompressionRatio;
+
+    // Result of sync calls - "easy_http_sync" with code label
+    private final ICounter syncSuccess;
+    private final ICounter syncRequestTimeout;
+    private final ICounter syncRequestOverflow;
+    private final ICounter syncQueueFull;
+    private final ICounter syncQueueTimeout;
+    private final ICounter syncCircuitOpen;
+    private final ICounter syncResilienceUnknown;
+    private final ICounter syncSocketTimeout;
+    private final ICounter syncUnknown;
+
+    // Counters of http status codes - created on first use of a status code
+    @Getter(AccessLevel.NONE)
+    private final AtomicReferenceArray<ICounter> syncStatusCodes = new AtomicReferenceArray<>(MAX_STATUS_CODE);
+
+    public ApiMetrics(IMetrics metrics, String server, String api) {
+        this.metrics = metrics;
+        this.server = server;
+        this.api = api;
+        this.key = server + "-" + api;
+
+        String prefix = server + "_" + api;
+        this.callTime = metrics.timer(prefix + "_call_time");
+        this.callErrorTime = metrics.timer(prefix + "_call_error_time");
+        this.httpClientTime = metrics.timer(prefix + "_http_client_time");
+        this.httpClientErrorTime = metrics.timer(prefix + "_http_client_error_time");
+        this.coalesced = metrics.counter("easy_http_coalesced", "server", server, "api", api);
+        this.deadlineExceeded = metrics.counter("easy_http_deadline_exceeded", "server", server, "api", api);
+        this.requestCompressionRatio = metrics.ratio("easy_http_compression_ratio", "server", server, "api", api, "body", "request");
+        this.responseCompressionRatio = metrics.ratio("easy_http_compression_ratio", "server", server, "api", api, "body", "response");
+
+        this.syncSuccess = syncCounter("200");
+        this.syncRequestTimeout = syncCounter("500-request-timeout");
+        this.syncRequestOverflow = syncCounter("500-request-overflow");
+        this.syncQueueFull = syncCounter("500-queue-full");
+        this.syncQueueTimeout = syncCounter("500-queue-timeout");
+        this.syncCircuitOpen = syncCounter("500-circuit-open");
+        this.syncResilienceUnknown = syncCounter("500-resilience-unknown");
+        this.syncSocketTimeout = syncCounter("500-socket-timeout");
+        this.syncUnknown = syncCounter("500-unknown");
+    }
+
+    /**
+     * @return true if this was built for given metrics object
+     */
+    public boolean isBuiltFor(IMetrics metrics) {
+        return this.metrics == metrics;
+    }
+
+    /**
+     * @return counter of sync calls which failed with given http status code
+     */
+    public ICounter syncStatusCode(int statusCode) {
+        if (statusCode < 0 || statusCode >= MAX_STATUS_CODE) {
+            return syncCounter(Integer.toString(statusCode));
+        }
+        ICounter counter = syncStatusCodes.get(statusCode);
+        if (counter == null) {
+            counter = syncCounter(Integer.toString(statusCode));
+            syncStatusCodes.compareAndSet(statusCode, null, counter);
+        }
+        return counter;
+    }
+
+    private ICounter syncCounter(String code) {
+        return metrics.counter(SYNC_METRIC, "server", server, "api", api, "code", code);
+    }
+}
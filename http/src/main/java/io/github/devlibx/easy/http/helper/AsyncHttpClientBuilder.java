@@ -1,23 +1,40 @@
 package io.github.devlibx.easy.http.helper;
 
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @SuppressWarnings("unchecked")
 public class AsyncHttpClientBuilder implements IClientBuilder {
     private final Map<String, WebClient> httpClientMap;
 
     public AsyncHttpClientBuilder() {
-        this.httpClientMap = new HashMap<>();
+        this.httpClientMap = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -33,10 +50,37 @@ public class AsyncHttpClientBuilder implements IClientBuilder {
         }
 
         String key = server.getName() + "-" + api.getName();
-        if (httpClientMap.containsKey(key)) {
-            return (T) httpClientMap.get(key);
+        return (T) httpClientMap.computeIfAbsent(key, k -> buildWebClient(server, api));
+    }
+
+    /**
+     * Reactor netty (0.9.x) does not support opening connections up-front. If the server has a warm-up path then
+     * we make "warmUpConnectionCount" parallel calls to it (to every endpoint of the server), which leaves these
+     * connections open in the pool.
+     */
+    @Override
+    public boolean warmUp(Server server, Api api, long timeoutMs) {
+        WebClient webClient = buildClient(server, api, WebClient.class);
+        if (Strings.isNullOrEmpty(server.getWarmUpPath())) {
+            return true;
         }
 
+        int count = Math.max(1, Math.min(server.getWarmUpConnectionCount(), api.getConcurrency()));
+        try {
+            Flux.fromIterable(server.getEndpointList())
+                    .map(endpoint -> server.hasEndpoints() ? UriEncoder.baseUrl(server, endpoint) + server.getWarmUpPath() : server.getWarmUpPath())
+                    .flatMap(uri -> Flux.range(0, count).flatMap(i -> webClient.get().uri(uri).exchangeToMono(ClientResponse::releaseBody)))
+                    .then()
+                    .block(Duration.ofMillis(timeoutMs));
+            return true;
+        } catch (Exception e) {
+            log.warn("failed to call warm-up path: server={} path={} error={}", server.getName(), server.getWarmUpPath(), e.getMessage());
+            return false;
+        }
+    }
+
+    private WebClient buildWebClient(Server server, Api api) {
+        // Connection provider keeps a pool per remote address - i.e. per endpoint of the server
         HttpClient httpClient = HttpClient.create(
                 ConnectionProvider.create(
                         server.getName() + "-" + api.getName(),
@@ -47,13 +91,50 @@ public class AsyncHttpClientBuilder implements IClientBuilder {
                         .addHandlerLast(new ReadTimeoutHandler(api.getTimeout(), TimeUnit.MILLISECONDS))
                 )
         );
-        WebClient webClient = WebClient.builder()
-                .baseUrl(server.getUrl())
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
+        WebClient.Builder builder = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+        if (server.isResponseCompression()) {
+            builder.filter(decompressFilter());
+        }
 
-        httpClientMap.put(key, webClient);
-        return (T) webClient;
+        // Server with endpoints - request processor gives absolute url of the endpoint picked for each request
+        if (!server.hasEndpoints()) {
+            builder.baseUrl(server.getUrl());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Decompress gzip/deflate response body - body is joined and decompressed to a new buffer. Encoding headers are
+     * removed, so that it looks like a plain response to the request processor.
+     */
+    private static ExchangeFilterFunction decompressFilter() {
+        return (request, next) -> next.exchange(request).map(response -> {
+            String encoding = response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (!ContentEncoding.isSupported(encoding)) {
+                return response;
+            }
+            IRatio ratio = (IRatio) request.attribute(ContentEncoding.RATIO_ATTRIBUTE).orElse(null);
+            return response.mutate()
+                    .headers(headers -> {
+                        headers.remove(HttpHeaders.CONTENT_ENCODING);
+                        headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    })
+                    .body(body -> DataBufferUtils.join(body).map(buffer -> decode(encoding, buffer, ratio)).flux())
+                    .build();
+        });
+    }
+
+    private static DataBuffer decode(String encoding, DataBuffer buffer, IRatio ratio) {
+        DataBuffer decoded = DefaultDataBufferFactory.sharedInstance.allocateBuffer((int) Math.min(Integer.MAX_VALUE - 8, buffer.readableByteCount() * 4L));
+        try (InputStream raw = buffer.asInputStream(true);
+             InputStream in = ContentEncoding.decode(encoding, raw, ratio);
+             OutputStream out = decoded.asOutputStream()) {
+            ByteStreams.copy(in, out);
+            return decoded;
+        } catch (IOException e) {
+            DataBufferUtils.release(decoded);
+            throw Exceptions.propagate(e);
+        }
     }
 
     @Override
@@ -0,0 +1,99 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Static headers of a server or api with values converted to string once.
+ */
+public final class CompiledHeaders {
+    public static final CompiledHeaders EMPTY = new CompiledHeaders(null, new String[0], new String[0]);
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final Map<String, Object> source;
+    private final String[] names;
+    private final String[] values;
+
+    private CompiledHeaders(Map<String, Object> source, String[] names, String[] values) {
+        this.source = source;
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * @return compiled headers for the given header map
+     */
+    public static CompiledHeaders compile(Map<String, ?> headers, StringHelper stringHelper) {
+        if (headers == null || headers.isEmpty()) {
+            return new CompiledHeaders(cast(headers), new String[0], new String[0]);
+        }
+        String[] names = new String[headers.size()];
+        String[] values = new String[headers.size()];
+        int i = 0;
+        for (Map.Entry<String, ?> entry : headers.entrySet()) {
+            names[i] = entry.getKey();
+            values[i] = stringHelper.stringify(entry.getValue());
+            i++;
+        }
+        return new CompiledHeaders(cast(headers), names, values);
+    }
+
+    /**
+     * @return true if these headers were compiled from the given map object
+     */
+    public boolean isCompiledFrom(Map<String, ?> headers) {
+        return source == headers;
+    }
+
+    /**
+     * @return true if there is a header with this name (exact match)
+     */
+    public boolean contains(String name) {
+        for (String n : names) {
+            if (n.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void forEach(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < names.length; i++) {
+            consumer.accept(names[i], values[i]);
+        }
+    }
+
+    /**
+     * Give all headers for a request - server headers, request headers and api headers.
+     * <p>
+     * A api header overrides the request header with the same name. If there is no content type then
+     * "Content-Type: application/json" is added.
+     */
+    public static void forEachRequestHeader(CompiledHeaders serverHeaders, CompiledHeaders apiHeaders, Map<String, Object> requestHeaders, StringHelper stringHelper, BiConsumer<String, String> consumer) {
+        serverHeaders.forEach(consumer);
+
+        boolean hasContentType = false;
+        if (requestHeaders != null) {
+            for (Map.Entry<String, Object> entry : requestHeaders.entrySet()) {
+                if (CONTENT_TYPE.equals(entry.getKey()) || "content-type".equals(entry.getKey())) {
+                    hasContentType = true;
+                }
+                if (!apiHeaders.contains(entry.getKey())) {
+                    consumer.accept(entry.getKey(), stringHelper.stringify(entry.getValue()));
+                }
+            }
+        }
+        if (!hasContentType && !apiHeaders.contains(CONTENT_TYPE)) {
+            consumer.accept(CONTENT_TYPE, "application/json");
+        }
+
+        apiHeaders.forEach(consumer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Map<String, ?> headers) {
+        return (Map<String, Object>) headers;
+    }
+}
@@ -4,6 +4,10 @@ import io.github.devlibx.easy.http.IApiConfigPreProcessor;
 import io.github.devlibx.easy.http.config.Api;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Computes concurrency of an api from its rps and timeout. With an adaptive "Api.limitAlgorithm" this is only the
+ * initial limit - the limit then follows the measured latency at runtime.
+ */
 @Slf4j
 public class ConcurrencyApiConfigPreProcessor implements IApiConfigPreProcessor {
 
@@ -0,0 +1,206 @@
+package io.github.devlibx.easy.http.helper;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.CountingOutputStream;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
+import io.github.devlibx.easy.http.RequestBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression of request and response bodies (gzip and deflate).
+ * <p>
+ * Compression ratio (uncompressed bytes / compressed bytes) of each body is reported to the given ratio metric.
+ */
+public final class ContentEncoding {
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    /**
+     * Value of Accept-Encoding header sent to servers with compression=gzip
+     */
+    public static final String SUPPORTED_ENCODINGS = "gzip, deflate";
+
+    /**
+     * Request attribute (async client) which has the ratio metric to report response compression ratio
+     */
+    public static final String RATIO_ATTRIBUTE = ContentEncoding.class.getName() + ".ratio";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * @return true if a body with this Content-Encoding can be decompressed
+     */
+    public static boolean isSupported(String encoding) {
+        return isGzip(encoding) || DEFLATE.equalsIgnoreCase(encoding);
+    }
+
+    /**
+     * Decompress a stream while it is read. Ratio is reported once the stream is read till end (or closed).
+     *
+     * @param encoding Content-Encoding of the body - stream is returned as it is if encoding is not supported
+     * @param ratio    metric to report compression ratio (may be null)
+     */
+    public static InputStream decode(String encoding, InputStream in, IRatio ratio) throws IOException {
+        if (!isSupported(encoding)) {
+            return in;
+        }
+
+        // Empty body (e.g. 204/304 with Content-Encoding) has no gzip header - it is returned as it is
+        PushbackInputStream pushback = new PushbackInputStream(in, 1);
+        int first = pushback.read();
+        if (first == -1) {
+            return pushback;
+        }
+        pushback.unread(first);
+
+        CountingInputStream encoded = new CountingInputStream(pushback);
+        InputStream decoded = isGzip(encoding)
+                ? new GZIPInputStream(encoded, BUFFER_SIZE)
+                : new InflaterInputStream(encoded);
+        return new RatioInputStream(decoded, encoded, ratio);
+    }
+
+    /**
+     * @return body compressed with gzip
+     */
+    public static byte[] compress(byte[] body, IRatio ratio) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            gzip.write(body);
+        }
+        byte[] compressed = out.toByteArray();
+        observe(ratio, body.length, compressed.length);
+        return compressed;
+    }
+
+    /**
+     * @return body which is compressed with gzip while it is written to the connection (size of compressed body is
+     * not known, so it is sent with chunked transfer encoding)
+     */
+    public static RequestBody compress(RequestBody body, IRatio ratio) {
+        return new GzipRequestBody(body, ratio);
+    }
+
+    private static boolean isGzip(String encoding) {
+        return GZIP.equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding);
+    }
+
+    private static void observe(IRatio ratio, long uncompressed, long compressed) {
+        if (ratio != null && compressed > 0) {
+            ratio.observe((double) uncompressed / compressed);
+        }
+    }
+
+    private static class RatioInputStream extends FilterInputStream {
+        private final CountingInputStream encoded;
+        private final IRatio ratio;
+        private long decoded;
+        private boolean reported;
+
+        private RatioInputStream(InputStream in, CountingInputStream encoded, IRatio ratio) {
+            super(in);
+            this.encoded = encoded;
+            this.ratio = ratio;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                report();
+            } else {
+                decoded++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count == -1) {
+                report();
+            } else {
+                decoded += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            decoded += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            report();
+            super.close();
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                observe(ratio, decoded, encoded.getCount());
+            }
+        }
+    }
+
+    private static class GzipRequestBody extends RequestBody {
+        private final RequestBody body;
+        private final IRatio ratio;
+
+        private GzipRequestBody(RequestBody body, IRatio ratio) {
+            this.body = body;
+            this.ratio = ratio;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            CountingOutputStream compressed = new CountingOutputStream(new NonClosingOutputStream(out));
+            CountingOutputStream uncompressed;
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFFER_SIZE)) {
+                uncompressed = new CountingOutputStream(gzip);
+                body.writeTo(uncompressed);
+            }
+            observe(ratio, uncompressed.getCount(), compressed.getCount());
+        }
+    }
+
+    // Body is written to the connection stream - closing gzip stream must not close it
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
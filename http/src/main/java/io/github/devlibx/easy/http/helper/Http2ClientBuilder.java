@@ -0,0 +1,40 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+
+/**
+ * Builds HTTP/2 clients for servers with protocol=h2|h2c.
+ * <p>
+ * HTTP/2 client is only available on Java 21+ runtime (see src/main/java21). This class is used on older runtimes -
+ * {@link #isSupported()} is false and it accepts no server, so EasyHttp sends requests of h2/h2c servers with the
+ * HTTP/1.1 clients instead.
+ */
+public class Http2ClientBuilder implements IClientBuilder {
+
+    /**
+     * @return true if HTTP/2 client is available on this runtime
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean accept(Server server, Api api) {
+        return false;
+    }
+
+    @Override
+    public <T> T buildClient(Server server, Api api, Class<T> cls) {
+        throw new UnsupportedOperationException("protocol=" + server.getProtocol() + " needs Java 21+ runtime: server=" + server.getName());
+    }
+
+    @Override
+    public boolean warmUp(Server server, Api api, long timeoutMs) {
+        return false;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
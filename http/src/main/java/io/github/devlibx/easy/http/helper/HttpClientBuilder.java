@@ -1,15 +1,28 @@
 package io.github.devlibx.easy.http.helper;
 
+import com.google.common.base.Strings;
 import io.gitbub.devlibx.easy.helper.Safe;
 import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Endpoint;
 import io.github.devlibx.easy.http.config.Server;
 import io.opentracing.contrib.apache.http.client.TracingHttpClientBuilder;
 import io.opentracing.util.GlobalTracer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -20,9 +33,13 @@ import java.util.concurrent.TimeUnit;
 public class HttpClientBuilder implements IClientBuilder {
     private final ScheduledExecutorService executorService;
     private final Map<String, CloseableHttpClient> httpClientMap;
+    private final Map<String, PoolingHttpClientConnectionManager> connectionManagerMap;
+    private final Map<String, Map<String, Integer>> sharedPoolApiConcurrencyMap;
 
     public HttpClientBuilder() {
         this.httpClientMap = new ConcurrentHashMap<>();
+        this.connectionManagerMap = new ConcurrentHashMap<>();
+        this.sharedPoolApiConcurrencyMap = new ConcurrentHashMap<>();
         executorService = Executors.newScheduledThreadPool(2);
     }
 
@@ -38,13 +55,81 @@ public class HttpClientBuilder implements IClientBuilder {
         if (!cls.isAssignableFrom(CloseableHttpClient.class)) {
             throw new RuntimeException("cls type must be CloseableHttpClient");
         }
+        String key = clientKey(server, api);
+        CloseableHttpClient client = httpClientMap.computeIfAbsent(key, k -> buildHttpClient(server, api));
+        if (server.isSharedConnectionPool()) {
+            addApiToSharedPool(server, api, key);
+        }
+        return (T) client;
+    }
+
+    /**
+     * Pre-open connections in the pool and (if configured) call the warm-up path of the server.
+     */
+    @Override
+    public boolean warmUp(Server server, Api api, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        CloseableHttpClient client = buildClient(server, api, CloseableHttpClient.class);
+        PoolingHttpClientConnectionManager connectionManager = connectionManagerMap.get(clientKey(server, api));
+
+        // Warm-up every endpoint of the server - each endpoint is a separate route in the pool
+        boolean ok = true;
+        for (Endpoint endpoint : server.getEndpointList()) {
+            ok &= warmUp(server, api, endpoint, client, connectionManager, deadline);
+        }
+        return ok;
+    }
+
+    private boolean warmUp(Server server, Api api, Endpoint endpoint, CloseableHttpClient client, PoolingHttpClientConnectionManager connectionManager, long deadline) {
+
+        // Open connections - all connections are held till the end so that each request opens a new connection
+        int connectionsToOpen = Math.min(server.getWarmUpConnectionCount(), api.getConcurrency());
+        int opened = 0;
+        if (connectionManager != null && connectionsToOpen > 0) {
+            HttpRoute route = buildRoute(server, endpoint);
+            List<HttpClientConnection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < connectionsToOpen && System.currentTimeMillis() < deadline; i++) {
+                    HttpClientConnection connection = connectionManager.requestConnection(route, null).get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    connections.add(connection);
+                    if (!connection.isOpen()) {
+                        HttpContext context = new BasicHttpContext();
+                        connectionManager.connect(connection, route, server.getConnectTimeout(), context);
+                        connectionManager.routeComplete(connection, route, context);
+                    }
+                    opened++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("failed to open warm-up connection: server={} api={} endpoint={}:{} error={}", server.getName(), api.getName(), endpoint.getHost(), endpoint.getPort(), e.getMessage());
+            } finally {
+                connections.forEach(connection -> connectionManager.releaseConnection(connection, null, server.getPollingConnectionTtlInMs(), TimeUnit.MILLISECONDS));
+            }
+        }
 
-        CloseableHttpClient client;
-        if (!httpClientMap.containsKey(server.getName() + "-" + api.getName())) {
-            client = buildHttpClient(server, api);
-            httpClientMap.put(server.getName() + "-" + api.getName(), client);
+        // Call the warm-up path - we never call the real api for warm-up
+        boolean warmUpPathOk = true;
+        if (!Strings.isNullOrEmpty(server.getWarmUpPath()) && System.currentTimeMillis() < deadline) {
+            int remaining = (int) Math.max(1, deadline - System.currentTimeMillis());
+            try {
+                HttpGet get = new HttpGet(new URIBuilder()
+                        .setScheme(server.isHttps() ? "https" : "http")
+                        .setHost(endpoint.getHost())
+                        .setPort(endpoint.getPort())
+                        .setPath(server.getWarmUpPath())
+                        .build());
+                get.setConfig(RequestConfig.custom().setConnectTimeout(server.getConnectTimeout()).setConnectionRequestTimeout(remaining).setSocketTimeout(remaining).build());
+                try (CloseableHttpResponse response = client.execute(get)) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    log.debug("warm-up path called: server={} endpoint={}:{} path={} status={}", server.getName(), endpoint.getHost(), endpoint.getPort(), server.getWarmUpPath(), response.getStatusLine().getStatusCode());
+                }
+            } catch (Exception e) {
+                warmUpPathOk = false;
+                log.warn("failed to call warm-up path: server={} endpoint={}:{} path={} error={}", server.getName(), endpoint.getHost(), endpoint.getPort(), server.getWarmUpPath(), e.getMessage());
+            }
         }
-        return (T) httpClientMap.get(server.getName() + "-" + api.getName());
+        return opened == connectionsToOpen && warmUpPathOk;
     }
 
     @Override
@@ -70,8 +155,10 @@ public class HttpClientBuilder implements IClientBuilder {
         } else {
             connectionManager = new PoolingHttpClientConnectionManager();
         }
-        connectionManager.setMaxTotal(api.getConcurrency());
+        // Each endpoint is a route - it gets "concurrency" connections
+        connectionManager.setMaxTotal(api.getConcurrency() * server.getEndpointList().size());
         connectionManager.setDefaultMaxPerRoute(api.getConcurrency());
+        connectionManagerMap.put(clientKey(server, api), connectionManager);
 
         executorService.scheduleWithFixedDelay(() -> {
             connectionManager.closeExpiredConnections();
@@ -81,6 +168,48 @@ public class HttpClientBuilder implements IClientBuilder {
         TracingHttpClientBuilder builder = new TracingHttpClientBuilder().withTracer(GlobalTracer.get());
         builder.setDefaultRequestConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
         builder.setConnectionManager(connectionManager);
+
+        // Compression is set for this server - request processor asks for it and decompresses (to report ratio)
+        if (!Strings.isNullOrEmpty(server.getCompression())) {
+            builder.disableContentCompression();
+        }
         return builder.build();
     }
+
+    // Connection pool of the client of this api (null if client is not built yet)
+    PoolingHttpClientConnectionManager getConnectionManager(Server server, Api api) {
+        return connectionManagerMap.get(clientKey(server, api));
+    }
+
+    // With shared connection pool there is a single client for all apis of a server
+    private static String clientKey(Server server, Api api) {
+        return server.isSharedConnectionPool() ? server.getName() : server.getName() + "-" + api.getName();
+    }
+
+    // Grow the shared pool by the concurrency of a newly added api
+    private void addApiToSharedPool(Server server, Api api, String key) {
+        Map<String, Integer> apiConcurrency = sharedPoolApiConcurrencyMap.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        if (apiConcurrency.putIfAbsent(api.getName(), api.getConcurrency()) != null) {
+            return;
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = connectionManagerMap.get(key);
+        int maxConnections;
+        synchronized (connectionManager) {
+            maxConnections = apiConcurrency.values().stream().mapToInt(Integer::intValue).sum();
+            if (server.getMaxConnections() > 0) {
+                maxConnections = Math.min(maxConnections, server.getMaxConnections());
+            }
+            connectionManager.setMaxTotal(maxConnections * server.getEndpointList().size());
+            connectionManager.setDefaultMaxPerRoute(maxConnections);
+        }
+        log.info("Shared connection pool: server={} apis={} maxConnections={}", server.getName(), apiConcurrency.keySet(), maxConnections);
+    }
+
+    // Same route which the default route planner makes for a request to this endpoint (port is resolved from scheme)
+    private static HttpRoute buildRoute(Server server, Endpoint endpoint) {
+        String scheme = server.isHttps() ? "https" : "http";
+        int port = endpoint.getPort() > 0 ? endpoint.getPort() : (server.isHttps() ? 443 : 80);
+        return new HttpRoute(new HttpHost(endpoint.getHost(), port, scheme), null, server.isHttps());
+    }
 }
@@ -15,6 +15,15 @@ public interface IClientBuilder {
      */
     <T> T buildClient(Server server, Api api, Class<T> cls);
 
+    /**
+     * Warm-up the client for server and api e.g. open connections and call the warm-up path of the server.
+     *
+     * @return true if client is warmed up (or it does not need a warm-up)
+     */
+    default boolean warmUp(Server server, Api api, long timeoutMs) {
+        return true;
+    }
+
     /**
      * Shutdown builder
      */
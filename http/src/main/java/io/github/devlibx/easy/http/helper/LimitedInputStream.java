@@ -0,0 +1,84 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResponseBodyTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream which fails with {@link EasyResponseBodyTooLargeException} once more than max bytes are read.
+ */
+public class LimitedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long count;
+    private long mark;
+
+    private LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return stream limited to max bytes - the given stream as it is if max bytes is not set (<= 0)
+     */
+    public static InputStream wrap(InputStream in, long maxBytes) {
+        if (in == null || maxBytes <= 0) {
+            return in;
+        }
+        return new LimitedInputStream(in, maxBytes);
+    }
+
+    /**
+     * Fail fast if the server told us the size of body up front (content length is -1 if not known)
+     */
+    public static void ensureContentLength(long contentLength, long maxBytes) {
+        if (maxBytes > 0 && contentLength > maxBytes) {
+            throw new EasyResponseBodyTooLargeException(maxBytes);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = super.read();
+        if (result != -1) {
+            count(1);
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int result = super.read(b, off, len);
+        if (result > 0) {
+            count(result);
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long result = super.skip(n);
+        count(result);
+        return result;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        super.mark(readLimit);
+        mark = count;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        super.reset();
+        count = mark;
+    }
+
+    private void count(long read) {
+        count += read;
+        if (count > maxBytes) {
+            throw new EasyResponseBodyTooLargeException(maxBytes);
+        }
+    }
+}
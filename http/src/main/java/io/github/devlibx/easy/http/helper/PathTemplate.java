@@ -0,0 +1,126 @@
+package io.github.devlibx.easy.http.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A api path (e.g. /users/${id}/orders) parsed once into literal parts and variables.
+ * <p>
+ * Expansion follows StrSubstitutor rules which were used before: "${name}" is replaced by path param "name",
+ * "${name:-default}" uses default if param is missing, "$${" is a escaped "${" and a missing param leaves the
+ * variable as-is. Unlike StrSubstitutor, a param value is not expanded again.
+ */
+public final class PathTemplate {
+    private final String template;
+    private final String[] literals;
+    private final String[] variables;
+    private final String[] defaults;
+    private final String[] rawVariables;
+    private final int literalLength;
+
+    private PathTemplate(String template, List<String> literals, List<String> variables, List<String> defaults, List<String> rawVariables) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        this.defaults = defaults.toArray(new String[0]);
+        this.rawVariables = rawVariables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @return compiled template for the given path
+     */
+    public static PathTemplate compile(String path) {
+        String template = path == null ? "" : path;
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        List<String> rawVariables = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            if (template.startsWith("$${", i)) {
+                literal.append("${");
+                i += 3;
+            } else if (template.startsWith("${", i) && template.indexOf('}', i + 2) > 0) {
+                int end = template.indexOf('}', i + 2);
+                String variable = template.substring(i + 2, end);
+                int defaultIndex = variable.indexOf(":-");
+                literals.add(literal.toString());
+                literal.setLength(0);
+                variables.add(defaultIndex >= 0 ? variable.substring(0, defaultIndex) : variable);
+                defaults.add(defaultIndex >= 0 ? variable.substring(defaultIndex + 2) : null);
+                rawVariables.add(template.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                literal.append(template.charAt(i));
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new PathTemplate(template, literals, variables, defaults, rawVariables);
+    }
+
+    /**
+     * @return the path this template was compiled from
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return path with path params (not url encoded). It always starts with "/"
+     */
+    public String expand(Map<String, Object> pathParams) {
+        StringBuilder sb = new StringBuilder(literalLength + 16 * variables.length + 1);
+        expand(pathParams, sb, false);
+        return sb.toString();
+    }
+
+    /**
+     * Append path with path params to the given string builder. It always starts with "/"
+     *
+     * @param encode if true then the path is url encoded (same as URIBuilder path encoding)
+     */
+    public void expand(Map<String, Object> pathParams, StringBuilder sb, boolean encode) {
+        int start = sb.length();
+        sb.append('/');
+
+        // Without path params the path is used as-is
+        if (pathParams == null) {
+            append(sb, template, encode);
+        } else {
+            for (int i = 0; i < variables.length; i++) {
+                append(sb, literals[i], encode);
+                Object value = pathParams.get(variables[i]);
+                if (value != null) {
+                    append(sb, value.toString(), encode);
+                } else if (defaults[i] != null) {
+                    append(sb, defaults[i], encode);
+                } else {
+                    append(sb, rawVariables[i], encode);
+                }
+            }
+            append(sb, literals[variables.length], encode);
+        }
+
+        // Path must start with "/" - drop the "/" we added if path already has one
+        if (sb.length() > start + 1 && sb.charAt(start + 1) == '/') {
+            sb.deleteCharAt(start);
+        }
+    }
+
+    private static void append(StringBuilder sb, String value, boolean encode) {
+        if (encode) {
+            UriEncoder.appendEncodedPath(sb, value);
+        } else {
+            sb.append(value);
+        }
+    }
+}
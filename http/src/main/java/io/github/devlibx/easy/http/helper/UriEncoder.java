@@ -0,0 +1,154 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.lb.EndpointState;
+
+import javax.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds request URI in a single string builder. Encoding is same as Apache URIBuilder i.e. path is encoded with
+ * "path safe" chars and query params are form encoded (UTF-8).
+ */
+public final class UriEncoder {
+    private static final BitSet UNRESERVED = new BitSet(256);
+    private static final BitSet PATH_SAFE = new BitSet(256);
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (int i = 'a'; i <= 'z'; i++) UNRESERVED.set(i);
+        for (int i = 'A'; i <= 'Z'; i++) UNRESERVED.set(i);
+        for (int i = '0'; i <= '9'; i++) UNRESERVED.set(i);
+        for (char c : "_-!.~'()*".toCharArray()) UNRESERVED.set(c);
+        PATH_SAFE.or(UNRESERVED);
+        for (char c : "/;:@&=+$,".toCharArray()) PATH_SAFE.set(c);
+    }
+
+    private UriEncoder() {
+    }
+
+    /**
+     * @return URI for this request (server base url + api path with path params + query params)
+     */
+    public static URI buildUri(Server server, Api api, RequestObject request, StringHelper stringHelper) {
+        return buildUri(server, null, api, request, stringHelper);
+    }
+
+    /**
+     * @param endpoint endpoint picked for this request (null = use host/port of server)
+     * @return URI for this request (endpoint base url + api path with path params + query params)
+     */
+    public static URI buildUri(Server server, EndpointState endpoint, Api api, RequestObject request, StringHelper stringHelper) {
+        StringBuilder sb = new StringBuilder(128);
+        if (endpoint != null) {
+            sb.append(endpoint.getBaseUrl());
+        } else {
+            appendBaseUrl(sb, server);
+        }
+        api.getPathTemplate().expand(request.getPathParam(), sb, true);
+        appendEncodedQuery(sb, request.getQueryParam(), stringHelper);
+        return URI.create(sb.toString());
+    }
+
+    /**
+     * @return scheme, host and port of an endpoint of this server e.g. http://localhost:8080
+     */
+    public static String baseUrl(Server server, Endpoint endpoint) {
+        StringBuilder sb = new StringBuilder(64);
+        appendBaseUrl(sb, server.isHttps(), endpoint.getHost(), endpoint.getPort());
+        return sb.toString();
+    }
+
+    /**
+     * Append scheme, host and port (port is skipped if it is -1)
+     */
+    public static void appendBaseUrl(StringBuilder sb, Server server) {
+        appendBaseUrl(sb, server.isHttps(), server.getHost(), server.getPort());
+    }
+
+    /**
+     * Append scheme, host and port (port is skipped if it is -1)
+     */
+    public static void appendBaseUrl(StringBuilder sb, boolean https, String host, int port) {
+        sb.append(https ? "https://" : "http://");
+        if (host.indexOf(':') >= 0 && !host.startsWith("[")) {
+            sb.append('[').append(host).append(']');
+        } else {
+            sb.append(host);
+        }
+        if (port >= 0) {
+            sb.append(':').append(port);
+        }
+    }
+
+    /**
+     * Append "?k=v&k1=v1" (form encoded). Nothing is appended if there are no query params.
+     */
+    public static void appendEncodedQuery(StringBuilder sb, MultivaluedMap<String, Object> queryParams, StringHelper stringHelper) {
+        if (queryParams == null || queryParams.isEmpty()) {
+            return;
+        }
+        char separator = '?';
+        for (Map.Entry<String, List<Object>> entry : queryParams.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            for (Object value : entry.getValue()) {
+                sb.append(separator);
+                separator = '&';
+                encode(sb, entry.getKey(), UNRESERVED, true);
+                String stringValue = stringHelper.stringify(value);
+                if (stringValue != null) {
+                    sb.append('=');
+                    encode(sb, stringValue, UNRESERVED, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Append url encoded path
+     */
+    public static void appendEncodedPath(StringBuilder sb, String path) {
+        encode(sb, path, PATH_SAFE, false);
+    }
+
+    private static void encode(StringBuilder sb, String value, BitSet safe, boolean blankAsPlus) {
+        if (value == null) {
+            return;
+        }
+
+        // Fast path - nothing to encode
+        int i = 0;
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 255 || !safe.get(c)) {
+                break;
+            }
+        }
+        if (i == value.length()) {
+            sb.append(value);
+            return;
+        }
+
+        sb.append(value, 0, i);
+        for (byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (safe.get(c)) {
+                sb.append((char) c);
+            } else if (blankAsPlus && c == ' ') {
+                sb.append('+');
+            } else {
+                sb.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+    }
+}
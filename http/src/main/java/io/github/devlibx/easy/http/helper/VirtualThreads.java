@@ -0,0 +1,29 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.reactivex.rxjava3.core.Scheduler;
+
+/**
+ * Virtual threads to run blocking http calls.
+ * <p>
+ * Virtual threads are only available on Java 21+ runtime (see src/main/java21). This class is used on older runtimes
+ * and reports that virtual threads are not supported - callers keep using platform threads.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if this runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @return scheduler which runs each task on a new virtual thread (null if virtual threads are not supported)
+     */
+    public static Scheduler scheduler() {
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.RequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * Input stream of a body which is written by {@link RequestBody#writeTo} on another thread. Bytes go through a pipe
+ * of fixed size - the writer waits while the pipe is full, so the body is never held in memory as a whole.
+ * <p>
+ * If the writer fails then the read fails (after bytes written till then), so a partial body is never read as
+ * complete. If the reader closes this stream (e.g. request is cancelled) then the writer fails with "Pipe closed".
+ */
+public class WriterInputStream extends PipedInputStream {
+    private volatile Exception error;
+
+    private WriterInputStream(int pipeSize) {
+        super(pipeSize);
+    }
+
+    /**
+     * Start writing the body on given executor
+     *
+     * @return stream to read the body while it is written
+     */
+    public static InputStream start(RequestBody body, int pipeSize, Executor executor) throws IOException {
+        WriterInputStream in = new WriterInputStream(pipeSize);
+        PipedOutputStream out = new PipedOutputStream(in);
+        executor.execute(() -> {
+            try {
+                body.writeTo(out);
+            } catch (Exception e) {
+                in.error = e;
+            } finally {
+
+                // Error is set before close - reader sees the error instead of end of stream
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        return in;
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        return failIfWriterFailed(super.read());
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        return failIfWriterFailed(super.read(b, off, len));
+    }
+
+    private int failIfWriterFailed(int read) throws IOException {
+        Exception e = error;
+        if (read < 0 && e != null) {
+            throw e instanceof IOException ? (IOException) e : new IOException("failed to write body", e);
+        }
+        return read;
+    }
+}
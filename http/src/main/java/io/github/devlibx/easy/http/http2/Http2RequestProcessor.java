@@ -0,0 +1,34 @@
+package io.github.devlibx.easy.http.http2;
+
+import com.google.inject.Inject;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.ServerRegistry;
+import io.github.devlibx.easy.http.sync.IHttpResponseProcessor;
+import io.reactivex.rxjava3.core.Observable;
+
+/**
+ * Request processor for servers with protocol=h2|h2c.
+ * <p>
+ * HTTP/2 client is only available on Java 21+ runtime (see src/main/java21). This class is used on older runtimes,
+ * where EasyHttp does not use it - requests of h2/h2c servers are sent with HTTP/1.1 (see
+ * {@link io.github.devlibx.easy.http.helper.Http2ClientBuilder#isSupported()}).
+ */
+public class Http2RequestProcessor implements IRequestProcessor {
+
+    @Inject
+    public Http2RequestProcessor(ServerRegistry serverRegistry, ApiRegistry apiRegistry, IHttpResponseProcessor httpResponseProcessor, IMetrics metrics) {
+    }
+
+    @Override
+    public Observable<ResponseObject> process(RequestObject requestObject) {
+        return Observable.error(new UnsupportedOperationException("protocol=h2|h2c needs Java 21+ runtime: api=" + requestObject.getApi()));
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.devlibx.easy.http.lb;
+
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.UriEncoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks endpoint of a multi-endpoint server using the load balancer of the server, and ejects endpoints which keep
+ * failing (outlier ejection).
+ * <p>
+ * Every {@link #select()} must be followed by {@link #onComplete(EndpointState, long, boolean)} or
+ * {@link #cancel(EndpointState)}.
+ */
+@Slf4j
+public class EndpointSelector {
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final String server;
+    private final List<EndpointState> endpoints;
+    private final ILoadBalancer loadBalancer;
+    private final int ejectAfterConsecutiveFailures;
+    private final long ejectionTimeMs;
+    private final int maxEjectionPercent;
+    private final LongSupplier clock;
+
+    public EndpointSelector(Server server) {
+        this(server, System::currentTimeMillis);
+    }
+
+    EndpointSelector(Server server, LongSupplier clock) {
+        this.server = server.getName();
+        this.loadBalancer = loadBalancer(server.getLoadBalancer());
+        this.ejectAfterConsecutiveFailures = Math.max(1, server.getEjectAfterConsecutiveFailures());
+        this.ejectionTimeMs = server.getEjectionTimeMs();
+        this.maxEjectionPercent = server.getMaxEjectionPercent();
+        this.clock = clock;
+
+        List<EndpointState> list = new ArrayList<>();
+        for (Endpoint endpoint : server.getEndpointList()) {
+            list.add(new EndpointState(endpoint, UriEncoder.baseUrl(server, endpoint)));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return load balancer for the given name (round-robin if name is not known)
+     */
+    public static ILoadBalancer loadBalancer(String name) {
+        if ("least-outstanding".equalsIgnoreCase(name)) {
+            return new LeastOutstandingLoadBalancer();
+        } else if ("p2c-ewma".equalsIgnoreCase(name)) {
+            return new PowerOfTwoChoicesLoadBalancer();
+        }
+        return new RoundRobinLoadBalancer();
+    }
+
+    /**
+     * @return all endpoints of this server
+     */
+    public List<EndpointState> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return endpoint to use for a request - ejected endpoints are skipped (unless all endpoints are ejected)
+     */
+    public EndpointState select() {
+        long now = clock.getAsLong();
+        List<EndpointState> available = endpoints;
+        for (EndpointState endpoint : endpoints) {
+            if (endpoint.isEjected(now)) {
+                available = available(now);
+                break;
+            }
+        }
+        EndpointState endpoint = loadBalancer.choose(available);
+        endpoint.onStart();
+        return endpoint;
+    }
+
+    /**
+     * Request to this endpoint is done
+     *
+     * @param latencyNanos time taken by the request
+     * @param failure      true if request failed (error or 5xx)
+     */
+    public void onComplete(EndpointState endpoint, long latencyNanos, boolean failure) {
+        endpoint.onEnd();
+        endpoint.recordLatency(latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        if (!failure) {
+            endpoint.consecutiveFailures.set(0);
+            if (endpoint.probation) {
+                synchronized (this) {
+                    endpoint.probation = false;
+                    endpoint.ejectionCount = Math.max(0, endpoint.ejectionCount - 1);
+                }
+            }
+            return;
+        }
+
+        int failures = endpoint.consecutiveFailures.incrementAndGet();
+        if (endpoint.probation || failures >= ejectAfterConsecutiveFailures) {
+            eject(endpoint);
+        }
+    }
+
+    /**
+     * Request to this endpoint was not made
+     */
+    public void cancel(EndpointState endpoint) {
+        endpoint.onEnd();
+    }
+
+    private List<EndpointState> available(long now) {
+        List<EndpointState> available = new ArrayList<>(endpoints.size());
+        for (EndpointState endpoint : endpoints) {
+            if (!endpoint.isEjected(now)) {
+                available.add(endpoint);
+            }
+        }
+
+        // Panic - everything is ejected, spread the load over all endpoints
+        return available.isEmpty() ? endpoints : available;
+    }
+
+    private synchronized void eject(EndpointState endpoint) {
+        long now = clock.getAsLong();
+        if (endpoint.isEjected(now)) {
+            return;
+        }
+
+        // Keep enough endpoints to take the load
+        int ejected = 0;
+        for (EndpointState e : endpoints) {
+            if (e.isEjected(now)) {
+                ejected++;
+            }
+        }
+        if ((ejected + 1) * 100 > maxEjectionPercent * endpoints.size()) {
+            return;
+        }
+
+        endpoint.ejectionCount = Math.min(MAX_EJECTION_MULTIPLIER, endpoint.ejectionCount + 1);
+        endpoint.ejectedUntil = now + ejectionTimeMs * endpoint.ejectionCount;
+        endpoint.probation = true;
+        endpoint.consecutiveFailures.set(0);
+        log.warn("endpoint ejected: server={} endpoint={} ejectionTimeMs={}", server, endpoint, ejectionTimeMs * endpoint.ejectionCount);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.devlibx.easy.http.lb;
+
+import io.github.devlibx.easy.http.config.Endpoint;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runtime state of an endpoint - in-flight requests, latency and ejection
+ */
+public class EndpointState {
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * Latency used for an endpoint before its first response - so that new endpoints are tried
+     */
+    private static final double INITIAL_LATENCY_MS = 1;
+
+    @Getter
+    private final Endpoint endpoint;
+
+    /**
+     * Scheme, host and port of this endpoint e.g. http://localhost:8080
+     */
+    @Getter
+    private final String baseUrl;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile double latencyEwmaMs = INITIAL_LATENCY_MS;
+    private volatile boolean latencySampled;
+
+    // Ejection state - updated under lock of EndpointSelector
+    final AtomicInteger consecutiveFailures = new AtomicInteger();
+    volatile long ejectedUntil;
+    volatile boolean probation;
+    int ejectionCount;
+
+    EndpointState(Endpoint endpoint, String baseUrl) {
+        this.endpoint = endpoint;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * @return no of in-flight requests to this endpoint
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return latency of this endpoint (exponentially weighted moving average)
+     */
+    public double getLatencyEwmaMs() {
+        return latencyEwmaMs;
+    }
+
+    /**
+     * @return true if this endpoint is ejected at this time
+     */
+    public boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+    }
+
+    void onEnd() {
+        outstanding.decrementAndGet();
+    }
+
+    // Racy read-modify-write is fine here - a lost sample does not matter for a moving average
+    void recordLatency(double latencyMs) {
+        if (!latencySampled) {
+            latencySampled = true;
+            latencyEwmaMs = latencyMs;
+        } else {
+            latencyEwmaMs = latencyEwmaMs + EWMA_ALPHA * (latencyMs - latencyEwmaMs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.devlibx.easy.http.lb;
+
+import java.util.List;
+
+/**
+ * Picks an endpoint for a request
+ */
+public interface ILoadBalancer {
+
+    /**
+     * @param endpoints endpoints to pick from (never empty)
+     * @return endpoint to use for the request
+     */
+    EndpointState choose(List<EndpointState> endpoints);
+}
@@ -0,0 +1,25 @@
+package io.github.devlibx.easy.http.lb;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks endpoint with least no of in-flight requests. Scan starts at a random endpoint so that ties do not always go
+ * to the same endpoint.
+ */
+public class LeastOutstandingLoadBalancer implements ILoadBalancer {
+
+    @Override
+    public EndpointState choose(List<EndpointState> endpoints) {
+        int size = endpoints.size();
+        int start = size > 1 ? ThreadLocalRandom.current().nextInt(size) : 0;
+        EndpointState best = null;
+        for (int i = 0; i < size; i++) {
+            EndpointState endpoint = endpoints.get((start + i) % size);
+            if (best == null || endpoint.getOutstanding() < best.getOutstanding()) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+}
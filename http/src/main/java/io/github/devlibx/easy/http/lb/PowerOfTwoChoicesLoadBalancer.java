@@ -0,0 +1,32 @@
+package io.github.devlibx.easy.http.lb;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices - picks two random endpoints and uses the one with lower cost. Cost is the latency (EWMA) of the
+ * endpoint multiplied by its in-flight requests + 1.
+ */
+public class PowerOfTwoChoicesLoadBalancer implements ILoadBalancer {
+
+    @Override
+    public EndpointState choose(List<EndpointState> endpoints) {
+        int size = endpoints.size();
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        EndpointState a = endpoints.get(first);
+        EndpointState b = endpoints.get(second);
+        return cost(a) <= cost(b) ? a : b;
+    }
+
+    private static double cost(EndpointState endpoint) {
+        return endpoint.getLatencyEwmaMs() * (endpoint.getOutstanding() + 1);
+    }
+}
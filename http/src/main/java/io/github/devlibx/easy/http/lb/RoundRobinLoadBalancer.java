@@ -0,0 +1,16 @@
+package io.github.devlibx.easy.http.lb;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks endpoints one after the other
+ */
+public class RoundRobinLoadBalancer implements ILoadBalancer {
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public EndpointState choose(List<EndpointState> endpoints) {
+        return endpoints.get(Math.floorMod(next.getAndIncrement(), endpoints.size()));
+    }
+}
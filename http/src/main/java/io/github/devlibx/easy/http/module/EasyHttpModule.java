@@ -2,9 +2,14 @@ package io.github.devlibx.easy.http.module;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import com.google.inject.multibindings.MapBinder;
+import io.gitbub.devlibx.easy.helper.healthcheck.IHealthCheckProvider;
 import io.github.devlibx.easy.http.IRequestProcessor;
 import io.github.devlibx.easy.http.async.AsyncRequestProcessor;
+import io.github.devlibx.easy.http.healthcheck.EasyHttpWarmUpHealthCheckProvider;
+import io.github.devlibx.easy.http.http2.Http2RequestProcessor;
 import io.github.devlibx.easy.http.helper.AsyncHttpClientBuilder;
+import io.github.devlibx.easy.http.helper.Http2ClientBuilder;
 import io.github.devlibx.easy.http.helper.HttpClientBuilder;
 import io.github.devlibx.easy.http.helper.IClientBuilder;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
@@ -23,5 +28,12 @@ public class EasyHttpModule extends AbstractModule {
         bind(IRequestProcessor.class).annotatedWith(Async.class).to(AsyncRequestProcessor.class).in(Scopes.SINGLETON);
         bind(IClientBuilder.class).annotatedWith(Sync.class).to(HttpClientBuilder.class).in(Scopes.SINGLETON);
         bind(IClientBuilder.class).annotatedWith(Async.class).to(AsyncHttpClientBuilder.class).in(Scopes.SINGLETON);
+        bind(IRequestProcessor.class).annotatedWith(Http2.class).to(Http2RequestProcessor.class).in(Scopes.SINGLETON);
+        bind(IClientBuilder.class).annotatedWith(Http2.class).to(Http2ClientBuilder.class).in(Scopes.SINGLETON);
+
+        // Provide health check which is unhealthy till warm-up is done
+        MapBinder<String, IHealthCheckProvider> healthCheckProviderMultiBinder = MapBinder.newMapBinder(binder(), String.class, IHealthCheckProvider.class);
+        healthCheckProviderMultiBinder.permitDuplicates();
+        healthCheckProviderMultiBinder.addBinding("easy-http-warm-up").to(EasyHttpWarmUpHealthCheckProvider.class);
     }
 }
@@ -5,8 +5,10 @@ import io.gitbub.devlibx.easy.helper.Safe;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Config;
 import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.Http2ClientBuilder;
 import io.github.devlibx.easy.http.helper.IClientBuilder;
 import io.github.devlibx.easy.http.module.Async;
+import io.github.devlibx.easy.http.module.Http2;
 import io.github.devlibx.easy.http.module.Sync;
 import lombok.Getter;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -21,11 +23,20 @@ public class ApiRegistry {
     private final Map<String, Api> apiMap;
     private final IClientBuilder httpClientBuilder;
     private final IClientBuilder asyncHttpClientBuilder;
+    private final IClientBuilder http2ClientBuilder;
+
+    /**
+     * Registry without HTTP/2 client - h2/h2c servers are called with the HTTP/1.1 clients.
+     */
+    public ApiRegistry(IClientBuilder httpClientBuilder, IClientBuilder asyncHttpClientBuilder) {
+        this(httpClientBuilder, asyncHttpClientBuilder, new Http2ClientBuilder());
+    }
 
     @Inject
-    public ApiRegistry(@Sync IClientBuilder httpClientBuilder, @Async IClientBuilder asyncHttpClientBuilder) {
+    public ApiRegistry(@Sync IClientBuilder httpClientBuilder, @Async IClientBuilder asyncHttpClientBuilder, @Http2 IClientBuilder http2ClientBuilder) {
         this.httpClientBuilder = httpClientBuilder;
         this.asyncHttpClientBuilder = asyncHttpClientBuilder;
+        this.http2ClientBuilder = http2ClientBuilder;
         this.apiMap = new HashMap<>();
     }
 
@@ -39,7 +50,9 @@ public class ApiRegistry {
 
     @SuppressWarnings("unchecked")
     public <T> T getClient(Server server, Api api, Class<T> cls) {
-        if (httpClientBuilder.accept(server, api)) {
+        if (http2ClientBuilder.accept(server, api) && !isHttp1Client(cls)) {
+            return http2ClientBuilder.buildClient(server, api, cls);
+        } else if (httpClientBuilder.accept(server, api)) {
             return (T) httpClientBuilder.buildClient(server, api, CloseableHttpClient.class);
         } else if (asyncHttpClientBuilder.accept(server, api)) {
             return (T) asyncHttpClientBuilder.buildClient(server, api, WebClient.class);
@@ -47,10 +60,32 @@ public class ApiRegistry {
         throw new RuntimeException("Request not supported");
     }
 
+    // Sync and async request processors call a h2/h2c server (e.g. as fallback api) with their own HTTP/1.1 client
+    private static boolean isHttp1Client(Class<?> cls) {
+        return CloseableHttpClient.class.equals(cls) || WebClient.class.equals(cls);
+    }
+
+    /**
+     * Warm-up the client which is used for this server and api
+     *
+     * @return true if client is warmed up
+     */
+    public boolean warmUp(Server server, Api api, long timeoutMs) {
+        if (http2ClientBuilder.accept(server, api)) {
+            return http2ClientBuilder.warmUp(server, api, timeoutMs);
+        } else if (httpClientBuilder.accept(server, api)) {
+            return httpClientBuilder.warmUp(server, api, timeoutMs);
+        } else if (asyncHttpClientBuilder.accept(server, api)) {
+            return asyncHttpClientBuilder.warmUp(server, api, timeoutMs);
+        }
+        return false;
+    }
+
     /**
      * Shutdown builder
      */
     public void shutdown() {
         Safe.safe(() -> httpClientBuilder.shutdown());
+        Safe.safe(() -> http2ClientBuilder.shutdown());
     }
 }
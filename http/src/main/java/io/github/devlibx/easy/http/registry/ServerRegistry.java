@@ -2,22 +2,27 @@ package io.github.devlibx.easy.http.registry;
 
 import io.github.devlibx.easy.http.config.Config;
 import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.lb.EndpointSelector;
 import lombok.Getter;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerRegistry {
     @Getter
     private final Map<String, Server> serverMap;
+    private final Map<String, EndpointSelector> endpointSelectors;
 
     public ServerRegistry() {
         this.serverMap = new HashMap<>();
+        this.endpointSelectors = new ConcurrentHashMap<>();
     }
 
     public void configure(Config config) {
         serverMap.putAll(config.getServers());
+        endpointSelectors.clear();
     }
 
     public Server get(String server) {
@@ -28,6 +33,16 @@ public class ServerRegistry {
         return Optional.ofNullable(serverMap.get(server));
     }
 
+    /**
+     * @return endpoint selector of this server, null if server does not have multiple endpoints
+     */
+    public EndpointSelector getEndpointSelector(Server server) {
+        if (!server.hasEndpoints()) {
+            return null;
+        }
+        return endpointSelectors.computeIfAbsent(server.getName(), name -> new EndpointSelector(server));
+    }
+
     /**
      * Shutdown builder
      */
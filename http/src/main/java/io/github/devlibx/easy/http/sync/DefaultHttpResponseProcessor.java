@@ -1,10 +1,15 @@
 package io.github.devlibx.easy.http.sync;
 
+import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResponseBodyTooLargeException;
+import io.github.devlibx.easy.http.helper.LimitedInputStream;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.util.EntityUtils;
 
@@ -12,6 +17,9 @@ import static io.github.devlibx.easy.http.config.Api.DEFAULT_ACCEPTABLE_CODES;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 
 import javax.ws.rs.core.Response;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 @Slf4j
 public class DefaultHttpResponseProcessor implements IHttpResponseProcessor {
@@ -51,6 +59,59 @@ public class DefaultHttpResponseProcessor implements IHttpResponseProcessor {
         }
     }
 
+    @Override
+    public ResponseObject process(Server server, Api api, RequestObject requestObject, CloseableHttpResponse response) {
+        if (requestObject == null || response == null) {
+            return process(server, api, response);
+        }
+
+        // Make sure we don't have empty acceptable codes
+        if (api.getAcceptableCodes() == null || api.getAcceptableCodes().isEmpty()) {
+            api.setAcceptableCodes(DEFAULT_ACCEPTABLE_CODES);
+        }
+
+        // Error responses are small and are needed as byte[] in the exception - read them in the normal way
+        ResponseObject responseObject;
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (requestObject.isCaptureResponseHeaders() && statusCode == Response.Status.NOT_MODIFIED.getStatusCode()) {
+            responseObject = ResponseObject.builder().success(true).statusCode(statusCode).build();
+        } else if (requestObject.getStreamResponseBuilder() != null && api.getAcceptableCodes().contains(statusCode)) {
+            responseObject = processStream(requestObject, response, statusCode);
+        } else {
+            responseObject = process(server, api, response);
+        }
+
+        if (requestObject.isCaptureResponseHeaders()) {
+            Map<String, String> headers = new HashMap<>();
+            for (Header header : response.getAllHeaders()) {
+                headers.putIfAbsent(header.getName().toLowerCase(), header.getValue());
+            }
+            responseObject.setHeaders(headers);
+        }
+        return responseObject;
+    }
+
+    private ResponseObject processStream(RequestObject requestObject, CloseableHttpResponse response, int statusCode) {
+
+        // Parse body directly from the socket stream - body is never copied to a byte[]
+        Object parsedBody = null;
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            long maxResponseBodySize = requestObject.getMaxResponseBodySize();
+            LimitedInputStream.ensureContentLength(entity.getContentLength(), maxResponseBodySize);
+            try (InputStream in = LimitedInputStream.wrap(entity.getContent(), maxResponseBodySize)) {
+                parsedBody = requestObject.getStreamResponseBuilder().apply(in);
+            } catch (EasyResponseBodyTooLargeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to build response from stream using streamResponseBuilder function", e);
+            }
+        }
+        return ResponseObject.builder().success(true).parsedBody(parsedBody).statusCode(statusCode)
+                .errorWithAcceptableErrorCode(notHttp2xxStatusCode(statusCode))
+                .build();
+    }
+
     private boolean notHttp2xxStatusCode(int statusCode) {
         return !isHttp2xxStatusCode(statusCode);
     }
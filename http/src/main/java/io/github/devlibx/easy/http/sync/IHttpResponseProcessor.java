@@ -1,5 +1,6 @@
 package io.github.devlibx.easy.http.sync;
 
+import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
@@ -8,6 +9,14 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 public interface IHttpResponseProcessor {
     ResponseObject process(Server server, Api api, CloseableHttpResponse response);
 
+    /**
+     * Process response for the given request - implementations which support streaming responses parse the body
+     * directly from the response stream if the request has a stream response builder.
+     */
+    default ResponseObject process(Server server, Api api, RequestObject requestObject, CloseableHttpResponse response) {
+        return process(server, api, response);
+    }
+
     ResponseObject processException(Server server, Api api, Throwable e);
 
     void processResponseForException(ResponseObject response);
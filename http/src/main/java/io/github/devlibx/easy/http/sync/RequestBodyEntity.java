@@ -0,0 +1,48 @@
+package io.github.devlibx.easy.http.sync;
+
+import io.github.devlibx.easy.http.RequestBody;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Http entity which writes a {@link RequestBody} directly to the connection output stream
+ */
+class RequestBodyEntity extends AbstractHttpEntity {
+    private final RequestBody requestBody;
+
+    RequestBodyEntity(RequestBody requestBody) {
+        this.requestBody = requestBody;
+        setChunked(requestBody.contentLength() < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return requestBody.contentLength();
+    }
+
+    // Only used if someone reads the entity (e.g. a request interceptor) - http client uses writeTo
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(requestBody.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        requestBody.writeTo(out);
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -4,30 +4,34 @@ import com.google.common.base.Strings;
 import io.gitbub.devlibx.easy.helper.ApplicationContext;
 import io.gitbub.devlibx.easy.helper.Safe;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.github.devlibx.easy.http.IRequestProcessor;
 import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
+import io.github.devlibx.easy.http.helper.ContentEncoding;
+import io.github.devlibx.easy.http.helper.UriEncoder;
+import io.github.devlibx.easy.http.helper.VirtualThreads;
+import io.github.devlibx.easy.http.lb.EndpointSelector;
+import io.github.devlibx.easy.http.lb.EndpointState;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
 import io.reactivex.rxjava3.core.Observable;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.text.StrSubstitutor;
-import org.apache.http.NameValuePair;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DecompressingEntity;
 import org.apache.http.client.methods.*;
-import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.message.BasicNameValuePair;
 
 import javax.inject.Inject;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Function;
 
 @Slf4j
@@ -67,8 +71,9 @@ public class SyncRequestProcessor implements IRequestProcessor {
             requestObject.setMethod(api.getMethod());
         }
 
-        // Build a observer to handle this request
-        return Observable.create(observableEmitter -> {
+        // Build a observer to handle this request - on a virtual thread if enabled, so that blocking call does not
+        // hold a platform thread
+        Observable<ResponseObject> observable = Observable.create(observableEmitter -> {
 
             try {
 
@@ -113,6 +118,7 @@ public class SyncRequestProcessor implements IRequestProcessor {
                 }
             }
         });
+        return api.isVirtualThreads() && VirtualThreads.isSupported() ? observable.subscribeOn(VirtualThreads.scheduler()) : observable;
     }
 
     @SuppressWarnings({"Convert2MethodRef", "UnnecessaryLocalVariable"})
@@ -126,17 +132,13 @@ public class SyncRequestProcessor implements IRequestProcessor {
             case "POST":
                 return internalProcess(server, api, requestObject, uri -> {
                     HttpPost post = new HttpPost(uri);
-                    if (requestObject.getBody() != null) {
-                        post.setEntity(new ByteArrayEntity(requestObject.getBody()));
-                    }
+                    post.setEntity(entity(requestObject));
                     return post;
                 }, HttpPost.class);
             case "PUT":
                 return internalProcess(server, api, requestObject, uri -> {
                     HttpPut put = new HttpPut(uri);
-                    if (requestObject.getBody() != null) {
-                        put.setEntity(new ByteArrayEntity(requestObject.getBody()));
-                    }
+                    put.setEntity(entity(requestObject));
                     return put;
                 }, HttpPut.class);
             case "DELETE":
@@ -147,66 +149,95 @@ public class SyncRequestProcessor implements IRequestProcessor {
             case "PATCH":
                 return internalProcess(server, api, requestObject, uri -> {
                     HttpPatch patch = new HttpPatch(uri);
-                    if (requestObject.getBody() != null) {
-                        patch.setEntity(new ByteArrayEntity(requestObject.getBody()));
-                    }
+                    patch.setEntity(entity(requestObject));
                     return patch;
                 }, HttpPatch.class);
         }
         return null;
     }
 
+    // Streaming body is written directly to the connection, byte[] body is sent as it is
+    private static HttpEntity entity(RequestObject requestObject) {
+        if (requestObject.getRequestBody() != null) {
+            return new RequestBodyEntity(requestObject.getRequestBody());
+        }
+        return requestObject.getBody() != null ? new ByteArrayEntity(requestObject.getBody()) : null;
+    }
+
     @SuppressWarnings({"EmptyTryBlock", "TryWithIdenticalCatches"})
     private <REQ_TYPE extends HttpRequestBase> ResponseObject internalProcess(Server server, Api api, RequestObject requestObject, Function<URI, REQ_TYPE> func, Class<REQ_TYPE> cls) {
 
+        // Pick endpoint if this server has multiple endpoints
+        EndpointSelector endpointSelector = serverRegistry.getEndpointSelector(server);
+        EndpointState endpoint = endpointSelector != null ? endpointSelector.select() : null;
+
         // Build a URL - replace path param and add query params
         URI uri;
+        HttpRequestBase requestBase;
         try {
-            uri = generateURI(server, api, requestObject);
+            uri = UriEncoder.buildUri(server, endpoint, api, requestObject, stringHelper);
             log.debug("URL to use = {}", uri);
-        } catch (URISyntaxException e) {
-            throw new RuntimeException("Failed to generate URI");
-        }
 
-        // Make a http request
-        HttpRequestBase requestBase = func.apply(uri);
+            // Make a http request
+            requestBase = func.apply(uri);
+        } catch (RuntimeException e) {
+            if (endpoint != null) {
+                endpointSelector.cancel(endpoint);
+            }
+            if (e instanceof IllegalArgumentException) {
+                throw new RuntimeException("Failed to generate URI", e);
+            }
+            throw e;
+        }
         requestBase.setConfig(buildRequestConfig(server, api, requestObject));
 
-        // Take headers from server
-        if (server.getHeaders() != null) {
-            server.getHeaders().forEach((key, value) -> {
-                requestBase.addHeader(key, stringHelper.stringify(value));
-            });
+        // Take headers from server, request and api (compiled once per server and api)
+        CompiledHeaders.forEachRequestHeader(
+                server.getCompiledHeaders(stringHelper),
+                api.getCompiledHeaders(stringHelper),
+                requestObject.getHeaders(),
+                stringHelper,
+                requestBase::addHeader
+        );
+        if (server.isResponseCompression()) {
+            requestBase.setHeader(ContentEncoding.ACCEPT_ENCODING, ContentEncoding.SUPPORTED_ENCODINGS);
         }
 
-        // Add headers to the request
-        requestObject.preProcessHeaders(api.getHeaders());
-        requestObject.getHeaders().forEach((key, value) -> {
-            requestBase.addHeader(key, stringHelper.stringify(value));
-        });
-
         // Get a http client to make request
         CloseableHttpClient client = apiRegistry.getClient(server, api, CloseableHttpClient.class);
 
         // Request server
         ResponseObject responseObject;
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         try (CloseableHttpResponse response = client.execute(requestBase)) {
-            responseObject = httpResponseProcessor.process(serverRegistry.get(api.getServer()), api, response);
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_time", System.currentTimeMillis() - startTime);
+            decodeResponse(response, api.getApiMetrics(metrics).getResponseCompressionRatio());
+            responseObject = httpResponseProcessor.process(serverRegistry.get(api.getServer()), api, requestObject, response);
+            api.getApiMetrics(metrics).getHttpClientTime().observe(System.currentTimeMillis() - startTime);
         } catch (Exception e) {
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_error_time", System.currentTimeMillis() - startTime);
+            api.getApiMetrics(metrics).getHttpClientErrorTime().observe(System.currentTimeMillis() - startTime);
             log.error("Unknown issue: request={}", requestObject, e);
             responseObject = httpResponseProcessor.processException(server, api, e);
         }
 
-        if (requestObject.getResponseBuilder() == null) {
-            log.debug("Request={} Response={}", requestObject, responseObject.convertAsMap());
-        } else {
-            try {
-                log.debug("Request={} Response={}", requestObject, requestObject.getResponseBuilder().apply(responseObject.getBody()));
-            } catch (Exception e) {
-                log.debug("Request={} Response={}", requestObject, "Failed to build response from body using responseBuilder function", e);
+        // Error or 5xx from this endpoint counts towards its ejection
+        if (endpoint != null) {
+            boolean failure = responseObject == null || responseObject.getException() != null || responseObject.getStatusCode() >= 500;
+            endpointSelector.onComplete(endpoint, System.nanoTime() - startNanos, failure);
+        }
+
+        // Building response for debug log parses the body - only do it if debug is enabled
+        if (log.isDebugEnabled()) {
+            if (requestObject.getStreamResponseBuilder() != null) {
+                log.debug("Request={} Response={}", requestObject, responseObject.getParsedBody());
+            } else if (requestObject.getResponseBuilder() == null) {
+                log.debug("Request={} Response={}", requestObject, responseObject.convertAsMap());
+            } else {
+                try {
+                    log.debug("Request={} Response={}", requestObject, requestObject.getResponseBuilder().apply(responseObject.getBody()));
+                } catch (Exception e) {
+                    log.debug("Request={} Response={}", requestObject, "Failed to build response from body using responseBuilder function", e);
+                }
             }
         }
 
@@ -216,38 +247,32 @@ public class SyncRequestProcessor implements IRequestProcessor {
         return responseObject;
     }
 
+    // Compressed response is decompressed while it is read - encoding headers are removed, as if it was a plain response
+    private static void decodeResponse(CloseableHttpResponse response, IRatio ratio) {
+        HttpEntity entity = response.getEntity();
+        Header encoding = entity != null ? entity.getContentEncoding() : null;
+        if (encoding == null || !ContentEncoding.isSupported(encoding.getValue())) {
+            return;
+        }
+        String value = encoding.getValue();
+        response.setEntity(new DecompressingEntity(entity, in -> ContentEncoding.decode(value, in, ratio)));
+        response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+        response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+        response.removeHeaders(HttpHeaders.CONTENT_MD5);
+    }
+
     private RequestConfig buildRequestConfig(Server server, Api api, RequestObject request) {
         int socketTimeoutToBeUsed = api.getTimeout();
         if (api.getTimeoutDeltaFactor() > 0) {
             socketTimeoutToBeUsed = (int) (socketTimeoutToBeUsed + (api.getTimeoutDeltaFactor() * socketTimeoutToBeUsed));
         }
-        return RequestConfig.custom().setConnectTimeout(server.getConnectTimeout()).setConnectionRequestTimeout(server.getConnectionRequestTimeout()).setSocketTimeout(socketTimeoutToBeUsed).build();
-    }
-
-    private URI generateURI(Server server, Api api, RequestObject request) throws URISyntaxException {
-        if (server.getPort() == -1) {
-            return new URIBuilder().setScheme(server.isHttps() ? "https" : "http").setHost(server.getHost()).setPath(resolvePath(server, api, request)).setParameters(getQueryParams(server, api, request)).build();
-        }
-        return new URIBuilder().setScheme(server.isHttps() ? "https" : "http").setHost(server.getHost()).setPort(server.getPort()).setPath(resolvePath(server, api, request)).setParameters(getQueryParams(server, api, request)).build();
-    }
-
-    @SuppressWarnings("deprecation")
-    private String resolvePath(Server server, Api api, RequestObject request) {
-        String uri = api.getPath();
-        if (!Strings.isNullOrEmpty(uri) && request.getPathParam() != null) {
-            uri = StrSubstitutor.replace(api.getPath(), request.getPathParam());
-        }
-        if (Strings.isNullOrEmpty(uri)) {
-            uri = "/";
-        }
-        return uri.startsWith("/") ? uri : "/" + uri;
-    }
 
-    private List<NameValuePair> getQueryParams(Server server, Api api, RequestObject request) {
-        final List<NameValuePair> queryParams = new ArrayList<>();
-        if (null != request.getQueryParam()) {
-            request.getQueryParam().forEach((key, values) -> values.forEach(value -> queryParams.add(new BasicNameValuePair(key, stringHelper.stringify(value)))));
+        // Caller deadline leaves less time than the api timeout
+        int connectTimeoutToBeUsed = server.getConnectTimeout();
+        if (request.getTimeoutMs() > 0) {
+            socketTimeoutToBeUsed = (int) Math.min(socketTimeoutToBeUsed, request.getTimeoutMs());
+            connectTimeoutToBeUsed = (int) Math.min(connectTimeoutToBeUsed, request.getTimeoutMs());
         }
-        return queryParams;
+        return RequestConfig.custom().setConnectTimeout(connectTimeoutToBeUsed).setConnectionRequestTimeout(server.getConnectionRequestTimeout()).setSocketTimeout(socketTimeoutToBeUsed).build();
     }
 }
@@ -0,0 +1,58 @@
+package io.github.devlibx.easy.http.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Options for a batch of calls made with {@link EasyHttp#callAll(java.util.List, BatchOptions)}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOptions {
+
+    /**
+     * Deadline for the whole batch - calls which are not done within this time fail with
+     * EasyResilienceRequestTimeoutException (0 = no deadline, each call only has its own api timeout)
+     */
+    @Builder.Default
+    private long timeoutMs = 0;
+
+    /**
+     * What to do when a call fails
+     */
+    @Builder.Default
+    private FailurePolicy failurePolicy = FailurePolicy.CONTINUE;
+
+    /**
+     * If true then identical GET calls of the batch (same server, api, path params, query params, headers and
+     * response class) are made once, and all of them get the same response object
+     */
+    @Builder.Default
+    private boolean deduplicate = true;
+
+    /**
+     * Max no of calls of this batch in-flight at a time (0 = all calls at once)
+     */
+    @Builder.Default
+    private int maxConcurrency = 0;
+
+    public static BatchOptions defaults() {
+        return BatchOptions.builder().build();
+    }
+
+    public enum FailurePolicy {
+        /**
+         * Failed call is given as a {@link CallResult} with error - other calls continue
+         */
+        CONTINUE,
+
+        /**
+         * First failed call fails the batch - other in-flight calls are cancelled
+         */
+        FAIL_FAST
+    }
+}
@@ -2,12 +2,20 @@ package io.github.devlibx.easy.http.util;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.common.base.Strings;
+import com.google.protobuf.MessageLite;
 import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.ProtobufRequestBody;
+import io.github.devlibx.easy.http.RequestBody;
+import io.github.devlibx.easy.http.RequestBody.IRequestBodyWriter;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
 import io.vavr.Function0;
 import lombok.Data;
 
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,10 +31,21 @@ public class Call<R> {
     private Class<R> responseClass;
     private IResponseBuilderFunc<R> responseBuilder;
     private Function0<byte[]> requestBodyFunc;
+    private RequestBody requestBody;
+    private IStreamResponseBuilderFunc<R> streamResponseBuilder;
+    private long maxResponseBodySize;
+    private Priority priority;
 
     private Call() {
     }
 
+    /**
+     * @return true if response body is parsed directly from the response stream (no byte[] copy of the body)
+     */
+    public boolean isStreamingResponse() {
+        return streamResponseBuilder != null;
+    }
+
     public byte[] getBodyAsByteArray() {
         return requestBodyFunc.apply();
     }
@@ -51,6 +70,10 @@ public class Call<R> {
         private final Class<R> responseClass;
         private IResponseBuilderFunc<R> responseBuilder;
         private Function0<byte[]> requestBodyFunc;
+        private RequestBody requestBody;
+        private IStreamResponseBuilderFunc<R> streamResponseBuilder;
+        private long maxResponseBodySize;
+        private Priority priority;
 
         public Builder(Class<R> responseClass) {
             this.responseClass = responseClass;
@@ -88,6 +111,50 @@ public class Call<R> {
             return this;
         }
 
+        /**
+         * Parse the response body directly from the response stream. The body is not copied to a byte array before
+         * parsing. Used for both sync and async calls.
+         *
+         * @param streamResponseBuilder a builder from response stream to desired type (stream is closed by caller)
+         */
+        public Builder<R> withStreamResponseBuilder(IStreamResponseBuilderFunc<R> streamResponseBuilder) {
+            this.streamResponseBuilder = streamResponseBuilder;
+            return this;
+        }
+
+        /**
+         * Parse the json response body to responseClass directly from the response stream.
+         *
+         * @return builder object
+         */
+        public Builder<R> asStreamingResponse() {
+            this.streamResponseBuilder = in -> JsonUtils.readObject(in, responseClass);
+            return this;
+        }
+
+        /**
+         * Fail the call with {@link io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResponseBodyTooLargeException}
+         * if response body is bigger than the given size. Only applied to streaming responses.
+         *
+         * @param maxResponseBodySize max no of bytes to read from response body (0 = no limit)
+         * @return builder object
+         */
+        public Builder<R> withMaxResponseBodySize(long maxResponseBodySize) {
+            this.maxResponseBodySize = maxResponseBodySize;
+            return this;
+        }
+
+        /**
+         * Priority of this call when it waits in the queue of the api (async or virtualThreads api) - e.g. HIGH for
+         * user facing calls and LOW for batch jobs on the same api. Default is NORMAL.
+         *
+         * @return builder object
+         */
+        public Builder<R> withPriority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
         /**
          * Ensure that all the required params are provided.
          */
@@ -115,6 +182,10 @@ public class Call<R> {
             call.responseClass = responseClass;
             call.responseBuilder = responseBuilder;
             call.requestBodyFunc = requestBodyFunc;
+            call.requestBody = requestBody;
+            call.streamResponseBuilder = streamResponseBuilder;
+            call.maxResponseBodySize = maxResponseBodySize;
+            call.priority = priority;
             return call;
         }
 
@@ -146,6 +217,59 @@ public class Call<R> {
             return this;
         }
 
+        /**
+         * @param requestBody body which is written directly to the connection (no byte[] copy of the body is made)
+         * @return builder object
+         */
+        public Builder<R> withRequestBody(RequestBody requestBody) {
+            this.requestBody = requestBody;
+            return this;
+        }
+
+        /**
+         * @param buffer body to be passed in the request - remaining bytes of the buffer are sent without a copy
+         * @return builder object
+         */
+        public Builder<R> withByteBufferBody(ByteBuffer buffer) {
+            return withRequestBody(RequestBody.of(buffer));
+        }
+
+        /**
+         * @param file     file to send as body
+         * @param position start of the region to send
+         * @param length   no of bytes to send
+         * @return builder object
+         */
+        public Builder<R> withFileBody(Path file, long position, long length) {
+            return withRequestBody(RequestBody.ofFile(file, position, length));
+        }
+
+        /**
+         * @param writer        writer which writes the body directly to the connection (it must be able to write the
+         *                      body again e.g. for retry)
+         * @param contentLength no of bytes written by writer (-1 if not known)
+         * @return builder object
+         */
+        public Builder<R> withBodyWriter(IRequestBodyWriter writer, long contentLength) {
+            return withRequestBody(RequestBody.ofWriter(writer, contentLength));
+        }
+
+        /**
+         * @param body object which is written as json directly to the connection (no json string or byte[] is made)
+         * @return builder object
+         */
+        public Builder<R> withStreamingJsonBody(Object body) {
+            return withRequestBody(RequestBody.ofJson(body));
+        }
+
+        /**
+         * @param message protobuf message which is written directly to the connection (needs protobuf-java)
+         * @return builder object
+         */
+        public Builder<R> withProtobufBody(MessageLite message) {
+            return withRequestBody(new ProtobufRequestBody(message));
+        }
+
         /**
          * Sets request content-type header as application/json
          *
@@ -322,4 +446,8 @@ public class Call<R> {
     public interface IResponseBuilderFunc<R> {
         R apply(byte[] bytes) throws Exception;
     }
+
+    public interface IStreamResponseBuilderFunc<R> {
+        R apply(InputStream in) throws Exception;
+    }
 }
@@ -0,0 +1,113 @@
+package io.github.devlibx.easy.http.util;
+
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.reactivex.rxjava3.core.Observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Runs a batch of calls - all calls are merged in a single observable with a shared deadline, and identical calls are
+ * made only once. The deadline is attached (see {@link Deadline}) while the calls are created.
+ */
+class CallBatch {
+
+    /**
+     * Function to make one call of the batch
+     */
+    interface ICallFunction {
+        <T> Observable<T> call(Call<T> call);
+    }
+
+    private CallBatch() {
+    }
+
+    /**
+     * @param canDeduplicate true if this call is safe to share with identical calls (i.e. call is idempotent)
+     * @return observable which gives result of each call as it completes
+     */
+    static Observable<CallResult<?>> execute(List<? extends Call<?>> calls, BatchOptions options, ICallFunction callFunction, Predicate<Call<?>> canDeduplicate) {
+        if (calls == null || calls.isEmpty()) {
+            return Observable.empty();
+        }
+        BatchOptions batchOptions = options != null ? options : BatchOptions.defaults();
+        long deadline = batchOptions.getTimeoutMs() > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchOptions.getTimeoutMs()) : 0;
+        boolean failFast = batchOptions.getFailurePolicy() == BatchOptions.FailurePolicy.FAIL_FAST;
+
+        // Calls are created with the batch deadline attached - each call shrinks its own timeout to the time left (and
+        // sends it in the deadline header), so a slow call is ended at the batch deadline and does not run in background
+        Deadline.Scope scope = deadline > 0 ? Deadline.after(batchOptions.getTimeoutMs()).attach() : null;
+        Map<String, Observable<?>> shared = new HashMap<>();
+        List<Observable<CallResult<?>>> sources = new ArrayList<>(calls.size());
+        try {
+            for (int i = 0; i < calls.size(); i++) {
+                Call<?> call = calls.get(i);
+                Observable<?> source;
+                if (batchOptions.isDeduplicate() && !call.isStreamingResponse() && canDeduplicate.test(call)) {
+                    source = shared.computeIfAbsent(key(call), key -> callFunction.call(call).cache());
+                } else {
+                    source = callFunction.call(call);
+                }
+                sources.add(result(i, call, source, deadline, failFast));
+            }
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+
+        return batchOptions.getMaxConcurrency() > 0
+                ? Observable.merge(sources, batchOptions.getMaxConcurrency())
+                : Observable.merge(sources);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Observable<CallResult<?>> result(int index, Call<T> call, Observable<?> source, long deadline, boolean failFast) {
+        Observable<T> observable = (Observable<T>) source;
+        if (deadline > 0) {
+            // Time left is computed on subscribe - a call which waits for its turn (maxConcurrency) gets less time
+            observable = Observable.defer(() -> {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return Observable.error(deadlineException(call));
+                }
+                return ((Observable<T>) source).timeout(remaining, TimeUnit.NANOSECONDS, Observable.error(deadlineException(call)));
+            });
+        }
+        return observable
+                .take(1)
+                .<CallResult<?>>map(t -> CallResult.success(index, call, t))
+                .onErrorResumeNext(throwable -> failFast
+                        ? Observable.error(throwable)
+                        : Observable.just(CallResult.failure(index, call, throwable)));
+    }
+
+    private static EasyResilienceRequestTimeoutException deadlineException(Call<?> call) {
+        return new EasyResilienceRequestTimeoutException(new TimeoutException("batch deadline exceeded: server=" + call.getServer() + " api=" + call.getApi()));
+    }
+
+    /**
+     * @return key which is same for identical calls
+     */
+    static String key(Call<?> call) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(call.getServer()).append('-').append(call.getApi());
+        if (call.getPathParams() != null && !call.getPathParams().isEmpty()) {
+            sb.append("|p=").append(new TreeMap<>(call.getPathParams()));
+        }
+        if (call.getQueryParam() != null && !call.getQueryParam().isEmpty()) {
+            sb.append("|q=").append(new TreeMap<>(call.getQueryParam()));
+        }
+        if (call.getHeaders() != null && !call.getHeaders().isEmpty()) {
+            sb.append("|h=").append(new TreeMap<>(call.getHeaders()));
+        }
+        sb.append("|r=").append(call.getResponseClass() != null ? call.getResponseClass().getName() : "");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.devlibx.easy.http.util;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Result of one call of a batch (see {@link EasyHttp#callAll(List, BatchOptions)}) - either a response or an error.
+ */
+@Getter
+@ToString
+public class CallResult<T> {
+
+    /**
+     * Position of this call in the batch
+     */
+    private final int index;
+    private final Call<T> call;
+    private final T result;
+    private final Throwable error;
+
+    private CallResult(int index, Call<T> call, T result, Throwable error) {
+        this.index = index;
+        this.call = call;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static <T> CallResult<T> success(int index, Call<T> call, T result) {
+        return new CallResult<>(index, call, result, null);
+    }
+
+    public static <T> CallResult<T> failure(int index, Call<T> call, Throwable error) {
+        return new CallResult<>(index, call, null, error);
+    }
+
+    /**
+     * @return true if this call got a response
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.devlibx.easy.http.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of a request which is shared by all calls made while serving it. EasyHttp reads the deadline attached
+ * to the calling thread and shrinks the timeout of each call to the time left:
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(1000).attach()) {
+ *     EasyHttp.callSync(call1);   // timeout = min(api timeout, ~1000ms)
+ *     EasyHttp.callSync(call2);   // timeout = min(api timeout, time left)
+ * }
+ * </pre>
+ * For callAsync the deadline is taken when callAsync() is called (not when it is subscribed).
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return deadline which expires after given time from now
+     */
+    public static Deadline after(long timeoutMs) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * @return deadline attached to this thread, null if there is no deadline
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return time left in ms (0 if deadline has expired)
+     */
+    public long remainingMs() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * @return true if deadline has expired
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Attach this deadline to the current thread - if thread already has an earlier deadline then that one is kept.
+     *
+     * @return scope which must be closed to restore the previous deadline of this thread
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(previous != null && previous.deadlineNanos - deadlineNanos < 0 ? previous : this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(remainingMs=" + remainingMs() + ")";
+    }
+
+    /**
+     * Scope of an attached deadline
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
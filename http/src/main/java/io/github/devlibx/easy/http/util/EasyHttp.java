@@ -10,6 +10,11 @@ import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceEx
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
 import io.reactivex.rxjava3.core.Observable;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
 public class EasyHttp {
     private static IEasyHttpImplementation defaultEasyHttpImplementation = new EasyHttpObject();
 
@@ -34,6 +39,21 @@ public class EasyHttp {
         defaultEasyHttpImplementation.setup(config);
     }
 
+    /**
+     * @return warm-up status of all apis (key = api name). Warm-up which did not finish within the warm-up time of the
+     * server continues in background and is reported as {@link WarmUpStatus#PENDING}.
+     */
+    public static Map<String, WarmUpStatus> getWarmUpStatus() {
+        return defaultEasyHttpImplementation.getWarmUpStatus();
+    }
+
+    /**
+     * @return true if warm-up of all apis is done
+     */
+    public static boolean isWarmUpDone() {
+        return !getWarmUpStatus().containsValue(WarmUpStatus.PENDING);
+    }
+
     /**
      * Free all resources
      */
@@ -86,4 +106,38 @@ public class EasyHttp {
     public static <T> Observable<T> callAsync(Call<T> call) {
         return defaultEasyHttpImplementation.callAsync(call);
     }
+
+    /**
+     * Make a batch of HTTP calls together (fan-out) with default {@link BatchOptions}.
+     *
+     * @see #callAll(List, BatchOptions)
+     */
+    public static Observable<CallResult<?>> callAll(List<? extends Call<?>> calls) {
+        return defaultEasyHttpImplementation.callAll(calls, BatchOptions.defaults());
+    }
+
+    /**
+     * Make a batch of HTTP calls together (fan-out). All calls share the deadline of the batch, and identical GET
+     * calls are made only once.
+     *
+     * @param calls   calls to make
+     * @param options deadline, failure policy, de-duplication and concurrency of this batch
+     * @return observable which gives result of each call as it completes. With FailurePolicy.CONTINUE failed calls
+     * are given as {@link CallResult} with error, with FailurePolicy.FAIL_FAST first error fails the observable.
+     */
+    public static Observable<CallResult<?>> callAll(List<? extends Call<?>> calls, BatchOptions options) {
+        return defaultEasyHttpImplementation.callAll(calls, options);
+    }
+
+    /**
+     * Make a batch of HTTP calls together and wait for all of them.
+     *
+     * @return result of each call - in the same order as calls
+     * @see #callAll(List, BatchOptions)
+     */
+    public static List<CallResult<?>> callAllSync(List<? extends Call<?>> calls, BatchOptions options) {
+        List<CallResult<?>> results = new ArrayList<>(callAll(calls, options).toList().blockingGet());
+        results.sort(Comparator.comparingInt(CallResult::getIndex));
+        return results;
+    }
 }
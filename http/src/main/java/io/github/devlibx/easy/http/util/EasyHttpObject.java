@@ -1,33 +1,60 @@
 package io.github.devlibx.easy.http.util;
 
+import com.google.common.base.Strings;
 import com.google.inject.Key;
 import io.gitbub.devlibx.easy.helper.ApplicationContext;
 import io.gitbub.devlibx.easy.helper.Safe;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ICounter;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ITimer;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestBody;
 import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.cache.ResponseCache;
+import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyBadRequestException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyInternalServerErrorException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyRequestTimeOutException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.helper.ApiMetrics;
+import io.github.devlibx.easy.http.helper.ContentEncoding;
+import io.github.devlibx.easy.http.helper.Http2ClientBuilder;
+import io.github.devlibx.easy.http.helper.IClientBuilder;
+import io.github.devlibx.easy.http.helper.VirtualThreads;
 import io.github.devlibx.easy.http.module.Async;
+import io.github.devlibx.easy.http.module.Http2;
 import io.github.devlibx.easy.http.module.Sync;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
+import io.github.devlibx.easy.http.sync.SyncRequestProcessor;
 import io.github.devlibx.easy.resilience.IResilienceManager;
 import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
 import io.github.devlibx.easy.resilience.IResilienceProcessor;
 import io.github.devlibx.easy.resilience.NoOpResilienceProcessor;
 import io.github.devlibx.easy.resilience.ResilienceManager;
+import io.github.devlibx.easy.resilience.ResilienceProcessor;
+import io.github.devlibx.easy.resilience.exception.DeadlineExceededException;
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+import io.github.devlibx.easy.resilience.exception.QueueTimeoutException;
+import io.github.devlibx.easy.resilience.limit.AdaptiveConcurrencyLimiter;
 import io.reactivex.rxjava3.core.Observable;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -46,6 +73,15 @@ class EasyHttpObject implements IEasyHttpImplementation {
     private IResilienceManager resilienceManager;
     private final Lock resilienceManagerLock = new ReentrantLock();
     private IMetrics metrics;
+    private final EasyHttpWarmUp warmUp = new EasyHttpWarmUp();
+    private final Set<String> coalescedApis = new HashSet<>();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private final Map<String, ResponseCache> responseCaches = new HashMap<>();
+    private final Map<String, RequestHedger> requestHedgers = new HashMap<>();
+    private final Map<String, Map<String, ApiMetrics>> apiMetricsByServer = new ConcurrentHashMap<>();
+    private final Map<String, Integer> requestCompressionThresholds = new HashMap<>();
+    private ServerRegistry serverRegistry;
+    private ApiRegistry apiRegistry;
 
     /**
      * Free all resources
@@ -55,6 +91,14 @@ class EasyHttpObject implements IEasyHttpImplementation {
         requestProcessors.forEach((key, requestProcessor) -> Safe.safe(requestProcessor::shutdown));
         requestProcessors.clear();
         resilienceProcessors.clear();
+        coalescedApis.clear();
+        requestCoalescer.clear();
+        responseCaches.values().forEach(ResponseCache::clear);
+        responseCaches.clear();
+        requestHedgers.clear();
+        apiMetricsByServer.clear();
+        requestCompressionThresholds.clear();
+        warmUp.clear();
         resilienceManager = null;
     }
 
@@ -87,20 +131,30 @@ class EasyHttpObject implements IEasyHttpImplementation {
             metrics = new IMetrics.NoOpMetrics();
         }
 
+        StringHelper stringHelper = ApplicationContext.getOptionalInstance(StringHelper.class).orElse(new StringHelper());
+
         // Make server registry
-        ServerRegistry serverRegistry = ApplicationContext.getInstance(ServerRegistry.class);
+        serverRegistry = ApplicationContext.getInstance(ServerRegistry.class);
         serverRegistry.configure(config);
 
         // Make api registry
-        ApiRegistry apiRegistry = ApplicationContext.getInstance(ApiRegistry.class);
+        apiRegistry = ApplicationContext.getInstance(ApiRegistry.class);
         apiRegistry.configure(config);
 
         // Make sure we have resilienceManager object created
         ensureResilienceManager();
 
+        // HTTP/2 needs Java 21+ runtime - on older runtimes HTTP/2 client builder accepts no server, and h2/h2c servers
+        // are called with HTTP/1.1
+        boolean http2Supported = Http2ClientBuilder.isSupported();
+        IClientBuilder http2ClientBuilder = ApplicationContext.getInstance(Key.get(IClientBuilder.class, Http2.class));
+
         // Setup all request processors
         serverRegistry.getServerMap().forEach((serverName, server) -> {
             server.setName(serverName);
+            if (server.isHttp2() && !http2Supported) {
+                log.warn("server={} has protocol={} - HTTP/2 needs Java 21+ runtime, HTTP/1.1 is used", serverName, server.getProtocol());
+            }
             apiRegistry.getApiMap().forEach((apiName, api) -> {
                 api.setName(apiName);
 
@@ -112,9 +166,16 @@ class EasyHttpObject implements IEasyHttpImplementation {
                     processor.process(apiName, api);
                 });
 
+                // Compile path template and static headers once - requests only copy them
+                api.getPathTemplate();
+                api.getCompiledHeaders(stringHelper);
+                server.getCompiledHeaders(stringHelper);
+
                 // Build a request processor
                 IRequestProcessor requestProcessor = null;
-                if (api.isAsync()) {
+                if (serverRegistry.getOptional(api.getServer()).map(apiServer -> http2ClientBuilder.accept(apiServer, api)).orElse(false)) {
+                    requestProcessor = ApplicationContext.getInstance(Key.get(IRequestProcessor.class, Http2.class));
+                } else if (api.isAsync()) {
                     requestProcessor = ApplicationContext.getInstance(Key.get(IRequestProcessor.class, Async.class));
                 } else {
                     requestProcessor = ApplicationContext.getInstance(Key.get(IRequestProcessor.class, Sync.class));
@@ -122,22 +183,80 @@ class EasyHttpObject implements IEasyHttpImplementation {
                 }
                 requestProcessors.put(key, requestProcessor);
 
+                // Resolve metric names once - calls only update the pre-built counters and timers. Request processors
+                // use the metrics kept in the api, so the same instance is used here
+                if (serverName.equals(api.getServer())) {
+                    apiMetricsByServer.computeIfAbsent(serverName, name -> new ConcurrentHashMap<>()).put(apiName, api.getApiMetrics(metrics));
+                }
+
+                // Large request bodies to this server are sent compressed
+                if (server.getRequestCompressionThreshold() > 0) {
+                    requestCompressionThresholds.put(key, server.getRequestCompressionThreshold());
+                }
+
+                // Single-flight, hedging and cache are only safe for idempotent calls
+                boolean isGet = "GET".equalsIgnoreCase(api.getMethod());
+                if (api.isCoalesce()) {
+                    if (isGet) {
+                        coalescedApis.add(key);
+                    } else {
+                        log.warn("api={} has coalesce=true - ignored, coalesce is only supported for GET apis", apiName);
+                    }
+                }
+                if (RequestHedger.isEnabled(api)) {
+                    if (isGet) {
+                        requestHedgers.put(key, new RequestHedger(serverName, api, metrics));
+                    } else {
+                        log.warn("api={} has hedging enabled - ignored, hedging is only supported for GET apis", apiName);
+                    }
+                }
+                if (api.getCache() != null && api.getCache().isEnabled()) {
+                    if (isGet) {
+                        responseCaches.put(key, new ResponseCache(serverName, apiName, api.getCache(), metrics));
+                    } else {
+                        log.warn("api={} has cache enabled - ignored, cache is only supported for GET apis", apiName);
+                    }
+                }
+
+                // Sync call on a virtual thread does not block the subscriber - only needs a semaphore permit
+                boolean virtualThreads = api.isVirtualThreads() && !api.isAsync() && requestProcessor instanceof SyncRequestProcessor;
+                if (virtualThreads && !VirtualThreads.isSupported()) {
+                    log.warn("api={} has virtualThreads=true - ignored, virtual threads need Java 21+ runtime", apiName);
+                    virtualThreads = false;
+                }
+
+                // Sync call on the calling thread - timeout is the socket timeout of the http client
+                boolean inline = api.isInline() && !api.isAsync() && !virtualThreads && requestProcessor instanceof SyncRequestProcessor;
+
                 // Setup resilience processor
                 ResilienceCallConfig callConfig = ResilienceCallConfig.withDefaults()
                         .id(key)
                         .concurrency(api.getConcurrency())
                         .timeout(api.getTimeout())
                         .queueSize(api.getQueueSize())
-                        .useSemaphore(api.isAsync())
+                        .useSemaphore(api.isAsync() || virtualThreads || inline)
+                        .nonBlocking((api.isAsync() && api.isNonBlocking()) || virtualThreads)
                         .waitDurationInOpenState(api.getWaitBeforeClosingCircuitAfterError())
                         .retryCount(api.getRetryCount())
                         .waitRetryWaitDurationMs(api.getRetryWaitDurationMs())
                         .retryRequestThreadPoolCount(api.getRetryRequestThreadPoolCount())
+                        .retryBackoff(api.getRetryBackoff())
+                        .retryMaxWaitDurationMs(api.getRetryMaxWaitDurationMs())
+                        .retryBudgetPercent(api.getRetryBudgetPercent())
+                        .retryExceptions(api.getRetryExceptions())
+                        .ignoreRetryExceptions(api.getIgnoreRetryExceptions())
+                        .limitAlgorithm(api.getLimitAlgorithm())
+                        .minConcurrency(api.getMinConcurrency())
+                        .maxConcurrency(api.getMaxConcurrency())
+                        .maxQueueTimeMs(api.getMaxQueueTimeMs())
+                        .queueDelayTargetMs(api.getQueueDelayTargetMs())
+                        .queueDelayIntervalMs(api.getQueueDelayIntervalMs())
                         .build();
 
                 if (!api.isBypassResilience()) {
                     IResilienceProcessor resilienceProcessor = resilienceManager.getOrCreate(callConfig);
                     resilienceProcessors.put(key, resilienceProcessor);
+                    publishConcurrencyLimit(serverName, apiName, resilienceProcessor);
                 } else {
                     IResilienceProcessor resilienceProcessor = new NoOpResilienceProcessor();
                     resilienceProcessors.put(key, resilienceProcessor);
@@ -146,23 +265,27 @@ class EasyHttpObject implements IEasyHttpImplementation {
         });
 
         // Warm-up connections and threads
-        serverRegistry.getServerMap().forEach((serverName, server) -> {
-            apiRegistry.getApiMap().forEach((apiName, api) -> {
-                if (api.isNoWarmUp() || true) {
-                    log.debug("service={} api={} warm-up is disabled. The very first call to {}.{} may timeout or fail if api timeout is small", server, api, server, api);
-                    return;
-                }
-                try {
-                    log.debug("making a warm-up call to service={} api={} - you may see bad api call in server logs", server, api);
-                    callSync(
-                            Call.builder(Map.class)
-                                    .withServerAndApi(serverName, apiName)
-                                    .build()
-                    );
-                } catch (Exception ignored) {
-                }
-            });
-        });
+        warmUp.warmUp(serverRegistry, apiRegistry, resilienceProcessors);
+    }
+
+    // Adaptive concurrency limit is published as a gauge whenever it changes
+    private void publishConcurrencyLimit(String server, String api, IResilienceProcessor resilienceProcessor) {
+        if (!(resilienceProcessor instanceof ResilienceProcessor)) {
+            return;
+        }
+        AdaptiveConcurrencyLimiter limiter = ((ResilienceProcessor) resilienceProcessor).getConcurrencyLimiter();
+        if (limiter != null) {
+            metrics.gauge("easy_http_concurrency_limit", limiter.getLimit(), "server", server, "api", api);
+            limiter.getConcurrencyLimit().notifyOnChange(limit -> metrics.gauge("easy_http_concurrency_limit", limit, "server", server, "api", api));
+        }
+    }
+
+    /**
+     * @return warm-up status of all apis (key = api name)
+     */
+    @Override
+    public Map<String, WarmUpStatus> getWarmUpStatus() {
+        return warmUp.getStatus();
     }
 
     /**
@@ -186,54 +309,55 @@ class EasyHttpObject implements IEasyHttpImplementation {
     @Override
     public <T> T callSync(Call<T> call) {
         long start = System.currentTimeMillis();
-        String key = call.getServer() + "_" + call.getApi() + "_call_error_time";
-        String code = "200";
+        ApiMetrics apiMetrics = apiMetrics(call.getServer(), call.getApi());
+        ITimer timer = apiMetrics.getCallErrorTime();
+        ICounter code = apiMetrics.getSyncSuccess();
         try {
-            T t = internalCall(call).blockingFirst();
-            key = call.getServer() + "_" + call.getApi() + "_call_time";
+            T t = internalCall(call, apiMetrics, Deadline.current()).blockingFirst();
+            timer = apiMetrics.getCallTime();
             return t;
         } catch (EasyResilienceException e) {
             Optional<EasyResilienceException> ex = easyEasyResilienceException(e);
             if (ex.isPresent()) {
                 if (ex.get() instanceof EasyResilienceRequestTimeoutException) {
-                    code = "500-request-timeout";
+                    code = apiMetrics.getSyncRequestTimeout();
                 } else if (ex.get() instanceof EasyResilienceOverflowException) {
-                    code = "500-request-overflow";
+                    code = overflowCode(apiMetrics, ex.get());
                 } else if (ex.get() instanceof EasyResilienceCircuitOpenException) {
-                    code = "500-circuit-open";
+                    code = apiMetrics.getSyncCircuitOpen();
                 } else if (ex.get() instanceof EasyResilienceException) {
-                    code = "500-resilience-unknown";
+                    code = apiMetrics.getSyncResilienceUnknown();
                 }
                 throw ex.get();
             } else {
-                code = "500-resilience-unknown";
+                code = apiMetrics.getSyncResilienceUnknown();
                 throw new EasyHttpRequestException(e);
             }
         } catch (EasyHttpRequestException e) {
-            code = e.getStatusCode() + "";
+            code = apiMetrics.syncStatusCode(e.getStatusCode());
             throw e;
         } catch (Exception e) {
             Optional<EasyResilienceException> ex = easyEasyResilienceException(e);
             if (ex.isPresent()) {
                 if (ex.get() instanceof EasyResilienceRequestTimeoutException) {
-                    code = "500-request-timeout";
+                    code = apiMetrics.getSyncRequestTimeout();
                 } else if (ex.get() instanceof EasyResilienceOverflowException) {
-                    code = "500-request-overflow";
+                    code = overflowCode(apiMetrics, ex.get());
                 } else if (ex.get() instanceof EasyResilienceCircuitOpenException) {
-                    code = "500-circuit-open";
+                    code = apiMetrics.getSyncCircuitOpen();
                 } else if (ex.get() instanceof EasyResilienceException) {
-                    code = "500-resilience-unknown";
+                    code = apiMetrics.getSyncResilienceUnknown();
                 }
                 throw ex.get();
             } else if (e instanceof java.net.SocketTimeoutException) {
-                code = 500 + "-socket-timeout";
+                code = apiMetrics.getSyncSocketTimeout();
             } else {
-                code = 500 + "-unknown";
+                code = apiMetrics.getSyncUnknown();
             }
             throw easyEasyResilienceException(e).orElseThrow(() -> new RuntimeException(e));
         } finally {
-            metrics.observe(key, System.currentTimeMillis() - start);
-            metrics.inc("easy_http_sync", "server", call.getServer(), "api", call.getApi(), "code", "" + code);
+            timer.observe(System.currentTimeMillis() - start);
+            code.inc();
         }
     }
 
@@ -260,19 +384,21 @@ class EasyHttpObject implements IEasyHttpImplementation {
     @Override
     public <T> Observable<T> callAsync(Call<T> call) {
         long start = System.currentTimeMillis();
+        Deadline deadline = Deadline.current();
+        ApiMetrics apiMetrics = apiMetrics(call.getServer(), call.getApi());
         return Observable.create(observableEmitter -> {
-            internalCall(call)
+            observableEmitter.setDisposable(internalCall(call, apiMetrics, deadline)
                     .subscribe(
                             t -> {
                                 // Log metrics for success call
-                                metrics.observe(call.getServer() + "_" + call.getApi() + "_call_time", (System.currentTimeMillis() - start));
+                                apiMetrics.getCallTime().observe(System.currentTimeMillis() - start);
 
                                 observableEmitter.onNext(t);
                                 observableEmitter.onComplete();
                             },
                             throwable -> {
                                 // Log metrics for error call
-                                metrics.observe(call.getServer() + "_" + call.getApi() + "_call_error_time", (System.currentTimeMillis() - start));
+                                apiMetrics.getCallErrorTime().observe(System.currentTimeMillis() - start);
 
                                 Exception e;
                                 if (throwable instanceof EasyResilienceException) {
@@ -293,19 +419,42 @@ class EasyHttpObject implements IEasyHttpImplementation {
                                     }
                                 }
                                 observableEmitter.onError(e);
-                            })
-                    .dispose();
+                            }));
         });
     }
 
+    // Metrics of a server and api - built at setup. Calls to a api which is not registered get one built on first call
+    // (these calls fail) and kept, so that every such call does not build it again
+    private ApiMetrics apiMetrics(String server, String api) {
+        Map<String, ApiMetrics> apis = apiMetricsByServer.get(server);
+        ApiMetrics metricsOfApi = apis != null ? apis.get(api) : null;
+        if (metricsOfApi != null) {
+            return metricsOfApi;
+        }
+        return apiMetricsByServer.computeIfAbsent(server, name -> new ConcurrentHashMap<>()).computeIfAbsent(api, name -> new ApiMetrics(metrics, server, api));
+    }
+
+    /**
+     * Make a batch of calls - identical GET calls are made once.
+     */
+    @Override
+    public Observable<CallResult<?>> callAll(List<? extends Call<?>> calls, BatchOptions options) {
+        return CallBatch.execute(calls, options, this::callAsync, call -> apiRegistry.getOptional(call.getApi())
+                .map(api -> "GET".equalsIgnoreCase(api.getMethod()))
+                .orElse(false));
+    }
+
     /**
      * Call a HTTP Api. This API is wrapped in other convenience method to be used.
+     *
+     * @param apiMetrics metrics of this server and api
+     * @param deadline   deadline of the caller (null if there is no deadline)
      */
-    private <T> Observable<T> internalCall(Call<T> call) {
+    private <T> Observable<T> internalCall(Call<T> call, ApiMetrics apiMetrics, Deadline deadline) {
 
         final String server = call.getServer();
         final String api = call.getApi();
-        final String key = server + "-" + api;
+        final String key = apiMetrics.getKey();
 
         // Make sure we have server and api registered
         if (requestProcessors.get(key) == null) {
@@ -319,26 +468,146 @@ class EasyHttpObject implements IEasyHttpImplementation {
         requestObject.setPathParam(call.getPathParams());
         requestObject.setQueryParam(call.getQueryParam());
         requestObject.setHeaders(call.getHeaders());
-        requestObject.setBody(call.getBodyAsByteArray());
+        if (call.getRequestBody() != null) {
+            requestObject.setRequestBody(call.getRequestBody());
+        } else {
+            requestObject.setBody(call.getBodyAsByteArray());
+        }
         requestObject.setResponseBuilder(call.getResponseBuilder());
+        requestObject.setStreamResponseBuilder(call.getStreamResponseBuilder());
+        requestObject.setMaxResponseBodySize(call.getMaxResponseBodySize());
+        requestObject.setPriority(call.getPriority());
+        Integer compressionThreshold = requestCompressionThresholds.get(key);
+        if (compressionThreshold != null) {
+            compressRequestBody(requestObject, compressionThreshold, apiMetrics.getRequestCompressionRatio());
+        }
+
+        // Shrink timeout to the time left - fail fast if too little time is left for a useful call
+        Api apiConfig = deadline != null ? apiRegistry.getOptional(api).orElse(null) : null;
+        if (apiConfig != null) {
+            long remaining = deadline.remainingMs();
+            if (remaining < Math.max(1, apiConfig.getDeadlineFloorMs())) {
+                apiMetrics.getDeadlineExceeded().inc();
+
+                // DeadlineExceededException is a RequestTimeoutException - caller gets EasyResilienceRequestTimeoutException
+                return Observable.error(new DeadlineExceededException("server=" + server + " api=" + api + " remainingMs=" + remaining));
+            }
+            if (remaining < apiConfig.getTimeout()) {
+                requestObject.setTimeoutMs(remaining);
+            }
+            addDeadlineHeader(serverRegistry.get(server), requestObject, remaining);
+        }
+
+        // Cache, single-flight and hedging work on the response object, each call builds its own response from it.
+        // Streamed response can't be shared, so streaming calls are only hedged
+        if (responseCaches.containsKey(key) || coalescedApis.contains(key) || requestHedgers.containsKey(key)) {
+            boolean shareable = !call.isStreamingResponse();
+            ResponseCache responseCache = shareable ? responseCaches.get(key) : null;
+            Observable<ResponseObject> response = responseCache != null
+                    ? responseCache.get(requestObject, request -> fetchResponseObject(apiMetrics, request, true))
+                    : fetchResponseObject(apiMetrics, requestObject, shareable);
+            return response.flatMap(responseObject -> Observable.just(buildResponse(call, responseObject)));
+        }
 
         // Build a Observable and process it to give final response (in flat map)
-        Observable<T> observable = requestProcessors.get(server + "-" + api)
+        Observable<T> observable = requestProcessors.get(key)
                 .process(requestObject)
-                .flatMap(responseObject -> {
-                    T objectToReturn = call.getResponseBuilder().apply(responseObject.getBody());
-                    return Observable.just(objectToReturn);
-                });
+                .flatMap(responseObject -> Observable.just(buildResponse(call, responseObject)));
 
         // Run it with resilience processor;
         return resilienceProcessors.get(key)
                 .executeObservable(
                         key,
                         observable,
-                        call.getResponseClass()
+                        call.getResponseClass(),
+                        requestObject.getTimeoutMs(),
+                        requestObject.getPriority()
                 );
     }
 
+    // Queue full and queue timeout of the bulkhead are counted separately from other overflows
+    private static ICounter overflowCode(ApiMetrics apiMetrics, Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueueFullException) {
+                return apiMetrics.getSyncQueueFull();
+            } else if (cause instanceof QueueTimeoutException) {
+                return apiMetrics.getSyncQueueTimeout();
+            }
+        }
+        return apiMetrics.getSyncRequestOverflow();
+    }
+
+    // Send body gzip compressed if it is large (or of unknown size) - unless caller has already set a Content-Encoding
+    private static void compressRequestBody(RequestObject requestObject, int threshold, IRatio ratio) {
+        Map<String, Object> callHeaders = requestObject.getHeaders();
+        if (callHeaders != null && callHeaders.keySet().stream().anyMatch(ContentEncoding.CONTENT_ENCODING::equalsIgnoreCase)) {
+            return;
+        }
+
+        RequestBody requestBody = requestObject.getRequestBody();
+        if (requestBody != null && (requestBody.contentLength() < 0 || requestBody.contentLength() >= threshold)) {
+            requestObject.setRequestBody(ContentEncoding.compress(requestBody, ratio));
+        } else if (requestBody == null && requestObject.getBody() != null && requestObject.getBody().length >= threshold) {
+            try {
+                requestObject.setBody(ContentEncoding.compress(requestObject.getBody(), ratio));
+            } catch (IOException e) {
+                throw new RuntimeException("failed to compress request body", e);
+            }
+        } else {
+            return;
+        }
+
+        Map<String, Object> headers = callHeaders == null ? new HashMap<>() : new HashMap<>(callHeaders);
+        headers.put(ContentEncoding.CONTENT_ENCODING, ContentEncoding.GZIP);
+        requestObject.setHeaders(headers);
+    }
+
+    // Tell the server how much time is left - header is left out of the coalesce key, and is not a vary header of the cache
+    private static void addDeadlineHeader(Server server, RequestObject requestObject, long remainingMs) {
+        if (server == null || Strings.isNullOrEmpty(server.getDeadlineHeader())) {
+            return;
+        }
+        Map<String, Object> headers = requestObject.getHeaders() == null ? new HashMap<>() : new HashMap<>(requestObject.getHeaders());
+        headers.put(server.getDeadlineHeader(), remainingMs);
+        requestObject.setHeaders(headers);
+    }
+
+    // Make request - identical in-flight calls share one request (and one resilience permit)
+    private Observable<ResponseObject> fetchResponseObject(ApiMetrics apiMetrics, RequestObject requestObject, boolean coalesce) {
+        String key = apiMetrics.getKey();
+        if (!coalesce || !coalescedApis.contains(key)) {
+            return attempt(key, requestObject);
+        }
+
+        // Deadline header has the time left of this caller - calls which differ only in it are still identical
+        Server server = serverRegistry.get(requestObject.getServer());
+        String coalesceKey = RequestCoalescer.key(key, requestObject, server != null ? server.getDeadlineHeader() : null);
+        if (requestCoalescer.isInFlight(coalesceKey)) {
+            apiMetrics.getCoalesced().inc();
+        }
+        return requestCoalescer.coalesce(coalesceKey, () -> attempt(key, requestObject));
+    }
+
+    // Make request with resilience processor - with a hedge request if the api is hedged
+    private Observable<ResponseObject> attempt(String key, RequestObject requestObject) {
+        Observable<ResponseObject> attempt = resilienceProcessors.get(key).executeObservable(
+                key,
+                requestProcessors.get(key).process(requestObject),
+                ResponseObject.class,
+                requestObject.getTimeoutMs(),
+                requestObject.getPriority()
+        );
+        RequestHedger requestHedger = requestHedgers.get(key);
+        return requestHedger != null ? requestHedger.hedge(attempt) : attempt;
+    }
+
+    private static <T> T buildResponse(Call<T> call, ResponseObject responseObject) throws Exception {
+        // Streaming calls are already parsed by request processor
+        return call.isStreamingResponse()
+                ? call.getResponseClass().cast(responseObject.getParsedBody())
+                : call.getResponseBuilder().apply(responseObject.getBody());
+    }
+
     // Make sure we have initialized resilienceManager
     private void ensureResilienceManager() {
         if (resilienceManager == null) {
@@ -347,7 +616,7 @@ class EasyHttpObject implements IEasyHttpImplementation {
                 try {
                     resilienceManager = ApplicationContext.getInstance(IResilienceManager.class);
                 } catch (Exception e) {
-                    resilienceManager = new ResilienceManager();
+                    resilienceManager = new ResilienceManager(metrics);
                 }
             }
             resilienceManagerLock.unlock();
@@ -0,0 +1,99 @@
+package io.github.devlibx.easy.http.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.ServerRegistry;
+import io.github.devlibx.easy.resilience.IResilienceProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm-up connections and threads of all apis in parallel. Setup waits for warm-up till the time budget of the
+ * servers; anything not done by then continues in background and is reported as {@link WarmUpStatus#PENDING}.
+ */
+@Slf4j
+class EasyHttpWarmUp {
+    private static final int MAX_WARM_UP_THREADS = 16;
+    private final Map<String, WarmUpStatus> statusMap = new ConcurrentHashMap<>();
+
+    /**
+     * @return warm-up status of all apis (key = api name)
+     */
+    Map<String, WarmUpStatus> getStatus() {
+        return Collections.unmodifiableMap(statusMap);
+    }
+
+    void clear() {
+        statusMap.clear();
+    }
+
+    void warmUp(ServerRegistry serverRegistry, ApiRegistry apiRegistry, Map<String, IResilienceProcessor> resilienceProcessors) {
+        List<Runnable> tasks = new ArrayList<>();
+        long timeBudget = 0;
+        for (Api api : apiRegistry.getApiMap().values()) {
+            Optional<Server> server = serverRegistry.getOptional(api.getServer());
+            if (api.isNoWarmUp() || !server.isPresent()) {
+                log.debug("api={} warm-up is disabled. The very first call to {} may timeout or fail if api timeout is small", api.getName(), api.getName());
+                statusMap.put(api.getName(), WarmUpStatus.DISABLED);
+                continue;
+            }
+            statusMap.put(api.getName(), WarmUpStatus.PENDING);
+            timeBudget = Math.max(timeBudget, server.get().getWarmUpTimeoutInMs());
+            IResilienceProcessor resilienceProcessor = resilienceProcessors.get(server.get().getName() + "-" + api.getName());
+            tasks.add(() -> warmUp(server.get(), api, resilienceProcessor, apiRegistry));
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        // Run all warm-ups in parallel - threads are daemon so a stuck warm-up never blocks the shutdown
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(tasks.size(), MAX_WARM_UP_THREADS),
+                new ThreadFactoryBuilder().setNameFormat("easy-http-warm-up-%d").setDaemon(true).build()
+        );
+        CountDownLatch latch = new CountDownLatch(tasks.size());
+        tasks.forEach(task -> executorService.submit(() -> {
+            try {
+                task.run();
+            } finally {
+                latch.countDown();
+            }
+        }));
+        executorService.shutdown();
+
+        try {
+            if (!latch.await(timeBudget, TimeUnit.MILLISECONDS)) {
+                log.warn("warm-up is not done in {}ms - it will continue in background: status={}", timeBudget, statusMap);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void warmUp(Server server, Api api, IResilienceProcessor resilienceProcessor, ApiRegistry apiRegistry) {
+        long start = System.currentTimeMillis();
+        try {
+            if (resilienceProcessor != null) {
+                resilienceProcessor.warmUp();
+            }
+            boolean ready = apiRegistry.warmUp(server, api, server.getWarmUpTimeoutInMs());
+            statusMap.put(api.getName(), ready ? WarmUpStatus.READY : WarmUpStatus.FAILED);
+            log.info("warm-up done: server={} api={} ready={} time={}ms", server.getName(), api.getName(), ready, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            statusMap.put(api.getName(), WarmUpStatus.FAILED);
+            log.warn("warm-up failed: server={} api={} error={}", server.getName(), api.getName(), e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,10 @@ import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
 import io.github.devlibx.easy.http.config.Config;
 import io.reactivex.rxjava3.core.Observable;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 public interface IEasyHttpImplementation {
 
     /**
@@ -18,6 +22,13 @@ public interface IEasyHttpImplementation {
      */
     void setup(Config config);
 
+    /**
+     * @return warm-up status of all apis (key = api name)
+     */
+    default Map<String, WarmUpStatus> getWarmUpStatus() {
+        return Collections.emptyMap();
+    }
+
     /**
      * Shutdown easy http
      */
@@ -36,4 +47,13 @@ public interface IEasyHttpImplementation {
      * @return observable to notify the final result or error
      */
     <T> Observable<T> callAsync(Call<T> call);
+
+    /**
+     * Call a batch of apis together
+     *
+     * @return observable which gives result of each call as it completes
+     */
+    default Observable<CallResult<?>> callAll(List<? extends Call<?>> calls, BatchOptions options) {
+        return CallBatch.execute(calls, options, this::callAsync, call -> false);
+    }
 }
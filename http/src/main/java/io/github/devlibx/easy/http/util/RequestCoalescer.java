@@ -0,0 +1,79 @@
+package io.github.devlibx.easy.http.util;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.reactivex.rxjava3.core.Observable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for identical calls - the first call makes the request, all calls which come in while it is in-flight
+ * get the same response. Once the request completes it is removed, so the next call makes a new request.
+ */
+class RequestCoalescer {
+    private final Map<String, Observable<ResponseObject>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key     key of the request - see {@link #key(String, RequestObject)}
+     * @param request supplier of the request to make if no identical request is in-flight
+     * @return observable of in-flight request with this key
+     */
+    Observable<ResponseObject> coalesce(String key, Supplier<Observable<ResponseObject>> request) {
+        return Observable.defer(() -> inFlight.computeIfAbsent(key, k -> {
+            AtomicReference<Observable<ResponseObject>> shared = new AtomicReference<>();
+            shared.set(request.get()
+
+                    // Removed once the request terminates, any call after this makes a new request. Only this request
+                    // is removed - a newer request with same key (e.g. after clear()) stays in-flight
+                    .doFinally(() -> inFlight.remove(k, shared.get()))
+                    .cache());
+            return shared.get();
+        }));
+    }
+
+    /**
+     * @return true if a request with this key is in-flight
+     */
+    boolean isInFlight(String key) {
+        return inFlight.containsKey(key);
+    }
+
+    void clear() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return key which is same for calls to same api with same path params, query params and headers
+     */
+    static String key(String apiKey, RequestObject requestObject) {
+        return key(apiKey, requestObject, null);
+    }
+
+    /**
+     * @param ignoredHeader header which is not part of the key (e.g. deadline header - its value is different for every
+     *                      call)
+     * @return key which is same for calls to same api with same path params, query params and headers
+     */
+    static String key(String apiKey, RequestObject requestObject, String ignoredHeader) {
+        StringBuilder sb = new StringBuilder(apiKey);
+        append(sb.append("|p="), requestObject.getPathParam(), null);
+        append(sb.append("|q="), requestObject.getQueryParam(), null);
+        append(sb.append("|h="), requestObject.getHeaders(), ignoredHeader);
+        return sb.toString();
+    }
+
+    // Sorted so that same params added in different order give same key
+    private static void append(StringBuilder sb, Map<String, ?> map, String ignoredKey) {
+        if (map != null && !map.isEmpty()) {
+            TreeMap<String, Object> sorted = new TreeMap<>(map);
+            if (ignoredKey != null) {
+                sorted.keySet().removeIf(ignoredKey::equalsIgnoreCase);
+            }
+            sb.append(sorted);
+        }
+    }
+}
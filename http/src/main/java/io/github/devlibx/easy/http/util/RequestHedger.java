@@ -0,0 +1,142 @@
+package io.github.devlibx.easy.http.util;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ICounter;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.resilience.RequestBudget;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedged requests - if a request has not returned within the hedge delay then a second request is made, and the
+ * response which comes first is used (the other request is disposed).
+ * <p>
+ * Hedge delay is "Api.hedgeAfterMs", or the observed "Api.hedgePercentile" latency once enough calls are made. No of
+ * hedges is limited to "Api.hedgeBudgetPercent" of the calls.
+ * <p>
+ * Emits "easy_http_hedge" metric with result=hedged|won|budget_exhausted.
+ */
+class RequestHedger {
+    private static final String METRIC = "easy_http_hedge";
+    private static final int BUDGET_MIN_TOKENS = 3;
+    private static final int BUDGET_MAX_TOKENS = 100;
+
+    private final long hedgeAfterMs;
+    private final ICounter hedged;
+    private final ICounter won;
+    private final ICounter budgetExhausted;
+    private final Scheduler scheduler;
+    private final RequestBudget budget;
+    private final LatencyTracker latencyTracker;
+
+    RequestHedger(String server, Api api, IMetrics metrics) {
+        this(server, api, metrics, Schedulers.computation());
+    }
+
+    RequestHedger(String server, Api api, IMetrics metrics, Scheduler scheduler) {
+        this.hedgeAfterMs = api.getHedgeAfterMs();
+        this.hedged = metrics.counter(METRIC, "server", server, "api", api.getName(), "result", "hedged");
+        this.won = metrics.counter(METRIC, "server", server, "api", api.getName(), "result", "won");
+        this.budgetExhausted = metrics.counter(METRIC, "server", server, "api", api.getName(), "result", "budget_exhausted");
+        this.scheduler = scheduler;
+        this.budget = new RequestBudget(api.getHedgeBudgetPercent(), BUDGET_MIN_TOKENS, BUDGET_MAX_TOKENS);
+        this.latencyTracker = api.getHedgePercentile() > 0 ? new LatencyTracker(api.getHedgePercentile()) : null;
+    }
+
+    /**
+     * @return true if hedging is enabled for this api
+     */
+    static boolean isEnabled(Api api) {
+        return api.getHedgeAfterMs() > 0 || api.getHedgePercentile() > 0;
+    }
+
+    /**
+     * @param request cold observable of the request - it is subscribed again to make the hedge request
+     * @return observable which gives the first response of request or hedge request
+     */
+    <T> Observable<T> hedge(Observable<T> request) {
+        return Observable.defer(() -> {
+            budget.deposit();
+            long delay = delayMs();
+            if (delay <= 0) {
+                return track(request);
+            }
+
+            Observable<T> hedge = Observable.timer(delay, TimeUnit.MILLISECONDS, scheduler).flatMap(tick -> {
+                if (!budget.tryWithdraw()) {
+                    budgetExhausted.inc();
+                    return Observable.never();
+                }
+                hedged.inc();
+                return request.doOnNext(t -> won.inc());
+            });
+            return track(Observable.ambArray(request, hedge));
+        });
+    }
+
+    private <T> Observable<T> track(Observable<T> observable) {
+        if (latencyTracker == null) {
+            return observable;
+        }
+        return Observable.defer(() -> {
+            long start = System.nanoTime();
+            return observable.doOnNext(t -> latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        });
+    }
+
+    private long delayMs() {
+        if (latencyTracker != null) {
+            long percentile = latencyTracker.percentile();
+            if (percentile > 0) {
+                return Math.max(percentile, hedgeAfterMs);
+            }
+        }
+        return hedgeAfterMs;
+    }
+
+    /**
+     * Latency percentile of recent calls - computed from a window of last samples, and re-computed once every few
+     * samples (not on every call).
+     */
+    static class LatencyTracker {
+        private static final int WINDOW = 512;
+        private static final int MIN_SAMPLES = 100;
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final double percentile;
+        private final long[] samples = new long[WINDOW];
+        private final AtomicLong count = new AtomicLong();
+        private volatile long value = -1;
+
+        LatencyTracker(double percentile) {
+            this.percentile = Math.min(100, percentile);
+        }
+
+        void record(long latencyMs) {
+            long n = count.getAndIncrement();
+            samples[(int) (n % WINDOW)] = latencyMs;
+            if (n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+                recompute((int) Math.min(n + 1, WINDOW));
+            }
+        }
+
+        /**
+         * @return latency percentile in ms, -1 if there are not enough samples
+         */
+        long percentile() {
+            return value;
+        }
+
+        private void recompute(int size) {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            value = copy[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
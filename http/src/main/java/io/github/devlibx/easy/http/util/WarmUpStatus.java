@@ -0,0 +1,26 @@
+package io.github.devlibx.easy.http.util;
+
+/**
+ * Warm-up status of an api
+ */
+public enum WarmUpStatus {
+    /**
+     * Warm-up is running
+     */
+    PENDING,
+
+    /**
+     * Connections and threads are warmed up
+     */
+    READY,
+
+    /**
+     * Warm-up finished with error e.g. server was not reachable. Calls are served - they may be slow or fail
+     */
+    FAILED,
+
+    /**
+     * Warm-up is disabled for this api (Api.noWarmUp=true)
+     */
+    DISABLED
+}
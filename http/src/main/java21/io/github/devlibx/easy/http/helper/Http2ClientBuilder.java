@@ -0,0 +1,101 @@
+package io.github.devlibx.easy.http.helper;
+
+import com.google.common.base.Strings;
+import io.gitbub.devlibx.easy.helper.Safe;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.config.Server;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds HTTP/2 clients for servers with protocol=h2|h2c. One client (i.e. one multiplexed connection) is shared by
+ * all apis of a server.
+ * <p>
+ * h2 is negotiated with ALPN over TLS. h2c upgrades a plain HTTP/1.1 connection (prior knowledge is not supported by
+ * the JDK client).
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public class Http2ClientBuilder implements IClientBuilder {
+    private final Map<String, HttpClient> httpClientMap;
+
+    public Http2ClientBuilder() {
+        this.httpClientMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return true if HTTP/2 client is available on this runtime
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean accept(Server server, Api api) {
+        if (!server.isHttp2()) return false;
+        return "HTTP".equals(api.getType()) || "HTTPS".equals(api.getType());
+    }
+
+    @Override
+    public <T> T buildClient(Server server, Api api, Class<T> cls) {
+        if (!cls.isAssignableFrom(HttpClient.class)) {
+            throw new RuntimeException("cls type must be java.net.http.HttpClient");
+        }
+        return (T) httpClientMap.computeIfAbsent(server.getName(), key -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(server.getConnectTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()
+        );
+    }
+
+    /**
+     * A HTTP/2 connection is opened by the first request - we call the warm-up path of the server (if set) on every
+     * endpoint of the server.
+     */
+    @Override
+    public boolean warmUp(Server server, Api api, long timeoutMs) {
+        HttpClient client = buildClient(server, api, HttpClient.class);
+        if (Strings.isNullOrEmpty(server.getWarmUpPath())) {
+            return true;
+        }
+        boolean ok = true;
+        for (Endpoint endpoint : server.getEndpointList()) {
+            String baseUrl = server.hasEndpoints() ? UriEncoder.baseUrl(server, endpoint) : server.getUrl();
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + server.getWarmUpPath()))
+                        .timeout(Duration.ofMillis(timeoutMs))
+                        .GET()
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                log.debug("warm-up path called: server={} url={} path={} status={} version={}", server.getName(), baseUrl, server.getWarmUpPath(), response.statusCode(), response.version());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                ok = false;
+                log.warn("failed to call warm-up path: server={} url={} path={} error={}", server.getName(), baseUrl, server.getWarmUpPath(), e.getMessage());
+            }
+        }
+        return ok;
+    }
+
+    @Override
+    public void shutdown() {
+        httpClientMap.forEach((key, client) -> {
+            log.info("Closing HTTP/2 client: key={}", key);
+            Safe.safe(client::shutdownNow);
+        });
+        httpClientMap.clear();
+    }
+}
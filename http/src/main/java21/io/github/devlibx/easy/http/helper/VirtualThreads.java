@@ -0,0 +1,36 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads to run blocking http calls - a blocked virtual thread only holds a small heap allocated stack, not
+ * a platform thread.
+ * <p>
+ * Scheduler workers are interruptible: if subscriber disposes (e.g. timeout in resilience layer) the virtual thread
+ * is interrupted, which closes the socket it is blocked on.
+ */
+public final class VirtualThreads {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("easy-http-vt-", 0).factory());
+    private static final Scheduler SCHEDULER = Schedulers.from(EXECUTOR, true);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if this runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * @return scheduler which runs each task on a new virtual thread
+     */
+    public static Scheduler scheduler() {
+        return SCHEDULER;
+    }
+}
@@ -0,0 +1,358 @@
+package io.github.devlibx.easy.http.http2;
+
+import com.google.common.base.Strings;
+import com.google.inject.Inject;
+import com.google.inject.Key;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestBody;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions;
+import io.github.devlibx.easy.http.helper.CompiledHeaders;
+import io.github.devlibx.easy.http.helper.ContentEncoding;
+import io.github.devlibx.easy.http.helper.LimitedInputStream;
+import io.github.devlibx.easy.http.helper.UriEncoder;
+import io.github.devlibx.easy.http.lb.EndpointSelector;
+import io.github.devlibx.easy.http.lb.EndpointState;
+import io.github.devlibx.easy.http.module.Async;
+import io.github.devlibx.easy.http.module.Sync;
+import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.ServerRegistry;
+import io.github.devlibx.easy.http.sync.IHttpResponseProcessor;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.github.devlibx.easy.http.config.Api.DEFAULT_ACCEPTABLE_CODES;
+
+/**
+ * Request processor for servers with protocol=h2|h2c. Requests are multiplexed as streams over the HTTP/2 connection
+ * of the server. No of in-flight streams per server is limited by "Server.maxConcurrentStreams".
+ */
+@Slf4j
+public class Http2RequestProcessor implements IRequestProcessor {
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(Set.of("connection", "content-length", "expect", "host", "upgrade"));
+    }
+
+    private final ServerRegistry serverRegistry;
+    private final ApiRegistry apiRegistry;
+    private final StringHelper stringHelper;
+    private final IHttpResponseProcessor httpResponseProcessor;
+    private final IMetrics metrics;
+    private final Map<String, Semaphore> streamLimits;
+
+    @Inject
+    public Http2RequestProcessor(ServerRegistry serverRegistry, ApiRegistry apiRegistry, IHttpResponseProcessor httpResponseProcessor, IMetrics metrics) {
+        this.serverRegistry = serverRegistry;
+        this.apiRegistry = apiRegistry;
+        this.httpResponseProcessor = httpResponseProcessor;
+        this.metrics = metrics;
+        this.stringHelper = ApplicationContext.getOptionalInstance(StringHelper.class).orElse(new StringHelper());
+        this.streamLimits = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Observable<ResponseObject> process(RequestObject requestObject) {
+
+        // Get api and server from registry
+        final Api api = apiRegistry.getOptional(requestObject.getApi()).orElseThrow(() -> new RuntimeException("Could not find api=" + requestObject.getApi()));
+        final Server server = serverRegistry.getOptional(api.getServer()).orElseThrow(() -> new RuntimeException("Could not find server=" + api.getServer()));
+
+        // Set correct type of method in request from API
+        if (Strings.isNullOrEmpty(requestObject.getMethod())) {
+            requestObject.setMethod(api.getMethod());
+        }
+
+        Observable<ResponseObject> observable = Observable.create(observableEmitter -> processRequest(server, api, requestObject, observableEmitter));
+        if (Strings.isNullOrEmpty(api.getFallbackApiName())) {
+            return observable;
+        }
+
+        // Secondary flow to handle fallback API - If Primary path failed and we have a fallback configured then use it
+        // (same as SyncRequestProcessor). Fallback api of a h2/h2c server is called with the same client, any other
+        // api with the HTTP/1.1 request processor of that api
+        return observable.onErrorResumeNext(throwable -> {
+            final Api fallbackApi = apiRegistry.getOptional(api.getFallbackApiName()).orElseThrow(() -> new RuntimeException("Could not find fallback api=" + api.getFallbackApiName()));
+            final Server fallbackServer = serverRegistry.getOptional(fallbackApi.getServer()).orElseThrow(() -> new RuntimeException("Could not find fallback server=" + fallbackApi.getServer()));
+            log.info("Going to fallback: server={}, api={}, fallbackApi={}", server.getName(), api.getName(), api.getFallbackApiName());
+            if (!fallbackServer.isHttp2()) {
+                IRequestProcessor requestProcessor = ApplicationContext.getInstance(Key.get(IRequestProcessor.class, fallbackApi.isAsync() ? Async.class : Sync.class));
+                return requestProcessor.process(requestObject.toBuilder().server(fallbackApi.getServer()).api(api.getFallbackApiName()).build());
+            }
+            return Observable.create(observableEmitter -> processRequest(fallbackServer, fallbackApi, requestObject, observableEmitter));
+        });
+    }
+
+    private void processRequest(Server server, Api api, RequestObject requestObject, ObservableEmitter<ResponseObject> observableEmitter) {
+
+        // Fail fast if we already have max streams in-flight to this server
+        Semaphore streams = streamLimits.computeIfAbsent(server.getName(), key -> new Semaphore(Math.max(1, server.getMaxConcurrentStreams())));
+        if (!streams.tryAcquire()) {
+            observableEmitter.onError(new OverflowException("too many concurrent streams: server=" + server.getName() + " maxConcurrentStreams=" + server.getMaxConcurrentStreams(), null));
+            return;
+        }
+
+        // Pick endpoint if this server has multiple endpoints
+        EndpointSelector endpointSelector = serverRegistry.getEndpointSelector(server);
+        EndpointState endpoint = endpointSelector != null ? endpointSelector.select() : null;
+        InFlightStream stream = new InFlightStream(streams, endpointSelector, endpoint);
+
+        CompletableFuture<HttpResponse<InputStream>> future;
+        long startTime = System.currentTimeMillis();
+        try {
+            HttpClient client = apiRegistry.getClient(server, api, HttpClient.class);
+            future = client.sendAsync(buildRequest(server, endpoint, api, requestObject), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (Exception e) {
+            stream.cancel();
+            observableEmitter.onError(e);
+            return;
+        }
+
+        // Cancel the in-flight stream if subscriber disposes (e.g. timeout in resilience layer) - also while its body
+        // is read
+        observableEmitter.setCancellable(() -> {
+            future.cancel(true);
+            stream.cancel();
+        });
+
+        // Future completes when response headers arrive - stream ends when its body is read
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                if (throwable instanceof CancellationException) {
+                    stream.cancel();
+                } else {
+                    stream.complete(true);
+                }
+                api.getApiMetrics(metrics).getHttpClientErrorTime().observe(System.currentTimeMillis() - startTime);
+                Throwable cause = unwrap(throwable);
+                ResponseObject responseObject = httpResponseProcessor.processException(server, api, cause);
+                observableEmitter.tryOnError(EasyHttpExceptions.convert(responseObject.getStatusCode(), cause, responseObject));
+                return;
+            }
+            if (!stream.setBody(response.body())) {
+                return;
+            }
+            api.getApiMetrics(metrics).getHttpClientTime().observe(System.currentTimeMillis() - startTime);
+
+            try {
+                ResponseObject responseObject = buildResponseObject(api, requestObject, response);
+                stream.complete(response.statusCode() >= 500);
+                httpResponseProcessor.processResponseForException(responseObject);
+                observableEmitter.onNext(responseObject);
+                observableEmitter.onComplete();
+            } catch (Exception e) {
+                stream.complete(true);
+                observableEmitter.tryOnError(e);
+            }
+        });
+    }
+
+    // In-memory and whole file bodies are sent without a copy - other streaming bodies are copied once to a byte[]
+    private static HttpRequest.BodyPublisher bodyPublisher(RequestObject requestObject) {
+        RequestBody requestBody = requestObject.getRequestBody();
+        if (requestBody == null) {
+            return requestObject.getBody() != null
+                    ? HttpRequest.BodyPublishers.ofByteArray(requestObject.getBody())
+                    : HttpRequest.BodyPublishers.noBody();
+        }
+
+        try {
+            ByteBuffer buffer = requestBody.byteBuffer();
+            if (buffer != null && buffer.hasArray()) {
+                return HttpRequest.BodyPublishers.ofByteArray(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+            Path file = requestBody.file();
+            if (file != null && requestBody.filePosition() == 0 && requestBody.contentLength() == Files.size(file)) {
+                return HttpRequest.BodyPublishers.ofFile(file);
+            }
+            return HttpRequest.BodyPublishers.ofByteArray(requestBody.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest buildRequest(Server server, EndpointState endpoint, Api api, RequestObject requestObject) {
+        int timeout = api.getTimeout();
+        if (api.getTimeoutDeltaFactor() > 0) {
+            timeout = (int) (timeout + (api.getTimeoutDeltaFactor() * timeout));
+        }
+        if (requestObject.getTimeoutMs() > 0) {
+            timeout = (int) Math.min(timeout, requestObject.getTimeoutMs());
+        }
+
+        HttpRequest.BodyPublisher body = bodyPublisher(requestObject);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(UriEncoder.buildUri(server, endpoint, api, requestObject, stringHelper))
+                .timeout(Duration.ofMillis(timeout))
+                .method(requestObject.getMethod(), body);
+
+        // Take headers from server, request and api - HTTP/2 client manages connection level headers, skip them
+        CompiledHeaders.forEachRequestHeader(
+                server.getCompiledHeaders(stringHelper),
+                api.getCompiledHeaders(stringHelper),
+                requestObject.getHeaders(),
+                stringHelper,
+                (name, value) -> {
+                    if (!RESTRICTED_HEADERS.contains(name)) {
+                        builder.header(name, value);
+                    }
+                }
+        );
+        if (server.isResponseCompression()) {
+            builder.setHeader(ContentEncoding.ACCEPT_ENCODING, ContentEncoding.SUPPORTED_ENCODINGS);
+        }
+        return builder.build();
+    }
+
+    private ResponseObject buildResponseObject(Api api, RequestObject requestObject, HttpResponse<InputStream> response) throws Exception {
+        if (api.getAcceptableCodes() == null || api.getAcceptableCodes().isEmpty()) {
+            api.setAcceptableCodes(DEFAULT_ACCEPTABLE_CODES);
+        }
+        int statusCode = response.statusCode();
+        boolean notModified = requestObject.isCaptureResponseHeaders() && statusCode == 304;
+        boolean acceptable = notModified || api.getAcceptableCodes().contains(statusCode);
+        ResponseObject.ResponseObjectBuilder builder = ResponseObject.builder()
+                .success(acceptable)
+                .statusCode(statusCode)
+                .errorWithAcceptableErrorCode(!notModified && acceptable && (statusCode < 200 || statusCode >= 300));
+
+        // JDK client does not decompress - compressed body is decompressed while it is read, and encoding headers are
+        // not given to the caller (same as other clients)
+        String encoding = response.headers().firstValue(ContentEncoding.CONTENT_ENCODING).orElse(null);
+        boolean encoded = ContentEncoding.isSupported(encoding);
+        if (requestObject.isCaptureResponseHeaders()) {
+            Map<String, String> headers = new HashMap<>();
+            response.headers().map().forEach((name, values) -> {
+                if (encoded && ("content-encoding".equalsIgnoreCase(name) || "content-length".equalsIgnoreCase(name))) {
+                    return;
+                }
+                if (!values.isEmpty()) {
+                    headers.putIfAbsent(name.toLowerCase(), values.get(0));
+                }
+            });
+            builder.headers(headers);
+        }
+
+        InputStream body = ContentEncoding.decode(encoding, response.body(), api.getApiMetrics(metrics).getResponseCompressionRatio());
+
+        // Streaming call - parse body directly from the stream, error bodies are read as byte[] for the exception
+        long maxResponseBodySize = requestObject.getMaxResponseBodySize();
+        if (acceptable && requestObject.getStreamResponseBuilder() != null) {
+            long contentLength = encoded ? -1 : response.headers().firstValueAsLong("content-length").orElse(-1);
+            LimitedInputStream.ensureContentLength(contentLength, maxResponseBodySize);
+            try (InputStream in = LimitedInputStream.wrap(body, maxResponseBodySize)) {
+                return builder.parsedBody(requestObject.getStreamResponseBuilder().apply(in)).build();
+            }
+        }
+        try (InputStream in = body) {
+            return builder.body(in.readAllBytes()).build();
+        }
+    }
+
+    // Make timeout look like a socket timeout, so that it is converted to EasyRequestTimeOutException
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof HttpTimeoutException) {
+            SocketTimeoutException timeoutException = new SocketTimeoutException(cause.getMessage());
+            timeoutException.initCause(cause);
+            return timeoutException;
+        }
+        return cause;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * A stream is in-flight till its response body is read, or the call fails or is cancelled. Stream permit is given
+     * back and endpoint latency is recorded once - when the stream ends.
+     */
+    private static class InFlightStream {
+        private final Semaphore streams;
+        private final EndpointSelector endpointSelector;
+        private final EndpointState endpoint;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile InputStream body;
+
+        private InFlightStream(Semaphore streams, EndpointSelector endpointSelector, EndpointState endpoint) {
+            this.streams = streams;
+            this.endpointSelector = endpointSelector;
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * @return false if stream is already cancelled (body is closed)
+         */
+        private boolean setBody(InputStream in) {
+            body = in;
+            if (done.get()) {
+                closeBody();
+                return false;
+            }
+            return true;
+        }
+
+        private void complete(boolean failure) {
+            if (done.compareAndSet(false, true)) {
+                streams.release();
+                if (endpoint != null) {
+                    endpointSelector.onComplete(endpoint, System.nanoTime() - startNanos, failure);
+                }
+            }
+        }
+
+        // Closing the body resets the stream, so a body which is still transferred is not read any more
+        private void cancel() {
+            if (done.compareAndSet(false, true)) {
+                streams.release();
+                if (endpoint != null) {
+                    endpointSelector.cancel(endpoint);
+                }
+            }
+            closeBody();
+        }
+
+        private void closeBody() {
+            InputStream in = body;
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
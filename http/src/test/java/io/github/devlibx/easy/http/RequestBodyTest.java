@@ -0,0 +1,63 @@
+package io.github.devlibx.easy.http;
+
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestBodyTest {
+
+    @Test
+    public void testByteBufferBody() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap("--hello--".getBytes(StandardCharsets.UTF_8));
+        buffer.position(2);
+        buffer.limit(7);
+        RequestBody body = RequestBody.of(buffer);
+        assertEquals(5, body.contentLength());
+
+        // Body can be written more than once (e.g. retry), and buffer is not changed
+        assertEquals("hello", new String(body.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals("hello", new String(body.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testFileRegionBody() throws Exception {
+        Path file = Files.createTempFile("request-body", ".txt");
+        try {
+            Files.write(file, "0123456789".getBytes(StandardCharsets.UTF_8));
+            RequestBody body = RequestBody.ofFile(file, 3, 4);
+            assertEquals(4, body.contentLength());
+            assertEquals("3456", new String(body.toByteArray(), StandardCharsets.UTF_8));
+
+            RequestBody wholeFile = RequestBody.ofFile(file);
+            assertEquals(10, wholeFile.contentLength());
+            assertEquals("0123456789", new String(wholeFile.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testJsonBody() throws Exception {
+        StringObjectMap map = StringObjectMap.of("name", "easy", "count", 2);
+        RequestBody body = RequestBody.ofJson(map);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        assertArrayEquals(JsonUtils.asJson(map).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+
+        // String is sent as it is
+        RequestBody stringBody = RequestBody.ofJson("{\"a\":1}");
+        assertEquals(7, stringBody.contentLength());
+        assertEquals("{\"a\":1}", new String(stringBody.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -61,6 +61,28 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
     }
 
 
+    @Test
+    public void testPostWithStreamedBody() {
+        // Body of unknown size and larger than one chunk - it is sent while it is written
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            expected.append("line-").append(i).append(',');
+        }
+        Map result = EasyHttp.callSync(
+                Call.builder(Map.class)
+                        .withServerAndApi("testServer", "post_api_with_delay_2000")
+                        .addQueryParam("delay", 1)
+                        .withBodyWriter(out -> {
+                            for (int i = 0; i < 20_000; i++) {
+                                out.write(("line-" + i + ",").getBytes());
+                            }
+                        }, -1)
+                        .build()
+        );
+        assertEquals("post", result.get("method"));
+        assertEquals(expected.toString(), result.get("request_body"));
+    }
+
     /**
      * Test a simple http call where we make too many calls to simulate requests rejected
      */
@@ -0,0 +1,150 @@
+package io.github.devlibx.easy.http.cache;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.CacheConfig;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ResponseCacheTest {
+    private final AtomicLong clock = new AtomicLong(1000);
+    private final List<RequestObject> requests = new ArrayList<>();
+
+    @Test
+    public void testResponseIsCachedTillTtl() {
+        ResponseCache cache = new ResponseCache("server", "api", CacheConfig.builder().enabled(true).ttlMs(100).build(), new IMetrics.NoOpMetrics(), clock::get);
+        ResponseObject first = cache.get(request(), fetch(response(200, "a", null))).blockingFirst();
+        ResponseObject second = cache.get(request(), fetch(response(200, "b", null))).blockingFirst();
+        assertSame(first, second);
+        assertEquals(1, requests.size());
+
+        // Expired - make a new request
+        clock.addAndGet(100);
+        assertEquals("b", cache.get(request(), fetch(response(200, "b", null))).blockingFirst().getBodyAsString());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testErrorResponseIsNotCached() {
+        ResponseCache cache = new ResponseCache("server", "api", CacheConfig.builder().enabled(true).build(), new IMetrics.NoOpMetrics(), clock::get);
+        cache.get(request(), fetch(response(500, "a", null))).blockingFirst();
+        cache.get(request(), fetch(response(200, "b", null))).blockingFirst();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testRevalidateWithEtag() {
+        CacheConfig config = CacheConfig.builder().enabled(true).respectCacheHeaders(true).build();
+        ResponseCache cache = new ResponseCache("server", "api", config, new IMetrics.NoOpMetrics(), clock::get);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("etag", "\"v1\"");
+        headers.put("cache-control", "max-age=1");
+        ResponseObject first = cache.get(request(), fetch(response(200, "a", headers))).blockingFirst();
+        assertNull(requests.get(0).getHeaders());
+
+        // Expired - revalidate with If-None-Match and use cached response on 304
+        clock.addAndGet(1000);
+        ResponseObject second = cache.get(request(), fetch(response(304, null, headers))).blockingFirst();
+        assertSame(first, second);
+        assertEquals("\"v1\"", requests.get(1).getHeaders().get("If-None-Match"));
+
+        // Revalidated response is good for max-age again
+        cache.get(request(), fetch(response(200, "b", headers))).blockingFirst();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testNoStoreIsNotCached() {
+        CacheConfig config = CacheConfig.builder().enabled(true).respectCacheHeaders(true).build();
+        ResponseCache cache = new ResponseCache("server", "api", config, new IMetrics.NoOpMetrics(), clock::get);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("cache-control", "no-store");
+        cache.get(request(), fetch(response(200, "a", headers))).blockingFirst();
+        cache.get(request(), fetch(response(200, "a", headers))).blockingFirst();
+        assertEquals(2, requests.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCallsWithOtherCredentialsDoNotShareResponse() {
+        ResponseCache cache = new ResponseCache("server", "api", CacheConfig.builder().enabled(true).build(), new IMetrics.NoOpMetrics(), clock::get);
+        ResponseObject user1 = cache.get(request("Authorization", "Bearer user1"), fetch(response(200, "user1", null))).blockingFirst();
+        ResponseObject user2 = cache.get(request("Authorization", "Bearer user2"), fetch(response(200, "user2", null))).blockingFirst();
+        assertEquals("user2", user2.getBodyAsString());
+        assertEquals(2, requests.size());
+
+        // Header names are not case-sensitive, and headers which are not vary headers are not part of the key
+        assertSame(user1, cache.get(request("authorization", "Bearer user1"), fetch(response(200, "b", null))).blockingFirst());
+        assertSame(user1, cache.get(request("Authorization", "Bearer user1", "X-Trace-Id", "1"), fetch(response(200, "b", null))).blockingFirst());
+        assertEquals(2, requests.size());
+
+        // Without credentials
+        cache.get(request(), fetch(response(200, "anonymous", null))).blockingFirst();
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void testCustomVaryHeaders() {
+        CacheConfig config = CacheConfig.builder().enabled(true).varyHeaders(Collections.singletonList("X-User-Id")).build();
+        ResponseCache cache = new ResponseCache("server", "api", config, new IMetrics.NoOpMetrics(), clock::get);
+        cache.get(request("X-User-Id", "1"), fetch(response(200, "a", null))).blockingFirst();
+        cache.get(request("X-User-Id", "2"), fetch(response(200, "b", null))).blockingFirst();
+        cache.get(request("X-User-Id", "2"), fetch(response(200, "c", null))).blockingFirst();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testCacheControlParse() {
+        assertEquals(5000, ResponseCache.CacheControl.parse("public, max-age=5").ttlMs(100));
+        assertEquals(0, ResponseCache.CacheControl.parse("no-cache").ttlMs(100));
+        assertEquals(100, ResponseCache.CacheControl.parse("public").ttlMs(100));
+        assertEquals(100, ResponseCache.CacheControl.parse(null).ttlMs(100));
+    }
+
+    private RequestObject request(String... headers) {
+        RequestObject requestObject = new RequestObject();
+        requestObject.setServer("server");
+        requestObject.setApi("api");
+        Map<String, Object> pathParams = new HashMap<>();
+        pathParams.put("id", 1);
+        requestObject.setPathParam(pathParams);
+        if (headers.length > 0) {
+            Map<String, Object> headerMap = new HashMap<>();
+            for (int i = 0; i < headers.length; i += 2) {
+                headerMap.put(headers[i], headers[i + 1]);
+            }
+            requestObject.setHeaders(headerMap);
+        }
+        return requestObject;
+    }
+
+    private Function<RequestObject, Observable<ResponseObject>> fetch(ResponseObject responseObject) {
+        return requestObject -> {
+            requests.add(requestObject);
+            return Observable.just(responseObject);
+        };
+    }
+
+    private static ResponseObject response(int statusCode, String body, Map<String, String> headers) {
+        return ResponseObject.builder()
+                .statusCode(statusCode)
+                .success(statusCode < 300)
+                .body(body != null ? body.getBytes() : null)
+                .headers(headers)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.devlibx.easy.http.helper;
+
+import com.google.common.io.ByteStreams;
+import io.github.devlibx.easy.http.RequestBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentEncodingTest {
+    private static final byte[] BODY = String.join(",", Collections.nCopies(500, "{\"name\":\"harish\"}")).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testGzipRoundTrip() throws Exception {
+        List<Double> ratios = new ArrayList<>();
+        byte[] compressed = ContentEncoding.compress(BODY, ratios::add);
+        assertTrue(compressed.length < BODY.length);
+
+        try (InputStream in = ContentEncoding.decode("gzip", new ByteArrayInputStream(compressed), ratios::add)) {
+            assertArrayEquals(BODY, ByteStreams.toByteArray(in));
+        }
+
+        // Ratio of request (compress) and response (decode) is reported once each
+        assertEquals(2, ratios.size());
+        assertEquals((double) BODY.length / compressed.length, ratios.get(0), 0.0001);
+        assertEquals(ratios.get(0), ratios.get(1), 0.0001);
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(BODY);
+        }
+        try (InputStream in = ContentEncoding.decode("deflate", new ByteArrayInputStream(out.toByteArray()), null)) {
+            assertArrayEquals(BODY, ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testStreamingRequestBody() throws Exception {
+        List<Double> ratios = new ArrayList<>();
+        RequestBody body = ContentEncoding.compress(RequestBody.of(ByteBuffer.wrap(BODY)), ratios::add);
+        assertEquals(-1, body.contentLength());
+
+        // Body can be written again (retry) - output stream is not closed by gzip stream
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        body.writeTo(new ByteArrayOutputStream());
+        try (InputStream in = ContentEncoding.decode("gzip", new ByteArrayInputStream(out.toByteArray()), null)) {
+            assertArrayEquals(BODY, ByteStreams.toByteArray(in));
+        }
+        assertEquals(2, ratios.size());
+        assertTrue(ratios.get(0) > 1);
+    }
+
+    @Test
+    public void testNotEncoded() throws Exception {
+        InputStream in = new ByteArrayInputStream(BODY);
+        assertSame(in, ContentEncoding.decode(null, in, null));
+        assertSame(in, ContentEncoding.decode("identity", in, null));
+        assertFalse(ContentEncoding.isSupported("br"));
+
+        // Empty body with Content-Encoding header
+        try (InputStream empty = ContentEncoding.decode("gzip", new ByteArrayInputStream(new byte[0]), null)) {
+            assertEquals(-1, empty.read());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.config.Server;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class HttpClientBuilderTest {
+
+    @Test
+    public void testClientPerApiWhenPoolIsNotShared() {
+        Server server = new Server();
+        server.setName("server");
+        server.setHost("localhost");
+
+        HttpClientBuilder builder = new HttpClientBuilder();
+        CloseableHttpClient first = builder.buildClient(server, api("first", 5), CloseableHttpClient.class);
+        CloseableHttpClient second = builder.buildClient(server, api("second", 5), CloseableHttpClient.class);
+        assertNotSame(first, second);
+        builder.shutdown();
+    }
+
+    @Test
+    public void testSingleClientPerServerWhenPoolIsShared() {
+        Server server = new Server();
+        server.setName("server");
+        server.setHost("localhost");
+        server.setSharedConnectionPool(true);
+
+        HttpClientBuilder builder = new HttpClientBuilder();
+        CloseableHttpClient first = builder.buildClient(server, api("first", 5), CloseableHttpClient.class);
+        CloseableHttpClient second = builder.buildClient(server, api("second", 5), CloseableHttpClient.class);
+        assertSame(first, second);
+        builder.shutdown();
+    }
+
+    @Test
+    public void testPoolLimitsWhenPoolIsNotShared() {
+        Server server = new Server();
+        server.setName("server");
+        server.setEndpoints(Arrays.asList(new Endpoint("host1", 80), new Endpoint("host2", 80)));
+
+        HttpClientBuilder builder = new HttpClientBuilder();
+        Api api = api("first", 5);
+        builder.buildClient(server, api, CloseableHttpClient.class);
+
+        // Each endpoint (route) gets "concurrency" connections
+        PoolingHttpClientConnectionManager connectionManager = builder.getConnectionManager(server, api);
+        assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(10, connectionManager.getMaxTotal());
+        builder.shutdown();
+    }
+
+    @Test
+    public void testPoolLimitsWhenPoolIsShared() {
+        Server server = new Server();
+        server.setName("server");
+        server.setHost("localhost");
+        server.setSharedConnectionPool(true);
+
+        // Shared pool is the sum of concurrency of all apis - same api added again is not counted twice
+        HttpClientBuilder builder = new HttpClientBuilder();
+        Api first = api("first", 5);
+        builder.buildClient(server, first, CloseableHttpClient.class);
+        builder.buildClient(server, api("second", 3), CloseableHttpClient.class);
+        builder.buildClient(server, first, CloseableHttpClient.class);
+        PoolingHttpClientConnectionManager connectionManager = builder.getConnectionManager(server, first);
+        assertEquals(8, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(8, connectionManager.getMaxTotal());
+
+        // Capped by max connections
+        server.setMaxConnections(10);
+        builder.buildClient(server, api("third", 4), CloseableHttpClient.class);
+        assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(10, connectionManager.getMaxTotal());
+        builder.shutdown();
+    }
+
+    private static Api api(String name, int concurrency) {
+        Api api = new Api();
+        api.setName(name);
+        api.setServer("server");
+        api.setConcurrency(concurrency);
+        return api;
+    }
+}
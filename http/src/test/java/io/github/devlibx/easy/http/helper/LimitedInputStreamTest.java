@@ -0,0 +1,40 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResponseBodyTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LimitedInputStreamTest {
+
+    @Test
+    public void testParseWithinLimit() {
+        byte[] body = "{\"name\":\"harish\"}".getBytes();
+        InputStream in = LimitedInputStream.wrap(new ByteArrayInputStream(body), body.length);
+        Map<?, ?> map = JsonUtils.readObject(in, Map.class);
+        assertEquals("harish", map.get("name"));
+    }
+
+    @Test
+    public void testParseFailsIfBodyIsTooLarge() {
+        byte[] body = "{\"name\":\"harish\"}".getBytes();
+        InputStream in = LimitedInputStream.wrap(new ByteArrayInputStream(body), body.length - 1);
+        assertThrows(EasyResponseBodyTooLargeException.class, () -> JsonUtils.readObject(in, Map.class));
+        assertThrows(EasyResponseBodyTooLargeException.class, () -> LimitedInputStream.ensureContentLength(body.length, body.length - 1));
+    }
+
+    @Test
+    public void testNoLimit() {
+        InputStream in = new ByteArrayInputStream(new byte[10]);
+        assertSame(in, LimitedInputStream.wrap(in, 0));
+        LimitedInputStream.ensureContentLength(-1, 5);
+        LimitedInputStream.ensureContentLength(100, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import org.apache.commons.lang3.text.StrSubstitutor;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("deprecation")
+public class PathTemplateTest {
+
+    @Test
+    public void testExpandIsSameAsStrSubstitutor() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", 10);
+        params.put("name", "harish");
+
+        for (String path : Arrays.asList("/users/${id}", "users/${id}/${name}", "/a/${missing}", "/a/${missing:-x}", "/a/$${id}", "/${id", "/plain", "")) {
+            String expected = StrSubstitutor.replace(path, params);
+            expected = expected.isEmpty() ? "/" : expected;
+            expected = expected.startsWith("/") ? expected : "/" + expected;
+            assertEquals(expected, PathTemplate.compile(path).expand(params), path);
+        }
+
+        // Without path params the path is used as-is
+        assertEquals("/users/${id}", PathTemplate.compile("/users/${id}").expand(null));
+        assertEquals("/", PathTemplate.compile(null).expand(null));
+    }
+
+    @Test
+    public void testEncodedUriIsSameAsUriBuilder() throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", "a b/\u00fc?#");
+
+        MultivaluedMap<String, Object> queryParams = new MultivaluedHashMap<>();
+        queryParams.add("q", "x y&z=\u00fc");
+        queryParams.add("q", 1);
+        queryParams.add("k+", true);
+
+        // Query params are encoded in the iteration order of the map (not insertion order)
+        List<NameValuePair> pairs = new ArrayList<>();
+        queryParams.forEach((key, values) -> values.forEach(value -> pairs.add(new BasicNameValuePair(key, String.valueOf(value)))));
+
+        String expected = new URIBuilder()
+                .setScheme("http")
+                .setHost("localhost")
+                .setPort(8080)
+                .setPath(StrSubstitutor.replace("/users/${id}/orders", params))
+                .setParameters(pairs)
+                .build()
+                .toString();
+
+        StringBuilder sb = new StringBuilder("http://localhost:8080");
+        PathTemplate.compile("/users/${id}/orders").expand(params, sb, true);
+        UriEncoder.appendEncodedQuery(sb, queryParams, new StringHelper());
+        assertEquals(expected, sb.toString());
+    }
+}
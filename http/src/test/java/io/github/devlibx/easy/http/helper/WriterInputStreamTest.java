@@ -0,0 +1,65 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.RequestBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WriterInputStreamTest {
+
+    @Test
+    public void testBodyLargerThanPipeIsStreamed() throws Exception {
+        byte[] chunk = new byte[1000];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+        RequestBody body = RequestBody.ofWriter(out -> {
+            for (int i = 0; i < 100; i++) {
+                out.write(chunk);
+            }
+        }, -1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InputStream in = WriterInputStream.start(body, 1024, executor)) {
+            byte[] read = readAll(in);
+            assertEquals(100 * chunk.length, read.length);
+            assertArrayEquals(body.toByteArray(), read);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriterErrorFailsRead() throws Exception {
+        RequestBody body = RequestBody.ofWriter(out -> {
+            out.write("partial".getBytes());
+            throw new IOException("writer failed");
+        }, -1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InputStream in = WriterInputStream.start(body, 1024, executor)) {
+            IOException e = assertThrows(IOException.class, () -> readAll(in));
+            assertEquals("writer failed", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
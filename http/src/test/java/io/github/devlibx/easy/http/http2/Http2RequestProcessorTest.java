@@ -0,0 +1,277 @@
+package io.github.devlibx.easy.http.http2;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import com.google.inject.util.Modules;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.LocalHttpServer;
+import io.gitbub.devlibx.easy.helper.LoggingHelper;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.yaml.YamlUtils;
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceOverflowException;
+import io.github.devlibx.easy.http.helper.Http2ClientBuilder;
+import io.github.devlibx.easy.http.helper.IClientBuilder;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import io.github.devlibx.easy.http.module.Http2;
+import io.github.devlibx.easy.http.util.Call;
+import io.github.devlibx.easy.http.util.EasyHttp;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.qos.logback.classic.Level.OFF;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SuppressWarnings("rawtypes")
+public class Http2RequestProcessorTest {
+    private static final long SLOW_BODY_MS = 1000;
+
+    private LocalHttpServer localHttpServer;
+    private DisposableServer h2cServer;
+
+    // Remote address of every request and no of requests which came as HTTP/2 streams
+    private final Set<String> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger http2Requests = new AtomicInteger();
+    private final CountDownLatch slowBodyStarted = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        LoggingHelper.setupLogging();
+        LoggingHelper.getLogger(LocalHttpServer.class).setLevel(OFF);
+
+        // HTTP/1.1 only server
+        localHttpServer = new LocalHttpServer();
+        localHttpServer.startServerInThread();
+
+        // h2c server - HTTP/1.1 requests are upgraded to HTTP/2
+        h2cServer = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .handle((request, response) -> {
+                    connections.add(String.valueOf(request.remoteAddress()));
+                    if (request.requestHeaders().contains("x-http2-stream-id")) {
+                        http2Requests.incrementAndGet();
+                    }
+                    QueryStringDecoder query = new QueryStringDecoder(request.uri());
+                    switch (query.path()) {
+                        case "/delay":
+                            long delay = Long.parseLong(query.parameters().get("delay").get(0));
+                            return response.header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"delay\":\"" + delay + "\"}").delayElement(Duration.ofMillis(delay)));
+                        case "/slow-body":
+                            // Headers and first part of body are sent at once - rest of body is sent later
+                            return response.header("Content-Type", "application/json")
+                                    .sendString(Flux.just("{\"part\":")
+                                            .doOnComplete(slowBodyStarted::countDown)
+                                            .concatWith(Mono.delay(Duration.ofMillis(SLOW_BODY_MS)).map(i -> "\"done\"}")));
+                        default:
+                            return response.status(HttpResponseStatus.NOT_FOUND).send();
+                    }
+                })
+                .bindNow();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        EasyHttp.shutdown();
+        h2cServer.disposeNow();
+        localHttpServer.stopServer();
+    }
+
+    private void setupEasyHttp(Module... modules) {
+        Module metricsModule = new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IMetrics.class).to(IMetrics.NoOpMetrics.class).in(Scopes.SINGLETON);
+            }
+        };
+        Module easyHttpModule = modules.length > 0 ? Modules.override(new EasyHttpModule()).with(modules) : new EasyHttpModule();
+        Injector injector = Guice.createInjector(metricsModule, easyHttpModule);
+        ApplicationContext.setInjector(injector);
+
+        Config config = YamlUtils.readYamlCamelCase("http2_config.yaml", Config.class);
+        config.getServers().get("h2cServer").setPort(h2cServer.port());
+        config.getServers().get("singleStreamServer").setPort(h2cServer.port());
+        config.getServers().get("http1OnlyServer").setPort(localHttpServer.port);
+        config.getServers().get("testServer").setPort(localHttpServer.port);
+        EasyHttp.setup(config);
+    }
+
+    private static Call<Map> delay(String api, int delay) {
+        return Call.builder(Map.class)
+                .withServerAndApi(api.startsWith("singleStream") ? "singleStreamServer" : "h2cServer", api)
+                .addQueryParam("delay", delay)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Concurrent calls are multiplexed as streams on one h2c connection")
+    public void callsAreMultiplexedOnOneConnection() {
+        assumeTrue(Http2ClientBuilder.isSupported(), "HTTP/2 client needs Java 21+ runtime");
+        setupEasyHttp();
+
+        // First call upgrades the connection to HTTP/2
+        assertEquals("1", EasyHttp.callSync(delay("delay", 1)).get("delay"));
+
+        long start = System.currentTimeMillis();
+        List<Observable<Map>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(EasyHttp.callAsync(delay("delay", 500)));
+        }
+        List<Map> results = Observable.merge(calls).toList().blockingGet();
+        long took = System.currentTimeMillis() - start;
+
+        assertEquals(5, results.size());
+        results.forEach(result -> assertEquals("500", result.get("delay")));
+        assertTrue(took < 5 * 500, "calls must run at the same time - took=" + took);
+        assertEquals(6, http2Requests.get());
+        assertEquals(1, connections.size(), "all calls must use one connection - " + connections);
+    }
+
+    @Test
+    @DisplayName("Call over maxConcurrentStreams of the server fails with overflow")
+    public void callOverMaxConcurrentStreamsOverflows() throws Exception {
+        assumeTrue(Http2ClientBuilder.isSupported(), "HTTP/2 client needs Java 21+ runtime");
+        setupEasyHttp();
+        EasyHttp.callSync(delay("singleStreamDelay", 1));
+
+        // Server has maxConcurrentStreams=1 - second call is rejected while first is in-flight
+        Observable<Map> inFlight = EasyHttp.callAsync(delay("singleStreamDelay", 1000)).cache();
+        inFlight.subscribe(map -> {
+        }, throwable -> {
+        });
+        Thread.sleep(200);
+        assertThrows(EasyResilienceOverflowException.class, () -> EasyHttp.callSync(delay("singleStreamDelay", 1)));
+
+        // Permit is given back when the call is done
+        assertEquals("1000", inFlight.blockingFirst().get("delay"));
+        assertEquals("1", EasyHttp.callSync(delay("singleStreamDelay", 1)).get("delay"));
+    }
+
+    @Test
+    @DisplayName("Stream permit is held till the response body is read")
+    public void streamPermitIsHeldTillBodyIsRead() throws Exception {
+        assumeTrue(Http2ClientBuilder.isSupported(), "HTTP/2 client needs Java 21+ runtime");
+        setupEasyHttp();
+        EasyHttp.callSync(delay("singleStreamDelay", 1));
+
+        // Response headers of slow body call are received, its body is still being sent
+        Observable<Map> slowBody = EasyHttp.callAsync(Call.builder(Map.class).withServerAndApi("singleStreamServer", "singleStreamSlowBody").build()).cache();
+        slowBody.subscribe(map -> {
+        }, throwable -> {
+        });
+        assertTrue(slowBodyStarted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertThrows(EasyResilienceOverflowException.class, () -> EasyHttp.callSync(delay("singleStreamDelay", 1)));
+
+        assertEquals("done", slowBody.blockingFirst().get("part"));
+        assertEquals("1", EasyHttp.callSync(delay("singleStreamDelay", 1)).get("delay"));
+    }
+
+    @Test
+    @DisplayName("h2c server which does not upgrade to HTTP/2 is called with HTTP/1.1")
+    public void h2cServerWithoutHttp2IsCalledWithHttp11() {
+        setupEasyHttp();
+        Map result = EasyHttp.callSync(Call.builder(Map.class)
+                .withServerAndApi("http1OnlyServer", "http1OnlyDelay")
+                .addQueryParam("delay", 1)
+                .build());
+        assertEquals("1", result.get("delay"));
+        assertEquals("some data", result.get("data"));
+    }
+
+    @Test
+    @DisplayName("Failed call to h2c server falls back to api of a HTTP/1.1 server")
+    public void fallbackToHttp11Api() {
+        setupEasyHttp();
+        Map result = EasyHttp.callSync(delay("missingWithFallback", 1));
+        assertEquals("1", result.get("delay"));
+        assertEquals("some data", result.get("data"));
+    }
+
+    @Test
+    @DisplayName("Without HTTP/2 client (Java 8 runtime) h2c server is called with HTTP/1.1")
+    public void http2ClientIsNotUsedWhenNotSupported() {
+        Java8Http2RequestProcessor.calls.set(0);
+        setupEasyHttp(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IClientBuilder.class).annotatedWith(Http2.class).to(Java8Http2ClientBuilder.class).in(Scopes.SINGLETON);
+                bind(IRequestProcessor.class).annotatedWith(Http2.class).to(Java8Http2RequestProcessor.class).in(Scopes.SINGLETON);
+            }
+        });
+
+        assertEquals("1", EasyHttp.callSync(delay("delay", 1)).get("delay"));
+        assertEquals("1", EasyHttp.callAsync(delay("delay", 1)).blockingFirst().get("delay"));
+        assertEquals(0, http2Requests.get());
+        assertEquals(0, Java8Http2RequestProcessor.calls.get());
+    }
+
+    /**
+     * Same as {@link Http2ClientBuilder} of Java 8 runtime - it accepts no server and can't build a client
+     */
+    public static class Java8Http2ClientBuilder implements IClientBuilder {
+        @Override
+        public boolean accept(Server server, Api api) {
+            return false;
+        }
+
+        @Override
+        public <T> T buildClient(Server server, Api api, Class<T> cls) {
+            throw new UnsupportedOperationException("protocol=" + server.getProtocol() + " needs Java 21+ runtime");
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    /**
+     * Same as {@link Http2RequestProcessor} of Java 8 runtime - every call fails
+     */
+    public static class Java8Http2RequestProcessor implements IRequestProcessor {
+        private static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Observable<ResponseObject> process(RequestObject requestObject) {
+            calls.incrementAndGet();
+            return Observable.error(new UnsupportedOperationException("protocol=h2|h2c needs Java 21+ runtime"));
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.devlibx.easy.http.lb;
+
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.config.Server;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndpointSelectorTest {
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    public void testRoundRobin() {
+        EndpointSelector selector = new EndpointSelector(server("round-robin", 3), clock::get);
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            EndpointState endpoint = selector.select();
+            selected.add(endpoint.getBaseUrl());
+            selector.onComplete(endpoint, 0, false);
+        }
+        assertEquals(Arrays.asList(
+                "http://localhost:9001", "http://localhost:9002", "http://localhost:9003",
+                "http://localhost:9001", "http://localhost:9002", "http://localhost:9003"
+        ), selected);
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        EndpointSelector selector = new EndpointSelector(server("least-outstanding", 2), clock::get);
+        EndpointState first = selector.select();
+        EndpointState second = selector.select();
+        assertFalse(first == second);
+
+        // First one is free now - it must be picked
+        selector.onComplete(first, 0, false);
+        assertSame(first, selector.select());
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesPicksFasterEndpoint() {
+        EndpointSelector selector = new EndpointSelector(server("p2c-ewma", 2), clock::get);
+        EndpointState slow = selector.getEndpoints().get(0);
+        EndpointState fast = selector.getEndpoints().get(1);
+        slow.onStart();
+        selector.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(100), false);
+        fast.onStart();
+        selector.onComplete(fast, TimeUnit.MILLISECONDS.toNanos(1), false);
+
+        for (int i = 0; i < 10; i++) {
+            EndpointState endpoint = selector.select();
+            assertSame(fast, endpoint);
+            selector.cancel(endpoint);
+        }
+    }
+
+    @Test
+    public void testEjectionAfterConsecutiveFailures() {
+        Server server = server("round-robin", 2);
+        server.setEjectAfterConsecutiveFailures(2);
+        server.setEjectionTimeMs(100);
+        EndpointSelector selector = new EndpointSelector(server, clock::get);
+        EndpointState bad = selector.getEndpoints().get(0);
+        EndpointState good = selector.getEndpoints().get(1);
+
+        fail(selector, bad);
+        assertFalse(bad.isEjected(clock.get()));
+        fail(selector, bad);
+        assertTrue(bad.isEjected(clock.get()));
+
+        // Ejected endpoint gets no requests
+        for (int i = 0; i < 4; i++) {
+            EndpointState endpoint = selector.select();
+            assertSame(good, endpoint);
+            selector.onComplete(endpoint, 0, false);
+        }
+
+        // Back after ejection time on probation - a single failure ejects it again for longer
+        clock.addAndGet(100);
+        assertFalse(bad.isEjected(clock.get()));
+        fail(selector, bad);
+        assertTrue(bad.isEjected(clock.get() + 199));
+        assertFalse(bad.isEjected(clock.get() + 200));
+    }
+
+    @Test
+    public void testSuccessOnProbationEndsEjection() {
+        Server server = server("round-robin", 2);
+        server.setEjectAfterConsecutiveFailures(1);
+        server.setEjectionTimeMs(100);
+        EndpointSelector selector = new EndpointSelector(server, clock::get);
+        EndpointState endpoint = selector.getEndpoints().get(0);
+
+        fail(selector, endpoint);
+        clock.addAndGet(100);
+        endpoint.onStart();
+        selector.onComplete(endpoint, 0, false);
+
+        // Not on probation - needs "ejectAfterConsecutiveFailures" failures and is ejected for base time
+        fail(selector, endpoint);
+        assertTrue(endpoint.isEjected(clock.get() + 99));
+        assertFalse(endpoint.isEjected(clock.get() + 100));
+    }
+
+    @Test
+    public void testMaxEjectionPercent() {
+        Server server = server("round-robin", 2);
+        server.setEjectAfterConsecutiveFailures(1);
+        server.setMaxEjectionPercent(50);
+        EndpointSelector selector = new EndpointSelector(server, clock::get);
+
+        fail(selector, selector.getEndpoints().get(0));
+        fail(selector, selector.getEndpoints().get(1));
+        assertTrue(selector.getEndpoints().get(0).isEjected(clock.get()));
+        assertFalse(selector.getEndpoints().get(1).isEjected(clock.get()));
+    }
+
+    @Test
+    public void testAllEjectedUsesAllEndpoints() {
+        Server server = server("round-robin", 2);
+        server.setEjectAfterConsecutiveFailures(1);
+        server.setMaxEjectionPercent(100);
+        EndpointSelector selector = new EndpointSelector(server, clock::get);
+        fail(selector, selector.getEndpoints().get(0));
+        fail(selector, selector.getEndpoints().get(1));
+
+        EndpointState endpoint = selector.select();
+        assertEquals(1, endpoint.getOutstanding());
+    }
+
+    private static void fail(EndpointSelector selector, EndpointState endpoint) {
+        endpoint.onStart();
+        selector.onComplete(endpoint, 0, true);
+    }
+
+    private static Server server(String loadBalancer, int endpoints) {
+        Server server = new Server();
+        server.setName("test");
+        server.setLoadBalancer(loadBalancer);
+        List<Endpoint> list = new ArrayList<>();
+        for (int i = 1; i <= endpoints; i++) {
+            list.add(new Endpoint("localhost", 9000 + i));
+        }
+        server.setEndpoints(list);
+        return server;
+    }
+}
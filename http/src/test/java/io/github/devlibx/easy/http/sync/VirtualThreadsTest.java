@@ -0,0 +1,174 @@
+package io.github.devlibx.easy.http.sync;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+import com.google.inject.util.Modules;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.LoggingHelper;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.yaml.YamlUtils;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceOverflowException;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.helper.VirtualThreads;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import io.github.devlibx.easy.http.util.Call;
+import io.github.devlibx.easy.http.util.EasyHttp;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.reactivex.rxjava3.core.Observable;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SuppressWarnings("rawtypes")
+public class VirtualThreadsTest {
+    private DisposableServer server;
+
+    // Max no of requests the server had at the same time
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads need Java 21+ runtime");
+        LoggingHelper.setupLogging();
+        RecordingHttpResponseProcessor.clear();
+
+        // Non-blocking server - requests to it do not wait for each other
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> {
+                    long delay = Long.parseLong(new QueryStringDecoder(request.uri()).parameters().get("delay").get(0));
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"delay\":\"" + delay + "\"}").delayElement(Duration.ofMillis(delay)))
+                            .then()
+                            .doFinally(signal -> inFlight.decrementAndGet());
+                })
+                .bindNow();
+
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IMetrics.class).to(IMetrics.NoOpMetrics.class).in(Scopes.SINGLETON);
+            }
+        }, Modules.override(new EasyHttpModule()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IHttpResponseProcessor.class).to(RecordingHttpResponseProcessor.class);
+            }
+        }));
+        ApplicationContext.setInjector(injector);
+
+        Config config = YamlUtils.readYamlCamelCase("virtual_threads_config.yaml", Config.class);
+        config.getServers().values().forEach(s -> s.setPort(server.port()));
+        EasyHttp.setup(config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            EasyHttp.shutdown();
+            server.disposeNow();
+        }
+    }
+
+    private static Call<Map> delay(String api, int delay) {
+        return Call.builder(Map.class)
+                .withServerAndApi(api + "Server", api)
+                .addQueryParam("delay", delay)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Bulkhead limits calls on virtual threads to concurrency + queue size")
+    public void bulkheadLimitsCallsOnVirtualThreads() {
+        List<Observable<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(EasyHttp.callAsync(delay("bulkhead", 500))
+                    .map(result -> "ok")
+                    .onErrorReturn(throwable -> throwable.getClass().getSimpleName()));
+        }
+        List<String> results = Observable.merge(calls).toList().blockingGet();
+
+        // concurrency=2 run, queueSize=1 waits for a permit, others are rejected
+        assertEquals(3, Collections.frequency(results, "ok"), "results=" + results);
+        assertEquals(2, Collections.frequency(results, EasyResilienceOverflowException.class.getSimpleName()), "results=" + results);
+        assertEquals(2, maxInFlight.get());
+
+        // Every call ran on a virtual thread
+        assertEquals(3, RecordingHttpResponseProcessor.threads.size());
+        RecordingHttpResponseProcessor.threads.forEach(name -> assertTrue(name.startsWith("easy-http-vt-"), "thread=" + name));
+    }
+
+    @Test
+    @DisplayName("Api timeout interrupts the virtual thread of the call and frees its connection")
+    public void timeoutInterruptsAndFreesTheCall() throws Exception {
+        // Only a virtual thread blocked on a socket is woken up by interrupt
+        assumeTrue(Runtime.version().feature() >= 21, "socket read is interruptible only on virtual threads");
+
+        // Socket timeout is 11x the api timeout - only interrupt can end the call before the server responds
+        long start = System.currentTimeMillis();
+        assertThrows(EasyResilienceRequestTimeoutException.class, () -> EasyHttp.callSync(delay("timeout", 3000)));
+        assertTrue(System.currentTimeMillis() - start < 1000, "caller must get timeout at api timeout");
+
+        assertTrue(RecordingHttpResponseProcessor.failed.await(1, TimeUnit.SECONDS), "call must be interrupted");
+        assertTrue(System.currentTimeMillis() - start < 2000);
+
+        // Server has a pool of 1 connection (concurrency=1) - next call only gets it if interrupted call gave it back
+        assertEquals("1", EasyHttp.callSync(delay("timeout", 1)).get("delay"));
+    }
+
+    /**
+     * Records the thread which processed each response, and counts down when a call fails
+     */
+    public static class RecordingHttpResponseProcessor extends DefaultHttpResponseProcessor {
+        private static final Queue<String> threads = new ConcurrentLinkedQueue<>();
+        private static volatile CountDownLatch failed = new CountDownLatch(1);
+
+        private static void clear() {
+            threads.clear();
+            failed = new CountDownLatch(1);
+        }
+
+        @Override
+        public ResponseObject process(Server server, Api api, RequestObject requestObject, CloseableHttpResponse response) {
+            threads.add(Thread.currentThread().getName());
+            return super.process(server, api, requestObject, response);
+        }
+
+        @Override
+        public ResponseObject processException(Server server, Api api, Throwable e) {
+            failed.countDown();
+            return super.processException(server, api, e);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.devlibx.easy.http.util;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Scopes;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.LoggingHelper;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.yaml.YamlUtils;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallBatchTest {
+
+    @Test
+    public void testResultOfEveryCall() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("a", Observable.just("A"));
+        calls.responses.put("b", Observable.error(new RuntimeException("failed")));
+
+        List<CallResult<?>> results = CallBatch.execute(Arrays.asList(call("a", 1), call("b", 1)), BatchOptions.defaults(), calls, call -> true)
+                .toList()
+                .blockingGet();
+        assertEquals(2, results.size());
+        results.sort((r1, r2) -> r1.getIndex() - r2.getIndex());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("A", results.get(0).getResult());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("failed", results.get(1).getError().getMessage());
+    }
+
+    @Test
+    public void testIdenticalCallsAreMadeOnce() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("a", Observable.just("A"));
+        List<Call<?>> batch = Arrays.asList(call("a", 1), call("a", 1), call("a", 2));
+
+        List<CallResult<?>> results = CallBatch.execute(batch, BatchOptions.defaults(), calls, call -> true).toList().blockingGet();
+        assertEquals(3, results.size());
+        assertEquals(2, calls.count.get());
+
+        // Not idempotent - every call is made
+        calls.count.set(0);
+        CallBatch.execute(batch, BatchOptions.defaults(), calls, call -> false).toList().blockingGet();
+        assertEquals(3, calls.count.get());
+    }
+
+    @Test
+    public void testSharedDeadline() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("fast", Observable.just("A"));
+        calls.responses.put("slow", Observable.just("B").delay(5, TimeUnit.SECONDS));
+        BatchOptions options = BatchOptions.builder().timeoutMs(100).build();
+
+        List<CallResult<?>> results = CallBatch.execute(Arrays.asList(call("fast", 1), call("slow", 1)), options, calls, call -> true)
+                .toList()
+                .blockingGet();
+        assertEquals(2, results.size());
+        CallResult<?> slow = results.get(0).getIndex() == 1 ? results.get(0) : results.get(1);
+        assertTrue(slow.getError() instanceof EasyResilienceRequestTimeoutException);
+    }
+
+    @Test
+    public void testDeadlineIsAttachedWhileCallsAreCreated() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("a", Observable.just("A"));
+        BatchOptions options = BatchOptions.builder().timeoutMs(1000).deduplicate(false).build();
+
+        CallBatch.execute(Arrays.asList(call("a", 1), call("a", 2)), options, calls, call -> true).toList().blockingGet();
+        assertEquals(2, calls.deadlines.size());
+        calls.deadlines.forEach(deadline -> assertTrue(deadline.remainingMs() > 0 && deadline.remainingMs() <= 1000));
+        assertNull(Deadline.current());
+
+        // Earlier deadline of the caller is kept
+        calls.deadlines.clear();
+        try (Deadline.Scope scope = Deadline.after(100).attach()) {
+            CallBatch.execute(Collections.singletonList(call("a", 1)), options, calls, call -> true).toList().blockingGet();
+            assertSame(Deadline.current(), calls.deadlines.get(0));
+        }
+
+        // No batch deadline - nothing is attached
+        calls.deadlines.clear();
+        CallBatch.execute(Collections.singletonList(call("a", 1)), BatchOptions.defaults(), calls, call -> true).toList().blockingGet();
+        assertNull(calls.deadlines.get(0));
+    }
+
+    @Test
+    public void testFailFast() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("a", Observable.never());
+        calls.responses.put("b", Observable.error(new RuntimeException("failed")));
+        BatchOptions options = BatchOptions.builder().failurePolicy(BatchOptions.FailurePolicy.FAIL_FAST).build();
+
+        TestObserver<CallResult<?>> observer = CallBatch.execute(Arrays.asList(call("a", 1), call("b", 1)), options, calls, call -> true).test();
+        observer.assertError(RuntimeException.class);
+        observer.assertNoValues();
+    }
+
+    @Test
+    public void testMaxConcurrency() {
+        FakeCalls calls = new FakeCalls();
+        calls.responses.put("a", Observable.just("A"));
+        List<Call<?>> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(call("a", i));
+        }
+        BatchOptions options = BatchOptions.builder().maxConcurrency(2).build();
+        assertEquals(10, CallBatch.execute(batch, options, calls, call -> true).toList().blockingGet().size());
+    }
+
+    @Nested
+    @DisplayName("Batch of calls made with EasyHttp")
+    @SuppressWarnings("rawtypes")
+    class EasyHttpCalls {
+        private DisposableServer server;
+
+        // Deadline header of every request the server got
+        private final Queue<String> deadlineHeaders = new ConcurrentLinkedQueue<>();
+
+        @BeforeEach
+        public void setUp() {
+            LoggingHelper.setupLogging();
+
+            // Non-blocking server - a slow request does not hold up other requests
+            server = HttpServer.create()
+                    .host("localhost")
+                    .port(0)
+                    .handle((request, response) -> {
+                        deadlineHeaders.add(String.valueOf(request.requestHeaders().get("X-Request-Timeout-Ms")));
+                        long delay = Long.parseLong(new QueryStringDecoder(request.uri()).parameters().get("delay").get(0));
+                        return response.header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"delay\":\"" + delay + "\"}").delayElement(Duration.ofMillis(delay)));
+                    })
+                    .bindNow();
+
+            ApplicationContext.setInjector(Guice.createInjector(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(IMetrics.class).to(IMetrics.NoOpMetrics.class).in(Scopes.SINGLETON);
+                }
+            }, new EasyHttpModule()));
+
+            Config config = YamlUtils.readYamlCamelCase("call_batch_config.yaml", Config.class);
+            config.getServers().get("batchServer").setPort(server.port());
+            EasyHttp.setup(config);
+        }
+
+        @AfterEach
+        public void tearDown() {
+            EasyHttp.shutdown();
+            server.disposeNow();
+        }
+
+        private Call<Map> delay(int delay) {
+            return Call.builder(Map.class)
+                    .withServerAndApi("batchServer", "delay")
+                    .addQueryParam("delay", delay)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Slow call is ended at the batch deadline and gives back its connection")
+        public void slowCallIsReleasedAtBatchDeadline() {
+            long start = System.currentTimeMillis();
+            List<CallResult<?>> results = EasyHttp.callAll(Collections.singletonList(delay(3000)), BatchOptions.builder().timeoutMs(300).build())
+                    .toList()
+                    .blockingGet();
+            long took = System.currentTimeMillis() - start;
+            assertTrue(took < 1000, "batch must end at its deadline - took=" + took);
+            assertTrue(results.get(0).getError() instanceof EasyResilienceRequestTimeoutException, "error=" + results.get(0).getError());
+
+            // Api has concurrency=1 and api timeout is 5000 - next call does not wait for the slow call only if the
+            // slow call was ended at the batch deadline
+            start = System.currentTimeMillis();
+            assertEquals("1", EasyHttp.callSync(delay(1)).get("delay"));
+            took = System.currentTimeMillis() - start;
+            assertTrue(took < 1000, "next call must not wait for the slow call - took=" + took);
+        }
+
+        @Test
+        @DisplayName("Time left of the batch is sent in the deadline header of each call")
+        public void batchDeadlineIsSentInHeader() {
+            List<CallResult<?>> results = EasyHttp.callAllSync(Arrays.asList(delay(1), delay(2)), BatchOptions.builder().timeoutMs(2000).build());
+            assertEquals(2, results.size());
+            results.forEach(result -> assertTrue(result.isSuccess()));
+
+            assertEquals(2, deadlineHeaders.size());
+            deadlineHeaders.forEach(header -> {
+                long remainingMs = Long.parseLong(header);
+                assertTrue(remainingMs > 1000 && remainingMs <= 2000, "header=" + header);
+            });
+        }
+    }
+
+    private static Call<String> call(String api, int id) {
+        return Call.builder(String.class)
+                .withServerAndApi("server", api)
+                .addPathParam("id", id)
+                .build();
+    }
+
+    private static class FakeCalls implements CallBatch.ICallFunction {
+        private final Map<String, Observable<?>> responses = new HashMap<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private final List<Deadline> deadlines = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Observable<T> call(Call<T> call) {
+            deadlines.add(Deadline.current());
+            return Observable.defer(() -> {
+                count.incrementAndGet();
+                return (Observable<T>) responses.get(call.getApi());
+            });
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.devlibx.easy.http.util;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Scopes;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.LocalHttpServer;
+import io.gitbub.devlibx.easy.helper.LoggingHelper;
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.yaml.YamlUtils;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ch.qos.logback.classic.Level.OFF;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest {
+
+    @Test
+    public void testAttachAndRestore() {
+        assertNull(Deadline.current());
+        Deadline deadline = Deadline.after(1000);
+        try (Deadline.Scope scope = deadline.attach()) {
+            assertSame(deadline, Deadline.current());
+            assertTrue(deadline.remainingMs() > 0 && deadline.remainingMs() <= 1000);
+            assertFalse(deadline.isExpired());
+        }
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testEarlierDeadlineIsKept() {
+        Deadline outer = Deadline.after(100);
+        try (Deadline.Scope outerScope = outer.attach()) {
+
+            // Inner call can't get more time than the outer call has
+            try (Deadline.Scope innerScope = Deadline.after(10000).attach()) {
+                assertSame(outer, Deadline.current());
+            }
+
+            // Inner call can have less time
+            Deadline inner = Deadline.after(10);
+            try (Deadline.Scope innerScope = inner.attach()) {
+                assertSame(inner, Deadline.current());
+            }
+            assertSame(outer, Deadline.current());
+        }
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testExpired() {
+        Deadline deadline = Deadline.after(0);
+        assertTrue(deadline.isExpired());
+        assertTrue(deadline.remainingMs() == 0);
+    }
+
+    @Nested
+    @DisplayName("Deadline of calls made with EasyHttp")
+    class EasyHttpCalls {
+        private static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+        private LocalHttpServer localHttpServer;
+
+        @BeforeEach
+        public void setUp() {
+            LoggingHelper.setupLogging();
+            LoggingHelper.getLogger(LocalHttpServer.class).setLevel(OFF);
+            CountingMetrics.counts.clear();
+
+            localHttpServer = new LocalHttpServer();
+            localHttpServer.startServerInThread();
+
+            ApplicationContext.setInjector(Guice.createInjector(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(IMetrics.class).to(CountingMetrics.class).in(Scopes.SINGLETON);
+                }
+            }, new EasyHttpModule()));
+
+            Config config = YamlUtils.readYamlCamelCase("sync_processor_config.yaml", Config.class);
+            config.getServers().get("testServer").setPort(localHttpServer.port);
+            config.getServers().get("testServer").setDeadlineHeader(DEADLINE_HEADER);
+            config.getApis().get("delay_timeout_1000").setDeadlineFloorMs(200);
+            EasyHttp.setup(config, ApplicationContext.getInstance(IMetrics.class));
+        }
+
+        @AfterEach
+        public void tearDown() {
+            localHttpServer.stopServer();
+            EasyHttp.shutdown();
+        }
+
+        private Call<StringObjectMap> delay(String api, int delay) {
+            return Call.builder(StringObjectMap.class)
+                    .withServerAndApi("testServer", api)
+                    .addQueryParam("delay", delay)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Call fails at the deadline of the caller, not at the api timeout")
+        public void timeoutShrinksToDeadline() {
+            long start = System.currentTimeMillis();
+            try (Deadline.Scope scope = Deadline.after(300).attach()) {
+                // api timeout = 5000
+                assertThrows(EasyHttpRequestException.class, () -> EasyHttp.callSync(delay("delay_timeout_5000", 2000)));
+            }
+            long took = System.currentTimeMillis() - start;
+            assertTrue(took < 1000, "call must fail near the deadline - took=" + took);
+        }
+
+        @Test
+        @DisplayName("Call with less time left than deadlineFloorMs fails right away and is counted")
+        public void callUnderDeadlineFloorFailsFast() {
+            long start = System.currentTimeMillis();
+            try (Deadline.Scope scope = Deadline.after(150).attach()) {
+                // deadlineFloorMs = 200
+                assertThrows(EasyResilienceRequestTimeoutException.class, () -> EasyHttp.callSync(delay("delay_timeout_1000", 500)));
+            }
+            long took = System.currentTimeMillis() - start;
+            assertTrue(took < 500, "call must not be made - took=" + took);
+            assertEquals(1, CountingMetrics.count("easy_http_deadline_exceeded"));
+
+            // Enough time left - call is made
+            try (Deadline.Scope scope = Deadline.after(1000).attach()) {
+                assertEquals("1", EasyHttp.callSync(delay("delay_timeout_1000", 1)).get("delay"));
+            }
+            assertEquals(1, CountingMetrics.count("easy_http_deadline_exceeded"));
+        }
+
+        @Test
+        @DisplayName("Time left is sent in the deadline header of the server")
+        public void deadlineHeaderIsSent() {
+            try (Deadline.Scope scope = Deadline.after(2000).attach()) {
+                String value = requestHeader(EasyHttp.callSync(delay("getPostsWithHeaders", 1)), DEADLINE_HEADER);
+                assertNotNull(value);
+                long remainingMs = Long.parseLong(value);
+                assertTrue(remainingMs > 1000 && remainingMs <= 2000, "header=" + remainingMs);
+            }
+
+            // No deadline - no header
+            assertNull(requestHeader(EasyHttp.callSync(delay("getPostsWithHeaders", 1)), DEADLINE_HEADER));
+        }
+
+        // Local server sends back request headers as json (header names are not case-sensitive)
+        private String requestHeader(StringObjectMap response, String name) {
+            StringObjectMap headers = JsonUtils.convertAsStringObjectMap(response.getString("headers", "{}"));
+            for (Map.Entry<String, Object> entry : headers.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(name)) {
+                    return ((List<?>) entry.getValue()).get(0).toString();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Counts every counter by metric name
+     */
+    public static class CountingMetrics extends IMetrics.NoOpMetrics {
+        private static final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+        private static long count(String name) {
+            AtomicLong count = counts.get(name);
+            return count != null ? count.get() : 0;
+        }
+
+        @Override
+        public void inc(String name, String... labels) {
+            counts.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        @Override
+        public ICounter counter(String name, String... labels) {
+            return () -> inc(name, labels);
+        }
+    }
+}
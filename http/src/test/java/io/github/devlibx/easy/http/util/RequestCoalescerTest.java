@@ -0,0 +1,105 @@
+package io.github.devlibx.easy.http.util;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCoalescerTest {
+
+    @Test
+    public void testIdenticalInFlightCallsShareOneRequest() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger requests = new AtomicInteger();
+        PublishSubject<ResponseObject> response = PublishSubject.create();
+
+        TestObserver<ResponseObject> first = coalescer.coalesce("key", () -> {
+            requests.incrementAndGet();
+            return response;
+        }).test();
+        TestObserver<ResponseObject> second = coalescer.coalesce("key", () -> {
+            requests.incrementAndGet();
+            return response;
+        }).test();
+        assertTrue(coalescer.isInFlight("key"));
+
+        ResponseObject responseObject = ResponseObject.builder().statusCode(200).build();
+        response.onNext(responseObject);
+        response.onComplete();
+
+        first.assertValue(responseObject).assertComplete();
+        second.assertValue(responseObject).assertComplete();
+        assertEquals(1, requests.get());
+        assertFalse(coalescer.isInFlight("key"));
+
+        // Request is done - next call makes a new request
+        coalescer.coalesce("key", () -> {
+            requests.incrementAndGet();
+            return Observable.just(responseObject);
+        }).test().assertValue(responseObject);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testOldRequestDoesNotRemoveNewerRequestWithSameKey() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        PublishSubject<ResponseObject> oldResponse = PublishSubject.create();
+        PublishSubject<ResponseObject> newResponse = PublishSubject.create();
+        coalescer.coalesce("key", () -> oldResponse).test();
+        coalescer.clear();
+        coalescer.coalesce("key", () -> newResponse).test();
+
+        // Old request completes - newer request is still in-flight
+        oldResponse.onComplete();
+        assertTrue(coalescer.isInFlight("key"));
+        newResponse.onComplete();
+        assertFalse(coalescer.isInFlight("key"));
+    }
+
+    @Test
+    public void testKey() {
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("id", 1);
+        a.put("name", "harish");
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("name", "harish");
+        b.put("id", 1);
+
+        RequestObject first = new RequestObject();
+        first.setPathParam(a);
+        RequestObject second = new RequestObject();
+        second.setPathParam(b);
+        assertEquals(RequestCoalescer.key("server-api", first), RequestCoalescer.key("server-api", second));
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("Authorization", "token");
+        second.setHeaders(headers);
+        assertNotEquals(RequestCoalescer.key("server-api", first), RequestCoalescer.key("server-api", second));
+    }
+
+    @Test
+    public void testKeyIgnoresDeadlineHeader() {
+        RequestObject first = new RequestObject();
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("X-Request-Timeout-Ms", 120L);
+        first.setHeaders(headers);
+        RequestObject second = new RequestObject();
+        headers = new HashMap<>();
+        headers.put("x-request-timeout-ms", 80L);
+        second.setHeaders(headers);
+        assertNotEquals(RequestCoalescer.key("server-api", first), RequestCoalescer.key("server-api", second));
+        assertEquals(RequestCoalescer.key("server-api", first, "X-Request-Timeout-Ms"), RequestCoalescer.key("server-api", second, "X-Request-Timeout-Ms"));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.devlibx.easy.http.util;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.http.config.Api;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestHedgerTest {
+
+    @Test
+    public void testHedgeRequestWinsIfFirstRequestIsSlow() {
+        Api api = new Api();
+        api.setName("api");
+        api.setHedgeAfterMs(50);
+        TestScheduler scheduler = new TestScheduler();
+        RequestHedger hedger = new RequestHedger("server", api, new IMetrics.NoOpMetrics(), scheduler);
+
+        List<PublishSubject<String>> requests = new ArrayList<>();
+        Observable<String> request = Observable.defer(() -> {
+            PublishSubject<String> subject = PublishSubject.create();
+            requests.add(subject);
+            return subject;
+        });
+
+        TestObserver<String> observer = hedger.hedge(request).test();
+        assertEquals(1, requests.size());
+
+        // No response in 50ms - make hedge request, use its response and cancel the first one
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        assertEquals(2, requests.size());
+        requests.get(1).onNext("hedge");
+        requests.get(1).onComplete();
+        observer.assertValue("hedge").assertComplete();
+        assertFalse(requests.get(0).hasObservers());
+    }
+
+    @Test
+    public void testNoHedgeIfFirstRequestIsFast() {
+        Api api = new Api();
+        api.setName("api");
+        api.setHedgeAfterMs(50);
+        TestScheduler scheduler = new TestScheduler();
+        RequestHedger hedger = new RequestHedger("server", api, new IMetrics.NoOpMetrics(), scheduler);
+
+        List<PublishSubject<String>> requests = new ArrayList<>();
+        Observable<String> request = Observable.defer(() -> {
+            PublishSubject<String> subject = PublishSubject.create();
+            requests.add(subject);
+            return subject;
+        });
+
+        TestObserver<String> observer = hedger.hedge(request).test();
+        requests.get(0).onNext("first");
+        requests.get(0).onComplete();
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        observer.assertValue("first").assertComplete();
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testLatencyPercentile() {
+        RequestHedger.LatencyTracker tracker = new RequestHedger.LatencyTracker(90);
+        assertTrue(tracker.percentile() < 0);
+        for (int i = 1; i <= 128; i++) {
+            tracker.record(i);
+        }
+        assertEquals(116, tracker.percentile());
+    }
+}
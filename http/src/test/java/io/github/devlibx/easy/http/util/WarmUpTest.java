@@ -0,0 +1,182 @@
+package io.github.devlibx.easy.http.util;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Scopes;
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.healthcheck.IHealthCheckProvider;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.yaml.YamlUtils;
+import io.github.devlibx.easy.http.BaseTestCase;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Endpoint;
+import io.github.devlibx.easy.http.healthcheck.EasyHttpWarmUpHealthCheckProvider;
+import io.github.devlibx.easy.http.module.EasyHttpModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WarmUpTest extends BaseTestCase {
+
+    @Test
+    @DisplayName("Apis of a reachable server are ready after setup")
+    public void apisAreReadyAfterSetup() {
+        assertEquals(WarmUpStatus.READY, EasyHttp.getWarmUpStatus().get("getPostsWithHeaders"));
+        assertEquals(WarmUpStatus.READY, EasyHttp.getWarmUpStatus().get("delay_timeout_10"));
+
+        IHealthCheckProvider.Result result = new EasyHttpWarmUpHealthCheckProvider().check();
+        assertEquals("READY", result.getDetails().get("getPostsWithHeaders"));
+    }
+
+    @Test
+    @DisplayName("Setup does not wait for an unreachable server longer than its warm-up timeout")
+    public void unreachableServerDoesNotBlockSetup() throws Exception {
+        // Server which never accepts - once its accept queue is full, a new connect neither succeeds nor is refused
+        List<Socket> queued = new ArrayList<>();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < 10; i++) {
+                Socket socket = new Socket();
+                queued.add(socket);
+                try {
+                    socket.connect(serverSocket.getLocalSocketAddress(), 200);
+                } catch (SocketTimeoutException e) {
+                    break;
+                }
+            }
+
+            Config config = warmUpConfig("unreachableApi");
+            config.getServers().get("unreachableServer").setHost("127.0.0.1");
+            config.getServers().get("unreachableServer").setPort(serverSocket.getLocalPort());
+
+            // warmUpTimeoutInMs = 300, connectTimeout = 5000
+            long start = System.currentTimeMillis();
+            EasyHttp.setup(config);
+            long took = System.currentTimeMillis() - start;
+            assertTrue(took < 1300, "setup must return at warm-up timeout - took=" + took);
+
+            WarmUpStatus status = EasyHttp.getWarmUpStatus().get("unreachableApi");
+            assertTrue(status == WarmUpStatus.PENDING || status == WarmUpStatus.FAILED, "status=" + status);
+        } finally {
+            for (Socket socket : queued) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Warm-up opens min(warmUpConnectionCount, concurrency) connections to each endpoint and calls warm-up path")
+    public void connectionsAreOpenedToEachEndpoint() throws Exception {
+        try (RecordingServer first = new RecordingServer(); RecordingServer second = new RecordingServer()) {
+            Config config = warmUpConfig("endpointsApi");
+            config.getServers().get("endpointsServer").setEndpoints(Arrays.asList(
+                    new Endpoint("127.0.0.1", first.port()),
+                    new Endpoint("127.0.0.1", second.port())
+            ));
+            EasyHttp.setup(config);
+            assertEquals(WarmUpStatus.READY, EasyHttp.getWarmUpStatus().get("endpointsApi"));
+
+            // warmUpConnectionCount = 3, concurrency = 2
+            assertEquals(2, first.connections.get());
+            assertEquals(2, second.connections.get());
+
+            // Warm-up path is called once on each endpoint - the real api is never called
+            assertEquals(Collections.singletonList("/health"), new ArrayList<>(first.paths));
+            assertEquals(Collections.singletonList("/health"), new ArrayList<>(second.paths));
+        }
+    }
+
+    // Config with only the given api (and its server) - registries and clients of the setup done by
+    // BaseTestCase are not reused after shutdown, so a new injector is made
+    private Config warmUpConfig(String apiName) {
+        EasyHttp.shutdown();
+        injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(IMetrics.class).to(IMetrics.NoOpMetrics.class).in(Scopes.SINGLETON);
+            }
+        }, new EasyHttpModule());
+        ApplicationContext.setInjector(injector);
+
+        Config config = YamlUtils.readYamlCamelCase("warm_up_config.yaml", Config.class);
+        Api api = config.getApis().get(apiName);
+        config.getApis().keySet().retainAll(Collections.singleton(apiName));
+        config.getServers().keySet().retainAll(Collections.singleton(api.getServer()));
+        return config;
+    }
+
+    /**
+     * Counts connections and records the path of every request - each request gets an empty json response
+     */
+    private static class RecordingServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executorService = Executors.newCachedThreadPool();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final Queue<String> paths = new ConcurrentLinkedQueue<>();
+
+        private RecordingServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            executorService.submit(this::accept);
+        }
+
+        private int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    executorService.submit(() -> serve(socket));
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket; BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), UTF_8))) {
+                OutputStream out = s.getOutputStream();
+                for (String requestLine = reader.readLine(); requestLine != null; requestLine = reader.readLine()) {
+                    paths.add(requestLine.split(" ")[1]);
+
+                    // Skip headers - warm-up requests have no body
+                    String line = reader.readLine();
+                    while (line != null && !line.isEmpty()) {
+                        line = reader.readLine();
+                    }
+                    out.write("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 2\r\n\r\n{}".getBytes(UTF_8));
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executorService.shutdownNow();
+        }
+    }
+}
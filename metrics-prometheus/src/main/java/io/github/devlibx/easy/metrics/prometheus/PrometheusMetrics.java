@@ -3,6 +3,8 @@ package io.github.devlibx.easy.metrics.prometheus;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
 import io.prometheus.client.Summary;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,12 +15,21 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings({"rawtypes", "unchecked", "FieldMayBeFinal"})
 @Slf4j
 public class PrometheusMetrics implements IMetrics {
     private final Map<String, SummaryHolder> summaryMap = new HashMap<>();
-    private final Map<String, CounterHolder> counterMap = new HashMap<>();
+    private final Map<String, CounterHolder> counterMap = new ConcurrentHashMap<>();
+    private final Map<String, GaugeHolder> gaugeMap = new ConcurrentHashMap<>();
+    private final Map<String, HistogramHolder> histogramMap = new ConcurrentHashMap<>();
+
+    // Buckets for values in millis (and rates in percent) - default buckets of prometheus are in seconds
+    private static final double[] HISTOGRAM_BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    // Buckets for ratios in percent (ratio x 100) e.g. failure rate of 0% to 100%, compression ratio of 1x to 20x
+    private static final double[] RATIO_BUCKETS = {1, 5, 10, 25, 50, 75, 90, 100, 125, 150, 200, 300, 400, 500, 750, 1000, 2000};
 
     @Getter
     private final CollectorRegistry collectorRegistry = new CollectorRegistry();
@@ -41,12 +52,24 @@ public class PrometheusMetrics implements IMetrics {
             if (counterMap.get(name) != null) {
                 counterMap.get(name).inc(labels);
             }
-        } catch (RuntimeException e) {
-            log.error("error in metrics inc method (runtime exception) - e={}", e.getMessage());
-            throw e;
         } catch (Exception e) {
-            log.error("error in metrics inc method (exception) - e={}", e.getMessage());
-            throw new RuntimeException(e);
+            // A metric must never fail the call which records it
+            log.error("error in metrics inc method - name={}, e={}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Labels are key/value pairs (same as counter). Counter is registered on first use with these label names.
+     */
+    @Override
+    public void inc(String name, long count, String... labels) {
+        try {
+            CounterHolder holder = counterMap.computeIfAbsent(name, k -> registerCounterHolder(name, name + " Help", labelNames(labels)));
+            if (count > 0) {
+                holder.inc(count, labels);
+            }
+        } catch (Exception e) {
+            log.error("error in metrics inc method - name={}, e={}", name, e.getMessage());
         }
     }
 
@@ -90,19 +113,96 @@ public class PrometheusMetrics implements IMetrics {
         }
     }
 
+    /**
+     * Labels are key/value pairs (same as observe). Counter is registered on first use with these label names - a
+     * counter which is already registered also takes label values in order of its label names (same as inc).
+     */
+    @Override
+    public ICounter counter(String name, String... labels) {
+        CounterHolder holder = counterMap.computeIfAbsent(name, k -> registerCounterHolder(name, name + " Help", labelNames(labels)));
+        try {
+            return holder.bind(labels);
+        } catch (RuntimeException e) {
+            log.error("failed to bind counter - name={}, error={}", name, e.getMessage());
+            return () -> inc(name, labels);
+        }
+    }
+
+    /**
+     * Labels are key/value pairs e.g. observe(name, 10, "server", "s1", "api", "a1") - value is recorded in a histogram
+     * with label names "server" and "api". Histogram is registered on first use.
+     */
+    @Override
+    public void observe(String name, double amt, String... labels) {
+        if (labels == null || labels.length == 0) {
+            observe(name, amt);
+            return;
+        }
+        HistogramHolder holder = histogramMap.computeIfAbsent(name, k -> registerHistogram(name, labelNames(labels)));
+        holder.bind(labels).observe(amt);
+    }
+
+    @Override
+    public void gauge(String name, long value) {
+        gauge(name, value, new String[0]);
+    }
+
+    /**
+     * Labels are key/value pairs (same as observe). Gauge is registered on first use.
+     */
+    @Override
+    public void gauge(String name, long value, String... labels) {
+        GaugeHolder holder = gaugeMap.computeIfAbsent(name, k -> registerGauge(name, labelNames(labels)));
+        holder.set(value, labels);
+    }
+
+    @Override
+    public ITimer timer(String name, String... labels) {
+        // With labels - values go to a histogram (same as observe with labels)
+        if (labels != null && labels.length > 0) {
+            HistogramHolder holder = histogramMap.computeIfAbsent(name, k -> registerHistogram(name, labelNames(labels)));
+            return holder.bind(labels);
+        }
+        if (!summaryMap.containsKey(name)) {
+            registerTimer(name, name + " Help");
+        }
+        SummaryHolder holder = summaryMap.get(name);
+        return holder != null ? holder.getSummary()::observe : IMetrics.super.timer(name, labels);
+    }
+
+    /**
+     * Ratio is recorded in a histogram with percent buckets (ratio x 100) - same labels as observe
+     */
+    @Override
+    public IRatio ratio(String name, String... labels) {
+        HistogramHolder holder = histogramMap.computeIfAbsent(name, k -> registerHistogram(name, labelNames(labels), RATIO_BUCKETS));
+        ITimer histogram = holder.bind(labels);
+        return ratio -> histogram.observe(ratio * 100);
+    }
+
     @Override
     public void registerCounter(String name, String help, String... labels) {
+        CounterHolder holder = registerCounterHolder(name, help, labels != null ? labels : new String[0]);
+        if (holder.getCounter() != null || !counterMap.containsKey(name)) {
+            counterMap.put(name, holder);
+        }
+    }
+
+    // A metric which can't be registered (e.g. invalid name) is kept as a no-op holder - so it is not registered (and
+    // logged) again on every call
+    private CounterHolder registerCounterHolder(String name, String help, String[] labelNames) {
         try {
             Counter requests;
-            if (labels != null && labels.length > 0) {
-                requests = Counter.build().name(name).help(help).labelNames(labels).register();
+            if (labelNames.length > 0) {
+                requests = Counter.build().name(name).help(help).labelNames(labelNames).register();
             } else {
                 requests = Counter.build().name(name).help(help).register();
             }
             collectorRegistry.register(requests);
-            counterMap.put(name, new CounterHolder(name, requests, labels != null ? labels.length : 0));
+            return new CounterHolder(name, requests, labelNames);
         } catch (Exception e) {
             log.error("failed to register counter - name={}, error={}", name, e.getMessage());
+            return new CounterHolder(name, null, labelNames);
         }
     }
 
@@ -130,25 +230,127 @@ public class PrometheusMetrics implements IMetrics {
         }
     }
 
+    private GaugeHolder registerGauge(String name, String[] labelNames) {
+        try {
+            Gauge gauge = Gauge.build().name(name).help(name + " Help").labelNames(labelNames).register();
+            collectorRegistry.register(gauge);
+            return new GaugeHolder(name, gauge, labelNames);
+        } catch (Exception e) {
+            log.error("failed to register gauge - name={}, error={}", name, e.getMessage());
+            return new GaugeHolder(name, null, labelNames);
+        }
+    }
+
+    private HistogramHolder registerHistogram(String name, String[] labelNames) {
+        return registerHistogram(name, labelNames, HISTOGRAM_BUCKETS);
+    }
+
+    private HistogramHolder registerHistogram(String name, String[] labelNames, double[] buckets) {
+        try {
+            Histogram histogram = Histogram.build().name(name).help(name + " Help").labelNames(labelNames).buckets(buckets).register();
+            collectorRegistry.register(histogram);
+            return new HistogramHolder(name, histogram, labelNames);
+        } catch (Exception e) {
+            log.error("failed to register histogram - name={}, error={}", name, e.getMessage());
+            return new HistogramHolder(name, null, labelNames);
+        }
+    }
+
+    // Label names from key/value labels e.g. ["server", "s1", "api", "a1"] -> ["server", "api"]
+    private static String[] labelNames(String... labels) {
+        if (labels == null || labels.length % 2 != 0) {
+            return new String[0];
+        }
+        String[] names = new String[labels.length / 2];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = labels[2 * i];
+        }
+        return names;
+    }
+
+    // Label values from key/value labels - null if keys are not same as label names of the metric
+    private static String[] labelValues(String[] labelNames, String... labels) {
+        if (!Arrays.equals(labelNames, labelNames(labels))) {
+            return null;
+        }
+        String[] values = new String[labelNames.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = labels[2 * i + 1];
+        }
+        return values;
+    }
+
+    // Label values of a counter in order of its label names. Key/value labels are matched by name - a label name which
+    // is not given is "na" and a key which is not a label name is ignored, so a call with another set of labels is
+    // still counted. Other labels are values in order of label names (same as registerCounter)
+    private static String[] counterLabelValues(String[] labelNames, String... labels) {
+        String[] values = new String[labelNames.length];
+        Arrays.fill(values, "na");
+        if (labels == null) {
+            return values;
+        }
+        if (isKeyValue(labelNames, labels)) {
+            for (int i = 0; i < labels.length; i += 2) {
+                int index = Arrays.asList(labelNames).indexOf(labels[i]);
+                if (index >= 0 && labels[i + 1] != null) {
+                    values[index] = labels[i + 1];
+                }
+            }
+        } else {
+            for (int i = 0; i < Math.min(labels.length, values.length); i++) {
+                if (labels[i] != null) {
+                    values[i] = labels[i];
+                }
+            }
+        }
+        return values;
+    }
+
+    // Labels are key/value pairs if there is a value for every key and at least one key is a label name
+    private static boolean isKeyValue(String[] labelNames, String... labels) {
+        if (labels.length == 0 || labels.length % 2 != 0) {
+            return false;
+        }
+        for (int i = 0; i < labels.length; i += 2) {
+            if (Arrays.asList(labelNames).contains(labels[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Data
     @AllArgsConstructor
     private static class CounterHolder {
         private String name;
         private Counter counter;
-        private int labelCount;
+        private String[] labelNames;
 
         public void inc(String... labels) {
-            if (labelCount == 0) {
-                counter.inc();
-            } else if (labels.length == labelCount) {
-                counter.labels(labels).inc();
+            inc(1, labels);
+        }
+
+        public void inc(long count, String... labels) {
+            if (counter == null) {
+                return;
+            }
+            if (labelNames.length == 0) {
+                counter.inc(count);
             } else {
-                String[] temp = new String[labelCount];
-                Arrays.fill(temp, "na");
-                System.arraycopy(labels, 0, temp, 0, labels.length);
-                counter.labels(temp).inc();
+                counter.labels(counterLabelValues(labelNames, labels)).inc(count);
             }
         }
+
+        // Resolve labels once - same labels as inc(count, labels) would use
+        public ICounter bind(String... labels) {
+            if (counter == null) {
+                return () -> {
+                };
+            } else if (labelNames.length == 0) {
+                return counter::inc;
+            }
+            return counter.labels(counterLabelValues(labelNames, labels))::inc;
+        }
     }
 
 
@@ -176,4 +378,52 @@ public class PrometheusMetrics implements IMetrics {
             summary.observe(amt);
         }
     }
+
+    @Data
+    @AllArgsConstructor
+    private static class GaugeHolder {
+        private String name;
+        private Gauge gauge;
+        private String[] labelNames;
+
+        public void set(long value, String... labels) {
+            if (gauge == null) {
+                return;
+            } else if (labelNames.length == 0) {
+                gauge.set(value);
+                return;
+            }
+            String[] values = labelValues(labelNames, labels);
+            if (values != null) {
+                gauge.labels(values).set(value);
+            } else {
+                log.debug("gauge labels do not match - name={}, labelNames={}, labels={}", name, labelNames, labels);
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class HistogramHolder {
+        private String name;
+        private Histogram histogram;
+        private String[] labelNames;
+
+        // Resolve labels once - labels which do not match label names of the histogram are not recorded
+        public ITimer bind(String... labels) {
+            if (histogram == null) {
+                return amt -> {
+                };
+            } else if (labelNames.length == 0) {
+                return histogram::observe;
+            }
+            String[] values = labelValues(labelNames, labels);
+            if (values != null) {
+                return histogram.labels(values)::observe;
+            }
+            log.debug("histogram labels do not match - name={}, labelNames={}, labels={}", name, labelNames, labels);
+            return amt -> {
+            };
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package io.github.devlibx.easy.metrics.prometheus;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -8,18 +12,23 @@ import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IMetricsLogger;
 import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
+import java.io.StringWriter;
 import java.util.Enumeration;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PrometheusMetricsTest {
     private final boolean defaultRegisterEnabled = true;
@@ -106,6 +115,54 @@ public class PrometheusMetricsTest {
             value = registry.getSampleValue("dummy", new String[]{"label_1", "label_2"}, new String[]{"a", "b"});
             assertEquals(3.0, value);
         }
+
+        @Test
+        @DisplayName("Counter handle counts same as inc with same labels")
+        public void counterHandleIsIncreased() {
+            IMetrics metrics = new PrometheusMetrics();
+            metrics.registerCounter("dummy_handle", "dummy help", "label_1", "label_2");
+            IMetrics.ICounter counter = metrics.counter("dummy_handle", "a");
+            counter.inc();
+            counter.inc();
+            metrics.inc("dummy_handle", "a");
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            assertEquals(3.0, registry.getSampleValue("dummy_handle", new String[]{"label_1", "label_2"}, new String[]{"a", "na"}));
+
+            // Not registered - registered on first use with label names of key/value labels
+            metrics.counter("dummy_handle_2", "x", "y").inc();
+            assertEquals(1.0, registry.getSampleValue("dummy_handle_2", new String[]{"x"}, new String[]{"y"}));
+        }
+
+        @Test
+        @DisplayName("Counter handle with key/value labels counts every label value separately")
+        public void counterHandleWithLabelsIsExported() {
+            IMetrics metrics = new PrometheusMetrics();
+            IMetrics.ICounter hit = metrics.counter("dummy_cache", "server", "s1", "api", "a1", "result", "hit");
+            IMetrics.ICounter miss = metrics.counter("dummy_cache", "server", "s1", "api", "a1", "result", "miss");
+            hit.inc();
+            hit.inc();
+            miss.inc();
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            String[] labelNames = new String[]{"server", "api", "result"};
+            assertEquals(2.0, registry.getSampleValue("dummy_cache", labelNames, new String[]{"s1", "a1", "hit"}));
+            assertEquals(1.0, registry.getSampleValue("dummy_cache", labelNames, new String[]{"s1", "a1", "miss"}));
+        }
+
+        @Test
+        @DisplayName("Counter is increased by count with key/value labels")
+        public void counterIsIncreasedByCount() {
+            IMetrics metrics = new PrometheusMetrics();
+            metrics.inc("dummy_count", 5, "id", "p1", "reason", "queue_full");
+            metrics.inc("dummy_count", 2, "id", "p1", "reason", "queue_full");
+            metrics.inc("dummy_count", 3, "id", "p1", "reason", "queue_timeout");
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            String[] labelNames = new String[]{"id", "reason"};
+            assertEquals(7.0, registry.getSampleValue("dummy_count", labelNames, new String[]{"p1", "queue_full"}));
+            assertEquals(3.0, registry.getSampleValue("dummy_count", labelNames, new String[]{"p1", "queue_timeout"}));
+        }
     }
 
 
@@ -150,6 +207,19 @@ public class PrometheusMetricsTest {
             assertEquals("1234", result);
         }
 
+        @Test
+        @DisplayName("Timer handle observes to summary")
+        public void timerHandleObserves() {
+            IMetrics metrics = new PrometheusMetrics();
+            IMetrics.ITimer timer = metrics.timer("dummy_timer_handle");
+            timer.observe(10);
+            timer.observe(20);
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            assertEquals(2.0, registry.getSampleValue("dummy_timer_handle_count"));
+            assertEquals(30.0, registry.getSampleValue("dummy_timer_handle_sum"));
+        }
+
         @Test
         @DisplayName("Summary should output matrices when registered with labels")
         public void testSummary_Registered_Without_MetricsLogger_WithLabels() {
@@ -188,4 +258,129 @@ public class PrometheusMetricsTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Gauge and Histogram Tests")
+    class LabelledTests {
+        @Test
+        @DisplayName("Gauge with key/value labels is exported")
+        public void gaugeWithLabelsIsExported() throws Exception {
+            IMetrics metrics = new PrometheusMetrics();
+            metrics.gauge("dummy_gauge", 10, "server", "s1", "api", "a1");
+            metrics.gauge("dummy_gauge", 20, "server", "s1", "api", "a2");
+            metrics.gauge("dummy_gauge", 15, "server", "s1", "api", "a1");
+            metrics.gauge("dummy_gauge_no_label", 5);
+
+            // Labels which do not match the registered label names are not recorded
+            metrics.gauge("dummy_gauge", 30, "server", "s1");
+
+            String scrape = scrape(metrics);
+            assertTrue(scrape.contains("dummy_gauge{server=\"s1\",api=\"a1\",} 15.0"), scrape);
+            assertTrue(scrape.contains("dummy_gauge{server=\"s1\",api=\"a2\",} 20.0"), scrape);
+            assertTrue(scrape.contains("dummy_gauge_no_label 5.0"), scrape);
+            assertFalse(scrape.contains("30.0"), scrape);
+        }
+
+        @Test
+        @DisplayName("Observe and timer with key/value labels are exported as histogram")
+        public void observeWithLabelsIsExported() throws Exception {
+            IMetrics metrics = new PrometheusMetrics();
+            metrics.observe("dummy_histogram", 3, "id", "p1");
+            IMetrics.ITimer timer = metrics.timer("dummy_histogram", "id", "p1");
+            timer.observe(40);
+            metrics.timer("dummy_histogram", "id", "p2").observe(7);
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            assertEquals(2.0, registry.getSampleValue("dummy_histogram_count", new String[]{"id"}, new String[]{"p1"}));
+            assertEquals(43.0, registry.getSampleValue("dummy_histogram_sum", new String[]{"id"}, new String[]{"p1"}));
+            assertEquals(1.0, registry.getSampleValue("dummy_histogram_count", new String[]{"id"}, new String[]{"p2"}));
+
+            String scrape = scrape(metrics);
+            assertTrue(scrape.contains("# TYPE dummy_histogram histogram"), scrape);
+            assertTrue(scrape.contains("dummy_histogram_bucket{id=\"p1\",le=\"5.0\",} 1.0"), scrape);
+            assertTrue(scrape.contains("dummy_histogram_bucket{id=\"p1\",le=\"50.0\",} 2.0"), scrape);
+        }
+
+        @Test
+        @DisplayName("Ratio is exported as histogram in percent")
+        public void ratioIsExportedInPercent() throws Exception {
+            IMetrics metrics = new PrometheusMetrics();
+            IMetrics.IRatio ratio = metrics.ratio("dummy_ratio", "id", "p1");
+            ratio.observe(1.1);
+            ratio.observe(3.5);
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            assertEquals(2.0, registry.getSampleValue("dummy_ratio_count", new String[]{"id"}, new String[]{"p1"}));
+            assertEquals(460.0, registry.getSampleValue("dummy_ratio_sum", new String[]{"id"}, new String[]{"p1"}), 0.0001);
+
+            String scrape = scrape(metrics);
+            assertTrue(scrape.contains("dummy_ratio_bucket{id=\"p1\",le=\"125.0\",} 1.0"), scrape);
+            assertTrue(scrape.contains("dummy_ratio_bucket{id=\"p1\",le=\"400.0\",} 2.0"), scrape);
+        }
+
+        @Test
+        @DisplayName("Counter with different sets of labels counts every call")
+        public void counterWithMixedLabelsCountsEveryCall() {
+            IMetrics metrics = new PrometheusMetrics();
+
+            // Same labels as RedisBasedRateLimiter - "error" label is only given with status=error
+            metrics.inc("dummy_rate_limiter", 5, "name", "r1", "status", "ok");
+            metrics.inc("dummy_rate_limiter", 2, "name", "r1", "status", "error", "error", "circuit_open");
+            metrics.inc("dummy_rate_limiter", 1, "name", "r1");
+            metrics.counter("dummy_rate_limiter", "status", "ok", "name", "r2").inc();
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            String[] labelNames = new String[]{"name", "status"};
+            assertEquals(5.0, registry.getSampleValue("dummy_rate_limiter", labelNames, new String[]{"r1", "ok"}));
+            assertEquals(2.0, registry.getSampleValue("dummy_rate_limiter", labelNames, new String[]{"r1", "error"}));
+            assertEquals(1.0, registry.getSampleValue("dummy_rate_limiter", labelNames, new String[]{"r1", "na"}));
+            assertEquals(1.0, registry.getSampleValue("dummy_rate_limiter", labelNames, new String[]{"r2", "ok"}));
+        }
+
+        @Test
+        @DisplayName("Counter with key/value labels is increased by inc with same key/value labels")
+        public void counterWithKeyValueLabelsIsIncreasedByInc() {
+            IMetrics metrics = new PrometheusMetrics();
+
+            // Same as ApiMetrics handle and a per call inc of "easy_http_sync" with server, api and code
+            metrics.counter("dummy_http_sync", "server", "s1", "api", "a1", "code", "ok").inc();
+            assertDoesNotThrow(() -> {
+                metrics.inc("dummy_http_sync", "server", "s1", "api", "a1", "code", "ok");
+                metrics.inc("dummy_http_sync", "server", "s1", "api", "a1", "code", "500");
+                metrics.inc("dummy_http_sync", "server", "s1", "api", "a1", "code", "500", "extra", "x");
+                metrics.inc("dummy_http_sync", "s1", "a1", "ok", "x", "y");
+            });
+
+            CollectorRegistry registry = metrics.getRegistry(CollectorRegistry.class);
+            String[] labelNames = new String[]{"server", "api", "code"};
+            assertEquals(3.0, registry.getSampleValue("dummy_http_sync", labelNames, new String[]{"s1", "a1", "ok"}));
+            assertEquals(2.0, registry.getSampleValue("dummy_http_sync", labelNames, new String[]{"s1", "a1", "500"}));
+        }
+
+        @Test
+        @DisplayName("Metric with invalid name is registered (and logged) only once")
+        public void metricWithInvalidNameIsRegisteredOnce() {
+            ListAppender<ILoggingEvent> appender = new ListAppender<>();
+            appender.start();
+            Logger logger = (Logger) LoggerFactory.getLogger(PrometheusMetrics.class);
+            logger.addAppender(appender);
+            try {
+                IMetrics metrics = new PrometheusMetrics();
+                for (int i = 0; i < 10; i++) {
+                    metrics.gauge("dummy-invalid-gauge", i, "name", "r1");
+                    metrics.inc("dummy-invalid-counter", 1, "name", "r1");
+                    metrics.observe("dummy-invalid-histogram", i, "name", "r1");
+                }
+                assertEquals(3, appender.list.stream().filter(event -> event.getLevel() == Level.ERROR).count());
+            } finally {
+                logger.detachAppender(appender);
+            }
+        }
+
+        private String scrape(IMetrics metrics) throws Exception {
+            StringWriter writer = new StringWriter();
+            TextFormat.write004(writer, metrics.getRegistry(CollectorRegistry.class).metricFamilySamples());
+            return writer.toString();
+        }
+    }
+}
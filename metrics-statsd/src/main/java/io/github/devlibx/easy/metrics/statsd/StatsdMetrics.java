@@ -72,6 +72,18 @@ public class StatsdMetrics implements IMetrics {
         statsDClient.count(metricString, count);
     }
 
+    @Override
+    public ICounter counter(String name, String... labels) {
+        String metricString = handleLabels(String.format("%s.%s", getPrefix(), name), labels);
+        return () -> statsDClient.count(metricString, 1L);
+    }
+
+    @Override
+    public ITimer timer(String name, String... labels) {
+        String metricString = handleLabels(String.format("%s.%s", getPrefix(), name), labels);
+        return amt -> statsDClient.recordExecutionTime(metricString, (long) amt);
+    }
+
     @Override
     public <T> T time(String name, Callable<T> callable, String... labels) {
         try {
@@ -33,15 +33,16 @@ import io.github.resilience4j.core.lang.Nullable;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.Map;
 
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -51,6 +52,9 @@ import static java.util.Objects.requireNonNull;
  * pool execution handling : 1- submit service call through bulk head thread pool 2- if there is
  * free thread from the thread pool or the queue is not yet full , it will be permitted 3- otherwise
  * the thread pool will throw RejectedExecutionException which mean is not permitted
+ * <p>
+ * Threads of the pool are made by the given thread factory (e.g. virtual threads on Java 21+ runtime), by default
+ * platform threads named after the bulkhead.
  */
 public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
 
@@ -59,6 +63,7 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
 
     private final String name;
     private final ThreadPoolExecutor executorService;
+    private final Semaphore permits;
     private final BulkheadMetrics metrics;
     private final BulkheadEventProcessor eventProcessor;
     private final ThreadPoolBulkheadConfig config;
@@ -83,15 +88,44 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
      */
     public FixedThreadPoolBulkheadExt(String name, @Nullable ThreadPoolBulkheadConfig bulkheadConfig,
                                       Map<String, String> tags) {
+        this(name, bulkheadConfig, tags, new NamingThreadFactory(name));
+    }
+
+    /**
+     * Creates a bulkhead using a configuration supplied
+     *
+     * @param name           the name of this bulkhead
+     * @param bulkheadConfig custom bulkhead configuration
+     * @param threadFactory  factory to make threads of the pool
+     */
+    public FixedThreadPoolBulkheadExt(String name, @Nullable ThreadPoolBulkheadConfig bulkheadConfig,
+                                      ThreadFactory threadFactory) {
+        this(name, bulkheadConfig, HashMap.empty(), threadFactory);
+    }
+
+    /**
+     * Creates a bulkhead using a configuration supplied
+     *
+     * @param name           the name of this bulkhead
+     * @param bulkheadConfig custom bulkhead configuration
+     * @param tags           tags to add to the Bulkhead
+     * @param threadFactory  factory to make threads of the pool
+     */
+    public FixedThreadPoolBulkheadExt(String name, @Nullable ThreadPoolBulkheadConfig bulkheadConfig,
+                                      Map<String, String> tags, ThreadFactory threadFactory) {
         this.name = name;
         this.config = requireNonNull(bulkheadConfig, CONFIG_MUST_NOT_BE_NULL);
         this.tags = requireNonNull(tags, TAGS_MUST_NOTE_BE_NULL);
         // init thread pool executor
+        // Calls are admitted by permits (threads + queue capacity) and not by a bounded queue. With a bounded
+        // queue, idle threads (e.g. after warm-up or an earlier burst) take tasks only one by one from the queue, so
+        // a burst is rejected even when threads are free
+        this.permits = new Semaphore(config.getMaxThreadPoolSize() + config.getQueueCapacity());
         this.executorService = new ThreadPoolExecutor(config.getCoreThreadPoolSize(),
                 config.getMaxThreadPoolSize(),
                 config.getKeepAliveDuration().toMillis(), TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<>(config.getQueueCapacity()),
-                Thread.ofVirtual().factory()
+                new LinkedBlockingQueue<>(),
+                requireNonNull(threadFactory, "ThreadFactory must not be null")
         );
         // adding prover jvm executor shutdown
         this.metrics = new BulkheadMetrics();
@@ -143,6 +177,10 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
     @Override
     public <T> CompletableFuture<T> submit(Callable<T> callable) {
         final CompletableFuture<T> promise = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
         try {
             CompletableFuture.supplyAsync(ContextPropagator.decorateSupplier(config.getContextPropagator(), () -> {
                 try {
@@ -153,8 +191,9 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
                 } catch (Exception e) {
                     throw new CompletionException(e);
                 }
-            }), Executors.newVirtualThreadPerTaskExecutor() /* Harish Changed - instead of using execute service using virtual thread */)
+            }), executorService)
                     .whenComplete((result, throwable) -> {
+                permits.release();
                 publishBulkheadEvent(() -> new BulkheadOnCallFinishedEvent(name));
                 if (throwable != null) {
                     promise.completeExceptionally(throwable);
@@ -163,6 +202,7 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
                 }
             });
         } catch (RejectedExecutionException rejected) {
+            permits.release();
             publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
             throw BulkheadFullException.createBulkheadFullException(this);
         }
@@ -175,6 +215,10 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
     @Override
     public CompletableFuture<Void> submit(Runnable runnable) {
         final CompletableFuture<Void> promise = new CompletableFuture<>();
+        if (!permits.tryAcquire()) {
+            publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
         try {
             CompletableFuture.runAsync(ContextPropagator.decorateRunnable(config.getContextPropagator(), () -> {
                 try {
@@ -183,8 +227,9 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
                 } catch (Exception e) {
                     throw new CompletionException(e);
                 }
-            }), Executors.newVirtualThreadPerTaskExecutor() /* Harish Changed - instead of using execute service using virtual thread */ )
+            }), executorService)
                     .whenComplete((result, throwable) -> {
+                permits.release();
                 publishBulkheadEvent(() -> new BulkheadOnCallFinishedEvent(name));
                 if (throwable != null) {
                     promise.completeExceptionally(throwable);
@@ -193,6 +238,7 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
                 }
             });
         } catch (RejectedExecutionException rejected) {
+            permits.release();
             publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
             throw BulkheadFullException.createBulkheadFullException(this);
         }
@@ -265,6 +311,20 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
         }
     }
 
+    private static class NamingThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String prefix;
+
+        private NamingThreadFactory(String name) {
+            this.prefix = name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, prefix + threadNumber.getAndIncrement());
+        }
+    }
+
     private class BulkheadEventProcessor extends EventProcessor<BulkheadEvent> implements
             ThreadPoolBulkheadEventPublisher, EventConsumer<BulkheadEvent> {
 
@@ -328,7 +388,7 @@ public class FixedThreadPoolBulkheadExt implements ThreadPoolBulkhead {
 
         @Override
         public int getRemainingQueueCapacity() {
-            return executorService.getQueue().remainingCapacity();
+            return Math.max(0, config.getQueueCapacity() - executorService.getQueue().size());
         }
 
         @Override
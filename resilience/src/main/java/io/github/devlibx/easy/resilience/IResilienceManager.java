@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface IResilienceManager {
 
     /**
@@ -12,6 +15,23 @@ public interface IResilienceManager {
      */
     IResilienceProcessor getOrCreate(ResilienceCallConfig config);
 
+    /**
+     * Change config of an existing processor (e.g. concurrency, timeout or queue size) without restart. Bulkhead is
+     * resized in place where possible, calls which are in-flight or waiting in queue are not dropped.
+     *
+     * @return true if processor with this id is updated, false if there is no such processor
+     */
+    default boolean update(String id, ResilienceCallConfig config) {
+        return false;
+    }
+
+    /**
+     * @return current config of processor with this id
+     */
+    default Optional<ResilienceCallConfig> getConfig(String id) {
+        return Optional.empty();
+    }
+
     /**
      * Configuration for ResilienceProcessor
      */
@@ -24,12 +44,91 @@ public interface IResilienceManager {
         private int concurrency = 10;
         private int timeout = 1000;
         private int queueSize = 100;
+
+        /**
+         * If true then the bulkhead is a semaphore (with a wait queue) instead of a thread pool, and calls run inline
+         * on the caller thread. There is no time limiter in this mode - the call must have its own timeout (e.g. socket
+         * timeout of the http client).
+         */
         private boolean useSemaphore = false;
         private int waitDurationInOpenState = 10000;
         private int retryCount = 0;
         private int retryWaitDurationMs = 1000;
+
+        /**
+         * Not used - retries of all processors are scheduled on a shared scheduler ({@link ResilienceSchedulers})
+         */
         private int retryRequestThreadPoolCount = 3;
 
+        /**
+         * If true then circuit breaker, bulkhead, timeout and retry are applied as Rx operators in
+         * executeObservable(). The subscribing thread is never blocked. Uses a semaphore bulkhead.
+         */
+        private boolean nonBlocking = false;
+
+        /**
+         * Concurrency limit algorithm - fixed (default), aimd, vegas or gradient2. With an adaptive algorithm the
+         * in-flight limit starts at "concurrency" and moves between minConcurrency and maxConcurrency from measured
+         * latency and timeouts. Calls over the limit fail fast with OverflowException.
+         */
+        private String limitAlgorithm;
+
+        /**
+         * Only used with adaptive limit. Lowest in-flight limit (default = 1)
+         */
+        private int minConcurrency = 1;
+
+        /**
+         * Only used with adaptive limit. Highest in-flight limit (default = concurrency)
+         */
+        private int maxConcurrency = 0;
+
+        /**
+         * Only used with useSemaphore or nonBlocking. Max time a call waits in the queue of the bulkhead for a permit
+         * - at most "queueSize" calls wait, in priority order. If <= 0 then "timeout" is used.
+         */
+        private int maxQueueTimeMs = 0;
+
+        /**
+         * Wait between retries - fixed (default, "retryWaitDurationMs" before every retry) or exponential (random wait
+         * between 0 and retryWaitDurationMs * 2^(retry - 1), i.e. exponential backoff with full jitter)
+         */
+        private String retryBackoff = RetryPolicy.FIXED;
+
+        /**
+         * Only used with retryBackoff=exponential. Max wait before a retry (<= 0 means no cap)
+         */
+        private int retryMaxWaitDurationMs = 0;
+
+        /**
+         * If > 0 then retries are limited to this percentage of successful calls (e.g. 10 = at most 1 retry per 10
+         * successful calls, after a small initial burst). If <= 0 then there is no retry budget.
+         */
+        private double retryBudgetPercent = 0;
+
+        /**
+         * If set then only these exceptions (class name or simple name, sub-classes match too) are retried
+         */
+        private List<String> retryExceptions;
+
+        /**
+         * These exceptions (class name or simple name, sub-classes match too) are never retried
+         */
+        private List<String> ignoreRetryExceptions;
+
+        /**
+         * Controlled delay (CoDel) of the bulkhead queue - if calls have waited in the queue longer than this for
+         * "queueDelayIntervalMs" then a new call which would have to wait is rejected right away (OverflowException)
+         * instead of timing out in the queue. If <= 0 then calls are not rejected (queue time is still recorded).
+         */
+        private int queueDelayTargetMs = 0;
+
+        /**
+         * Only used with queueDelayTargetMs. Queue time must stay above target for this long before calls are rejected
+         * (default = 100)
+         */
+        private int queueDelayIntervalMs = 100;
+
         public static ResilienceCallConfigBuilder withDefaults() {
             return ResilienceCallConfig.builder()
                     .queueSize(100)
@@ -39,7 +138,17 @@ public interface IResilienceManager {
                     .retryCount(0)
                     .waitRetryWaitDurationMs(1000)
                     .retryRequestThreadPoolCount(3)
-                    .useSemaphore(false);
+                    .useSemaphore(false)
+                    .nonBlocking(false)
+                    .limitAlgorithm("fixed")
+                    .minConcurrency(1)
+                    .maxConcurrency(0)
+                    .maxQueueTimeMs(0)
+                    .retryBackoff(RetryPolicy.FIXED)
+                    .retryMaxWaitDurationMs(0)
+                    .retryBudgetPercent(0)
+                    .queueDelayTargetMs(0)
+                    .queueDelayIntervalMs(100);
         }
 
         public static class ResilienceCallConfigBuilder {
@@ -48,9 +157,22 @@ public interface IResilienceManager {
             private int timeout;
             private int queueSize;
             private boolean useSemaphore;
+            private int waitDurationInOpenState = 10000;
             private int retryCount = 0;
             private int retryWaitDurationMs = 1000;
             private int retryRequestThreadPoolCount = 3;
+            private boolean nonBlocking = false;
+            private String limitAlgorithm;
+            private int minConcurrency = 1;
+            private int maxConcurrency = 0;
+            private int maxQueueTimeMs = 0;
+            private String retryBackoff = RetryPolicy.FIXED;
+            private int retryMaxWaitDurationMs = 0;
+            private double retryBudgetPercent = 0;
+            private List<String> retryExceptions;
+            private List<String> ignoreRetryExceptions;
+            private int queueDelayTargetMs = 0;
+            private int queueDelayIntervalMs = 100;
 
             ResilienceCallConfigBuilder() {
             }
@@ -80,6 +202,11 @@ public interface IResilienceManager {
                 return this;
             }
 
+            public ResilienceCallConfig.ResilienceCallConfigBuilder waitDurationInOpenState(int waitDurationInOpenState) {
+                this.waitDurationInOpenState = waitDurationInOpenState;
+                return this;
+            }
+
             public ResilienceCallConfig.ResilienceCallConfigBuilder retryCount(int retryCount) {
                 this.retryCount = retryCount;
                 return this;
@@ -90,17 +217,84 @@ public interface IResilienceManager {
                 return this;
             }
 
+            public ResilienceCallConfig.ResilienceCallConfigBuilder retryWaitDurationMs(int retryWaitDurationMs) {
+                this.retryWaitDurationMs = retryWaitDurationMs;
+                return this;
+            }
+
             public ResilienceCallConfig.ResilienceCallConfigBuilder retryRequestThreadPoolCount(int retryRequestThreadPoolCount) {
                 this.retryRequestThreadPoolCount = retryRequestThreadPoolCount;
                 return this;
             }
 
+            public ResilienceCallConfig.ResilienceCallConfigBuilder nonBlocking(boolean nonBlocking) {
+                this.nonBlocking = nonBlocking;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder limitAlgorithm(String limitAlgorithm) {
+                this.limitAlgorithm = limitAlgorithm;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder minConcurrency(int minConcurrency) {
+                this.minConcurrency = minConcurrency;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder maxConcurrency(int maxConcurrency) {
+                this.maxConcurrency = maxConcurrency;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder maxQueueTimeMs(int maxQueueTimeMs) {
+                this.maxQueueTimeMs = maxQueueTimeMs;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder retryBackoff(String retryBackoff) {
+                this.retryBackoff = retryBackoff;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder retryMaxWaitDurationMs(int retryMaxWaitDurationMs) {
+                this.retryMaxWaitDurationMs = retryMaxWaitDurationMs;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder retryBudgetPercent(double retryBudgetPercent) {
+                this.retryBudgetPercent = retryBudgetPercent;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder retryExceptions(List<String> retryExceptions) {
+                this.retryExceptions = retryExceptions;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder ignoreRetryExceptions(List<String> ignoreRetryExceptions) {
+                this.ignoreRetryExceptions = ignoreRetryExceptions;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder queueDelayTargetMs(int queueDelayTargetMs) {
+                this.queueDelayTargetMs = queueDelayTargetMs;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder queueDelayIntervalMs(int queueDelayIntervalMs) {
+                this.queueDelayIntervalMs = queueDelayIntervalMs;
+                return this;
+            }
+
             public ResilienceCallConfig build() {
-                return new ResilienceCallConfig(this.id, this.concurrency, this.timeout, this.queueSize, this.useSemaphore, this.waitDurationInOpenState, this.retryCount, this.retryWaitDurationMs, this.retryRequestThreadPoolCount);
+                return new ResilienceCallConfig(this.id, this.concurrency, this.timeout, this.queueSize, this.useSemaphore, this.waitDurationInOpenState, this.retryCount, this.retryWaitDurationMs, this.retryRequestThreadPoolCount, this.nonBlocking, this.limitAlgorithm, this.minConcurrency, this.maxConcurrency, this.maxQueueTimeMs,
+                        this.retryBackoff, this.retryMaxWaitDurationMs, this.retryBudgetPercent, this.retryExceptions, this.ignoreRetryExceptions,
+                        this.queueDelayTargetMs, this.queueDelayIntervalMs);
             }
 
             public String toString() {
-                return "ResilienceCallConfig.ResilienceCallConfigBuilder(id=" + this.id + ", concurrency=" + this.concurrency + ", timeout=" + this.timeout + ", queueSize=" + this.queueSize + ", useSemaphore=" + this.useSemaphore + ")";
+                return "ResilienceCallConfig.ResilienceCallConfigBuilder(id=" + this.id + ", concurrency=" + this.concurrency + ", timeout=" + this.timeout + ", queueSize=" + this.queueSize + ", useSemaphore=" + this.useSemaphore + ", nonBlocking=" + this.nonBlocking + ", limitAlgorithm=" + this.limitAlgorithm + ")";
             }
         }
     }
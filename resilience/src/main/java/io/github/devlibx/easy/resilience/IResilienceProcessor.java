@@ -1,6 +1,7 @@
 package io.github.devlibx.easy.resilience;
 
 import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
 import io.github.devlibx.easy.resilience.exception.ResilienceException;
 import io.reactivex.rxjava3.core.Observable;
 
@@ -13,6 +14,29 @@ public interface IResilienceProcessor {
      */
     void initialized(ResilienceCallConfig config);
 
+    /**
+     * Change config of this processor without dropping in-flight calls - calls started after this use the new
+     * config
+     *
+     * @return true if config is changed, false if this processor does not support update
+     */
+    default boolean update(ResilienceCallConfig config) {
+        return false;
+    }
+
+    /**
+     * @return current config of this processor (null if not known)
+     */
+    default ResilienceCallConfig getConfig() {
+        return null;
+    }
+
+    /**
+     * Pre-start the threads used by this processor so that first calls do not pay the cost of thread creation
+     */
+    default void warmUp() {
+    }
+
     /**
      * Execute a request
      *
@@ -29,4 +53,24 @@ public interface IResilienceProcessor {
      * Execute a observable
      */
     <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls);
+
+    /**
+     * Execute a observable with a timeout for this call (e.g. time left till the deadline of the caller)
+     *
+     * @param timeoutMs timeout of this call - used if it is less than the configured timeout (<= 0 = configured
+     *                  timeout)
+     */
+    default <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls, long timeoutMs) {
+        return executeObservable(id, observable, cls);
+    }
+
+    /**
+     * Execute a observable with a timeout and priority for this call
+     *
+     * @param priority priority of this call in the queue of bulkhead - only used with semaphore (or non-blocking)
+     *                 bulkhead
+     */
+    default <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls, long timeoutMs, Priority priority) {
+        return executeObservable(id, observable, cls, timeoutMs);
+    }
 }
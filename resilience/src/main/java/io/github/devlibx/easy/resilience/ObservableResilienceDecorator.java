@@ -0,0 +1,155 @@
+package io.github.devlibx.easy.resilience;
+
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
+import io.github.devlibx.easy.resilience.bulkhead.PriorityBulkhead;
+import io.github.devlibx.easy.resilience.exception.ExceptionUtil;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.devlibx.easy.resilience.limit.AdaptiveConcurrencyLimiter;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableSource;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Function;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies circuit breaker, bulkhead, timeout and retry to an {@link Observable} as Rx operators.
+ * <p>
+ * Nothing in this chain blocks the subscribing thread. Permits are taken when a subscriber subscribes (a call which
+ * waits in the queue of the bulkhead is subscribed when it gets the permit) and are given back when the source
+ * terminates, times out or the subscriber disposes.
+ */
+class ObservableResilienceDecorator {
+
+    private ObservableResilienceDecorator() {
+    }
+
+    /**
+     * @param limiter     adaptive concurrency limiter (null if concurrency limit is fixed)
+     * @param retryPolicy decides if and when a failed attempt is retried (null if there is no retry)
+     * @param timeoutMs   timeout of each attempt
+     * @param priority    priority of this call in the queue of bulkhead
+     * @return observable which runs the given observable with all resilience operators applied
+     */
+    static <T> Observable<T> decorate(Observable<T> observable, CircuitBreaker circuitBreaker, PriorityBulkhead bulkhead, AdaptiveConcurrencyLimiter limiter, RetryPolicy retryPolicy, ResilienceCallConfig config, long timeoutMs, Priority priority) {
+        Observable<T> decorated = Observable.defer(() -> attempt(observable, circuitBreaker, bulkhead, limiter, config, timeoutMs, priority));
+
+        // Retry count is the total no of attempts (same as resilience4j maxAttempts)
+        if (retryPolicy != null && config.getRetryCount() > 1) {
+            decorated = decorated
+                    .retryWhen(retryHandler(retryPolicy, config.getRetryCount()))
+                    .doOnNext(t -> retryPolicy.record(t, null));
+        }
+
+        return decorated.onErrorResumeNext(throwable -> Observable.error(ExceptionUtil.unwrapResilience4jException(throwable)));
+    }
+
+    private static <T> Observable<T> attempt(Observable<T> observable, CircuitBreaker circuitBreaker, PriorityBulkhead bulkhead, AdaptiveConcurrencyLimiter limiter, ResilienceCallConfig config, long timeoutMs, Priority priority) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return Observable.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+        if (limiter != null && !limiter.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            return Observable.error(new OverflowException("concurrency limit reached: id=" + config.getId() + " limit=" + limiter.getLimit(), null));
+        }
+
+        // Wait for a bulkhead permit without blocking - source is subscribed once the permit is given. If subscriber
+        // disposes while waiting then the wait is cancelled (or the permit given back if it was just given)
+        return Observable.create(emitter -> {
+            CompositeDisposable resources = new CompositeDisposable();
+            emitter.setDisposable(resources);
+            PriorityBulkhead.Ticket ticket = bulkhead.acquirePermission(priority, error -> {
+                if (error != null) {
+                    circuitBreaker.releasePermission();
+                    if (limiter != null) {
+                        limiter.onIgnore();
+                    }
+                    emitter.tryOnError(error);
+                } else if (emitter.isDisposed()) {
+                    bulkhead.releasePermission();
+                    circuitBreaker.releasePermission();
+                    if (limiter != null) {
+                        limiter.onIgnore();
+                    }
+                } else {
+                    resources.add(withPermit(observable, circuitBreaker, bulkhead, limiter, timeoutMs)
+                            .subscribe(emitter::onNext, emitter::tryOnError, emitter::onComplete));
+                }
+            });
+            resources.add(Disposable.fromAction(() -> {
+                if (ticket.cancel()) {
+                    circuitBreaker.releasePermission();
+                    if (limiter != null) {
+                        limiter.onIgnore();
+                    }
+                }
+            }));
+        });
+    }
+
+    private static <T> Observable<T> withPermit(Observable<T> observable, CircuitBreaker circuitBreaker, PriorityBulkhead bulkhead, AdaptiveConcurrencyLimiter limiter, long timeoutMs) {
+
+        // Permits must be given back exactly once - whichever of success, error or dispose comes first
+        final long start = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean(false);
+        Observable<T> source = timeoutMs > 0 ? observable.timeout(timeoutMs, TimeUnit.MILLISECONDS) : observable;
+        return source
+                .take(1)
+                .doOnNext(t -> {
+                    if (released.compareAndSet(false, true)) {
+                        bulkhead.releasePermission();
+                        circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (limiter != null) {
+                            limiter.onComplete(start, null);
+                        }
+                    }
+                })
+                .doOnComplete(() -> {
+                    if (released.compareAndSet(false, true)) {
+                        bulkhead.releasePermission();
+                        circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (limiter != null) {
+                            limiter.onComplete(start, null);
+                        }
+                    }
+                })
+                .doOnError(throwable -> {
+                    if (released.compareAndSet(false, true)) {
+                        bulkhead.releasePermission();
+                        circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                        if (limiter != null) {
+                            limiter.onComplete(start, throwable);
+                        }
+                    }
+                })
+                .doOnDispose(() -> {
+                    if (released.compareAndSet(false, true)) {
+                        bulkhead.releasePermission();
+                        circuitBreaker.releasePermission();
+                        if (limiter != null) {
+                            limiter.onIgnore();
+                        }
+                    }
+                });
+    }
+
+    // No of attempts is checked first, so the last attempt does not take a token from the retry budget
+    private static Function<Observable<Throwable>, ObservableSource<?>> retryHandler(RetryPolicy retryPolicy, int maxAttempts) {
+        return errors -> {
+            AtomicInteger attempts = new AtomicInteger(1);
+            return errors.flatMap(throwable -> {
+                int attempt = attempts.getAndIncrement();
+                if (attempt < maxAttempts && retryPolicy.shouldRetry(throwable)) {
+                    return Observable.timer(retryPolicy.waitDurationMs(attempt), TimeUnit.MILLISECONDS);
+                }
+                return Observable.<Long>error(throwable);
+            });
+        };
+    }
+}
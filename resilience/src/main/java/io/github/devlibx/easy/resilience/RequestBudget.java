@@ -0,0 +1,73 @@
+package io.github.devlibx.easy.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket which limits extra requests (e.g. hedges or retries) to a percentage of the normal requests.
+ * <p>
+ * Every normal request deposits "percent / 100" of a token, every extra request withdraws one token. The bucket
+ * starts with "minTokens" and never holds more than "maxTokens", so a short burst of extra requests is allowed after
+ * a quiet period but the long term extra load stays under the percentage.
+ */
+public class RequestBudget {
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param percent   extra requests allowed as percentage of the normal requests (e.g. 5 = 5% extra load)
+     * @param minTokens tokens to start with
+     * @param maxTokens max tokens to keep
+     */
+    public RequestBudget(double percent, int minTokens, int maxTokens) {
+        this.depositPerRequest = Math.max(0, Math.round(percent * SCALE / 100));
+        this.maxBalance = Math.max(minTokens, maxTokens) * SCALE;
+        this.balance = new AtomicLong(Math.max(0, minTokens) * SCALE);
+    }
+
+    /**
+     * Record a normal request
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+    }
+
+    /**
+     * @return true if extra request can be made (one token is taken), false if budget is exhausted
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Give back a token which was taken for an extra request that was not made
+     */
+    public void refund() {
+        long current;
+        do {
+            current = balance.get();
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + SCALE)));
+    }
+
+    /**
+     * @return no of extra requests which can be made now
+     */
+    public long available() {
+        return balance.get() / SCALE;
+    }
+}
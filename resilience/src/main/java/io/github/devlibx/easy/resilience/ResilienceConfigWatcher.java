@@ -0,0 +1,153 @@
+package io.github.devlibx.easy.resilience;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes config of resilience processors while the app is running - from a YAML (or JSON) file, or from an admin
+ * endpoint which calls {@link #apply(String, Map)}.
+ * <p>
+ * File has id of processor (server-api for EasyHttp) and the fields of {@link ResilienceCallConfig} to change. Fields
+ * which are not in the file keep their current value:
+ * <pre>
+ * jsonplaceholder-getPosts:
+ *   concurrency: 20
+ *   timeout: 500
+ *   queueSize: 50
+ * </pre>
+ * File is checked every "pollIntervalMs" and is applied when its modified time changes. Check runs on its own daemon
+ * thread - reading the file and updating processors blocks, so it is kept off the shared resilience scheduler which
+ * runs timeouts and retries.
+ */
+@Slf4j
+public class ResilienceConfigWatcher {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+    private final IResilienceManager resilienceManager;
+    private final Path file;
+    private final long pollIntervalMs;
+    private volatile long lastModified = -1;
+    private ScheduledExecutorService poller;
+
+    public ResilienceConfigWatcher(IResilienceManager resilienceManager, String file, long pollIntervalMs) {
+        this.resilienceManager = resilienceManager;
+        this.file = file == null ? null : Paths.get(file);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * Apply the file now and then watch it for changes
+     */
+    public synchronized void start() {
+        if (poller != null || file == null) {
+            return;
+        }
+        poll();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "easy-resilience-config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop watching the file (config which is already applied is not changed)
+     */
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdown();
+            poller = null;
+        }
+    }
+
+    /**
+     * Read the file and apply it
+     *
+     * @return no of processors which are updated
+     */
+    public synchronized int reload() throws IOException {
+        Map<String, Object> configs;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            configs = new Yaml().load(reader);
+        }
+        if (configs == null) {
+            return 0;
+        }
+
+        int updated = 0;
+        for (Map.Entry<String, Object> entry : configs.entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                log.warn("resilience config is not a map - ignored: id={}", entry.getKey());
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> changes = (Map<String, Object>) entry.getValue();
+            if (apply(entry.getKey(), changes)) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Change config of one processor
+     *
+     * @param changes fields of {@link ResilienceCallConfig} to change e.g. {"concurrency": 20, "timeout": 500}
+     * @return true if processor is updated, false if there is no processor with this id
+     */
+    public boolean apply(String id, Map<String, Object> changes) {
+        Optional<ResilienceCallConfig> current = resilienceManager.getConfig(id);
+        if (!current.isPresent()) {
+            log.warn("resilience config not applied - no processor with this id: id={}", id);
+            return false;
+        }
+
+        // Processor keeps using its current config object till update - so changes are made on a copy
+        ResilienceCallConfig config;
+        try {
+            config = MAPPER.updateValue(MAPPER.convertValue(current.get(), ResilienceCallConfig.class), changes);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid resilience config: id=" + id + " config=" + changes, e);
+        }
+        boolean updated = resilienceManager.update(id, config);
+        if (updated) {
+            log.info("resilience config updated: id={}, changes={}", id, changes);
+        }
+        return updated;
+    }
+
+    private void poll() {
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified != lastModified) {
+                lastModified = modified;
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("failed to apply resilience config: file={}, error={}", file, e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package io.github.devlibx.easy.resilience;
 
+import com.google.inject.Inject;
 import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import lombok.Getter;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ResilienceManager implements IResilienceManager {
     private final Map<String, IResilienceProcessor> processorMap;
 
+    /**
+     * Circuit breaker and bulkhead metrics of all processors created by this manager
+     */
+    @Getter
+    private final ResilienceMetrics resilienceMetrics;
+
     public ResilienceManager() {
+        this(new IMetrics.NoOpMetrics());
+    }
+
+    @Inject
+    public ResilienceManager(IMetrics metrics) {
+        this(metrics, ResilienceMetrics.DEFAULT_SAMPLE_INTERVAL_MS);
+    }
+
+    /**
+     * @param sampleIntervalMs how often circuit breaker and bulkhead metrics are sampled (<= 0 means never)
+     */
+    public ResilienceManager(IMetrics metrics, long sampleIntervalMs) {
         this.processorMap = new ConcurrentHashMap<>();
+        this.resilienceMetrics = new ResilienceMetrics(metrics, sampleIntervalMs);
     }
 
     @Override
@@ -23,7 +46,28 @@ public class ResilienceManager implements IResilienceManager {
             }
             processor.initialized(config);
             processorMap.put(config.getId(), processor);
+            resilienceMetrics.register(config.getId(), processor);
         }
         return processorMap.get(config.getId());
     }
+
+    @Override
+    public synchronized boolean update(String id, ResilienceCallConfig config) {
+        IResilienceProcessor processor = processorMap.get(id);
+        if (processor == null) {
+            return false;
+        }
+        config.setId(id);
+        boolean updated = processor.update(config);
+        if (updated) {
+            resilienceMetrics.register(id, processor);
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<ResilienceCallConfig> getConfig(String id) {
+        IResilienceProcessor processor = processorMap.get(id);
+        return processor == null ? Optional.empty() : Optional.ofNullable(processor.getConfig());
+    }
 }
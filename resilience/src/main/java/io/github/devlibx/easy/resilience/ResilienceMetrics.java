@@ -0,0 +1,255 @@
+package io.github.devlibx.easy.resilience;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.IRatio;
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics.ITimer;
+import io.github.devlibx.easy.resilience.bulkhead.PriorityBulkhead;
+import io.github.devlibx.easy.resilience.limit.AdaptiveConcurrencyLimiter;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports state of circuit breaker and bulkhead of every resilience processor to {@link IMetrics}.
+ * <p>
+ * Values are sampled every "sampleIntervalMs" on the shared resilience scheduler - from the sliding window of the
+ * circuit breaker and the counters of the bulkhead, which are already kept for every call. So a call itself does no
+ * extra work for these metrics. Only circuit breaker state transitions and queue time of calls are recorded as they
+ * happen.
+ * <pre>
+ * easy_resilience_circuit_breaker_state          gauge   0=closed 1=open 2=half_open 3=disabled 4=forced_open
+ * easy_resilience_circuit_breaker_failure_rate   gauge   % (only when window has enough calls)
+ * easy_resilience_circuit_breaker_slow_call_rate gauge   % (only when window has enough calls)
+ * easy_resilience_circuit_breaker_failure_rate_distribution   ratio of failure rate (in percent)
+ * easy_resilience_circuit_breaker_slow_call_rate_distribution ratio of slow call rate (in percent)
+ * easy_resilience_circuit_breaker_calls          gauge   calls in sliding window (kind=buffered|failed|slow|not_permitted)
+ * easy_resilience_circuit_breaker_transition     counter state transitions (from, to)
+ * easy_resilience_bulkhead_in_flight             gauge   calls holding a permit (or running on thread pool bulkhead)
+ * easy_resilience_bulkhead_max_concurrent        gauge
+ * easy_resilience_bulkhead_queue_depth           gauge   calls waiting in queue
+ * easy_resilience_bulkhead_occupancy             ratio (% of max concurrent calls in use)
+ * easy_resilience_bulkhead_queue_time            histogram (ms a call waited in the queue of the bulkhead)
+ * easy_resilience_bulkhead_rejected              counter calls rejected by bulkhead (reason=queue_full|queue_timeout|queue_delay)
+ * easy_resilience_concurrency_in_flight          gauge   in-flight calls of adaptive concurrency limiter
+ * easy_resilience_retry_budget_available         gauge   retries which can be made now (only with retry budget)
+ * easy_resilience_retry_budget_exhausted         counter retries not made because retry budget was exhausted
+ * </pre>
+ * All metrics have label "id" (id of the resilience processor).
+ */
+@Slf4j
+public class ResilienceMetrics {
+    public static final long DEFAULT_SAMPLE_INTERVAL_MS = 10_000;
+
+    private final IMetrics metrics;
+    private final long sampleIntervalMs;
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+    private volatile ScheduledFuture<?> sampleTask;
+
+    public ResilienceMetrics(IMetrics metrics, long sampleIntervalMs) {
+        this.metrics = metrics == null ? new IMetrics.NoOpMetrics() : metrics;
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+
+    /**
+     * Export metrics of this processor. Only {@link ResilienceProcessor} has metrics, other processors are ignored.
+     * <p>
+     * Call it again after the processor is updated - a new circuit breaker of the processor is watched from then.
+     */
+    public void register(String id, IResilienceProcessor processor) {
+        if (metrics instanceof IMetrics.NoOpMetrics || !(processor instanceof ResilienceProcessor)) {
+            return;
+        }
+        ResilienceProcessor resilienceProcessor = (ResilienceProcessor) processor;
+        Sampler sampler = samplers.compute(id, (key, existing) -> existing != null && existing.processor == resilienceProcessor
+                ? existing
+                : new Sampler(id, resilienceProcessor));
+        sampler.watchStateTransitions();
+        startSampling();
+    }
+
+    /**
+     * Take a sample of all registered processors now
+     */
+    public void sample() {
+        for (Sampler sampler : samplers.values()) {
+            try {
+                sampler.sample();
+            } catch (Exception e) {
+                log.error("failed to sample resilience metrics: id={}, error={}", sampler.id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stop sampling (metrics of already registered processors are not reported any more)
+     */
+    public void stop() {
+        ScheduledFuture<?> task = sampleTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private void startSampling() {
+        if (sampleTask == null && sampleIntervalMs > 0) {
+            synchronized (this) {
+                if (sampleTask == null) {
+                    sampleTask = ResilienceSchedulers.scheduler().scheduleWithFixedDelay(this::sample, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    // Metric labels are resolved once per processor
+    private class Sampler {
+        private final String id;
+        private final ResilienceProcessor processor;
+        private final String[] labels;
+        private final IRatio failureRate;
+        private final IRatio slowCallRate;
+        private final IRatio occupancy;
+        private final ITimer queueTime;
+        private CircuitBreaker watchedCircuitBreaker;
+        private long queueFullCount;
+        private long queueTimeoutCount;
+        private long queueDelayCount;
+        private RetryPolicy sampledRetryPolicy;
+        private long budgetExhaustedCount;
+
+        private Sampler(String id, ResilienceProcessor processor) {
+            this.id = id;
+            this.processor = processor;
+            this.labels = new String[]{"id", id};
+            this.failureRate = metrics.ratio("easy_resilience_circuit_breaker_failure_rate_distribution", labels);
+            this.slowCallRate = metrics.ratio("easy_resilience_circuit_breaker_slow_call_rate_distribution", labels);
+            this.occupancy = metrics.ratio("easy_resilience_bulkhead_occupancy", labels);
+
+            // Queue time is observed by the call itself - a sample can't see calls which have already started
+            this.queueTime = metrics.timer("easy_resilience_bulkhead_queue_time", labels);
+            processor.getControlledDelay().setObserver(nanos -> queueTime.observe(nanos / 1_000_000.0));
+        }
+
+        private synchronized void watchStateTransitions() {
+            CircuitBreaker circuitBreaker = processor.getCircuitBreaker();
+            if (circuitBreaker == null || circuitBreaker == watchedCircuitBreaker) {
+                return;
+            }
+            watchedCircuitBreaker = circuitBreaker;
+            circuitBreaker.getEventPublisher().onStateTransition(event -> metrics.inc(
+                    "easy_resilience_circuit_breaker_transition",
+                    1,
+                    "id", id,
+                    "from", event.getStateTransition().getFromState().name().toLowerCase(),
+                    "to", event.getStateTransition().getToState().name().toLowerCase()
+            ));
+        }
+
+        private void sample() {
+            sampleCircuitBreaker(processor.getCircuitBreaker());
+            sampleBulkhead(processor.getPriorityBulkhead());
+            sampleBulkhead(processor.getThreadPoolBulkhead(), processor.getThreadPoolInFlight());
+
+            AdaptiveConcurrencyLimiter limiter = processor.getConcurrencyLimiter();
+            if (limiter != null) {
+                metrics.gauge("easy_resilience_concurrency_in_flight", limiter.getInflight(), labels);
+            }
+            sampleRetry(processor.getRetryPolicy());
+
+            // Calls rejected because queue time was over target (controlled delay)
+            long count = processor.getControlledDelay().getRejectedCount();
+            rejected("queue_delay", count - queueDelayCount);
+            queueDelayCount = count;
+        }
+
+        private void sampleRetry(RetryPolicy retryPolicy) {
+            if (retryPolicy == null || retryPolicy.getAvailableRetries() < 0) {
+                return;
+            }
+
+            // Retry policy is re-created when config is updated - its count starts again from 0
+            if (retryPolicy != sampledRetryPolicy) {
+                sampledRetryPolicy = retryPolicy;
+                budgetExhaustedCount = 0;
+            }
+            metrics.gauge("easy_resilience_retry_budget_available", retryPolicy.getAvailableRetries(), labels);
+            long count = retryPolicy.getBudgetExhaustedCount();
+            if (count > budgetExhaustedCount) {
+                metrics.inc("easy_resilience_retry_budget_exhausted", count - budgetExhaustedCount, labels);
+            }
+            budgetExhaustedCount = count;
+        }
+
+        private void sampleCircuitBreaker(CircuitBreaker circuitBreaker) {
+            if (circuitBreaker == null) {
+                return;
+            }
+            CircuitBreaker.Metrics cbMetrics = circuitBreaker.getMetrics();
+            metrics.gauge("easy_resilience_circuit_breaker_state", circuitBreaker.getState().getOrder(), labels);
+            calls("buffered", cbMetrics.getNumberOfBufferedCalls());
+            calls("failed", cbMetrics.getNumberOfFailedCalls());
+            calls("slow", cbMetrics.getNumberOfSlowCalls());
+            calls("not_permitted", cbMetrics.getNumberOfNotPermittedCalls());
+
+            // Rate is -1 till the sliding window has min no of calls
+            float rate = cbMetrics.getFailureRate();
+            if (rate >= 0) {
+                metrics.gauge("easy_resilience_circuit_breaker_failure_rate", Math.round(rate), labels);
+                failureRate.observe(rate / 100);
+            }
+            rate = cbMetrics.getSlowCallRate();
+            if (rate >= 0) {
+                metrics.gauge("easy_resilience_circuit_breaker_slow_call_rate", Math.round(rate), labels);
+                slowCallRate.observe(rate / 100);
+            }
+        }
+
+        private void sampleBulkhead(PriorityBulkhead bulkhead) {
+            if (bulkhead == null) {
+                return;
+            }
+            inFlight(bulkhead.getInFlight(), bulkhead.getMaxConcurrentCalls(), bulkhead.getQueueDepth());
+
+            // Rejections are counted by the bulkhead - only the change since last sample is added
+            long count = bulkhead.getQueueFullCount();
+            rejected("queue_full", count - queueFullCount);
+            queueFullCount = count;
+            count = bulkhead.getQueueTimeoutCount();
+            rejected("queue_timeout", count - queueTimeoutCount);
+            queueTimeoutCount = count;
+        }
+
+        // Threads of the pool stay up when idle (e.g. after warm-up) - so in-flight is counted by the processor, not
+        // taken from the pool size
+        private void sampleBulkhead(ThreadPoolBulkhead bulkhead, int inFlight) {
+            if (bulkhead == null) {
+                return;
+            }
+            ThreadPoolBulkhead.Metrics bulkheadMetrics = bulkhead.getMetrics();
+            inFlight(inFlight, bulkheadMetrics.getMaximumThreadPoolSize(), bulkheadMetrics.getQueueDepth());
+        }
+
+        private void inFlight(int inFlight, int maxConcurrent, int queueDepth) {
+            metrics.gauge("easy_resilience_bulkhead_in_flight", inFlight, labels);
+            metrics.gauge("easy_resilience_bulkhead_max_concurrent", maxConcurrent, labels);
+            metrics.gauge("easy_resilience_bulkhead_queue_depth", queueDepth, labels);
+            if (maxConcurrent > 0) {
+                occupancy.observe((double) inFlight / maxConcurrent);
+            }
+        }
+
+        private void calls(String kind, long count) {
+            metrics.gauge("easy_resilience_circuit_breaker_calls", count, "id", id, "kind", kind);
+        }
+
+        private void rejected(String reason, long count) {
+            if (count > 0) {
+                metrics.inc("easy_resilience_bulkhead_rejected", count, "id", id, "reason", reason);
+            }
+        }
+    }
+}
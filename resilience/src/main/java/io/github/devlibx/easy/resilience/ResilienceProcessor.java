@@ -1,125 +1,257 @@
 package io.github.devlibx.easy.resilience;
 
 import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.bulkhead.ControlledDelay;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
+import io.github.devlibx.easy.resilience.bulkhead.PriorityBulkhead;
+import io.github.devlibx.easy.resilience.exception.CircuitOpenException;
 import io.github.devlibx.easy.resilience.exception.ExceptionUtil;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
 import io.github.devlibx.easy.resilience.exception.ResilienceException;
-import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.devlibx.easy.resilience.exception.UnknownException;
+import io.github.devlibx.easy.resilience.limit.AdaptiveConcurrencyLimiter;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
-import io.github.resilience4j.bulkhead.internal.SemaphoreBulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
-import io.github.resilience4j.decorators.Decorators;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableEmitter;
-import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import static io.github.devlibx.easy.resilience.exception.ExceptionUtil.unwrapResilience4jException;
 import static io.github.devlibx.easy.resilience.exception.ExceptionUtil.unwrapResilience4jExecutionException;
 
+@Slf4j
 public class ResilienceProcessor implements IResilienceProcessor {
-    @Getter
-    private CircuitBreaker circuitBreaker;
-    private ThreadPoolBulkhead threadPoolBulkhead;
-    private ScheduledExecutorService scheduler;
-    private ScheduledExecutorService retryScheduler;
-    private TimeLimiter timeLimiter;
-    private SemaphoreBulkhead semaphoreBulkhead;
-    private ResilienceCallConfig config;
-    private Retry retry;
+    private final ScheduledExecutorService scheduler = ResilienceSchedulers.scheduler();
+
+    // Everything built from the config - replaced as a whole by update(), a call uses the state it started with
+    private volatile State state;
 
     @Override
     public void initialized(ResilienceCallConfig config) {
-        this.config = config;
+        state = build(config, null);
+    }
+
+    @Override
+    public synchronized boolean update(ResilienceCallConfig config) {
+        State current = state;
+        State updated = build(config, current);
+        state = updated;
+
+        // Calls running on a replaced thread pool are not dropped - pool is closed once they are done
+        if (current != null && current.threadPoolBulkhead != null && current.threadPoolBulkhead != updated.threadPoolBulkhead) {
+            closeLater(current.threadPoolBulkhead, current.config);
+        }
+        return true;
+    }
+
+    /**
+     * Build state for this config - circuit breaker, bulkhead and limiter of previous state are kept (or resized)
+     * where the config allows it, so their in-flight calls and counters are not lost
+     */
+    private State build(ResilienceCallConfig config, State previous) {
+
+        // Adaptive concurrency limit - bulkhead is sized for the max limit, limiter decides how much of it is used
+        int maxConcurrency = config.getMaxConcurrency() > 0 ? Math.max(config.getMaxConcurrency(), config.getConcurrency()) : config.getConcurrency();
+        AdaptiveConcurrencyLimiter concurrencyLimiter;
+        if (previous != null && sameConcurrencyLimit(previous.config, config)) {
+            concurrencyLimiter = previous.concurrencyLimiter;
+        } else {
+            concurrencyLimiter = AdaptiveConcurrencyLimiter.create(config.getLimitAlgorithm(), config.getConcurrency(), config.getMinConcurrency(), maxConcurrency, config.getTimeout());
+        }
+        int concurrency = concurrencyLimiter != null ? maxConcurrency : config.getConcurrency();
+
+        // Queue time of the bulkhead and CoDel load shedding - kept across updates, so recent queue times are not lost
+        ControlledDelay controlledDelay;
+        if (previous != null) {
+            controlledDelay = previous.controlledDelay;
+            controlledDelay.configure(config.getQueueDelayTargetMs(), config.getQueueDelayIntervalMs());
+        } else {
+            controlledDelay = new ControlledDelay(config.getQueueDelayTargetMs(), config.getQueueDelayIntervalMs());
+        }
 
         // Setup a circuit breaker with default settings
-        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
-                .enableAutomaticTransitionFromOpenToHalfOpen()
-                .waitDurationInOpenState(Duration.ofMillis(config.getWaitDurationInOpenState() <= 0 ? 10000 : config.getWaitDurationInOpenState()))
-                .ignoreException(throwable -> {
-                    if (throwable instanceof IgnorableException) {
-                        IgnorableException ie = (IgnorableException) throwable;
-                        return ie.canIgnoreException();
-                    }
-                    return false;
-                })
-                .build();
-        circuitBreaker = CircuitBreaker.of(config.getId(), circuitBreakerConfig);
+        CircuitBreaker circuitBreaker;
+        if (previous != null && previous.config.getWaitDurationInOpenState() == config.getWaitDurationInOpenState()) {
+            circuitBreaker = previous.circuitBreaker;
+        } else {
+            CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                    .enableAutomaticTransitionFromOpenToHalfOpen()
+                    .waitDurationInOpenState(Duration.ofMillis(config.getWaitDurationInOpenState() <= 0 ? 10000 : config.getWaitDurationInOpenState()))
+                    .ignoreException(throwable -> {
+                        if (throwable instanceof IgnorableException) {
+                            IgnorableException ie = (IgnorableException) throwable;
+                            return ie.canIgnoreException();
+                        }
+                        return false;
+                    })
+                    .build();
+            circuitBreaker = CircuitBreaker.of(config.getId(), circuitBreakerConfig);
+        }
 
         // Create bulk head
-        if (config.isUseSemaphore()) {
-            BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
-                    .maxConcurrentCalls(config.getConcurrency() + config.getQueueSize())
-                    .build();
-            semaphoreBulkhead = new SemaphoreBulkhead(config.getId(), bulkheadConfig);
+        PriorityBulkhead priorityBulkhead = null;
+        ThreadPoolBulkhead threadPoolBulkhead = null;
+        TimeLimiter timeLimiter = null;
+        RetryPolicy retryPolicy = null;
+        if (config.isUseSemaphore() || config.isNonBlocking()) {
+
+            // Calls over "concurrency" wait in the queue of the bulkhead (in priority order) - not run as extra calls
+            int maxQueueTimeMs = config.getMaxQueueTimeMs() > 0 ? config.getMaxQueueTimeMs() : config.getTimeout();
+            if (previous != null && previous.priorityBulkhead != null) {
+                priorityBulkhead = previous.priorityBulkhead;
+                priorityBulkhead.resize(concurrency, config.getQueueSize(), maxQueueTimeMs);
+            } else {
+                priorityBulkhead = new PriorityBulkhead(config.getId(), concurrency, config.getQueueSize(), maxQueueTimeMs, controlledDelay);
+            }
         } else {
 
-            // Create thread bulk head
-            ThreadPoolBulkheadConfig threadPoolBulkheadConfig = ThreadPoolBulkheadConfig.custom()
-                    .coreThreadPoolSize(config.getConcurrency())
-                    .maxThreadPoolSize(config.getConcurrency())
-                    .queueCapacity(config.getQueueSize())
-                    .build();
-            threadPoolBulkhead = ThreadPoolBulkhead.of(config.getId(), threadPoolBulkheadConfig);
+            // Create thread bulk head - thread pool can't be resized, so a new one is created if size is changed
+            if (previous != null && previous.threadPoolBulkhead != null
+                    && previous.threadPoolBulkhead.getBulkheadConfig().getMaxThreadPoolSize() == concurrency
+                    && previous.threadPoolBulkhead.getBulkheadConfig().getQueueCapacity() == config.getQueueSize()) {
+                threadPoolBulkhead = previous.threadPoolBulkhead;
+            } else {
+                ThreadPoolBulkheadConfig threadPoolBulkheadConfig = ThreadPoolBulkheadConfig.custom()
+                        .coreThreadPoolSize(concurrency)
+                        .maxThreadPoolSize(concurrency)
+                        .queueCapacity(config.getQueueSize())
+                        .build();
+
+                // Same bulkhead as resilience4j's FixedThreadPoolBulkhead, but calls are admitted by permits - see
+                // FixedThreadPoolBulkheadExt
+                threadPoolBulkhead = new FixedThreadPoolBulkheadExt(config.getId(), threadPoolBulkheadConfig);
+            }
 
-            // A scheduler and time limiter to handle timeouts
-            scheduler = Executors.newScheduledThreadPool(config.getConcurrency());
+            // Time limiter to handle timeouts - timeouts of all apis run on a shared scheduler
             timeLimiter = TimeLimiter.of(Duration.ofMillis(config.getTimeout()));
+        }
 
+        // Build retry - backoff, retry budget and retryable exceptions are decided by the retry policy (used by the
+        // thread pool and the non-blocking path)
+        if (config.getRetryCount() > 0) {
+            if (config.getRetryWaitDurationMs() <= 0) {
+                config.setRetryWaitDurationMs(100);
+            }
+            retryPolicy = new RetryPolicy(config);
+        }
 
-            // Build retry
-            if (config.getRetryCount() > 0) {
-                if (config.getRetryWaitDurationMs() <= 0) {
-                    config.setRetryWaitDurationMs(100);
-                }
-                if (config.getRetryRequestThreadPoolCount() <= 0) {
-                    config.setRetryRequestThreadPoolCount(3);
+        // In-flight count belongs to the thread pool - kept as long as the thread pool is kept
+        Pipeline pipeline = null;
+        if (threadPoolBulkhead != null) {
+            AtomicInteger inFlight = previous != null && previous.threadPoolBulkhead == threadPoolBulkhead ? previous.pipeline.inFlight : new AtomicInteger();
+            pipeline = new Pipeline(threadPoolBulkhead, timeLimiter, scheduler, circuitBreaker, retryPolicy, controlledDelay, concurrencyLimiter, inFlight);
+        }
+        return new State(config, circuitBreaker, threadPoolBulkhead, timeLimiter, priorityBulkhead, retryPolicy, concurrencyLimiter, controlledDelay, pipeline);
+    }
+
+    private static boolean sameConcurrencyLimit(ResilienceCallConfig a, ResilienceCallConfig b) {
+        return Objects.equals(a.getLimitAlgorithm(), b.getLimitAlgorithm())
+                && a.getConcurrency() == b.getConcurrency()
+                && a.getMinConcurrency() == b.getMinConcurrency()
+                && a.getMaxConcurrency() == b.getMaxConcurrency()
+                && a.getTimeout() == b.getTimeout();
+    }
+
+    // Close thread pool after all calls which may still run on it have timed out (including retries)
+    private void closeLater(ThreadPoolBulkhead threadPoolBulkhead, ResilienceCallConfig config) {
+        long delayMs = (long) config.getTimeout() * (config.getRetryCount() + 1) + (long) config.getRetryWaitDurationMs() * config.getRetryCount() + 1000;
+        scheduler.schedule(() -> CompletableFuture.runAsync(() -> {
+            try {
+                threadPoolBulkhead.close();
+            } catch (Exception e) {
+                log.error("failed to close replaced thread pool bulkhead: id={}, error={}", config.getId(), e.getMessage());
+            }
+        }), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void warmUp() {
+        State s = state;
+
+        // Submitting no-op tasks makes the bulkhead start all its core threads
+        if (s.threadPoolBulkhead != null) {
+            for (int i = 0; i < s.config.getConcurrency(); i++) {
+                try {
+                    s.threadPoolBulkhead.submit(() -> {
+                    });
+                } catch (Exception e) {
+                    break;
                 }
-                RetryConfig retryConfig = RetryConfig.custom()
-                        .maxAttempts(config.getRetryCount())
-                        .waitDuration(Duration.ofMillis(config.getRetryWaitDurationMs()))
-                        .build();
-                retryScheduler = Executors.newScheduledThreadPool(config.getRetryRequestThreadPoolCount());
-                retry = Retry.of(config.getId(), retryConfig);
             }
         }
     }
 
     @Override
     public <T> T execute(String id, Callable<T> callable, Class<T> cls) throws ResilienceException {
+        State s = state;
+        if (s.concurrencyLimiter == null) {
+            return internalExecute(s, callable);
+        }
+        if (!s.concurrencyLimiter.tryAcquire()) {
+            throw limitReachedException(s);
+        }
+        long start = System.nanoTime();
         try {
-            CompletableFuture<T> future;
-            if (retry != null) {
-                future = Decorators
-                        .ofCallable(callable)
-                        .withThreadPoolBulkhead(threadPoolBulkhead)
-                        .withTimeLimiter(timeLimiter, scheduler)
-                        .withCircuitBreaker(circuitBreaker)
-                        .withRetry(retry, retryScheduler)
-                        .get()
-                        .toCompletableFuture();
-            } else {
-                future = Decorators
-                        .ofCallable(callable)
-                        .withThreadPoolBulkhead(threadPoolBulkhead)
-                        .withTimeLimiter(timeLimiter, scheduler)
-                        .withCircuitBreaker(circuitBreaker)
-                        .get()
-                        .toCompletableFuture();
+            T result = internalExecute(s, callable);
+            release(s, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            release(s, start, e);
+            throw e;
+        }
+    }
+
+    // Thread pool mode gives RTT of every attempt to the adaptive limiter (see Pipeline), so the permit is only given
+    // back here. Otherwise RTT is the time of the whole call.
+    private static void release(State s, long start, Throwable throwable) {
+        if (s.pipeline != null) {
+            s.concurrencyLimiter.onIgnore();
+        } else {
+            s.concurrencyLimiter.onComplete(start, throwable);
+        }
+    }
+
+    private <T> T internalExecute(State s, Callable<T> callable) throws ResilienceException {
+
+        // Semaphore mode - run on the caller thread
+        if (s.pipeline == null) {
+            try {
+                return executeInline(s, Priority.NORMAL, callable);
+            } catch (ResilienceException e) {
+                throw e;
+            } catch (CallNotPermittedException e) {
+                throw new CircuitOpenException(e.getMessage(), e);
+            } catch (Exception e) {
+                throw new UnknownException(e.getMessage(), e);
             }
-            return future.get();
+        }
+
+        QueueFullException rejected = s.pipeline.shed();
+        if (rejected != null) {
+            throw rejected;
+        }
+        try {
+            return s.pipeline.execute(callable).toCompletableFuture().get();
         } catch (ExecutionException e) {
             throw unwrapResilience4jExecutionException(e);
         } catch (Exception e) {
@@ -127,6 +259,28 @@ public class ResilienceProcessor implements IResilienceProcessor {
         }
     }
 
+    /**
+     * Run a call on the caller thread with a bulkhead permit and circuit breaker - no thread hand-off and no future.
+     * There is no time limiter here, the call must have its own timeout (e.g. socket timeout of the http client).
+     */
+    private static <T> T executeInline(State s, Priority priority, Callable<T> callable) throws Exception {
+        s.priorityBulkhead.acquirePermission(priority);
+        try {
+            s.circuitBreaker.acquirePermission();
+            long start = System.nanoTime();
+            try {
+                T result = callable.call();
+                s.circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Exception e) {
+                s.circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            }
+        } finally {
+            s.priorityBulkhead.releasePermission();
+        }
+    }
+
     @Override
     public <T> Observable<T> executeObservable(String id, Callable<T> callable, Class<T> cls) {
         return Observable.create(observableEmitter -> {
@@ -146,42 +300,119 @@ public class ResilienceProcessor implements IResilienceProcessor {
 
     @Override
     public <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls) {
+        return executeObservable(id, observable, cls, 0);
+    }
+
+    @Override
+    public <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls, long timeoutMs) {
+        return executeObservable(id, observable, cls, timeoutMs, Priority.NORMAL);
+    }
+
+    @Override
+    public <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls, long timeoutMs, Priority priority) {
+        State s = state;
+        ResilienceCallConfig config = s.config;
+
+        // Timeout of this call can only shrink the configured timeout (e.g. to the deadline of the caller)
+        long timeout = timeoutMs > 0 && timeoutMs < config.getTimeout() ? timeoutMs : config.getTimeout();
+
+        // Non-blocking mode - all resilience features are Rx operators, subscriber thread is never blocked
+        if (config.isNonBlocking()) {
+            return ObservableResilienceDecorator.decorate(observable, s.circuitBreaker, s.priorityBulkhead, s.concurrencyLimiter, s.retryPolicy, config, timeout, priority);
+        }
+
         return Observable.create(observableEmitter -> {
 
+            // Over the adaptive limit - reject right away instead of waiting in the bulkhead
+            if (s.concurrencyLimiter != null && !s.concurrencyLimiter.tryAcquire()) {
+                observableEmitter.onError(limitReachedException(s));
+                return;
+            }
+            BiConsumer<T, Throwable> whenComplete = whenComplete(observableEmitter, s, System.nanoTime());
+
             if (config.isUseSemaphore()) {
+
+                // Wait (by priority) for a bulkhead permit and run on this thread, permit is given back before the
+                // result is emitted
+                T result = null;
+                Throwable error = null;
                 try {
-                    T result = Decorators.ofSupplier(observable::blockingFirst)
-                            .withCircuitBreaker(circuitBreaker)
-                            .withBulkhead(semaphoreBulkhead)
-                            .decorate()
-                            .get();
-                    whenComplete(observableEmitter).accept(result, null);
+                    result = executeInline(s, priority, observable::blockingFirst);
                 } catch (Exception e) {
-                    whenComplete(observableEmitter).accept(null, e);
+                    error = e;
                 }
+                whenComplete.accept(result, error);
             } else {
-                if (retry != null) {
-                    Decorators.ofSupplier(observable::blockingFirst)
-                            .withCircuitBreaker(circuitBreaker)
-                            .withThreadPoolBulkhead(threadPoolBulkhead)
-                            .withTimeLimiter(timeLimiter, scheduler)
-                            .withRetry(retry, retryScheduler)
-                            .decorate()
-                            .get()
-                            .whenCompleteAsync(whenComplete(observableEmitter));
+                QueueFullException rejected = s.pipeline.shed();
+                if (rejected != null) {
+                    whenComplete.accept(null, rejected);
                 } else {
-                    Decorators.ofSupplier(observable::blockingFirst)
-                            .withCircuitBreaker(circuitBreaker)
-                            .withThreadPoolBulkhead(threadPoolBulkhead)
-                            .withTimeLimiter(timeLimiter, scheduler)
-                            .decorate()
-                            .get()
-                            .whenCompleteAsync(whenComplete(observableEmitter));
+
+                    // Same pipeline as execute() - a time limiter is only built for a call whose deadline is shorter
+                    // than the configured timeout
+                    TimeLimiter timeLimiter = timeout < config.getTimeout() ? TimeLimiter.of(Duration.ofMillis(timeout)) : s.timeLimiter;
+                    s.pipeline.execute(observable::blockingFirst, timeLimiter).whenCompleteAsync(whenComplete);
                 }
             }
         });
     }
 
+    @Override
+    public ResilienceCallConfig getConfig() {
+        return state.config;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return state.circuitBreaker;
+    }
+
+    public ThreadPoolBulkhead getThreadPoolBulkhead() {
+        return state.threadPoolBulkhead;
+    }
+
+    public PriorityBulkhead getPriorityBulkhead() {
+        return state.priorityBulkhead;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return state.retryPolicy;
+    }
+
+    /**
+     * @return no of calls running on the thread pool bulkhead now (0 in semaphore and non-blocking mode)
+     */
+    public int getThreadPoolInFlight() {
+        Pipeline pipeline = state.pipeline;
+        return pipeline != null ? pipeline.inFlight.get() : 0;
+    }
+
+    public ControlledDelay getControlledDelay() {
+        return state.controlledDelay;
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return state.concurrencyLimiter;
+    }
+
+    // Gives back the adaptive limit permit (once) before the result is emitted
+    private static <T> BiConsumer<T, Throwable> whenComplete(ObservableEmitter<T> observableEmitter, State s, long start) {
+        BiConsumer<T, Throwable> whenComplete = whenComplete(observableEmitter);
+        if (s.concurrencyLimiter == null) {
+            return whenComplete;
+        }
+        AtomicBoolean released = new AtomicBoolean(false);
+        return (t, throwable) -> {
+            if (released.compareAndSet(false, true)) {
+                release(s, start, throwable);
+            }
+            whenComplete.accept(t, throwable);
+        };
+    }
+
+    private static OverflowException limitReachedException(State s) {
+        return new OverflowException("concurrency limit reached: id=" + s.config.getId() + " limit=" + s.concurrencyLimiter.getLimit(), null);
+    }
+
     private static <T> BiConsumer<T, Throwable> whenComplete(ObservableEmitter<T> observableEmitter) {
         return (t, throwable) -> {
             if (throwable instanceof CompletionException) {
@@ -196,4 +427,110 @@ public class ResilienceProcessor implements IResilienceProcessor {
             }
         };
     }
-}
\ No newline at end of file
+
+    private static class State {
+        private final ResilienceCallConfig config;
+        private final CircuitBreaker circuitBreaker;
+        private final ThreadPoolBulkhead threadPoolBulkhead;
+        private final TimeLimiter timeLimiter;
+        private final PriorityBulkhead priorityBulkhead;
+        private final RetryPolicy retryPolicy;
+        private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private final ControlledDelay controlledDelay;
+        private final Pipeline pipeline;
+
+        private State(ResilienceCallConfig config, CircuitBreaker circuitBreaker, ThreadPoolBulkhead threadPoolBulkhead, TimeLimiter timeLimiter,
+                      PriorityBulkhead priorityBulkhead, RetryPolicy retryPolicy, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                      ControlledDelay controlledDelay, Pipeline pipeline) {
+            this.config = config;
+            this.circuitBreaker = circuitBreaker;
+            this.threadPoolBulkhead = threadPoolBulkhead;
+            this.timeLimiter = timeLimiter;
+            this.priorityBulkhead = priorityBulkhead;
+            this.retryPolicy = retryPolicy;
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.controlledDelay = controlledDelay;
+            this.pipeline = pipeline;
+        }
+    }
+
+    /**
+     * Thread pool bulkhead, time limiter, circuit breaker and retry of execute() and executeObservable() - composed
+     * once per config, a call only wraps its own callable (no decorator builder per call)
+     */
+    private static class Pipeline {
+        private final ThreadPoolBulkhead threadPoolBulkhead;
+        private final TimeLimiter timeLimiter;
+        private final ScheduledExecutorService scheduler;
+        private final CircuitBreaker circuitBreaker;
+        private final RetryPolicy retryPolicy;
+        private final ControlledDelay controlledDelay;
+        private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+        // Calls running on the thread pool - idle threads of the pool are not counted
+        private final AtomicInteger inFlight;
+
+        private Pipeline(ThreadPoolBulkhead threadPoolBulkhead, TimeLimiter timeLimiter, ScheduledExecutorService scheduler, CircuitBreaker circuitBreaker,
+                         RetryPolicy retryPolicy, ControlledDelay controlledDelay, AdaptiveConcurrencyLimiter concurrencyLimiter, AtomicInteger inFlight) {
+            this.threadPoolBulkhead = threadPoolBulkhead;
+            this.timeLimiter = timeLimiter;
+            this.scheduler = scheduler;
+            this.circuitBreaker = circuitBreaker;
+            this.retryPolicy = retryPolicy;
+            this.controlledDelay = controlledDelay;
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.inFlight = inFlight;
+        }
+
+        // CoDel - calls have waited too long in the queue of the thread pool, so a call which would wait as well is
+        // rejected now (queue depth is only read when the queue is overloaded)
+        private QueueFullException shed() {
+            if (!controlledDelay.isOverloaded() || threadPoolBulkhead.getMetrics().getQueueDepth() == 0) {
+                return null;
+            }
+            return controlledDelay.reject(threadPoolBulkhead.getName());
+        }
+
+        private <T> CompletionStage<T> execute(Callable<T> callable) {
+            return execute(callable, timeLimiter);
+        }
+
+        // Every attempt (a retry as well) is submitted to the thread pool again, so queue time is measured per attempt
+        private <T> CompletionStage<T> execute(Callable<T> callable, TimeLimiter timeLimiter) {
+            Supplier<CompletionStage<T>> call = () -> attempt(callable, timeLimiter);
+            if (retryPolicy == null) {
+                return circuitBreaker.executeCompletionStage(call);
+            }
+            return retryPolicy.getRetry()
+                    .executeCompletionStage(ResilienceSchedulers.scheduler(), () -> circuitBreaker.executeCompletionStage(call))
+                    .whenComplete(retryPolicy::record);
+        }
+
+        private <T> CompletionStage<T> attempt(Callable<T> callable, TimeLimiter timeLimiter) {
+            if (concurrencyLimiter == null) {
+                return timeLimiter.executeCompletionStage(scheduler, () -> threadPoolBulkhead.executeCallable(controlledDelay.measure(count(callable, null))));
+            }
+
+            // RTT of the adaptive limiter is taken from the start of this attempt on a pool thread, so queue time and
+            // backoff before a retry are not counted. An attempt which timed out in the queue is sampled from submit.
+            AtomicLong startedAt = new AtomicLong(System.nanoTime());
+            return timeLimiter.executeCompletionStage(scheduler, () -> threadPoolBulkhead.executeCallable(controlledDelay.measure(count(callable, startedAt))))
+                    .whenComplete((t, throwable) -> concurrencyLimiter.onSample(startedAt.get(), throwable));
+        }
+
+        // Count a call while it runs on the thread pool (queue time is not included)
+        private <T> Callable<T> count(Callable<T> callable, AtomicLong startedAt) {
+            return () -> {
+                if (startedAt != null) {
+                    startedAt.set(System.nanoTime());
+                }
+                inFlight.incrementAndGet();
+                try {
+                    return callable.call();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            };
+        }
+    }
+}
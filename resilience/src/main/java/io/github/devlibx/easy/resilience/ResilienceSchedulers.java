@@ -0,0 +1,52 @@
+package io.github.devlibx.easy.resilience;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler shared by all resilience processors - for timeouts (time limiter) and delay between retries.
+ * <p>
+ * Tasks on this scheduler only complete a future on timeout or submit the next attempt to the bulkhead of the api,
+ * they never block. So a thread per core serves any no of apis, and isolation of apis is only at the bulkhead.
+ */
+public final class ResilienceSchedulers {
+    private static final int THREAD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private ResilienceSchedulers() {
+    }
+
+    /**
+     * @return shared scheduler (it can't be shutdown)
+     */
+    public static ScheduledExecutorService scheduler() {
+        return Holder.SCHEDULER;
+    }
+
+    /**
+     * @return no of threads of the shared scheduler
+     */
+    public static int threadCount() {
+        return THREAD_COUNT;
+    }
+
+    private static class Holder {
+        private static final ScheduledExecutorService SCHEDULER = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(THREAD_COUNT, runnable -> {
+                Thread thread = new Thread(runnable, "easy-resilience-scheduler-" + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            // Most calls finish before their timeout - cancelled timeout task is removed right away, instead of
+            // staying in the queue till its time
+            executor.setRemoveOnCancelPolicy(true);
+            executor.prestartAllCoreThreads();
+            return Executors.unconfigurableScheduledExecutorService(executor);
+        }
+    }
+}
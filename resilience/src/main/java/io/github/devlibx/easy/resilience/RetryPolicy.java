@@ -0,0 +1,173 @@
+package io.github.devlibx.easy.resilience;
+
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.exception.CircuitOpenException;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides if and when a failed call of a processor is retried:
+ * <pre>
+ * backoff        - fixed: wait "retryWaitDurationMs" before every retry
+ *                  exponential: wait a random time between 0 and retryWaitDurationMs * 2^(retry - 1), capped at
+ *                  "retryMaxWaitDurationMs" (full jitter - retries of many clients do not hit the server in step)
+ * budget         - if "retryBudgetPercent" > 0 then retries are limited to this percentage of successful calls
+ *                  ({@link RequestBudget}), so retries stop when most calls fail
+ * classification - circuit open, rejected calls (bulkhead/queue full, queue timeout, concurrency limit) and
+ *                  ignorable errors (e.g. 4xx) are never retried. If "retryExceptions" is set then only these
+ *                  exceptions (or sub-classes) are retried, exceptions in "ignoreRetryExceptions" are not retried
+ * </pre>
+ * A retry takes a token from the budget. A call which has used all its attempts does not take a token.
+ */
+public class RetryPolicy {
+    public static final String FIXED = "fixed";
+    public static final String EXPONENTIAL = "exponential";
+
+    // Max tokens of retry budget - a burst of retries which is allowed after a quiet period
+    private static final int BUDGET_MIN_TOKENS = 10;
+    private static final int BUDGET_MAX_TOKENS = 100;
+
+    @Getter
+    private final Retry retry;
+    private final RequestBudget budget;
+    private final IntervalFunction intervalFunction;
+    private final Set<String> retryExceptions;
+    private final Set<String> ignoreRetryExceptions;
+    private final LongAdder budgetExhaustedCount = new LongAdder();
+
+    public RetryPolicy(ResilienceCallConfig config) {
+        this.budget = config.getRetryBudgetPercent() > 0 ? new RequestBudget(config.getRetryBudgetPercent(), BUDGET_MIN_TOKENS, BUDGET_MAX_TOKENS) : null;
+        this.retryExceptions = toSet(config.getRetryExceptions());
+        this.ignoreRetryExceptions = toSet(config.getIgnoreRetryExceptions());
+
+        this.intervalFunction = intervalFunction(config);
+
+        RetryConfig retryConfig = RetryConfig.custom()
+                .maxAttempts(config.getRetryCount())
+                .intervalFunction(intervalFunction)
+                .retryOnException(this::shouldRetry)
+                .build();
+        this.retry = Retry.of(config.getId(), retryConfig);
+
+        // Retry tests the exception before it checks the no of attempts - the last attempt took a token but is not
+        // retried, so the token is given back
+        if (budget != null) {
+            this.retry.getEventPublisher().onError(event -> budget.refund());
+        }
+    }
+
+    /**
+     * @return wait before a retry (attempt = 1 for first retry)
+     */
+    static IntervalFunction intervalFunction(ResilienceCallConfig config) {
+        long base = Math.max(1, config.getRetryWaitDurationMs());
+        if (!EXPONENTIAL.equalsIgnoreCase(config.getRetryBackoff())) {
+            return attempt -> base;
+        }
+        long cap = config.getRetryMaxWaitDurationMs() > 0 ? Math.max(base, config.getRetryMaxWaitDurationMs()) : Long.MAX_VALUE;
+        return attempt -> {
+            int shift = Math.min(Math.max(0, attempt - 1), 30);
+            long max = Math.min(cap, base << shift);
+            return 1 + ThreadLocalRandom.current().nextLong(max);
+        };
+    }
+
+    /**
+     * @return wait before a retry (retry = 1 for first retry)
+     */
+    public long waitDurationMs(int retry) {
+        return intervalFunction.apply(retry);
+    }
+
+    /**
+     * Record result of a call - successful calls add to the retry budget
+     */
+    public void record(Object result, Throwable error) {
+        if (budget != null && error == null) {
+            budget.deposit();
+        }
+    }
+
+    /**
+     * @return true if this error can be retried (takes a token from the retry budget)
+     */
+    public boolean shouldRetry(Throwable error) {
+        if (!isRetryable(unwrap(error))) {
+            return false;
+        }
+        if (budget != null && !budget.tryWithdraw()) {
+            budgetExhaustedCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return no of retries which were not made because retry budget was exhausted
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.sum();
+    }
+
+    /**
+     * @return no of retries which can be made now (-1 if there is no retry budget)
+     */
+    public long getAvailableRetries() {
+        return budget != null ? budget.available() : -1;
+    }
+
+    private boolean isRetryable(Throwable error) {
+
+        // Retry does not help (circuit open, call rejected) or will fail the same way (e.g. 4xx). A retry of a rejected
+        // call only adds load to an api which is already over its limit
+        if (error instanceof CallNotPermittedException || error instanceof CircuitOpenException) {
+            return false;
+        } else if (error instanceof BulkheadFullException || error instanceof OverflowException) {
+            return false;
+        } else if (error instanceof IgnorableException && ((IgnorableException) error).canIgnoreException()) {
+            return false;
+        }
+        if (matches(error, ignoreRetryExceptions)) {
+            return false;
+        }
+        return retryExceptions.isEmpty() || matches(error, retryExceptions);
+    }
+
+    // Match exception class or any of its super classes by name - so classes need not be loaded from config
+    private static boolean matches(Throwable error, Set<String> classNames) {
+        if (classNames.isEmpty() || error == null) {
+            return false;
+        }
+        for (Class<?> cls = error.getClass(); cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            if (classNames.contains(cls.getName()) || classNames.contains(cls.getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static Set<String> toSet(Collection<String> values) {
+        return values == null || values.isEmpty() ? Collections.emptySet() : new HashSet<>(values);
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.devlibx.easy.resilience.bulkhead;
+
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Controlled delay (CoDel) of a bulkhead queue - records how long calls wait in the queue before they start, and
+ * tells the bulkhead to reject new calls which would have to wait when the queue has a standing delay.
+ * <p>
+ * Queue is "overloaded" when the lowest queue time of the last "intervalMs" is above "targetMs" - i.e. even the
+ * luckiest call waited too long, so the queue is not draining. A short burst which fills the queue for a moment is
+ * not rejected. Under overload a call fails right away instead of waiting for most of its timeout and then failing.
+ * <p>
+ * State is checked when calls are recorded or admitted, there is no timer. Calls which get a permit right away are
+ * recorded with 0 queue time, so the queue is not overloaded any more once there are free permits.
+ */
+public class ControlledDelay {
+    public static final long DEFAULT_INTERVAL_MS = 100;
+
+    private volatile long targetNanos;
+    private volatile long intervalNanos;
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong minQueueTime = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean overloaded;
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile LongConsumer observer;
+
+    /**
+     * @param targetMs   max acceptable queue time (<= 0 means calls are never rejected, queue time is only recorded)
+     * @param intervalMs queue time must stay above target for this long before calls are rejected
+     */
+    public ControlledDelay(long targetMs, long intervalMs) {
+        configure(targetMs, intervalMs);
+    }
+
+    /**
+     * Change target and interval (e.g. config is updated) - queue times recorded till now are kept
+     */
+    public void configure(long targetMs, long intervalMs) {
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs > 0 ? intervalMs : DEFAULT_INTERVAL_MS);
+        if (targetMs <= 0) {
+            overloaded = false;
+        }
+    }
+
+    /**
+     * Receives queue time (in nanos) of every call e.g. to export a histogram. It is called on the thread which
+     * starts the call, so it must not block.
+     */
+    public void setObserver(LongConsumer observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Record queue time of a call which has started (or timed out in the queue)
+     */
+    public void record(long queueTimeNanos) {
+        rollOver(System.nanoTime());
+        long current;
+        while (queueTimeNanos < (current = minQueueTime.get()) && !minQueueTime.compareAndSet(current, queueTimeNanos)) {
+        }
+        LongConsumer o = observer;
+        if (o != null) {
+            o.accept(queueTimeNanos);
+        }
+    }
+
+    /**
+     * @return true if a call which has to wait in the queue should be rejected now
+     */
+    public boolean isOverloaded() {
+        if (targetNanos <= 0) {
+            return false;
+        }
+        rollOver(System.nanoTime());
+        return overloaded;
+    }
+
+    /**
+     * Count a call which is rejected because queue is overloaded
+     *
+     * @return exception to fail the call with
+     */
+    public QueueFullException reject(String name) {
+        rejectedCount.increment();
+        return new QueueFullException("name=" + name + " queue time over target for " + TimeUnit.NANOSECONDS.toMillis(intervalNanos)
+                + "ms - targetMs=" + TimeUnit.NANOSECONDS.toMillis(targetNanos));
+    }
+
+    /**
+     * @return no of calls rejected because queue was overloaded
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Wrap a call which is put in a queue now - its queue time is recorded when it starts. A wrapped call records only
+     * once, so every attempt which is queued again (e.g. a retry) must be wrapped again to record its own wait.
+     */
+    public <T> Callable<T> measure(Callable<T> callable) {
+        Measured<T> measured = new Measured<>(null, callable);
+        return measured::call;
+    }
+
+    /**
+     * Same as {@link #measure(Callable)} for a supplier
+     */
+    public <T> Supplier<T> measureSupplier(Supplier<T> supplier) {
+        Measured<T> measured = new Measured<>(supplier, null);
+        return measured::get;
+    }
+
+    // Interval is closed by the first call after it ends - its lowest queue time decides the state of next interval.
+    // An interval without any recorded call keeps the state.
+    private void rollOver(long now) {
+        long start = intervalStart.get();
+        if (now - start < intervalNanos || !intervalStart.compareAndSet(start, now)) {
+            return;
+        }
+        long min = minQueueTime.getAndSet(Long.MAX_VALUE);
+        if (min != Long.MAX_VALUE) {
+            overloaded = targetNanos > 0 && min > targetNanos;
+        }
+    }
+
+    private class Measured<T> {
+        private final long queuedAt = System.nanoTime();
+        private final Supplier<T> supplier;
+        private final Callable<T> callable;
+        private volatile boolean started;
+
+        private Measured(Supplier<T> supplier, Callable<T> callable) {
+            this.supplier = supplier;
+            this.callable = callable;
+        }
+
+        private T call() throws Exception {
+            started();
+            return callable.call();
+        }
+
+        private T get() {
+            started();
+            return supplier.get();
+        }
+
+        private void started() {
+            if (!started) {
+                started = true;
+                record(System.nanoTime() - queuedAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.devlibx.easy.resilience.bulkhead;
+
+/**
+ * Priority of a call waiting for a bulkhead permit - a free permit goes to the oldest waiting call of the highest
+ * priority. e.g. user facing calls can use HIGH and batch jobs LOW on the same api.
+ */
+public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+}
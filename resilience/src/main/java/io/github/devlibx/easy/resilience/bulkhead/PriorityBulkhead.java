@@ -0,0 +1,318 @@
+package io.github.devlibx.easy.resilience.bulkhead;
+
+import io.github.devlibx.easy.resilience.ResilienceSchedulers;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+import io.github.devlibx.easy.resilience.exception.QueueTimeoutException;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bulkhead with "maxConcurrentCalls" permits and a bounded wait queue. A call which does not get a permit waits in
+ * the queue (at most "maxQueueTimeMs") instead of running as extra concurrency.
+ * <p>
+ * Permit count and wait queues are lock-free. Each {@link Priority} has its own lane - a released permit is given
+ * directly to the oldest waiting call of the highest priority lane. A new call never takes a permit ahead of a
+ * waiting call.
+ * <p>
+ * Calls rejected because the queue is full ({@link QueueFullException}) and calls which timed out in the queue
+ * ({@link QueueTimeoutException}) are counted separately. Both are {@link OverflowException}.
+ * <p>
+ * With a {@link ControlledDelay} the queue time of every call is recorded, and a call which would have to wait is
+ * rejected right away ({@link QueueFullException}) while the queue is overloaded.
+ * <p>
+ * Every permit which is given must be returned with {@link #releasePermission()}.
+ */
+public class PriorityBulkhead {
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Ticket NO_WAIT = () -> false;
+
+    @Getter
+    private final String name;
+    @Getter
+    private volatile int maxConcurrentCalls;
+    @Getter
+    private volatile int queueSize;
+    @Getter
+    private volatile long maxQueueTimeMs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Waiter>[] lanes;
+    private final LongAdder queueFullCount = new LongAdder();
+    private final LongAdder queueTimeoutCount = new LongAdder();
+    @Getter
+    private final ControlledDelay controlledDelay;
+
+    /**
+     * @param maxQueueTimeMs max time a call waits in queue for a permit (<= 0 means no queue)
+     */
+    public PriorityBulkhead(String name, int maxConcurrentCalls, int queueSize, long maxQueueTimeMs) {
+        this(name, maxConcurrentCalls, queueSize, maxQueueTimeMs, null);
+    }
+
+    /**
+     * @param maxQueueTimeMs  max time a call waits in queue for a permit (<= 0 means no queue)
+     * @param controlledDelay records queue time and rejects calls when queue is overloaded (null = not used)
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityBulkhead(String name, int maxConcurrentCalls, int queueSize, long maxQueueTimeMs, ControlledDelay controlledDelay) {
+        this.name = name;
+        this.controlledDelay = controlledDelay;
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.queueSize = maxQueueTimeMs > 0 ? Math.max(0, queueSize) : 0;
+        this.maxQueueTimeMs = maxQueueTimeMs;
+        this.lanes = new ConcurrentLinkedQueue[PRIORITIES.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Change size of this bulkhead. Calls holding a permit or waiting in queue are not dropped - if concurrency is
+     * reduced then no new permit is given till in-flight calls are below the new limit.
+     */
+    public void resize(int maxConcurrentCalls, int queueSize, long maxQueueTimeMs) {
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.queueSize = maxQueueTimeMs > 0 ? Math.max(0, queueSize) : 0;
+        this.maxQueueTimeMs = maxQueueTimeMs;
+
+        // More permits may be free now
+        drain();
+    }
+
+    /**
+     * Take a permit only if one is free right away (never waits)
+     *
+     * @return true if permit is given
+     */
+    public boolean tryAcquirePermission() {
+        return queued.get() == 0 && tryIncrement(inFlight, maxConcurrentCalls);
+    }
+
+    /**
+     * Take a permit without blocking. Callback is called exactly once - with null when the permit is given (it may
+     * be called right away on this thread), or with a {@link QueueFullException} / {@link QueueTimeoutException}.
+     * <p>
+     * Callback of a waiting call runs on the thread which released the permit (or on the scheduler thread on queue
+     * timeout), so it must not block.
+     *
+     * @return ticket to cancel the wait (e.g. caller is not interested in the result any more)
+     */
+    public Ticket acquirePermission(Priority priority, Consumer<RuntimeException> callback) {
+        if (tryAcquirePermission()) {
+            if (controlledDelay != null) {
+                controlledDelay.record(0);
+            }
+            callback.accept(null);
+            return NO_WAIT;
+        }
+        if (controlledDelay != null && controlledDelay.isOverloaded()) {
+            callback.accept(controlledDelay.reject(name));
+            return NO_WAIT;
+        }
+        if (!tryIncrement(queued, queueSize)) {
+            queueFullCount.increment();
+            callback.accept(new QueueFullException("name=" + name + " maxConcurrentCalls=" + maxConcurrentCalls + " queueSize=" + queueSize));
+            return NO_WAIT;
+        }
+
+        Waiter waiter = new Waiter(priority == null ? Priority.NORMAL : priority, callback);
+        waiter.timeout = ResilienceSchedulers.scheduler().schedule(waiter::expire, maxQueueTimeMs, TimeUnit.MILLISECONDS);
+        lanes[waiter.priority.ordinal()].offer(waiter);
+
+        // A permit may have been released before this waiter was in the queue
+        drain();
+        return waiter;
+    }
+
+    /**
+     * Take a permit - blocks the calling thread till a permit is given
+     *
+     * @throws QueueFullException    if queue is full
+     * @throws QueueTimeoutException if permit is not given in max queue time
+     */
+    public void acquirePermission(Priority priority) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        Ticket ticket = acquirePermission(priority, error -> {
+            if (error == null) {
+                permit.complete(null);
+            } else {
+                permit.completeExceptionally(error);
+            }
+        });
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!ticket.cancel() && !permit.isCompletedExceptionally()) {
+                releasePermission();
+            }
+            Thread.currentThread().interrupt();
+            throw new OverflowException("interrupted while waiting for permit: name=" + name, e);
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Give back a permit - it goes to a waiting call if there is one
+     */
+    public void releasePermission() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * @return no of permits in use
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return no of calls waiting for a permit
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * @return no of calls rejected because queue was full
+     */
+    public long getQueueFullCount() {
+        return queueFullCount.sum();
+    }
+
+    /**
+     * @return no of calls which timed out in queue
+     */
+    public long getQueueTimeoutCount() {
+        return queueTimeoutCount.sum();
+    }
+
+    // Hand free permits to waiting calls - called after a call is queued and after a permit is released, so a free
+    // permit and a waiting call are never left apart
+    private void drain() {
+        while (queued.get() > 0 && tryIncrement(inFlight, maxConcurrentCalls)) {
+            Waiter waiter = poll();
+            if (waiter == null) {
+
+                // Waiter is counted but not in its lane yet - it calls drain() once it is
+                inFlight.decrementAndGet();
+                return;
+            }
+            if (!waiter.grant()) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private Waiter poll() {
+        for (ConcurrentLinkedQueue<Waiter> lane : lanes) {
+            Waiter waiter = lane.poll();
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Wait of a call in the queue
+     */
+    public interface Ticket {
+
+        /**
+         * @return true if call was still waiting and is now removed from queue (callback is not called), false if
+         * permit was already given or call was rejected
+         */
+        boolean cancel();
+    }
+
+    private class Waiter implements Ticket {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Priority priority;
+        private final Consumer<RuntimeException> callback;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final long queuedAt = System.nanoTime();
+        private volatile ScheduledFuture<?> timeout;
+
+        private Waiter(Priority priority, Consumer<RuntimeException> callback) {
+            this.priority = priority;
+            this.callback = callback;
+        }
+
+        // Called with a permit taken for this waiter - false if waiter has already timed out or is cancelled
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            ScheduledFuture<?> future = timeout;
+            if (future != null) {
+                future.cancel(false);
+            }
+            recordQueueTime();
+            callback.accept(null);
+            return true;
+        }
+
+        private void expire() {
+            if (remove()) {
+                queueTimeoutCount.increment();
+                recordQueueTime();
+                callback.accept(new QueueTimeoutException("name=" + name + " maxQueueTimeMs=" + maxQueueTimeMs + " priority=" + priority));
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!remove()) {
+                return false;
+            }
+            ScheduledFuture<?> future = timeout;
+            if (future != null) {
+                future.cancel(false);
+            }
+            return true;
+        }
+
+        private void recordQueueTime() {
+            if (controlledDelay != null) {
+                controlledDelay.record(System.nanoTime() - queuedAt);
+            }
+        }
+
+        private boolean remove() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            lanes[priority.ordinal()].remove(this);
+            queued.decrementAndGet();
+            return true;
+        }
+    }
+}
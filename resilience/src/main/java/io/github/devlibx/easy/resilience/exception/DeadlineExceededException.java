@@ -0,0 +1,10 @@
+package io.github.devlibx.easy.resilience.exception;
+
+/**
+ * Request was not made because the deadline of the caller has (almost) expired
+ */
+public class DeadlineExceededException extends RequestTimeoutException {
+    public DeadlineExceededException(String message) {
+        super("deadline exceeded - " + message, null);
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.devlibx.easy.resilience.exception;
+
+/**
+ * Request was rejected because all permits of the bulkhead are in use and its wait queue is full
+ */
+public class QueueFullException extends OverflowException {
+    public QueueFullException(String message) {
+        super("queue full - " + message, null);
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.devlibx.easy.resilience.exception;
+
+/**
+ * Request waited in the queue of the bulkhead for max queue time and did not get a permit
+ */
+public class QueueTimeoutException extends OverflowException {
+    public QueueTimeoutException(String message) {
+        super("queue timeout - " + message, null);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.devlibx.easy.resilience.limit;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Base of limit algorithms - keeps the limit within min/max and notifies listeners on change
+ */
+public abstract class AbstractConcurrencyLimit implements IConcurrencyLimit {
+    protected final int minLimit;
+    protected final int maxLimit;
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+    private volatile int limit;
+
+    protected AbstractConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight, boolean didDrop) {
+        int newLimit = clamp(update(limit, rttNanos, inflight, didDrop));
+        if (newLimit != limit) {
+            limit = newLimit;
+            listeners.forEach(listener -> listener.accept(newLimit));
+        }
+    }
+
+    @Override
+    public void notifyOnChange(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return new limit (it is clamped to min/max by caller). Calls are serialized.
+     */
+    protected abstract int update(int limit, long rttNanos, int inflight, boolean didDrop);
+
+    private int clamp(int value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
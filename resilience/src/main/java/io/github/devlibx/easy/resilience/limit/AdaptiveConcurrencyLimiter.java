@@ -0,0 +1,128 @@
+package io.github.devlibx.easy.resilience.limit;
+
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits in-flight requests to the limit computed by a {@link IConcurrencyLimit}. Requests over the limit are
+ * rejected right away (not queued) - when the backend slows down the limit shrinks and load is shed early.
+ * <p>
+ * Every successful {@link #tryAcquire()} must be followed by one {@link #onComplete(long, Throwable)} or
+ * {@link #onIgnore()}. A request which is made in more than one attempt (e.g. retries) can give the RTT of every
+ * attempt with {@link #onSample(long, Throwable)} and then complete with {@link #onIgnore()}.
+ */
+public class AdaptiveConcurrencyLimiter {
+    public static final String FIXED = "fixed";
+    public static final String AIMD = "aimd";
+    public static final String VEGAS = "vegas";
+    public static final String GRADIENT2 = "gradient2";
+
+    private final IConcurrencyLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(IConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @param algorithm one of aimd, vegas, gradient2
+     * @param timeoutMs request timeout - requests slower than this are treated as dropped by aimd
+     * @return limiter for this algorithm, null if algorithm is "fixed" (or not set)
+     */
+    public static AdaptiveConcurrencyLimiter create(String algorithm, int initialLimit, int minLimit, int maxLimit, long timeoutMs) {
+        if (algorithm == null || algorithm.isEmpty() || FIXED.equalsIgnoreCase(algorithm)) {
+            return null;
+        } else if (AIMD.equalsIgnoreCase(algorithm)) {
+            return new AdaptiveConcurrencyLimiter(new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit, timeoutMs));
+        } else if (VEGAS.equalsIgnoreCase(algorithm)) {
+            return new AdaptiveConcurrencyLimiter(new VegasConcurrencyLimit(initialLimit, minLimit, maxLimit));
+        } else if (GRADIENT2.equalsIgnoreCase(algorithm)) {
+            return new AdaptiveConcurrencyLimiter(new Gradient2ConcurrencyLimit(initialLimit, minLimit, maxLimit));
+        }
+        throw new IllegalArgumentException("unknown concurrency limit algorithm: " + algorithm);
+    }
+
+    /**
+     * @return true if request can be made (caller must report completion), false if limit is reached
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit.getLimit()) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Request is done - RTT is used to update the limit. Timeouts are reported as dropped requests, other errors do
+     * not update the limit.
+     *
+     * @param startNanos System.nanoTime() when request was started
+     * @param throwable  error of request, null if request was successful
+     */
+    public void onComplete(long startNanos, Throwable throwable) {
+        sample(startNanos, inflight.getAndDecrement(), throwable);
+    }
+
+    /**
+     * One attempt of a request is done - RTT is used to update the limit same as {@link #onComplete(long, Throwable)},
+     * but the request keeps its permit
+     *
+     * @param startNanos System.nanoTime() when attempt was started
+     * @param throwable  error of attempt, null if attempt was successful
+     */
+    public void onSample(long startNanos, Throwable throwable) {
+        sample(startNanos, inflight.get(), throwable);
+    }
+
+    private void sample(long startNanos, int current, Throwable throwable) {
+        if (throwable == null) {
+            limit.onSample(System.nanoTime() - startNanos, current, false);
+        } else if (isTimeout(throwable)) {
+            limit.onSample(System.nanoTime() - startNanos, current, true);
+        }
+    }
+
+    /**
+     * Request is done (or was not made) - nothing is learned from it
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * @return current limit of in-flight requests
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * @return no of in-flight requests
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @return limit algorithm used by this limiter
+     */
+    public IConcurrencyLimit getConcurrencyLimit() {
+        return limit;
+    }
+
+    private static boolean isTimeout(Throwable throwable) {
+        Throwable t = throwable;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof TimeoutException || t instanceof RequestTimeoutException;
+    }
+}
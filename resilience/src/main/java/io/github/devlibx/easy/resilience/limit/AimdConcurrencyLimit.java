@@ -0,0 +1,31 @@
+package io.github.devlibx.easy.resilience.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Additive increase, multiplicative decrease - limit grows by 1 while requests succeed and the limit is in use, and is
+ * cut by "backoffRatio" when a request is dropped or takes longer than the timeout.
+ */
+public class AimdConcurrencyLimit extends AbstractConcurrencyLimit {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final long timeoutNanos;
+
+    public AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long timeoutMs) {
+        super(initialLimit, minLimit, maxLimit);
+        this.timeoutNanos = timeoutMs > 0 ? TimeUnit.MILLISECONDS.toNanos(timeoutMs) : Long.MAX_VALUE;
+    }
+
+    @Override
+    protected int update(int limit, long rttNanos, int inflight, boolean didDrop) {
+        if (didDrop || rttNanos > timeoutNanos) {
+            return Math.min(limit - 1, (int) (limit * BACKOFF_RATIO));
+        }
+
+        // Only grow if we are using the limit - otherwise limit grows without any evidence that it is safe
+        if (inflight * 2 >= limit) {
+            return limit + 1;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.devlibx.easy.resilience.limit;
+
+/**
+ * Gradient limit - compares the short term RTT (last request) with the long term RTT (moving average of many
+ * requests). If requests are getting slower, the gradient (long / short) falls below 1 and the limit shrinks in
+ * proportion:
+ * <pre>
+ * newLimit = limit x gradient + sqrt(limit)
+ * </pre>
+ * sqrt(limit) is the queue allowed on top of the limit, so the limit can grow while RTT is steady. "tolerance" allows
+ * the short RTT to be this much higher than long RTT before the limit is reduced. The limit is smoothed so that a
+ * single slow request does not cut it.
+ */
+public class Gradient2ConcurrencyLimit extends AbstractConcurrencyLimit {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int WARM_UP_SAMPLES = 10;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public Gradient2ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+        this.estimatedLimit = getLimit();
+    }
+
+    @Override
+    protected int update(int limit, long rttNanos, int inflight, boolean didDrop) {
+        if (rttNanos <= 0) {
+            return limit;
+        }
+        double shortRtt = rttNanos;
+
+        // Long RTT is a simple average during warm-up, and an exponential moving average after it
+        samples++;
+        if (samples <= WARM_UP_SAMPLES) {
+            longRttNanos = longRttNanos + (shortRtt - longRttNanos) / samples;
+        } else {
+            longRttNanos = longRttNanos + (shortRtt - longRttNanos) * 2 / (LONG_WINDOW + 1);
+        }
+
+        // Backend has recovered from a slow period - let long RTT come down quickly so the limit can grow again
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos = longRttNanos * 0.95;
+        }
+
+        // App limited - we do not know if a larger limit is safe
+        if (inflight < estimatedLimit / 2) {
+            return limit;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return (int) estimatedLimit;
+    }
+}
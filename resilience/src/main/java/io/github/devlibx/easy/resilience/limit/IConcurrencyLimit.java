@@ -0,0 +1,29 @@
+package io.github.devlibx.easy.resilience.limit;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Algorithm which computes the no of requests which can be in-flight, from the round trip time (RTT) of completed
+ * requests and the requests which were dropped (timed out).
+ */
+public interface IConcurrencyLimit {
+
+    /**
+     * @return current limit of in-flight requests
+     */
+    int getLimit();
+
+    /**
+     * Update limit from a completed request
+     *
+     * @param rttNanos time taken by the request
+     * @param inflight no of in-flight requests when this request was started
+     * @param didDrop  true if request was dropped (timed out)
+     */
+    void onSample(long rttNanos, int inflight, boolean didDrop);
+
+    /**
+     * Listener which is called with the new limit whenever the limit changes
+     */
+    void notifyOnChange(IntConsumer listener);
+}
@@ -0,0 +1,57 @@
+package io.github.devlibx.easy.resilience.limit;
+
+/**
+ * TCP Vegas style limit - estimates the queue at the backend from the lowest RTT seen (RTT without load) and the RTT
+ * of a request:
+ * <pre>
+ * queue = limit x (1 - rttNoLoad / rtt)
+ * </pre>
+ * Limit grows while the queue is small (less than alpha) and shrinks when it is large (more than beta), so latency
+ * increase is detected before requests start to time out. RTT without load is re-measured every "probeInterval"
+ * samples, in case the backend has become slower for good.
+ */
+public class VegasConcurrencyLimit extends AbstractConcurrencyLimit {
+    private static final int ALPHA_FACTOR = 3;
+    private static final int BETA_FACTOR = 6;
+    private static final int PROBE_INTERVAL = 1000;
+
+    private long rttNoLoadNanos;
+    private long samples;
+
+    public VegasConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    protected int update(int limit, long rttNanos, int inflight, boolean didDrop) {
+        if (++samples % PROBE_INTERVAL == 0) {
+            rttNoLoadNanos = 0;
+        }
+        double log = Math.max(1, Math.log10(limit));
+        if (didDrop) {
+            return (int) (limit - log);
+        }
+        if (rttNanos <= 0) {
+            return limit;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return limit;
+        }
+
+        // App limited - we do not know if a larger limit is safe
+        if (inflight * 2 < limit) {
+            return limit;
+        }
+
+        int queue = (int) Math.ceil(limit * (1 - (double) rttNoLoadNanos / rttNanos));
+        if (queue <= log) {
+            return (int) (limit + BETA_FACTOR * log);
+        } else if (queue < ALPHA_FACTOR * log) {
+            return (int) (limit + log);
+        } else if (queue > BETA_FACTOR * log) {
+            return (int) (limit - log);
+        }
+        return limit;
+    }
+}
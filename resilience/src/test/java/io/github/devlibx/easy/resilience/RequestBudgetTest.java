@@ -0,0 +1,36 @@
+package io.github.devlibx.easy.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestBudgetTest {
+
+    @Test
+    public void testBudgetIsPercentageOfRequests() {
+        RequestBudget budget = new RequestBudget(10, 0, 100);
+        assertFalse(budget.tryWithdraw());
+
+        // 10% of 100 requests = 10 extra requests
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertEquals(10, budget.available());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.tryWithdraw());
+        }
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testMinAndMaxTokens() {
+        RequestBudget budget = new RequestBudget(100, 2, 5);
+        assertEquals(2, budget.available());
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertEquals(5, budget.available());
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.devlibx.easy.resilience;
+
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.bulkhead.PriorityBulkhead;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResilienceConfigWatcherTest {
+
+    @Test
+    public void testUpdateResizesBulkheadWithoutDroppingCalls() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(1)
+                        .useSemaphore(true)
+                        .build()
+        );
+        PriorityBulkhead bulkhead = processor.getPriorityBulkhead();
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertFalse(bulkhead.tryAcquirePermission());
+
+        // Same bulkhead is resized - permit of in-flight call is still counted
+        ResilienceCallConfig config = ResilienceCallConfig.withDefaults()
+                .id(id)
+                .concurrency(2)
+                .timeout(500)
+                .useSemaphore(true)
+                .build();
+        assertTrue(resilienceManager.update(id, config));
+        assertSame(bulkhead, processor.getPriorityBulkhead());
+        assertEquals(500, processor.getConfig().getTimeout());
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertEquals(2, bulkhead.getInFlight());
+
+        assertFalse(resilienceManager.update(UUID.randomUUID().toString(), config));
+    }
+
+    @Test
+    public void testConfigFromFile() throws Exception {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(5)
+                        .timeout(1000)
+                        .build()
+        );
+
+        File file = File.createTempFile("resilience", ".yaml");
+        file.deleteOnExit();
+        Files.write(file.toPath(), (id + ":\n  concurrency: 7\n  timeout: 200\nunknown-api:\n  concurrency: 1\n").getBytes(StandardCharsets.UTF_8));
+
+        ResilienceConfigWatcher watcher = new ResilienceConfigWatcher(resilienceManager, file.getAbsolutePath(), 1000);
+        assertEquals(1, watcher.reload());
+        assertEquals(7, processor.getConfig().getConcurrency());
+        assertEquals(200, processor.getConfig().getTimeout());
+        assertEquals(7, processor.getThreadPoolBulkhead().getBulkheadConfig().getMaxThreadPoolSize());
+
+        // Fields which are not given keep their value
+        assertTrue(watcher.apply(id, Collections.singletonMap("queueSize", 10)));
+        assertEquals(10, processor.getConfig().getQueueSize());
+        assertEquals(7, processor.getConfig().getConcurrency());
+        assertEquals("ok", processor.execute(id, () -> "ok", String.class));
+    }
+
+    @Test
+    public void testWatchedFileIsAppliedWhenChanged() throws Exception {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(5)
+                        .useSemaphore(true)
+                        .build()
+        );
+
+        File file = File.createTempFile("resilience", ".yaml");
+        file.deleteOnExit();
+        Files.write(file.toPath(), (id + ":\n  concurrency: 7\n").getBytes(StandardCharsets.UTF_8));
+
+        ResilienceConfigWatcher watcher = new ResilienceConfigWatcher(resilienceManager, file.getAbsolutePath(), 20);
+        watcher.start();
+        try {
+            assertEquals(7, processor.getConfig().getConcurrency());
+
+            // Changed file is picked up by the watcher thread
+            Files.write(file.toPath(), (id + ":\n  concurrency: 9\n").getBytes(StandardCharsets.UTF_8));
+            assertTrue(file.setLastModified(file.lastModified() + 1000));
+            long end = System.currentTimeMillis() + 5000;
+            while (processor.getConfig().getConcurrency() != 9 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            assertEquals(9, processor.getConfig().getConcurrency());
+        } finally {
+            watcher.stop();
+        }
+    }
+}
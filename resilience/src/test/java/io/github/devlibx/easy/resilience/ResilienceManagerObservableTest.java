@@ -20,6 +20,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -231,4 +232,104 @@ public class ResilienceManagerObservableTest extends CommonBaseTestCase {
                 );
         assertTrue(gotException.get(), "We must have received an exception");
     }
-}
\ No newline at end of file
+
+    /**
+     * In non-blocking mode subscribe must return at once; overflow and timeout are still reported.
+     */
+    @Test
+    @DisplayName("Non-blocking mode never blocks the subscriber thread")
+    public void nonBlockingModeDoesNotBlockSubscriber() throws InterruptedException {
+        String uuid = UUID.randomUUID().toString();
+        IResilienceProcessor processor = resilienceManager.getOrCreate(
+                IResilienceManager.ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .timeout(1000)
+                        .concurrency(1)
+                        .queueSize(0)
+                        .nonBlocking(true)
+                        .build()
+        );
+
+        // Source completes after 300ms on a timer thread
+        Observable<Long> observable = Observable.timer(300, TimeUnit.MILLISECONDS).map(ignored -> 10L);
+
+        AtomicInteger successCalls = new AtomicInteger();
+        AtomicInteger overflowExceptionCalls = new AtomicInteger();
+        CountDownLatch waitForAllRequestToComplete = new CountDownLatch(2);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 2; i++) {
+            processor.executeObservable(uuid, observable, Long.class)
+                    .subscribe(
+                            aLong -> {
+                                successCalls.incrementAndGet();
+                                waitForAllRequestToComplete.countDown();
+                            },
+                            throwable -> {
+                                if (throwable instanceof OverflowException) {
+                                    overflowExceptionCalls.incrementAndGet();
+                                }
+                                waitForAllRequestToComplete.countDown();
+                            }
+                    );
+        }
+        assertTrue(System.currentTimeMillis() - start < 300, "subscribe must not block the caller");
+        assertTrue(waitForAllRequestToComplete.await(5, TimeUnit.SECONDS));
+        assertEquals(1, successCalls.get());
+        assertEquals(1, overflowExceptionCalls.get());
+
+        // Permit must be released after the first call - and a slow source must time out
+        AtomicBoolean gotTimeout = new AtomicBoolean();
+        processor.executeObservable(uuid, Observable.timer(2000, TimeUnit.MILLISECONDS), Long.class)
+                .blockingSubscribe(
+                        aLong -> fail("We should never get here"),
+                        throwable -> gotTimeout.set(throwable instanceof RequestTimeoutException)
+                );
+        assertTrue(gotTimeout.get(), "We must have received a RequestTimeoutException");
+    }
+
+    /**
+     * In non-blocking mode a call rejected by open circuit or full queue is not retried - retry of a rejected call only
+     * adds load to an api which is already over its limit
+     */
+    @Test
+    @DisplayName("Non-blocking mode does not retry open circuit or full queue")
+    public void nonBlockingModeDoesNotRetryRejectedCalls() throws InterruptedException {
+        String uuid = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                IResilienceManager.ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .timeout(1000)
+                        .concurrency(1)
+                        .queueSize(0)
+                        .retryCount(3)
+                        .waitRetryWaitDurationMs(1)
+                        .nonBlocking(true)
+                        .build()
+        );
+
+        // Queue is full while first call runs - second call is rejected once
+        CountDownLatch firstCallDone = new CountDownLatch(1);
+        processor.executeObservable(uuid, Observable.timer(300, TimeUnit.MILLISECONDS), Long.class)
+                .subscribe(aLong -> firstCallDone.countDown(), throwable -> firstCallDone.countDown());
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<Long> observable = Observable.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Observable.just(10L);
+        });
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        processor.executeObservable(uuid, observable, Long.class)
+                .blockingSubscribe(aLong -> fail("We should never get here"), error::set);
+        assertTrue(error.get() instanceof OverflowException, "error=" + error.get());
+        assertEquals(1, processor.getPriorityBulkhead().getQueueFullCount());
+        assertTrue(firstCallDone.await(5, TimeUnit.SECONDS));
+
+        // Circuit is open - call is not permitted once
+        processor.getCircuitBreaker().transitionToForcedOpenState();
+        error.set(null);
+        processor.executeObservable(uuid, observable, Long.class)
+                .blockingSubscribe(aLong -> fail("We should never get here"), error::set);
+        assertTrue(error.get() instanceof CircuitOpenException, "error=" + error.get());
+        assertEquals(1, processor.getCircuitBreaker().getMetrics().getNumberOfNotPermittedCalls());
+        assertEquals(0, subscriptions.get());
+    }
+}
@@ -153,6 +153,57 @@ public class ResilienceManagerTest extends CommonBaseTestCase {
         }
     }
 
+    /**
+     * Warm-up starts all threads of the bulkhead. A burst which comes when these threads are idle must still get
+     * concurrency + queueSize calls in.
+     */
+    @Test
+    public void testResilienceManager_Overflow_After_WarmUp() throws Exception {
+        int concurrency = 3;
+        int queueSize = 1;
+        int totalCallsToMake = 10;
+
+        String uuid = UUID.randomUUID().toString();
+        IResilienceProcessor processor = resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .concurrency(concurrency)
+                        .queueSize(queueSize)
+                        .build()
+        );
+        processor.warmUp();
+        Thread.sleep(100);
+
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger bulkheadFullError = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch allCallLatch = new CountDownLatch(totalCallsToMake);
+        for (int i = 0; i < totalCallsToMake; i++) {
+
+            // Virtual thread callers make the burst arrive before idle bulkhead threads get to run
+            Thread.ofVirtual().start(() -> {
+                try {
+                    startLatch.await();
+                    processor.execute(uuid, () -> {
+                        Thread.sleep(200);
+                        return UUID.randomUUID().toString();
+                    }, String.class);
+                    success.incrementAndGet();
+                } catch (OverflowException e) {
+                    bulkheadFullError.incrementAndGet();
+                } catch (Exception ignored) {
+                } finally {
+                    allCallLatch.countDown();
+                }
+            });
+        }
+        startLatch.countDown();
+        allCallLatch.await(15, TimeUnit.SECONDS);
+
+        assertEquals(concurrency + queueSize, success.get(), "We expect success for these requests");
+        assertEquals(totalCallsToMake - concurrency - queueSize, bulkheadFullError.get(), "We expect error for these requests");
+    }
+
     /**
      * Generate a timeout from execution
      */
@@ -421,6 +472,122 @@ public class ResilienceManagerTest extends CommonBaseTestCase {
 
     }
 
+    /**
+     * Timeouts and retries of all processors run on the shared scheduler - no of scheduler threads does not grow with
+     * no of processors
+     */
+    @Test
+    public void testResilienceManager_SharedScheduler() {
+        for (int i = 0; i < 50; i++) {
+            String uuid = UUID.randomUUID().toString();
+            IResilienceProcessor processor = resilienceManager.getOrCreate(
+                    ResilienceCallConfig.withDefaults()
+                            .concurrency(5)
+                            .id(uuid)
+                            .timeout(20)
+                            .retryCount(2)
+                            .waitRetryWaitDurationMs(1)
+                            .build()
+            );
+            try {
+                processor.execute(uuid, () -> {
+                    Thread.sleep(200);
+                    return 1L;
+                }, Long.class);
+                fail("Expected a RequestTimeoutException");
+            } catch (RequestTimeoutException ignored) {
+            }
+        }
+
+        long schedulerThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("easy-resilience-scheduler-"))
+                .count();
+        assertTrue(schedulerThreads > 0 && schedulerThreads <= ResilienceSchedulers.threadCount(), "schedulerThreads=" + schedulerThreads);
+    }
+
+    /**
+     * Semaphore mode runs the call on the caller thread - errors are reported same as in thread pool mode
+     */
+    @Test
+    public void testResilienceManager_Inline() {
+        String uuid = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .concurrency(2)
+                        .id(uuid)
+                        .useSemaphore(true)
+                        .build()
+        );
+        Thread caller = Thread.currentThread();
+        assertEquals(caller, processor.execute(uuid, Thread::currentThread, Thread.class));
+        assertEquals(0, processor.getPriorityBulkhead().getInFlight());
+
+        try {
+            processor.execute(uuid, () -> {
+                throw new CustomException();
+            }, Long.class);
+            fail("Expected a UnknownException");
+        } catch (UnknownException e) {
+            assertTrue(e.getCause() instanceof CustomException);
+        }
+
+        processor.getCircuitBreaker().transitionToOpenState();
+        try {
+            processor.execute(uuid, () -> 1L, Long.class);
+            fail("Expected a CircuitOpenException");
+        } catch (CircuitOpenException ignored) {
+        }
+        assertEquals(0, processor.getPriorityBulkhead().getInFlight());
+    }
+
+    /**
+     * Thread pool mode gives the RTT of every attempt to the adaptive limiter - backoff before a retry is not counted,
+     * so a call which only succeeds after a retry does not look slow
+     */
+    @Test
+    public void testResilienceManager_AdaptiveLimitSamplesEveryAttempt() {
+        String uuid = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .concurrency(2)
+                        .minConcurrency(1)
+                        .maxConcurrency(4)
+                        .limitAlgorithm("aimd")
+                        .timeout(200)
+                        .retryCount(2)
+                        .retryWaitDurationMs(400)
+                        .build()
+        );
+        AtomicInteger attempts = new AtomicInteger();
+        assertEquals(2, processor.execute(uuid, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new CustomException();
+            }
+            return attempts.get();
+        }, Integer.class));
+
+        // Whole call took longer than the timeout (aimd would back off), the successful attempt did not
+        assertEquals(3, processor.getConcurrencyLimiter().getLimit());
+        assertEquals(0, processor.getConcurrencyLimiter().getInflight());
+    }
+
     public static class CustomException extends RuntimeException {
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBuilderHasSameDefaultsAsConfig() {
+        ResilienceCallConfig defaults = new ResilienceCallConfig();
+        ResilienceCallConfig built = ResilienceCallConfig.builder().build();
+        assertEquals(defaults.getWaitDurationInOpenState(), built.getWaitDurationInOpenState());
+        assertEquals(defaults.getRetryWaitDurationMs(), built.getRetryWaitDurationMs());
+        assertEquals(defaults.getRetryRequestThreadPoolCount(), built.getRetryRequestThreadPoolCount());
+        assertEquals(defaults.isNonBlocking(), built.isNonBlocking());
+        assertEquals(defaults.getMinConcurrency(), built.getMinConcurrency());
+        assertEquals(defaults.getMaxQueueTimeMs(), built.getMaxQueueTimeMs());
+        assertEquals(defaults.getRetryBackoff(), built.getRetryBackoff());
+        assertEquals(defaults.getQueueDelayIntervalMs(), built.getQueueDelayIntervalMs());
+        assertEquals(10000, built.getWaitDurationInOpenState());
+        assertEquals(100, built.getQueueDelayIntervalMs());
+    }
+}
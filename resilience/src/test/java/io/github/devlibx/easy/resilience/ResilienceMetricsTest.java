@@ -0,0 +1,192 @@
+package io.github.devlibx.easy.resilience;
+
+import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.bulkhead.Priority;
+import io.github.devlibx.easy.metrics.prometheus.PrometheusMetrics;
+import io.github.devlibx.easy.resilience.bulkhead.PriorityBulkhead;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResilienceMetricsTest {
+
+    @Test
+    public void testCircuitBreakerAndBulkheadAreSampled() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        ResilienceManager resilienceManager = new ResilienceManager(metrics, 0);
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .queueSize(0)
+                        .useSemaphore(true)
+                        .build()
+        );
+
+        // One permit in use and one call rejected because there is no queue
+        PriorityBulkhead bulkhead = processor.getPriorityBulkhead();
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertTrue(bulkhead.tryAcquirePermission());
+        bulkhead.acquirePermission(Priority.NORMAL, error -> {
+        });
+        bulkhead.releasePermission();
+
+        processor.getCircuitBreaker().transitionToOpenState();
+        resilienceManager.getResilienceMetrics().sample();
+
+        assertEquals(1L, metrics.values.get("easy_resilience_circuit_breaker_state" + "|id|" + id));
+        assertEquals(1L, metrics.values.get("easy_resilience_bulkhead_in_flight" + "|id|" + id));
+        assertEquals(2L, metrics.values.get("easy_resilience_bulkhead_max_concurrent" + "|id|" + id));
+        assertEquals(1L, metrics.values.get("easy_resilience_bulkhead_rejected" + "|id|" + id + "|reason|queue_full"));
+        assertEquals(1L, metrics.values.get("easy_resilience_circuit_breaker_transition" + "|id|" + id + "|from|closed|to|open"));
+
+        // Rejections are not counted again in next sample
+        resilienceManager.getResilienceMetrics().sample();
+        assertEquals(1L, metrics.values.get("easy_resilience_bulkhead_rejected" + "|id|" + id + "|reason|queue_full"));
+    }
+
+    @Test
+    public void testCountersAndRatesAreExportedToPrometheus() {
+        PrometheusMetrics metrics = new PrometheusMetrics();
+        ResilienceManager resilienceManager = new ResilienceManager(metrics, 0);
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .queueSize(0)
+                        .useSemaphore(true)
+                        .build()
+        );
+
+        // Both permits in use and three calls rejected because there is no queue
+        PriorityBulkhead bulkhead = processor.getPriorityBulkhead();
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertTrue(bulkhead.tryAcquirePermission());
+        for (int i = 0; i < 3; i++) {
+            bulkhead.acquirePermission(Priority.NORMAL, error -> {
+            });
+        }
+        processor.getCircuitBreaker().transitionToOpenState();
+        resilienceManager.getResilienceMetrics().sample();
+
+        CollectorRegistry registry = metrics.getCollectorRegistry();
+        assertEquals(3.0, registry.getSampleValue("easy_resilience_bulkhead_rejected", new String[]{"id", "reason"}, new String[]{id, "queue_full"}));
+        assertEquals(1.0, registry.getSampleValue("easy_resilience_circuit_breaker_transition", new String[]{"id", "from", "to"}, new String[]{id, "closed", "open"}));
+
+        // Occupancy is 100% - it is in the 100% bucket, not in the millis buckets of a timer
+        assertEquals(0.0, registry.getSampleValue("easy_resilience_bulkhead_occupancy_bucket", new String[]{"id", "le"}, new String[]{id, "90.0"}));
+        assertEquals(1.0, registry.getSampleValue("easy_resilience_bulkhead_occupancy_bucket", new String[]{"id", "le"}, new String[]{id, "100.0"}));
+
+        // Only new rejections are added in next sample
+        bulkhead.acquirePermission(Priority.NORMAL, error -> {
+        });
+        resilienceManager.getResilienceMetrics().sample();
+        assertEquals(4.0, registry.getSampleValue("easy_resilience_bulkhead_rejected", new String[]{"id", "reason"}, new String[]{id, "queue_full"}));
+    }
+
+    @Test
+    public void testThreadPoolBulkheadInFlightCountsRunningCalls() throws Exception {
+        RecordingMetrics metrics = new RecordingMetrics();
+        ResilienceManager resilienceManager = new ResilienceManager(metrics, 0);
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(4)
+                        .queueSize(10)
+                        .timeout(5000)
+                        .build()
+        );
+
+        // All threads of a warmed pool are up, but the bulkhead is idle
+        processor.warmUp();
+        Thread.sleep(100);
+        resilienceManager.getResilienceMetrics().sample();
+        assertEquals(0L, metrics.values.get("easy_resilience_bulkhead_in_flight" + "|id|" + id));
+        assertEquals(4L, metrics.values.get("easy_resilience_bulkhead_max_concurrent" + "|id|" + id));
+        assertTrue(metrics.values.get("easy_resilience_bulkhead_occupancy" + "|id|" + id) < 100);
+
+        // One call running
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = new Thread(() -> processor.execute(id, () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }, Boolean.class));
+        caller.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        resilienceManager.getResilienceMetrics().sample();
+        assertEquals(1L, metrics.values.get("easy_resilience_bulkhead_in_flight" + "|id|" + id));
+        assertEquals(25L, metrics.values.get("easy_resilience_bulkhead_occupancy" + "|id|" + id));
+
+        release.countDown();
+        caller.join(5000);
+        resilienceManager.getResilienceMetrics().sample();
+        assertEquals(0L, metrics.values.get("easy_resilience_bulkhead_in_flight" + "|id|" + id));
+        assertEquals(0L, metrics.values.get("easy_resilience_bulkhead_occupancy" + "|id|" + id));
+    }
+
+    // Keeps last value of gauges and observations, and sum of counters - key is name and labels joined by "|"
+    private static class RecordingMetrics implements IMetrics {
+        private final Map<String, Long> values = new ConcurrentHashMap<>();
+        private final Map<String, Double> observed = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> T getRegistry(Class<T> cls) {
+            return null;
+        }
+
+        @Override
+        public void inc(String name, String... labels) {
+            inc(name, 1, labels);
+        }
+
+        @Override
+        public void inc(String name, long count, String... labels) {
+            values.merge(key(name, labels), count, Long::sum);
+        }
+
+        @Override
+        public void gauge(String aspect, long value, String... labelNames) {
+            values.put(key(aspect, labelNames), value);
+        }
+
+        @Override
+        public void observe(String name, double amt, String... labelNames) {
+            observed.put(key(name, labelNames), amt);
+        }
+
+        @Override
+        public <T> T time(String name, Callable<T> callable, String... labels) {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void registerCounter(String name, String help, String... labelNames) {
+        }
+
+        @Override
+        public void registerTimer(String name, String help, String... labelNames) {
+        }
+
+        private static String key(String name, String... labels) {
+            return labels.length == 0 ? name : name + "|" + String.join("|", labels);
+        }
+    }
+}
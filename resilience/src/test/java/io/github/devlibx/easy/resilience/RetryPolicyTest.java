@@ -0,0 +1,230 @@
+package io.github.devlibx.easy.resilience;
+
+import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
+import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+import io.github.devlibx.easy.resilience.exception.QueueTimeoutException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.IntervalFunction;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testFixedBackoff() {
+        IntervalFunction intervalFunction = RetryPolicy.intervalFunction(ResilienceCallConfig.withDefaults()
+                .id(UUID.randomUUID().toString())
+                .retryCount(3)
+                .waitRetryWaitDurationMs(50)
+                .build());
+        assertEquals(50, (long) intervalFunction.apply(1));
+        assertEquals(50, (long) intervalFunction.apply(3));
+    }
+
+    @Test
+    public void testExponentialBackoffWithJitter() {
+        IntervalFunction intervalFunction = RetryPolicy.intervalFunction(ResilienceCallConfig.withDefaults()
+                .id(UUID.randomUUID().toString())
+                .retryCount(10)
+                .waitRetryWaitDurationMs(100)
+                .retryBackoff(RetryPolicy.EXPONENTIAL)
+                .retryMaxWaitDurationMs(1000)
+                .build());
+        for (int i = 0; i < 1000; i++) {
+            long first = intervalFunction.apply(1);
+            assertTrue(first >= 1 && first <= 100, "first=" + first);
+            long third = intervalFunction.apply(3);
+            assertTrue(third >= 1 && third <= 400, "third=" + third);
+            long capped = intervalFunction.apply(40);
+            assertTrue(capped >= 1 && capped <= 1000, "capped=" + capped);
+        }
+    }
+
+    @Test
+    public void testRetryBudget() {
+        RetryPolicy retryPolicy = new RetryPolicy(ResilienceCallConfig.withDefaults()
+                .id(UUID.randomUUID().toString())
+                .retryCount(3)
+                .retryBudgetPercent(10)
+                .build());
+
+        // Budget starts with 10 tokens
+        for (int i = 0; i < 10; i++) {
+            assertTrue(retryPolicy.shouldRetry(new IOException()));
+        }
+        assertFalse(retryPolicy.shouldRetry(new IOException()));
+        assertEquals(1, retryPolicy.getBudgetExhaustedCount());
+
+        // 10% of 10 successful calls = 1 retry
+        for (int i = 0; i < 10; i++) {
+            retryPolicy.record("ok", null);
+        }
+        retryPolicy.record(null, new IOException());
+        assertEquals(1, retryPolicy.getAvailableRetries());
+        assertTrue(retryPolicy.shouldRetry(new IOException()));
+        assertFalse(retryPolicy.shouldRetry(new IOException()));
+    }
+
+    @Test
+    public void testRetryClassification() {
+        RetryPolicy retryPolicy = new RetryPolicy(ResilienceCallConfig.withDefaults()
+                .id(UUID.randomUUID().toString())
+                .retryCount(3)
+                .retryExceptions(Collections.singletonList("java.io.IOException"))
+                .ignoreRetryExceptions(Collections.singletonList("SocketTimeoutException"))
+                .build());
+        assertEquals(-1, retryPolicy.getAvailableRetries());
+
+        // Sub-class of retry exception is retried, also when it is wrapped by a future
+        assertTrue(retryPolicy.shouldRetry(new IOException()));
+        assertTrue(retryPolicy.shouldRetry(new CompletionException(new ConnectException())));
+        assertFalse(retryPolicy.shouldRetry(new TimeoutException()));
+        assertFalse(retryPolicy.shouldRetry(new SocketTimeoutException()));
+
+        // Circuit open and errors which can be ignored are never retried
+        CallNotPermittedException circuitOpen = CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"));
+        assertFalse(retryPolicy.shouldRetry(circuitOpen));
+        assertFalse(retryPolicy.shouldRetry(new IgnorableIOException()));
+
+        // Rejected calls are never retried - a retry only adds load to an api which is over its limit
+        assertFalse(retryPolicy.shouldRetry(new QueueFullException("full")));
+        assertFalse(retryPolicy.shouldRetry(new QueueTimeoutException("timeout")));
+        assertFalse(retryPolicy.shouldRetry(new OverflowException("limit", null)));
+    }
+
+    @Test
+    public void testLastAttemptDoesNotTakeRetryBudget() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .timeout(1000)
+                        .retryCount(3)
+                        .waitRetryWaitDurationMs(1)
+                        .retryBudgetPercent(10)
+                        .build()
+        );
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            processor.execute(id, () -> {
+                attempts.incrementAndGet();
+                throw new IOException("failed");
+            }, String.class);
+        } catch (Exception ignored) {
+        }
+
+        // 3 attempts = 2 retries, budget starts with 10 tokens
+        assertEquals(3, attempts.get());
+        assertEquals(8, processor.getRetryPolicy().getAvailableRetries());
+    }
+
+    @Test
+    public void testNonBlockingRetryUsesRetryPolicy() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .timeout(1000)
+                        .retryCount(3)
+                        .waitRetryWaitDurationMs(1)
+                        .retryBudgetPercent(10)
+                        .nonBlocking(true)
+                        .build()
+        );
+
+        // Failed call - 2 retries take 2 tokens, last attempt does not take a token
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(Exception.class, () -> processor.executeObservable(id, Observable.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new IOException("failed");
+        }), String.class).blockingFirst());
+        assertEquals(3, attempts.get());
+        assertEquals(8, processor.getRetryPolicy().getAvailableRetries());
+
+        // 10% of 10 successful calls = 1 token
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ok", processor.executeObservable(id, Observable.just("ok"), String.class).blockingFirst());
+        }
+        assertEquals(9, processor.getRetryPolicy().getAvailableRetries());
+    }
+
+    @Test
+    public void testRetryWithProcessor() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .timeout(1000)
+                        .retryCount(3)
+                        .waitRetryWaitDurationMs(10)
+                        .retryBackoff(RetryPolicy.EXPONENTIAL)
+                        .build()
+        );
+        int[] attempts = new int[1];
+        String result = processor.execute(id, () -> {
+            if (++attempts[0] < 3) {
+                throw new IOException("failed");
+            }
+            return "ok";
+        }, String.class);
+        assertEquals("ok", result);
+        assertEquals(3, attempts[0]);
+    }
+
+    @Test
+    public void testQueueTimeIsRecordedForEveryRetry() {
+        ResilienceManager resilienceManager = new ResilienceManager();
+        String id = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(id)
+                        .concurrency(2)
+                        .timeout(1000)
+                        .retryCount(3)
+                        .waitRetryWaitDurationMs(10)
+                        .build()
+        );
+        AtomicInteger recorded = new AtomicInteger();
+        processor.getControlledDelay().setObserver(nanos -> recorded.incrementAndGet());
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = processor.executeObservable(id, Observable.fromCallable(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("failed");
+            }
+            return "ok";
+        }), String.class).blockingFirst();
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(3, recorded.get());
+    }
+
+    private static class IgnorableIOException extends IOException implements IgnorableException {
+        @Override
+        public boolean canIgnoreException() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.devlibx.easy.resilience.bulkhead;
+
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ControlledDelayTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testOverloadedWhenMinQueueTimeStaysOverTarget() throws Exception {
+        ControlledDelay controlledDelay = new ControlledDelay(5, 50);
+        controlledDelay.record(20 * MS);
+        controlledDelay.record(30 * MS);
+        assertFalse(controlledDelay.isOverloaded());
+
+        // Interval is over - even the fastest call waited over target
+        Thread.sleep(60);
+        assertTrue(controlledDelay.isOverloaded());
+
+        // A call which did not wait ends the overload in the next interval
+        controlledDelay.record(0);
+        Thread.sleep(60);
+        assertFalse(controlledDelay.isOverloaded());
+    }
+
+    @Test
+    public void testShortBurstIsNotOverload() throws Exception {
+        ControlledDelay controlledDelay = new ControlledDelay(5, 50);
+        controlledDelay.record(40 * MS);
+        controlledDelay.record(MS);
+        Thread.sleep(60);
+        assertFalse(controlledDelay.isOverloaded());
+
+        // No target - never overloaded
+        controlledDelay.configure(0, 50);
+        controlledDelay.record(40 * MS);
+        Thread.sleep(60);
+        assertFalse(controlledDelay.isOverloaded());
+    }
+
+    @Test
+    public void testBulkheadRejectsRightAwayWhenOverloaded() throws Exception {
+        ControlledDelay controlledDelay = new ControlledDelay(5, 50);
+        List<Long> queueTimes = new CopyOnWriteArrayList<>();
+        controlledDelay.setObserver(queueTimes::add);
+        PriorityBulkhead bulkhead = new PriorityBulkhead("test", 1, 10, 10000, controlledDelay);
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        // Waiting call gets the permit after 30ms
+        List<RuntimeException> results = new CopyOnWriteArrayList<>();
+        bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        Thread.sleep(30);
+        bulkhead.releasePermission();
+        assertEquals(1, results.size());
+        assertNull(results.get(0));
+        assertTrue(queueTimes.get(0) >= 30 * MS);
+
+        // Queue was over target for the whole interval - next call which would wait is rejected without waiting
+        Thread.sleep(60);
+        bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        assertEquals(2, results.size());
+        assertTrue(results.get(1) instanceof QueueFullException);
+        assertEquals(0, bulkhead.getQueueDepth());
+        assertEquals(1, controlledDelay.getRejectedCount());
+        assertEquals(0, bulkhead.getQueueFullCount());
+
+        // Free permit is still given - call has no queue time
+        bulkhead.releasePermission();
+        bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        assertEquals(3, results.size());
+        assertNull(results.get(2));
+        assertEquals(0, (long) queueTimes.get(1));
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.devlibx.easy.resilience.bulkhead;
+
+import io.github.devlibx.easy.resilience.exception.QueueFullException;
+import io.github.devlibx.easy.resilience.exception.QueueTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityBulkheadTest {
+
+    @Test
+    public void testQueueFull() {
+        PriorityBulkhead bulkhead = new PriorityBulkhead("test", 1, 1, 10000);
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        List<RuntimeException> results = new CopyOnWriteArrayList<>();
+        bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0) instanceof QueueFullException);
+        assertEquals(1, bulkhead.getQueueDepth());
+        assertEquals(1, bulkhead.getQueueFullCount());
+
+        // Released permit goes to the waiting call
+        bulkhead.releasePermission();
+        assertEquals(2, results.size());
+        assertNull(results.get(1));
+        assertEquals(1, bulkhead.getInFlight());
+        assertEquals(0, bulkhead.getQueueDepth());
+    }
+
+    @Test
+    public void testQueueTimeout() throws Exception {
+        PriorityBulkhead bulkhead = new PriorityBulkhead("test", 1, 10, 50);
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        CompletableFuture<RuntimeException> result = new CompletableFuture<>();
+        bulkhead.acquirePermission(Priority.NORMAL, result::complete);
+        assertTrue(result.get(5, TimeUnit.SECONDS) instanceof QueueTimeoutException);
+        assertEquals(1, bulkhead.getQueueTimeoutCount());
+        assertEquals(0, bulkhead.getQueueDepth());
+
+        // Blocking acquire also times out
+        assertThrows(QueueTimeoutException.class, () -> bulkhead.acquirePermission(Priority.HIGH));
+
+        // Permit is free again - nobody is waiting for it
+        bulkhead.releasePermission();
+        assertEquals(0, bulkhead.getInFlight());
+        assertTrue(bulkhead.tryAcquirePermission());
+    }
+
+    @Test
+    public void testHighPriorityIsServedFirst() {
+        PriorityBulkhead bulkhead = new PriorityBulkhead("test", 1, 10, 10000);
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        List<Priority> granted = new CopyOnWriteArrayList<>();
+        bulkhead.acquirePermission(Priority.LOW, error -> granted.add(Priority.LOW));
+        bulkhead.acquirePermission(Priority.NORMAL, error -> granted.add(Priority.NORMAL));
+        bulkhead.acquirePermission(Priority.HIGH, error -> granted.add(Priority.HIGH));
+
+        // New call does not take a permit ahead of waiting calls
+        bulkhead.releasePermission();
+        assertFalse(bulkhead.tryAcquirePermission());
+
+        bulkhead.releasePermission();
+        bulkhead.releasePermission();
+        assertEquals(3, granted.size());
+        assertEquals(Priority.HIGH, granted.get(0));
+        assertEquals(Priority.NORMAL, granted.get(1));
+        assertEquals(Priority.LOW, granted.get(2));
+    }
+
+    @Test
+    public void testCancelledWaiterDoesNotTakePermit() {
+        PriorityBulkhead bulkhead = new PriorityBulkhead("test", 1, 10, 10000);
+        assertTrue(bulkhead.tryAcquirePermission());
+
+        List<RuntimeException> results = new CopyOnWriteArrayList<>();
+        PriorityBulkhead.Ticket ticket = bulkhead.acquirePermission(Priority.NORMAL, results::add);
+        assertTrue(ticket.cancel());
+        assertFalse(ticket.cancel());
+
+        bulkhead.releasePermission();
+        assertTrue(results.isEmpty());
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(0, bulkhead.getQueueDepth());
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.devlibx.easy.resilience.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testFixedHasNoLimiter() {
+        assertNull(AdaptiveConcurrencyLimiter.create("fixed", 10, 1, 10, 100));
+        assertNull(AdaptiveConcurrencyLimiter.create(null, 10, 1, 10, 100));
+    }
+
+    @Test
+    public void testRejectOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create("aimd", 2, 1, 2, 100);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.onIgnore();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInflight());
+    }
+
+    @Test
+    public void testAimdGrowsAndBacksOffOnTimeout() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create("aimd", 10, 1, 100, 100);
+        List<Integer> changes = new ArrayList<>();
+        limiter.getConcurrencyLimit().notifyOnChange(changes::add);
+
+        // Limit in use + success = grow
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        limiter.onComplete(System.nanoTime(), null);
+        assertEquals(11, limiter.getLimit());
+
+        // Timeout = cut by 10%
+        limiter.onComplete(System.nanoTime(), new TimeoutException());
+        assertEquals(9, limiter.getLimit());
+        assertEquals(2, changes.size());
+
+        // Other errors do not change the limit
+        limiter.onComplete(System.nanoTime(), new RuntimeException());
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    public void testAimdDoesNotGrowWhenLimitIsNotUsed() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(10, 1, 100, 100);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void testVegasShrinksWhenLatencyGoesUp() {
+        VegasConcurrencyLimit limit = new VegasConcurrencyLimit(20, 1, 100);
+
+        // Latency without load = 10ms, and limit grows while latency stays there
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 20);
+
+        // Latency goes up 4x - queue is building at the backend
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(40), limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < grown);
+    }
+
+    @Test
+    public void testGradientShrinksWhenLatencyGoesUp() {
+        Gradient2ConcurrencyLimit limit = new Gradient2ConcurrencyLimit(50, 1, 100);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit(), false);
+        }
+        int steady = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < steady, "limit=" + limit.getLimit() + " steady=" + steady);
+    }
+
+    @Test
+    public void testLimitStaysWithinMinAndMax() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(5, 2, 6, 100);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), limit.getLimit(), false);
+        }
+        assertEquals(6, limit.getLimit());
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), limit.getLimit(), true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+}